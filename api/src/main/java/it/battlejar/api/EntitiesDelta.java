@@ -0,0 +1,54 @@
+package it.battlejar.api;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Represents the change of the entity set since a previous frame.
+ * Deltas form a chain: a delta applies only on top of the frame with sequence number {@code baseSequence}.
+ * A keyframe ({@code baseSequence == KEYFRAME}) carries the full entity set in {@code spawned} and starts a new chain.
+ * Clients that miss a frame discard deltas until the next keyframe and ask for one with {@link Resync}.
+ *
+ * @param sequence     The sequence number of this frame.
+ * @param baseSequence The sequence number of the frame this delta applies to, or {@link #KEYFRAME}.
+ * @param timeStamp    The timestamp when the entities were captured.
+ * @param state        The current game state.
+ * @param spawned      Entities that appeared since the base frame (all entities in a keyframe).
+ * @param changed      Entities whose fields changed since the base frame.
+ * @param removed      IDs of entities that disappeared since the base frame.
+ */
+public record EntitiesDelta(long sequence, long baseSequence, Instant timeStamp, String state,
+                            Collection<Entity> spawned, Collection<Entity> changed,
+                            Collection<String> removed) implements WebSocketMessage {
+
+    /**
+     * Base sequence number marking a keyframe.
+     */
+    public static final long KEYFRAME = -1;
+
+    /**
+     * Creates a keyframe carrying the full entity set.
+     *
+     * @param sequence  The sequence number of the frame.
+     * @param timeStamp The timestamp when the entities were captured.
+     * @param entities  All entities.
+     * @param state     The game state.
+     * @return A new keyframe.
+     */
+    public static EntitiesDelta keyframe(long sequence, Instant timeStamp, Collection<Entity> entities, String state) {
+        return new EntitiesDelta(sequence, KEYFRAME, timeStamp, state, entities, List.of(), List.of());
+    }
+
+    /**
+     * Checks whether this frame is a keyframe.
+     *
+     * @return true if the frame carries the full entity set
+     */
+    @JsonIgnore
+    public boolean isKeyframe() {
+        return baseSequence == KEYFRAME;
+    }
+}
@@ -0,0 +1,463 @@
+package it.battlejar.api;
+
+import it.battlejar.api.Entity.Type;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Struct-of-arrays representation of an entities frame, for cache-friendly numeric loops:
+ * <pre>
+ * float[] px = frame.px(), py = frame.py();
+ * for (int i = 0; i &lt; frame.size(); i++) {
+ *     float dx = px[i] - x, dy = py[i] - y;
+ *     ...
+ * }
+ * </pre>
+ * Enumerated fields are stored as byte codes: types as {@link Type} ordinals, colours as {@link Color} ordinals
+ * ({@link #NO_COLOR} for null or {@code "null"}), shots as {@link #NO_SHOT}, {@link #SHOT_MISSED} or {@link #SHOT_HIT}
+ * and statuses as indexes into a dictionary that stays stable when the frame is cleared and refilled.
+ * The arrays grow as needed, so the accessors must be called again after adding entities;
+ * only the first {@link #size()} elements are valid.
+ * {@link #entities()} offers a compatible {@link Entity} view.
+ * Not thread-safe.
+ */
+public final class EntityFrame {
+
+    /**
+     * Colour code of an entity without colour.
+     */
+    public static final byte NO_COLOR = -1;
+    /**
+     * Shot code of an entity that is not shooting; the text format writes it as {@code "null"}.
+     */
+    public static final byte NO_SHOT = 0;
+    /**
+     * Shot code for {@code "false"}.
+     */
+    public static final byte SHOT_MISSED = 1;
+    /**
+     * Shot code for {@code "true"}.
+     */
+    public static final byte SHOT_HIT = 2;
+    /**
+     * Status code of an entity without status.
+     */
+    public static final byte NO_STATUS = -1;
+
+    private static final Type[] TYPES = Type.values();
+    private static final Color[] COLORS = Color.values();
+    private static final int MAX_STATUSES = Byte.MAX_VALUE + 1;
+
+    private Instant timeStamp;
+    private String state;
+    private int size;
+    private String[] ids;
+    private byte[] types;
+    private byte[] colors;
+    private float[] px;
+    private float[] py;
+    private float[] vx;
+    private float[] vy;
+    private byte[] shots;
+    private float[] sx;
+    private float[] sy;
+    private int[] missiles;
+    private byte[] statuses;
+    private String[] statusDictionary = new String[8];
+    private int statusCount;
+    private int skipped;
+
+    /**
+     * Creates an empty frame.
+     *
+     * @param capacity the initial number of entities the frame can hold without growing
+     */
+    public EntityFrame(int capacity) {
+        allocate(Math.max(capacity, 1));
+    }
+
+    /**
+     * Creates a frame holding the given entities.
+     *
+     * @param entities the entities to copy
+     * @return a new frame
+     */
+    public static EntityFrame of(Entities entities) {
+        EntityFrame frame = new EntityFrame(entities.entities() == null ? 0 : entities.entities().size());
+        frame.header(entities.timeStamp(), entities.state());
+        if (entities.entities() != null) {
+            for (Entity entity : entities.entities()) {
+                if (entity != null) {
+                    frame.add(entity);
+                } else {
+                    frame.skip();
+                }
+            }
+        }
+        return frame;
+    }
+
+    /**
+     * Removes all entities and the header, keeping the allocated arrays and the status dictionary.
+     */
+    public void clear() {
+        Arrays.fill(ids, 0, size, null);
+        size = 0;
+        skipped = 0;
+        timeStamp = null;
+        state = null;
+    }
+
+    /**
+     * Records an entry of the source frame that could not be added, being null or malformed,
+     * so that the loss shows in {@link #skipped()} rather than going unnoticed.
+     */
+    public void skip() {
+        skipped++;
+    }
+
+    /**
+     * @return the number of entries skipped since the frame was last cleared
+     */
+    public int skipped() {
+        return skipped;
+    }
+
+    /**
+     * Sets the frame header.
+     *
+     * @param timeStamp the timestamp when the entities were captured
+     * @param state     the game state
+     */
+    public void header(Instant timeStamp, String state) {
+        this.timeStamp = timeStamp;
+        this.state = state;
+    }
+
+    /**
+     * Appends an entity.
+     *
+     * @param entity the entity to append
+     * @return the index of the entity
+     * @throws IllegalArgumentException if the colour or shot value has no code
+     */
+    public int add(Entity entity) {
+        return add(entity.id(), entity.type(), entity.color(), entity.px(), entity.py(), entity.vx(), entity.vy(),
+            entity.shot(), entity.sx(), entity.sy(), entity.missiles(), entity.status());
+    }
+
+    /**
+     * Appends an entity given by its fields.
+     *
+     * @return the index of the entity
+     * @throws IllegalArgumentException if the colour or shot value has no code
+     * @see Entity
+     */
+    public int add(String id, Type type, String color, float px, float py, float vx, float vy,
+                   String shot, float sx, float sy, int missiles, String status) {
+        if (size == ids.length) {
+            grow();
+        }
+        int i = size;
+        ids[i] = id;
+        types[i] = (byte) type.ordinal();
+        colors[i] = colorCode(color);
+        this.px[i] = px;
+        this.py[i] = py;
+        this.vx[i] = vx;
+        this.vy[i] = vy;
+        shots[i] = shotCode(shot);
+        this.sx[i] = sx;
+        this.sy[i] = sy;
+        this.missiles[i] = missiles;
+        statuses[i] = statusCode(status, true);
+        size++;
+        return i;
+    }
+
+    /**
+     * Returns the code of a status in this frame's dictionary, for comparisons against {@link #statuses()}.
+     *
+     * @param status the status
+     * @return the code, or {@link #NO_STATUS} if no entity had that status yet
+     */
+    public byte statusCode(String status) {
+        return statusCode(status, false);
+    }
+
+    /**
+     * Returns the status with the given code.
+     *
+     * @param code the code
+     * @return the status, or null for {@link #NO_STATUS}
+     */
+    public String status(byte code) {
+        return code == NO_STATUS ? null : statusDictionary[code];
+    }
+
+    /**
+     * Returns the type with the given code.
+     *
+     * @param code the code
+     * @return the type
+     */
+    public static Type type(byte code) {
+        return TYPES[code];
+    }
+
+    /**
+     * Returns the colour name with the given code.
+     *
+     * @param code the code
+     * @return the colour name, or null for {@link #NO_COLOR}
+     */
+    public static String color(byte code) {
+        return code == NO_COLOR ? null : COLORS[code].name();
+    }
+
+    /**
+     * Returns the shot value with the given code.
+     *
+     * @param code the code
+     * @return "false", "true", or null for {@link #NO_SHOT}
+     */
+    public static String shot(byte code) {
+        return switch (code) {
+            case NO_SHOT -> null;
+            case SHOT_MISSED -> "false";
+            case SHOT_HIT -> "true";
+            default -> throw new IllegalArgumentException("Unknown shot code: " + code);
+        };
+    }
+
+    /**
+     * Creates an {@link Entity} from the values at an index.
+     *
+     * @param index the index of the entity
+     * @return a new entity
+     */
+    public Entity entity(int index) {
+        Objects.checkIndex(index, size);
+        return new Entity(ids[index], TYPES[types[index]], color(colors[index]), px[index], py[index], vx[index], vy[index],
+            shot(shots[index]), sx[index], sy[index], missiles[index], status(statuses[index]));
+    }
+
+    /**
+     * Returns a read-only view of the frame as entities, created on access.
+     * The view reflects later changes to the frame.
+     *
+     * @return the entity view
+     */
+    public List<Entity> entities() {
+        return new AbstractList<>() {
+            @Override
+            public Entity get(int index) {
+                return entity(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Copies the frame into an {@link Entities} message.
+     *
+     * @return a new Entities instance
+     */
+    public Entities toEntities() {
+        return new Entities(timeStamp, new ArrayList<>(entities()), state);
+    }
+
+    /**
+     * @return the number of entities in the frame
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the timestamp when the entities were captured
+     */
+    public Instant timeStamp() {
+        return timeStamp;
+    }
+
+    /**
+     * @return the game state
+     */
+    public String state() {
+        return state;
+    }
+
+    /**
+     * @return the entity IDs
+     */
+    public String[] ids() {
+        return ids;
+    }
+
+    /**
+     * @return the entity type codes
+     */
+    public byte[] types() {
+        return types;
+    }
+
+    /**
+     * @return the entity colour codes
+     */
+    public byte[] colors() {
+        return colors;
+    }
+
+    /**
+     * @return the x-coordinates of the positions
+     */
+    public float[] px() {
+        return px;
+    }
+
+    /**
+     * @return the y-coordinates of the positions
+     */
+    public float[] py() {
+        return py;
+    }
+
+    /**
+     * @return the x-components of the velocities
+     */
+    public float[] vx() {
+        return vx;
+    }
+
+    /**
+     * @return the y-components of the velocities
+     */
+    public float[] vy() {
+        return vy;
+    }
+
+    /**
+     * @return the shot codes
+     */
+    public byte[] shots() {
+        return shots;
+    }
+
+    /**
+     * @return the x-coordinates of the shot targets
+     */
+    public float[] sx() {
+        return sx;
+    }
+
+    /**
+     * @return the y-coordinates of the shot targets
+     */
+    public float[] sy() {
+        return sy;
+    }
+
+    /**
+     * @return the numbers of missiles
+     */
+    public int[] missiles() {
+        return missiles;
+    }
+
+    /**
+     * @return the status codes
+     */
+    public byte[] statuses() {
+        return statuses;
+    }
+
+    // "null" is what the text format produces for a missing colour, as for shots
+    private static byte colorCode(String color) {
+        if (color == null || color.equals("null")) {
+            return NO_COLOR;
+        }
+        for (Color candidate : COLORS) {
+            if (candidate.name().equals(color)) {
+                return (byte) candidate.ordinal();
+            }
+        }
+        throw new IllegalArgumentException("Unknown colour: " + color);
+    }
+
+    // "null" is what the text format produces for a missing shot
+    private static byte shotCode(String shot) {
+        if (shot == null) {
+            return NO_SHOT;
+        }
+        return switch (shot) {
+            case "null" -> NO_SHOT;
+            case "false" -> SHOT_MISSED;
+            case "true" -> SHOT_HIT;
+            default -> throw new IllegalArgumentException("Unsupported shot value: " + shot);
+        };
+    }
+
+    private byte statusCode(String status, boolean register) {
+        if (status == null) {
+            return NO_STATUS;
+        }
+        for (int i = 0; i < statusCount; i++) {
+            String candidate = statusDictionary[i];
+            if (candidate == status || candidate.equals(status)) {
+                return (byte) i;
+            }
+        }
+        if (!register) {
+            return NO_STATUS;
+        }
+        if (statusCount == MAX_STATUSES) {
+            throw new IllegalStateException("Too many distinct statuses: " + MAX_STATUSES);
+        }
+        if (statusCount == statusDictionary.length) {
+            statusDictionary = Arrays.copyOf(statusDictionary, statusCount * 2);
+        }
+        statusDictionary[statusCount] = status;
+        return (byte) statusCount++;
+    }
+
+    private void allocate(int capacity) {
+        ids = new String[capacity];
+        types = new byte[capacity];
+        colors = new byte[capacity];
+        px = new float[capacity];
+        py = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        shots = new byte[capacity];
+        sx = new float[capacity];
+        sy = new float[capacity];
+        missiles = new int[capacity];
+        statuses = new byte[capacity];
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        types = Arrays.copyOf(types, capacity);
+        colors = Arrays.copyOf(colors, capacity);
+        px = Arrays.copyOf(px, capacity);
+        py = Arrays.copyOf(py, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        shots = Arrays.copyOf(shots, capacity);
+        sx = Arrays.copyOf(sx, capacity);
+        sy = Arrays.copyOf(sy, capacity);
+        missiles = Arrays.copyOf(missiles, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+    }
+}
@@ -0,0 +1,12 @@
+package it.battlejar.api;
+
+import java.util.Collection;
+
+/**
+ * Represents a batch of orders sent as a single message, typically all orders issued during one update.
+ * The server handles them as if they had been sent one by one, in the same sequence.
+ *
+ * @param orders The orders in the sequence they were issued.
+ */
+public record Orders(Collection<Order> orders) implements WebSocketMessage {
+}
@@ -0,0 +1,9 @@
+package it.battlejar.api;
+
+/**
+ * Request sent by a client that cannot apply an {@link EntitiesDelta}, asking the server for a keyframe.
+ *
+ * @param lastSequence The sequence number of the last frame the client applied, or {@link EntitiesDelta#KEYFRAME} if none.
+ */
+public record Resync(long lastSequence) implements WebSocketMessage {
+}
@@ -12,9 +12,12 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
     property = "type")
 @JsonSubTypes({
     @JsonSubTypes.Type(value = Order.class, name = "order"),
+    @JsonSubTypes.Type(value = Orders.class, name = "orders"),
     @JsonSubTypes.Type(value = Entities.class, name = "entities"),
     @JsonSubTypes.Type(value = Ping.class, name = "ping"),
     @JsonSubTypes.Type(value = Pong.class, name = "pong"),
+    @JsonSubTypes.Type(value = EntitiesDelta.class, name = "delta"),
+    @JsonSubTypes.Type(value = Resync.class, name = "resync"),
 })
-public sealed interface WebSocketMessage permits Entities, Order, Ping, Pong {
+public sealed interface WebSocketMessage permits Entities, EntitiesDelta, Order, Orders, Ping, Pong, Resync {
 }
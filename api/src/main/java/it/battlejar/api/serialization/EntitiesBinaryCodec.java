@@ -0,0 +1,301 @@
+package it.battlejar.api.serialization;
+
+import it.battlejar.api.Color;
+import it.battlejar.api.Entities;
+import it.battlejar.api.Entity;
+import it.battlejar.api.Entity.Type;
+import it.battlejar.api.EntityFrame;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary codec for {@link Entities} frames.
+ * All numbers are little-endian. A frame is laid out as:
+ * <pre>
+ * byte   magic ('E')
+ * byte   version
+ * long   timestamp seconds
+ * int    timestamp nanoseconds
+ * string state
+ * int    entity count
+ * entity[count]:
+ *   string id
+ *   byte   type (0 fighter, 1 carrier, 2 missile)
+ *   byte   colour ({@link Color} ordinal, -1 for null)
+ *   float  px, py, vx, vy
+ *   byte   shot (0 null, 1 "false", 2 "true")
+ *   float  sx, sy
+ *   int    missiles
+ *   string status
+ * </pre>
+ * Strings are UTF-8 prefixed with an unsigned 16-bit byte length; {@code 0xFFFF} encodes null.
+ */
+public final class EntitiesBinaryCodec {
+
+    /**
+     * First byte of every binary entities frame.
+     */
+    public static final byte MAGIC = 'E';
+    /**
+     * Current format version.
+     */
+    public static final byte VERSION = 1;
+
+    private static final int HEADER_SIZE = 1 + 1 + 8 + 4 + 4;
+    private static final int FIXED_ENTITY_SIZE = 1 + 1 + 4 * 4 + 1 + 2 * 4 + 4;
+    private static final int NULL_LENGTH = 0xFFFF;
+    private static final int MAX_LENGTH = 0xFFFE;
+    private static final Type[] TYPES = {Type.FIGHTER, Type.CARRIER, Type.MISSILE};
+    private static final Color[] COLORS = Color.values();
+
+    private EntitiesBinaryCodec() {
+    }
+
+    /**
+     * Checks whether the buffer starts with a binary entities frame, without consuming it.
+     *
+     * @param source the buffer to inspect
+     * @return true if the remaining bytes start with the frame magic
+     */
+    public static boolean isEntitiesFrame(ByteBuffer source) {
+        return source.remaining() > 1 && source.get(source.position()) == MAGIC;
+    }
+
+    /**
+     * Computes the exact number of bytes needed to encode the frame.
+     *
+     * @param entities the frame to encode
+     * @return the encoded size in bytes
+     */
+    public static int encodedSize(Entities entities) {
+        int size = HEADER_SIZE + 2 + stringLength(entities.state());
+        for (Entity entity : entities.entities()) {
+            size += FIXED_ENTITY_SIZE + 2 + stringLength(entity.id()) + 2 + stringLength(entity.status());
+        }
+        return size;
+    }
+
+    /**
+     * Encodes the frame into a new heap buffer, ready to be read.
+     *
+     * @param entities the frame to encode
+     * @return the encoded frame, flipped
+     */
+    public static ByteBuffer encode(Entities entities) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(entities));
+        encode(entities, buffer);
+        return buffer.flip();
+    }
+
+    /**
+     * Encodes the frame at the position of the target buffer.
+     * The byte order of the target is left unchanged.
+     *
+     * @param entities the frame to encode
+     * @param target   the buffer to write to
+     * @throws IllegalArgumentException         if an entity colour or shot value cannot be encoded
+     * @throws java.nio.BufferOverflowException if the buffer has not enough space remaining
+     */
+    public static void encode(Entities entities, ByteBuffer target) {
+        ByteOrder order = target.order();
+        target.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            Instant timeStamp = entities.timeStamp() != null ? entities.timeStamp() : Instant.EPOCH;
+            target.put(MAGIC).put(VERSION).putLong(timeStamp.getEpochSecond()).putInt(timeStamp.getNano());
+            putString(target, entities.state());
+            target.putInt(entities.entities().size());
+            for (Entity entity : entities.entities()) {
+                putString(target, entity.id());
+                target.put(typeCode(entity.type()))
+                    .put(colorCode(entity.color()))
+                    .putFloat(entity.px()).putFloat(entity.py()).putFloat(entity.vx()).putFloat(entity.vy())
+                    .put(shotCode(entity.shot()))
+                    .putFloat(entity.sx()).putFloat(entity.sy())
+                    .putInt(entity.missiles());
+                putString(target, entity.status());
+            }
+        } finally {
+            target.order(order);
+        }
+    }
+
+    /**
+     * Decodes a frame starting at the position of the source buffer and advances past it.
+     * The byte order of the source is left unchanged.
+     *
+     * @param source the buffer to read from
+     * @return the decoded frame
+     * @throws IllegalArgumentException           if the buffer does not hold a supported frame
+     * @throws java.nio.BufferUnderflowException if the frame is truncated
+     */
+    public static Entities decode(ByteBuffer source) {
+        ByteOrder order = source.order();
+        source.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            checkVersion(source);
+            Instant timeStamp = Instant.ofEpochSecond(source.getLong(), source.getInt());
+            String state = getString(source);
+            int count = entityCount(source);
+            List<Entity> entities = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String id = getString(source);
+                Type type = type(source.get());
+                String color = color(source.get());
+                float px = source.getFloat();
+                float py = source.getFloat();
+                float vx = source.getFloat();
+                float vy = source.getFloat();
+                String shot = shot(source.get());
+                float sx = source.getFloat();
+                float sy = source.getFloat();
+                int missiles = source.getInt();
+                String status = getString(source);
+                entities.add(new Entity(id, type, color, px, py, vx, vy, shot, sx, sy, missiles, status));
+            }
+            return new Entities(timeStamp, entities, state);
+        } finally {
+            source.order(order);
+        }
+    }
+
+    /**
+     * Decodes a frame starting at the position of the source buffer into a struct-of-arrays frame
+     * and advances past it. The target is cleared first; the byte order of the source is left unchanged.
+     *
+     * @param source the buffer to read from
+     * @param target the frame to fill
+     * @throws IllegalArgumentException           if the buffer does not hold a supported frame
+     * @throws java.nio.BufferUnderflowException if the frame is truncated
+     */
+    public static void decodeInto(ByteBuffer source, EntityFrame target) {
+        ByteOrder order = source.order();
+        source.order(ByteOrder.LITTLE_ENDIAN);
+        target.clear();
+        try {
+            checkVersion(source);
+            target.header(Instant.ofEpochSecond(source.getLong(), source.getInt()), getString(source));
+            int count = entityCount(source);
+            for (int i = 0; i < count; i++) {
+                target.add(getString(source), type(source.get()), color(source.get()),
+                    source.getFloat(), source.getFloat(), source.getFloat(), source.getFloat(),
+                    shot(source.get()), source.getFloat(), source.getFloat(), source.getInt(), getString(source));
+            }
+        } finally {
+            source.order(order);
+        }
+    }
+
+    static byte typeCode(Type type) {
+        return switch (type) {
+            case FIGHTER -> 0;
+            case CARRIER -> 1;
+            case MISSILE -> 2;
+        };
+    }
+
+    static Type type(byte code) {
+        if (code < 0 || code >= TYPES.length) {
+            throw new IllegalArgumentException("Unknown entity type code: " + code);
+        }
+        return TYPES[code];
+    }
+
+    static byte colorCode(String color) {
+        if (color == null) {
+            return -1;
+        }
+        try {
+            return (byte) Color.valueOf(color).ordinal();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown colour: " + color, e);
+        }
+    }
+
+    static String color(byte code) {
+        if (code == -1) {
+            return null;
+        }
+        if (code < 0 || code >= COLORS.length) {
+            throw new IllegalArgumentException("Unknown colour code: " + code);
+        }
+        return COLORS[code].name();
+    }
+
+    // "null" is what the text format produces for a missing shot, so both map to the same code
+    static byte shotCode(String shot) {
+        if (shot == null || "null".equals(shot)) {
+            return 0;
+        }
+        return switch (shot) {
+            case "false" -> 1;
+            case "true" -> 2;
+            default -> throw new IllegalArgumentException("Unsupported shot value: " + shot);
+        };
+    }
+
+    static String shot(byte code) {
+        return switch (code) {
+            case 0 -> null;
+            case 1 -> "false";
+            case 2 -> "true";
+            default -> throw new IllegalArgumentException("Unknown shot code: " + code);
+        };
+    }
+
+    private static void checkVersion(ByteBuffer source) {
+        byte magic = source.get();
+        byte version = source.get();
+        if (magic != MAGIC || version != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary frame: magic=" + magic + ", version=" + version);
+        }
+    }
+
+    private static int entityCount(ByteBuffer source) {
+        int count = source.getInt();
+        if (count < 0 || count > source.remaining() / FIXED_ENTITY_SIZE) {
+            throw new IllegalArgumentException("Invalid entity count: " + count);
+        }
+        return count;
+    }
+
+    private static int stringLength(String value) {
+        return value == null ? 0 : Utf8.length(value);
+    }
+
+    private static void putString(ByteBuffer target, String value) {
+        if (value == null) {
+            target.putShort((short) NULL_LENGTH);
+            return;
+        }
+        int length = Utf8.length(value);
+        if (length > MAX_LENGTH) {
+            throw new IllegalArgumentException("String too long for binary frame: " + length + " bytes");
+        }
+        target.putShort((short) length);
+        Utf8.put(target, value);
+    }
+
+    private static String getString(ByteBuffer source) {
+        int length = Short.toUnsignedInt(source.getShort());
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length > source.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value;
+        if (source.hasArray()) {
+            value = new String(source.array(), source.arrayOffset() + source.position(), length, StandardCharsets.UTF_8);
+        } else {
+            value = StandardCharsets.UTF_8.decode(source.slice(source.position(), length)).toString();
+        }
+        source.position(source.position() + length);
+        return value;
+    }
+}
@@ -2,13 +2,21 @@ package it.battlejar.api.serialization;
 
 import it.battlejar.api.Entity;
 import it.battlejar.api.Entity.Type;
+import it.battlejar.api.EntityFrame;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.EnumMap;
 import java.util.Map;
+import java.util.Objects;
 
-import static java.lang.Float.parseFloat;
+import static it.battlejar.api.serialization.Numbers.appendFloat;
+import static it.battlejar.api.serialization.Numbers.appendInt;
+import static it.battlejar.api.serialization.Numbers.parseFloat;
+import static it.battlejar.api.serialization.Numbers.putFloat;
+import static it.battlejar.api.serialization.Numbers.putInt;
 import static java.lang.Integer.parseInt;
-import static java.util.stream.Collectors.toMap;
 
 /**
  * Utility class for serialization and deserialization of entities.
@@ -16,8 +24,15 @@ import static java.util.stream.Collectors.toMap;
 public class EntitySerializer {
 
     private static final Map<Type, String> TYPE_SERIALIZERS = new EnumMap<>(Map.of(Type.FIGHTER, "F", Type.CARRIER, "C", Type.MISSILE, "M"));
-    private static final Map<String, Type> TYPE_DESERIALIZERS = TYPE_SERIALIZERS.entrySet().stream().collect(toMap(Map.Entry::getValue, Map.Entry::getKey));
+    private static final char SEPARATOR = '|';
+    private static final int PARTS = 12;
+    private static final int EXPECTED_LENGTH = 96;
 
+    private static final EntitySink<Entity> ENTITY_FACTORY = (source, idStart, idEnd, type, colorStart, colorEnd,
+                                                              px, py, vx, vy, shotStart, shotEnd, sx, sy,
+                                                              missiles, statusStart, statusEnd) ->
+        new Entity(text(source, idStart, idEnd), type, text(source, colorStart, colorEnd), px, py, vx, vy,
+            text(source, shotStart, shotEnd), sx, sy, missiles, text(source, statusStart, statusEnd));
 
     /**
      * Serializes the entity into a string format.
@@ -26,7 +41,75 @@ public class EntitySerializer {
      * @return The serialized string representation of the entity.
      */
     public static String serialize(Entity entity) {
-        return entity.id() + "|" + TYPE_SERIALIZERS.get(entity.type()) + "|" + entity.color() + "|" + entity.px() + "|" + entity.py() + "|" + entity.vx() + "|" + entity.vy() + "|" + entity.shot() + "|" + entity.sx() + "|" + entity.sy() + "|" + entity.missiles() + "|" + entity.status();
+        StringBuilder builder = new StringBuilder(EXPECTED_LENGTH);
+        try {
+            serializeTo(entity, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder does not throw
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Serializes the entity directly into an appendable, without building intermediate strings.
+     * The output is identical to {@link #serialize(Entity)}.
+     *
+     * @param entity The entity to serialize.
+     * @param target The appendable to write to.
+     * @throws IOException if the appendable fails.
+     */
+    public static void serializeTo(Entity entity, Appendable target) throws IOException {
+        target.append(entity.id()).append(SEPARATOR)
+            .append(TYPE_SERIALIZERS.get(entity.type())).append(SEPARATOR)
+            .append(entity.color()).append(SEPARATOR);
+        appendFloat(target, entity.px());
+        target.append(SEPARATOR);
+        appendFloat(target, entity.py());
+        target.append(SEPARATOR);
+        appendFloat(target, entity.vx());
+        target.append(SEPARATOR);
+        appendFloat(target, entity.vy());
+        target.append(SEPARATOR).append(entity.shot()).append(SEPARATOR);
+        appendFloat(target, entity.sx());
+        target.append(SEPARATOR);
+        appendFloat(target, entity.sy());
+        target.append(SEPARATOR);
+        appendInt(target, entity.missiles());
+        target.append(SEPARATOR).append(entity.status());
+    }
+
+    /**
+     * Serializes the entity directly into a byte buffer as UTF-8, without building intermediate strings.
+     * The output is the UTF-8 encoding of {@link #serialize(Entity)}.
+     *
+     * @param entity The entity to serialize.
+     * @param target The buffer to write to, starting at its position.
+     * @throws java.nio.BufferOverflowException if the buffer has not enough space remaining.
+     */
+    public static void serializeTo(Entity entity, ByteBuffer target) {
+        putText(target, entity.id());
+        target.put((byte) SEPARATOR);
+        putText(target, TYPE_SERIALIZERS.get(entity.type()));
+        target.put((byte) SEPARATOR);
+        putText(target, entity.color());
+        target.put((byte) SEPARATOR);
+        putFloat(target, entity.px());
+        target.put((byte) SEPARATOR);
+        putFloat(target, entity.py());
+        target.put((byte) SEPARATOR);
+        putFloat(target, entity.vx());
+        target.put((byte) SEPARATOR);
+        putFloat(target, entity.vy());
+        target.put((byte) SEPARATOR);
+        putText(target, entity.shot());
+        target.put((byte) SEPARATOR);
+        putFloat(target, entity.sx());
+        target.put((byte) SEPARATOR);
+        putFloat(target, entity.sy());
+        target.put((byte) SEPARATOR);
+        putInt(target, entity.missiles());
+        target.put((byte) SEPARATOR);
+        putText(target, entity.status());
     }
 
     /**
@@ -38,14 +121,159 @@ public class EntitySerializer {
      * @throws NumberFormatException   if a numeric field cannot be parsed.
      */
     public static Entity deserialize(String serialized) {
-        String[] split = serialized.split("\\|", -1);
-        if (split.length != 12) {
-            throw new IllegalArgumentException("Expected 12 parts, got " + split.length + ": " + serialized);
+        return deserializeInto(serialized, 0, serialized.length(), ENTITY_FACTORY);
+    }
+
+    /**
+     * Deserializes an entity from a range of a character sequence.
+     *
+     * @param source The character sequence containing the serialized entity.
+     * @param start  Start index (inclusive) of the serialized entity.
+     * @param end    End index (exclusive) of the serialized entity.
+     * @return The deserialized Entity object.
+     * @throws IllegalArgumentException if the format is invalid (wrong part count or unknown type).
+     * @throws NumberFormatException   if a numeric field cannot be parsed.
+     */
+    public static Entity deserialize(CharSequence source, int start, int end) {
+        return deserializeInto(source, start, end, ENTITY_FACTORY);
+    }
+
+    /**
+     * Creates a sink building entities whose string fields (id, colour, shot and status) are taken from the table,
+     * so values repeating across frames share a single instance.
+     * Create the sink once per table and reuse it with {@link #deserializeInto(CharSequence, int, int, EntitySink)}.
+     *
+     * @param strings The table canonicalizing the string fields.
+     * @return The sink producing Entity objects.
+     */
+    public static EntitySink<Entity> entityFactory(StringTable strings) {
+        return (source, idStart, idEnd, type, colorStart, colorEnd, px, py, vx, vy, shotStart, shotEnd, sx, sy,
+                missiles, statusStart, statusEnd) ->
+            new Entity(strings.canonicalize(source, idStart, idEnd), type, strings.canonicalize(source, colorStart, colorEnd),
+                px, py, vx, vy, strings.canonicalize(source, shotStart, shotEnd), sx, sy, missiles,
+                strings.canonicalize(source, statusStart, statusEnd));
+    }
+
+    /**
+     * Decodes an entity from a range of a character sequence and appends it to a frame,
+     * without creating an Entity object.
+     *
+     * @param source  The character sequence containing the serialized entity.
+     * @param start   Start index (inclusive) of the serialized entity.
+     * @param end     End index (exclusive) of the serialized entity.
+     * @param frame   The frame to append to.
+     * @param strings The table canonicalizing the entity ID and status.
+     * @return The index of the entity in the frame.
+     * @throws IllegalArgumentException if the format is invalid (wrong part count or unknown type, colour or shot).
+     * @throws NumberFormatException   if a numeric field cannot be parsed.
+     */
+    public static int deserializeInto(CharSequence source, int start, int end, EntityFrame frame, StringTable strings) {
+        decode(source, start, end, null, frame, strings);
+        return frame.size() - 1;
+    }
+
+    /**
+     * Decodes an entity from a range of a character sequence in a single pass and hands its fields to the sink.
+     * No intermediate strings or arrays are created; numeric fields are parsed in place.
+     *
+     * @param source The character sequence containing the serialized entity.
+     * @param start  Start index (inclusive) of the serialized entity.
+     * @param end    End index (exclusive) of the serialized entity.
+     * @param sink   The sink receiving the decoded fields.
+     * @param <T>    The type of the value produced by the sink.
+     * @return The value returned by the sink.
+     * @throws IllegalArgumentException if the format is invalid (wrong part count or unknown type).
+     * @throws NumberFormatException   if a numeric field cannot be parsed.
+     */
+    public static <T> T deserializeInto(CharSequence source, int start, int end, EntitySink<T> sink) {
+        return decode(source, start, end, sink, null, null);
+    }
+
+    // Hands the fields to the sink or, without one, appends them to the frame, so neither needs an adapter per entity.
+    private static <T> T decode(CharSequence source, int start, int end, EntitySink<T> sink,
+                                EntityFrame frame, StringTable strings) {
+        Objects.checkFromToIndex(start, end, source.length());
+        int idEnd = nextSeparator(source, start, start, end);
+        int typeEnd = nextSeparator(source, idEnd + 1, start, end);
+        int colorEnd = nextSeparator(source, typeEnd + 1, start, end);
+        int pxEnd = nextSeparator(source, colorEnd + 1, start, end);
+        int pyEnd = nextSeparator(source, pxEnd + 1, start, end);
+        int vxEnd = nextSeparator(source, pyEnd + 1, start, end);
+        int vyEnd = nextSeparator(source, vxEnd + 1, start, end);
+        int shotEnd = nextSeparator(source, vyEnd + 1, start, end);
+        int sxEnd = nextSeparator(source, shotEnd + 1, start, end);
+        int syEnd = nextSeparator(source, sxEnd + 1, start, end);
+        int missilesEnd = nextSeparator(source, syEnd + 1, start, end);
+        if (indexOfSeparator(source, missilesEnd + 1, end) >= 0) {
+            throw partsCountError(source, start, end);
+        }
+        Type type = type(source, idEnd + 1, typeEnd);
+        float px = parseFloat(source, colorEnd + 1, pxEnd);
+        float py = parseFloat(source, pxEnd + 1, pyEnd);
+        float vx = parseFloat(source, pyEnd + 1, vxEnd);
+        float vy = parseFloat(source, vxEnd + 1, vyEnd);
+        float sx = parseFloat(source, shotEnd + 1, sxEnd);
+        float sy = parseFloat(source, sxEnd + 1, syEnd);
+        int missiles = parseInt(source, syEnd + 1, missilesEnd, 10);
+        if (sink != null) {
+            return sink.accept(source, start, idEnd, type, typeEnd + 1, colorEnd, px, py, vx, vy,
+                vyEnd + 1, shotEnd, sx, sy, missiles, missilesEnd + 1, end);
+        }
+        frame.add(strings.canonicalize(source, start, idEnd), type, strings.canonicalize(source, typeEnd + 1, colorEnd),
+            px, py, vx, vy, strings.canonicalize(source, vyEnd + 1, shotEnd), sx, sy, missiles,
+            strings.canonicalize(source, missilesEnd + 1, end));
+        return null;
+    }
+
+    private static Type type(CharSequence source, int start, int end) {
+        if (end - start == 1) {
+            switch (source.charAt(start)) {
+                case 'F':
+                    return Type.FIGHTER;
+                case 'C':
+                    return Type.CARRIER;
+                case 'M':
+                    return Type.MISSILE;
+                default:
+                    break;
+            }
+        }
+        throw new IllegalArgumentException("Unknown entity type: " + source.subSequence(start, end));
+    }
+
+    private static int nextSeparator(CharSequence source, int from, int start, int end) {
+        int index = indexOfSeparator(source, from, end);
+        if (index < 0) {
+            throw partsCountError(source, start, end);
+        }
+        return index;
+    }
+
+    private static int indexOfSeparator(CharSequence source, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (source.charAt(i) == SEPARATOR) {
+                return i;
+            }
         }
-        Type type = TYPE_DESERIALIZERS.get(split[1]);
-        if (type == null) {
-            throw new IllegalArgumentException("Unknown entity type: " + split[1]);
+        return -1;
+    }
+
+    private static IllegalArgumentException partsCountError(CharSequence source, int start, int end) {
+        int parts = 1;
+        for (int i = start; i < end; i++) {
+            if (source.charAt(i) == SEPARATOR) {
+                parts++;
+            }
         }
-        return new Entity(split[0], type, split[2], parseFloat(split[3]), parseFloat(split[4]), parseFloat(split[5]), parseFloat(split[6]), split[7], parseFloat(split[8]), parseFloat(split[9]), parseInt(split[10]), split[11]);
+        return new IllegalArgumentException("Expected " + PARTS + " parts, got " + parts + ": " + source.subSequence(start, end));
+    }
+
+    // Writes text as UTF-8, "null" for null, like string concatenation does.
+    private static void putText(ByteBuffer target, String text) {
+        Utf8.put(target, text == null ? "null" : text);
+    }
+
+    private static String text(CharSequence source, int start, int end) {
+        return source.subSequence(start, end).toString();
     }
 }
@@ -0,0 +1,42 @@
+package it.battlejar.api.serialization;
+
+import it.battlejar.api.Entity.Type;
+
+/**
+ * Receives the fields of a decoded entity without materializing an {@link it.battlejar.api.Entity}.
+ * Text fields are passed as {@code [start, end)} ranges of the source being decoded,
+ * numeric fields are passed already parsed.
+ * The source is only guaranteed to be valid for the duration of the call.
+ *
+ * @param <T> the type of the value produced for each entity
+ * @see EntitySerializer#deserializeInto(CharSequence, int, int, EntitySink)
+ */
+@FunctionalInterface
+public interface EntitySink<T> {
+
+    /**
+     * Accepts the fields of a single entity.
+     *
+     * @param source      the character sequence being decoded
+     * @param idStart     start index (inclusive) of the entity ID
+     * @param idEnd       end index (exclusive) of the entity ID
+     * @param type        the entity type
+     * @param colorStart  start index (inclusive) of the colour
+     * @param colorEnd    end index (exclusive) of the colour
+     * @param px          the x-coordinate of the position
+     * @param py          the y-coordinate of the position
+     * @param vx          the x-component of the velocity
+     * @param vy          the y-component of the velocity
+     * @param shotStart   start index (inclusive) of the shot result
+     * @param shotEnd     end index (exclusive) of the shot result
+     * @param sx          the x-coordinate of the shot target
+     * @param sy          the y-coordinate of the shot target
+     * @param missiles    the number of missiles
+     * @param statusStart start index (inclusive) of the status
+     * @param statusEnd   end index (exclusive) of the status
+     * @return the value produced for the entity, may be null
+     */
+    T accept(CharSequence source, int idStart, int idEnd, Type type, int colorStart, int colorEnd,
+             float px, float py, float vx, float vy, int shotStart, int shotEnd, float sx, float sy,
+             int missiles, int statusStart, int statusEnd);
+}
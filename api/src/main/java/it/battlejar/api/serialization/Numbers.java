@@ -0,0 +1,330 @@
+package it.battlejar.api.serialization;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Allocation-free parsing and formatting of decimal numbers.
+ * Parsing results are identical to {@link Float#parseFloat(String)}; inputs the fast path cannot
+ * decide exactly (very long mantissas, extreme exponents, subnormals, NaN, hex notation)
+ * are delegated to it.
+ * Formatting produces the shortest decimal that parses back to the same float, laid out like
+ * {@link Float#toString(float)}; magnitudes outside roughly {@code [1e-13, 1e22]} are delegated to it.
+ */
+public final class Numbers {
+
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+        1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    private static final int MAX_EXPONENT_DIGITS = 4;
+    private static final long FLOAT_EXACT_LIMIT = 1L << 24;
+    private static final long DOUBLE_EXACT_LIMIT = 1L << 53;
+    // bits dropped when narrowing a double mantissa to a float one, and their half-way pattern
+    private static final long NARROWING_MASK = (1L << 29) - 1;
+    private static final long NARROWING_HALF = 1L << 28;
+    private static final int MAX_FLOAT_DIGITS = 9;
+    private static final long[] LONG_POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L, 10_000_000_000L
+    };
+
+    private Numbers() {
+    }
+
+    /**
+     * Parses a float from the given range of a character sequence.
+     *
+     * @param source the character sequence
+     * @param start  start index (inclusive)
+     * @param end    end index (exclusive)
+     * @return the parsed value
+     * @throws NumberFormatException if the range does not contain a parsable float
+     */
+    public static float parseFloat(CharSequence source, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end) {
+            char c = source.charAt(i);
+            if (c == '-' || c == '+') {
+                negative = c == '-';
+                i++;
+            }
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        for (; i < end; i++) {
+            int digit = source.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            anyDigit = true;
+            mantissa = mantissa * 10 + digit;
+            if (mantissa != 0) {
+                significantDigits++;
+            }
+        }
+        if (i < end && source.charAt(i) == '.') {
+            for (i++; i < end; i++) {
+                int digit = source.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                anyDigit = true;
+                mantissa = mantissa * 10 + digit;
+                exponent--;
+                if (mantissa != 0) {
+                    significantDigits++;
+                }
+            }
+        }
+        if (i < end && (source.charAt(i) == 'e' || source.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (source.charAt(i) == '-' || source.charAt(i) == '+')) {
+                negativeExponent = source.charAt(i) == '-';
+                i++;
+            }
+            int explicitExponent = 0;
+            int exponentDigits = 0;
+            for (; i < end; i++) {
+                int digit = source.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                explicitExponent = explicitExponent * 10 + digit;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0 || exponentDigits > MAX_EXPONENT_DIGITS) {
+                return fallback(source, start, end);
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (!anyDigit || i != end || significantDigits > MAX_MANTISSA_DIGITS) {
+            return fallback(source, start, end);
+        }
+        if (mantissa == 0) {
+            return negative ? -0.0f : 0.0f;
+        }
+        if (mantissa < FLOAT_EXACT_LIMIT && exponent >= -10 && exponent <= 10) {
+            // both operands are exact floats, so a single operation rounds correctly
+            float value = exponent < 0 ? mantissa / FLOAT_POWERS_OF_TEN[-exponent] : mantissa * FLOAT_POWERS_OF_TEN[exponent];
+            return negative ? -value : value;
+        }
+        if (mantissa < DOUBLE_EXACT_LIMIT && exponent >= -22 && exponent <= 22) {
+            double value = exponent < 0 ? mantissa / DOUBLE_POWERS_OF_TEN[-exponent] : mantissa * DOUBLE_POWERS_OF_TEN[exponent];
+            // narrowing is exact unless the double landed on a float half-way point (double rounding)
+            if (value >= Float.MIN_NORMAL && value <= Float.MAX_VALUE
+                && (Double.doubleToRawLongBits(value) & NARROWING_MASK) != NARROWING_HALF) {
+                return negative ? (float) -value : (float) value;
+            }
+        }
+        return fallback(source, start, end);
+    }
+
+    /**
+     * Appends the shortest decimal representation of a float, formatted like {@link Float#toString(float)}.
+     *
+     * @param target the appendable to write to
+     * @param value  the value to format
+     * @throws IOException if the appendable fails
+     */
+    public static void appendFloat(Appendable target, float value) throws IOException {
+        writeFloat(target, null, value);
+    }
+
+    /**
+     * Writes the shortest decimal representation of a float as ASCII bytes, formatted like {@link Float#toString(float)}.
+     *
+     * @param target the buffer to write to
+     * @param value  the value to format
+     * @throws java.nio.BufferOverflowException if the buffer has not enough space remaining
+     */
+    public static void putFloat(ByteBuffer target, float value) {
+        try {
+            writeFloat(null, target, value);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unexpected I/O error writing to a buffer", e);
+        }
+    }
+
+    /**
+     * Appends the decimal representation of an int without creating a string.
+     *
+     * @param target the appendable to write to
+     * @param value  the value to format
+     * @throws IOException if the appendable fails
+     */
+    public static void appendInt(Appendable target, int value) throws IOException {
+        writeLong(target, null, value);
+    }
+
+    /**
+     * Writes the decimal representation of an int as ASCII bytes.
+     *
+     * @param target the buffer to write to
+     * @param value  the value to format
+     * @throws java.nio.BufferOverflowException if the buffer has not enough space remaining
+     */
+    public static void putInt(ByteBuffer target, int value) {
+        try {
+            writeLong(null, target, value);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unexpected I/O error writing to a buffer", e);
+        }
+    }
+
+    private static float fallback(CharSequence source, int start, int end) {
+        return Float.parseFloat(source.subSequence(start, end).toString());
+    }
+
+    // Exactly one of appendable and buffer is non-null.
+    private static void writeFloat(Appendable appendable, ByteBuffer buffer, float value) throws IOException {
+        if (value == 0.0f || !Float.isFinite(value) || Math.abs(value) < Float.MIN_NORMAL) {
+            writeText(appendable, buffer, Float.toString(value));
+            return;
+        }
+        double magnitude = Math.abs((double) value);
+        int exponent = (int) Math.floor(Math.log10(magnitude));
+        if (exponent < -22 || exponent > 22) {
+            writeText(appendable, buffer, Float.toString(value));
+            return;
+        }
+        // log10 may be off by one next to powers of ten
+        if (magnitude < DOUBLE_POWERS_OF_TEN[Math.abs(exponent)] && exponent >= 0
+            || exponent < 0 && magnitude * DOUBLE_POWERS_OF_TEN[-exponent] < 1) {
+            exponent--;
+        }
+        // the shortest representation is never shorter than two digits, as with Float.toString
+        for (int precision = 2; precision <= MAX_FLOAT_DIGITS; precision++) {
+            int scale = precision - 1 - exponent;
+            if (scale < -22 || scale > 22) {
+                break;
+            }
+            double scaled = scale < 0 ? magnitude / DOUBLE_POWERS_OF_TEN[-scale] : magnitude * DOUBLE_POWERS_OF_TEN[scale];
+            long digits = (long) Math.rint(scaled); // ties to even, as Float.toString
+            int decimalExponent = exponent;
+            if (digits >= LONG_POWERS_OF_TEN[precision]) {
+                // rounded up to the next power of ten
+                digits /= 10;
+                decimalExponent++;
+                scale--;
+            }
+            float candidate = toFloat(digits, -scale);
+            if (candidate != candidate) {
+                break; // not decidable exactly
+            }
+            if (candidate == (float) magnitude) {
+                int length = precision;
+                while (digits % 10 == 0) {
+                    digits /= 10;
+                    length--;
+                }
+                if (value < 0) {
+                    writeChar(appendable, buffer, '-');
+                }
+                layout(appendable, buffer, digits, length, decimalExponent);
+                return;
+            }
+        }
+        writeText(appendable, buffer, Float.toString(value));
+    }
+
+    // Converts mantissa * 10^exponent to the nearest float, or NaN when that cannot be done exactly with doubles.
+    private static float toFloat(long mantissa, int exponent) {
+        if (exponent < -22 || exponent > 22) {
+            return Float.NaN;
+        }
+        double value = exponent < 0 ? mantissa / DOUBLE_POWERS_OF_TEN[-exponent] : mantissa * DOUBLE_POWERS_OF_TEN[exponent];
+        if ((Double.doubleToRawLongBits(value) & NARROWING_MASK) == NARROWING_HALF) {
+            return Float.NaN;
+        }
+        return (float) value;
+    }
+
+    // Lays out digits (length significant digits, value d.ddd * 10^exponent) the way Float.toString does.
+    private static void layout(Appendable appendable, ByteBuffer buffer, long digits, int length, int exponent) throws IOException {
+        if (exponent >= 0 && exponent < 7) {
+            int integerDigits = exponent + 1;
+            if (length <= integerDigits) {
+                writeLong(appendable, buffer, digits);
+                for (int i = length; i < integerDigits; i++) {
+                    writeChar(appendable, buffer, '0');
+                }
+                writeChar(appendable, buffer, '.');
+                writeChar(appendable, buffer, '0');
+            } else {
+                long divisor = LONG_POWERS_OF_TEN[length - integerDigits];
+                writeLong(appendable, buffer, digits / divisor);
+                writeChar(appendable, buffer, '.');
+                writeDigits(appendable, buffer, digits % divisor, length - integerDigits);
+            }
+        } else if (exponent < 0 && exponent >= -3) {
+            writeChar(appendable, buffer, '0');
+            writeChar(appendable, buffer, '.');
+            for (int i = -1; i > exponent; i--) {
+                writeChar(appendable, buffer, '0');
+            }
+            writeDigits(appendable, buffer, digits, length);
+        } else {
+            long divisor = LONG_POWERS_OF_TEN[length - 1];
+            writeChar(appendable, buffer, (char) ('0' + digits / divisor));
+            writeChar(appendable, buffer, '.');
+            if (length == 1) {
+                writeChar(appendable, buffer, '0');
+            } else {
+                writeDigits(appendable, buffer, digits % divisor, length - 1);
+            }
+            writeChar(appendable, buffer, 'E');
+            writeLong(appendable, buffer, exponent);
+        }
+    }
+
+    // Writes exactly count digits, left-padded with zeros.
+    private static void writeDigits(Appendable appendable, ByteBuffer buffer, long value, int count) throws IOException {
+        for (long divisor = LONG_POWERS_OF_TEN[count - 1]; divisor > 0; divisor /= 10) {
+            writeChar(appendable, buffer, (char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static void writeLong(Appendable appendable, ByteBuffer buffer, long value) throws IOException {
+        if (value < 0) {
+            writeChar(appendable, buffer, '-');
+            if (value == Long.MIN_VALUE) {
+                writeText(appendable, buffer, "9223372036854775808");
+                return;
+            }
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            writeChar(appendable, buffer, (char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static void writeText(Appendable appendable, ByteBuffer buffer, String text) throws IOException {
+        if (buffer != null) {
+            for (int i = 0; i < text.length(); i++) {
+                buffer.put((byte) text.charAt(i));
+            }
+        } else {
+            appendable.append(text);
+        }
+    }
+
+    private static void writeChar(Appendable appendable, ByteBuffer buffer, char c) throws IOException {
+        if (buffer != null) {
+            buffer.put((byte) c);
+        } else {
+            appendable.append(c);
+        }
+    }
+}
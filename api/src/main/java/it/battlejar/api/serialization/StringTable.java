@@ -0,0 +1,133 @@
+package it.battlejar.api.serialization;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded canonicalization table for strings that repeat from frame to frame (entity IDs, colours, statuses).
+ * Lookups hash the raw character range, so a hit returns the shared instance without allocating.
+ * The table is open-addressed with a short probe sequence; when all probed slots are taken,
+ * the home slot is overwritten, which keeps memory bounded at the cost of occasional misses.
+ * Safe for concurrent use: races may only produce duplicate instances, never wrong ones.
+ */
+public final class StringTable {
+
+    private static final int MAX_PROBES = 8;
+
+    private final String[] slots;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new table.
+     *
+     * @param capacity the maximum number of strings kept, rounded up to a power of two
+     */
+    public StringTable(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.slots = new String[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the canonical instance of the given string.
+     *
+     * @param value the string, may be null
+     * @return the canonical instance, or null for null
+     */
+    public String canonicalize(String value) {
+        return value == null ? null : canonicalize(value, 0, value.length());
+    }
+
+    /**
+     * Returns the canonical instance of the string held in the given character range.
+     *
+     * @param source the character sequence
+     * @param start  start index (inclusive)
+     * @param end    end index (exclusive)
+     * @return the canonical instance
+     */
+    public String canonicalize(CharSequence source, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        hash ^= hash >>> 16;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int index = (hash + probe) & mask;
+            String candidate = slots[index];
+            if (candidate == null) {
+                return insert(index, source, start, end);
+            }
+            if (matches(candidate, source, start, end)) {
+                hits.increment();
+                return candidate;
+            }
+        }
+        evictions.increment();
+        return insert(hash & mask, source, start, end);
+    }
+
+    /**
+     * Removes all strings, e.g. when a game ends and its entity IDs will not be seen again.
+     * Statistics are kept.
+     */
+    public void clear() {
+        Arrays.fill(slots, null);
+    }
+
+    /**
+     * @return the maximum number of strings kept
+     */
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Returns the current lookup statistics.
+     *
+     * @return a snapshot of hit, miss and eviction counts
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    @Override
+    public String toString() {
+        return "StringTable[capacity=" + slots.length + ", " + stats() + "]";
+    }
+
+    private String insert(int index, CharSequence source, int start, int end) {
+        misses.increment();
+        String value = source.subSequence(start, end).toString();
+        slots[index] = value;
+        return value;
+    }
+
+    private static boolean matches(String candidate, CharSequence source, int start, int end) {
+        if (candidate.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (candidate.charAt(i - start) != source.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lookup statistics of a {@link StringTable}.
+     *
+     * @param hits      lookups answered with a shared instance
+     * @param misses    lookups that created a new string
+     * @param evictions strings overwritten because their probe sequence was full
+     */
+    public record Stats(long hits, long misses, long evictions) {
+    }
+}
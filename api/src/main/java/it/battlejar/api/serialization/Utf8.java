@@ -0,0 +1,64 @@
+package it.battlejar.api.serialization;
+
+import java.nio.ByteBuffer;
+
+/**
+ * UTF-8 helpers writing straight into byte buffers, without intermediate byte arrays.
+ * Unpaired surrogates are written as {@code '?'}, as {@link String#getBytes(java.nio.charset.Charset)} does.
+ */
+final class Utf8 {
+
+    private Utf8() {
+    }
+
+    /**
+     * Computes the number of bytes needed to encode the text.
+     *
+     * @param text the text to measure
+     * @return the UTF-8 length in bytes
+     */
+    static int length(CharSequence text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Writes the text as UTF-8 at the position of the buffer.
+     *
+     * @param target the buffer to write to
+     * @param text   the text to write
+     */
+    static void put(ByteBuffer target, CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                target.put((byte) c);
+            } else if (c < 0x800) {
+                target.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                target.put((byte) (0xF0 | codePoint >> 18)).put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                    .put((byte) (0x80 | codePoint >> 6 & 0x3F)).put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                target.put((byte) '?');
+            } else {
+                target.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package it.battlejar.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EntityFrameTest {
+
+    private static final Entity RED = new Entity("RED-1", Entity.Type.FIGHTER, "RED", 1.5f, 2f, 3f, 4f, "false", 5f, 6f, 2, "OK");
+    private static final Entity BLUE = new Entity("BLUE-1", Entity.Type.CARRIER, "BLUE", -1f, 0.25f, 0f, 0f, "true", 0f, 0f, 0, "DEAD");
+    private static final Entity MISSILE = new Entity("M-1", Entity.Type.MISSILE, null, 0f, 0f, 1f, 1f, null, 0f, 0f, 0, null);
+
+    @Test
+    void shouldExposeEntitiesAsArraysAndView() {
+        // given
+        Entities entities = new Entities(Instant.ofEpochSecond(7), List.of(RED, BLUE, MISSILE), "RUNNING");
+
+        // when
+        EntityFrame frame = EntityFrame.of(entities);
+
+        // then
+        assertThat(frame.size()).isEqualTo(3);
+        assertThat(frame.px()[0]).isEqualTo(1.5f);
+        assertThat(frame.py()[1]).isEqualTo(0.25f);
+        assertThat(frame.missiles()[0]).isEqualTo(2);
+        assertThat(frame.types()[1]).isEqualTo((byte) Entity.Type.CARRIER.ordinal());
+        assertThat(frame.colors()[1]).isEqualTo((byte) Color.BLUE.ordinal());
+        assertThat(frame.colors()[2]).isEqualTo(EntityFrame.NO_COLOR);
+        assertThat(frame.shots()[0]).isEqualTo(EntityFrame.SHOT_MISSED);
+        assertThat(frame.shots()[1]).isEqualTo(EntityFrame.SHOT_HIT);
+        assertThat(frame.shots()[2]).isEqualTo(EntityFrame.NO_SHOT);
+        assertThat(frame.statuses()[1]).isEqualTo(frame.statusCode("DEAD"));
+        assertThat(frame.statuses()[2]).isEqualTo(EntityFrame.NO_STATUS);
+        assertThat(frame.entities()).containsExactly(RED, BLUE, MISSILE);
+        assertThat(frame.toEntities()).isEqualTo(entities);
+    }
+
+    @Test
+    void shouldGrowAndKeepStatusCodesAcrossClear() {
+        // given
+        EntityFrame frame = new EntityFrame(1);
+        for (int i = 0; i < 100; i++) {
+            frame.add(i % 2 == 0 ? RED : BLUE);
+        }
+        byte dead = frame.statusCode("DEAD");
+
+        // when
+        frame.clear();
+        frame.add(BLUE);
+
+        // then
+        assertThat(frame.size()).isEqualTo(1);
+        assertThat(frame.timeStamp()).isNull();
+        assertThat(frame.statuses()[0]).isEqualTo(dead);
+        assertThat(frame.statusCode("MISSING")).isEqualTo(EntityFrame.NO_STATUS);
+        assertThat(frame.entity(0)).isEqualTo(BLUE);
+    }
+
+    @Test
+    void shouldMapTextualNullShotToNoShot() {
+        // given
+        EntityFrame frame = new EntityFrame(4);
+
+        // when
+        frame.add("RED-1", Entity.Type.FIGHTER, "RED", 0f, 0f, 0f, 0f, "null", 0f, 0f, 0, "OK");
+
+        // then
+        assertThat(frame.shots()[0]).isEqualTo(EntityFrame.NO_SHOT);
+        assertThat(frame.entity(0).shot()).isNull();
+    }
+
+    @Test
+    void shouldMapTextualNullColourToNoColor() {
+        // given
+        EntityFrame frame = new EntityFrame(4);
+
+        // when
+        frame.add("M-1", Entity.Type.MISSILE, "null", 0f, 0f, 0f, 0f, null, 0f, 0f, 0, "OK");
+
+        // then
+        assertThat(frame.colors()[0]).isEqualTo(EntityFrame.NO_COLOR);
+        assertThat(frame.entity(0).color()).isNull();
+    }
+
+    @Test
+    void shouldCountSkippedEntriesUntilCleared() {
+        // given
+        List<Entity> entities = new ArrayList<>();
+        entities.add(MISSILE);
+        entities.add(null);
+
+        // when
+        EntityFrame frame = EntityFrame.of(new Entities(null, entities, "RUNNING"));
+        int skipped = frame.skipped();
+        frame.clear();
+
+        // then
+        assertThat(skipped).isEqualTo(1);
+        assertThat(frame.skipped()).isZero();
+    }
+
+    @Test
+    void shouldRejectUnknownColourAndOutOfRangeIndex() {
+        // given
+        EntityFrame frame = new EntityFrame(4);
+
+        // when / then
+        assertThatThrownBy(() -> frame.add("X-1", Entity.Type.FIGHTER, "PINK", 0f, 0f, 0f, 0f, null, 0f, 0f, 0, "OK"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Unknown colour");
+        assertThatThrownBy(() -> frame.entity(0))
+            .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
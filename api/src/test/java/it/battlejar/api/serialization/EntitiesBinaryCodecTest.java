@@ -0,0 +1,129 @@
+package it.battlejar.api.serialization;
+
+import it.battlejar.api.Entities;
+import it.battlejar.api.Entity;
+import it.battlejar.api.EntityFrame;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EntitiesBinaryCodecTest {
+
+    private static final Instant TIME_STAMP = Instant.ofEpochSecond(1_700_000_000L, 123_456_789);
+
+    @Test
+    void shouldRoundTripEntitiesFrame() {
+        // given
+        Entities entities = new Entities(TIME_STAMP, List.of(
+            new Entity("RED-01", Entity.Type.FIGHTER, "RED", 10.5f, -20.25f, 1f, 0f, "true", 3f, 4f, 2, "ALIVE"),
+            new Entity("BLUE-C", Entity.Type.CARRIER, "BLUE", 0f, 0f, 0f, 0f, "false", 0f, 0f, 0, "DOCKING"),
+            new Entity("GREEN-M1", Entity.Type.MISSILE, "GREEN", Float.MAX_VALUE, Float.MIN_VALUE, -0f, 1e-7f, null, 0f, 0f, 0, "FLYING")
+        ), "RUNNING");
+
+        // when
+        ByteBuffer encoded = EntitiesBinaryCodec.encode(entities);
+        Entities decoded = EntitiesBinaryCodec.decode(encoded);
+
+        // then
+        assertThat(decoded).isEqualTo(entities);
+        assertThat(encoded.remaining()).isZero();
+    }
+
+    @Test
+    void encodedSizeShouldMatchWrittenBytes() {
+        // given
+        Entities entities = new Entities(TIME_STAMP, List.of(
+            new Entity("żółw", Entity.Type.FIGHTER, null, 1f, 2f, 3f, 4f, "null", 5f, 6f, 7, null)
+        ), null);
+
+        // when
+        ByteBuffer encoded = EntitiesBinaryCodec.encode(entities);
+
+        // then
+        assertThat(encoded.limit()).isEqualTo(EntitiesBinaryCodec.encodedSize(entities));
+        Entity decoded = EntitiesBinaryCodec.decode(encoded).entities().iterator().next();
+        assertThat(decoded.id()).isEqualTo("żółw");
+        assertThat(decoded.color()).isNull();
+        assertThat(decoded.shot()).isNull();
+        assertThat(decoded.status()).isNull();
+    }
+
+    @Test
+    void shouldWriteLittleEndianAndKeepBufferOrder() {
+        // given
+        Entities entities = new Entities(TIME_STAMP, List.of(), "RUNNING");
+        ByteBuffer buffer = ByteBuffer.allocate(64).order(ByteOrder.BIG_ENDIAN);
+
+        // when
+        EntitiesBinaryCodec.encode(entities, buffer);
+
+        // then
+        assertThat(buffer.order()).isEqualTo(ByteOrder.BIG_ENDIAN);
+        assertThat(buffer.get(0)).isEqualTo(EntitiesBinaryCodec.MAGIC);
+        assertThat(buffer.order(ByteOrder.LITTLE_ENDIAN).getLong(2)).isEqualTo(TIME_STAMP.getEpochSecond());
+    }
+
+    @Test
+    void shouldDecodeFromDirectBufferAtOffset() {
+        // given
+        Entities entities = Entities.running(List.of(
+            new Entity("RED-02", Entity.Type.FIGHTER, "RED", 1f, 2f, 3f, 4f, "false", 5f, 6f, 1, "ALIVE")));
+        ByteBuffer encoded = EntitiesBinaryCodec.encode(entities);
+        ByteBuffer direct = ByteBuffer.allocateDirect(encoded.remaining() + 3);
+        direct.put(new byte[3]).put(encoded).flip().position(3);
+
+        // when
+        Entities decoded = EntitiesBinaryCodec.decode(direct);
+
+        // then
+        assertThat(decoded).isEqualTo(entities);
+    }
+
+    @Test
+    void shouldRejectUnknownColour() {
+        // given
+        Entities entities = Entities.running(List.of(
+            new Entity("X-1", Entity.Type.FIGHTER, "PINK", 0f, 0f, 0f, 0f, null, 0f, 0f, 0, "ALIVE")));
+
+        // when / then
+        assertThatThrownBy(() -> EntitiesBinaryCodec.encode(entities))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Unknown colour");
+    }
+
+    @Test
+    void shouldRejectFrameWithWrongMagic() {
+        // given
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{'X', 1, 0, 0});
+
+        // when / then
+        assertThat(EntitiesBinaryCodec.isEntitiesFrame(buffer)).isFalse();
+        assertThatThrownBy(() -> EntitiesBinaryCodec.decode(buffer))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Unsupported binary frame");
+    }
+
+    @Test
+    void decodeIntoShouldRefillFrame() {
+        // given
+        Entities entities = new Entities(TIME_STAMP, List.of(
+            new Entity("RED-01", Entity.Type.FIGHTER, "RED", 10.5f, -20.25f, 1f, 0f, "true", 3f, 4f, 2, "ALIVE"),
+            new Entity("GREEN-M1", Entity.Type.MISSILE, null, 1f, 2f, 0f, 0f, null, 0f, 0f, 0, null)
+        ), "RUNNING");
+        EntityFrame frame = EntityFrame.of(new Entities(List.of(entities.entities().iterator().next()), "STALE"));
+
+        // when
+        EntitiesBinaryCodec.decodeInto(EntitiesBinaryCodec.encode(entities), frame);
+
+        // then
+        assertThat(frame.size()).isEqualTo(2);
+        assertThat(frame.px()[0]).isEqualTo(10.5f);
+        assertThat(frame.toEntities()).isEqualTo(entities);
+    }
+}
@@ -1,8 +1,14 @@
 package it.battlejar.api.serialization;
 
 import it.battlejar.api.Entity;
+import it.battlejar.api.EntityFrame;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -70,4 +76,121 @@ class EntitySerializerTest {
         assertThatThrownBy(() -> EntitySerializer.deserialize(serialized))
             .isInstanceOf(NumberFormatException.class);
     }
+
+    @Test
+    void shouldDeserializeEntityFromRangeOfCharSequence() {
+        // given
+        Entity entity = new Entity("RED-01", Entity.Type.FIGHTER, "RED", -1.25f, 3.0E-4f, 1.0E7f, 0f, "true", 5f, 6f, 3, "ALIVE");
+        StringBuilder source = new StringBuilder("[\"").append(EntitySerializer.serialize(entity)).append("\"]");
+
+        // when
+        Entity deserialized = EntitySerializer.deserialize(source, 2, source.length() - 2);
+
+        // then
+        assertThat(deserialized).isEqualTo(entity);
+    }
+
+    @Test
+    void shouldPassFieldRangesToSinkWithoutBuildingEntity() {
+        // given
+        String source = "xx" + "m-7|M|GREEN|1.5|2.5|-3.5|4.5||0.0|0.0|0|FLYING" + "yy";
+        List<String> received = new ArrayList<>();
+
+        // when
+        Integer result = EntitySerializer.deserializeInto(source, 2, source.length() - 2,
+            (s, idStart, idEnd, type, colorStart, colorEnd, px, py, vx, vy, shotStart, shotEnd, sx, sy, missiles, statusStart, statusEnd) -> {
+                received.add(s.subSequence(idStart, idEnd) + "/" + type + "/" + s.subSequence(colorStart, colorEnd) + "/"
+                    + px + "/" + py + "/" + vx + "/" + vy + "/[" + s.subSequence(shotStart, shotEnd) + "]/"
+                    + missiles + "/" + s.subSequence(statusStart, statusEnd));
+                return missiles;
+            });
+
+        // then
+        assertThat(result).isZero();
+        assertThat(received).containsExactly("m-7/MISSILE/GREEN/1.5/2.5/-3.5/4.5/[]/0/FLYING");
+    }
+
+    @Test
+    void shouldThrowWhenThereAreTooManyParts() {
+        // given - 13 parts
+        String serialized = "id|F|RED|0|0|0|0||0|0|0|ALIVE|extra";
+
+        // when / then
+        assertThatThrownBy(() -> EntitySerializer.deserialize(serialized))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Expected 12 parts, got 13");
+    }
+
+    @Test
+    void shouldThrowWhenMissilesFieldIsInvalid() {
+        // given
+        String serialized = "id|F|RED|0|0|0|0||0|0|1.5|ALIVE";
+
+        // when / then
+        assertThatThrownBy(() -> EntitySerializer.deserialize(serialized))
+            .isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void serializeToAppendableShouldMatchSerialize() throws Exception {
+        // given
+        Entity entity = new Entity("BLUE-12", Entity.Type.CARRIER, "BLUE", 1234.5677f, -0.00125f, 3.4E10f, -7f, null, 0.1f, 2.0E-5f, -1, "DOCKED");
+        StringBuilder builder = new StringBuilder("prefix:");
+
+        // when
+        EntitySerializer.serializeTo(entity, builder);
+
+        // then
+        assertThat(builder.toString()).isEqualTo("prefix:" + EntitySerializer.serialize(entity));
+        assertThat(EntitySerializer.serialize(entity))
+            .isEqualTo("BLUE-12|C|BLUE|1234.5677|-0.00125|3.4E10|-7.0|null|0.1|2.0E-5|-1|DOCKED");
+    }
+
+    @Test
+    void serializeToByteBufferShouldWriteUtf8OfSerialize() {
+        // given
+        Entity entity = new Entity("żółw-1", Entity.Type.MISSILE, "ORANGE", 10.25f, 20f, 0f, -0f, "true", 5f, 6f, 0, "FLYING");
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+
+        // when
+        EntitySerializer.serializeTo(entity, buffer);
+
+        // then
+        String written = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        assertThat(written).isEqualTo(EntitySerializer.serialize(entity));
+    }
+
+    @Test
+    void entityFactoryShouldShareStringsAcrossFrames() {
+        // given
+        EntitySink<Entity> factory = EntitySerializer.entityFactory(new StringTable(64));
+        String first = "RED-1|F|RED|1.0|2.0|0.0|0.0|false|0.0|0.0|2|OK";
+        String second = "RED-1|F|RED|3.0|4.0|0.0|0.0|false|0.0|0.0|2|OK";
+
+        // when
+        Entity a = EntitySerializer.deserializeInto(first, 0, first.length(), factory);
+        Entity b = EntitySerializer.deserializeInto(second, 0, second.length(), factory);
+
+        // then
+        assertThat(b.px()).isEqualTo(3.0f);
+        assertThat(b.id()).isSameAs(a.id());
+        assertThat(b.color()).isSameAs(a.color());
+        assertThat(b.shot()).isSameAs(a.shot());
+        assertThat(b.status()).isSameAs(a.status());
+    }
+
+    @Test
+    void deserializeIntoFrameShouldAppendEntity() {
+        // given
+        EntityFrame frame = new EntityFrame(4);
+        Entity entity = new Entity("RED-1", Entity.Type.FIGHTER, "RED", 1.5f, 2f, 3f, 4f, "true", 5f, 6f, 2, "OK");
+        String serialized = "xx" + EntitySerializer.serialize(entity);
+
+        // when
+        int index = EntitySerializer.deserializeInto(serialized, 2, serialized.length(), frame, new StringTable(16));
+
+        // then
+        assertThat(index).isZero();
+        assertThat(frame.entity(0)).isEqualTo(entity);
+    }
 }
@@ -0,0 +1,128 @@
+package it.battlejar.api.serialization;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NumbersTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "-0.0", "1.0", "+2.5", "-123.456", "0.001", "1.0E7", "3.4028235E38", "1.17549435E-38",
+        "1.4E-45", "7.006492E-46", "16777217", "0.1", "123456789012345678901234", "1e-50", "5.", ".5", "NaN", "-Infinity"})
+    void parseFloatShouldMatchFloatParseFloat(String text) {
+        // when
+        float parsed = Numbers.parseFloat(text, 0, text.length());
+
+        // then
+        assertThat(Float.floatToRawIntBits(parsed)).isEqualTo(Float.floatToRawIntBits(Float.parseFloat(text)));
+    }
+
+    @Test
+    void parseFloatShouldRoundTripRandomFloats() {
+        // given
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            float value = Float.intBitsToFloat(random.nextInt());
+            if (Float.isNaN(value)) {
+                continue;
+            }
+            String text = Float.toString(value);
+
+            // when
+            float parsed = Numbers.parseFloat(text, 0, text.length());
+
+            // then
+            assertThat(parsed).as(text).isEqualTo(value);
+        }
+    }
+
+    @Test
+    void parseFloatShouldMatchFloatParseFloatForShortDecimals() {
+        // given
+        SplittableRandom random = new SplittableRandom(7);
+
+        for (int i = 0; i < 100_000; i++) {
+            String text = random.nextInt(-100_000_000, 100_000_000) + "." + random.nextInt(0, 100_000);
+
+            // when
+            float parsed = Numbers.parseFloat(text, 0, text.length());
+
+            // then
+            assertThat(parsed).as(text).isEqualTo(Float.parseFloat(text));
+        }
+    }
+
+    @Test
+    void parseFloatShouldOnlyReadGivenRange() {
+        // given
+        String text = "9|12.75|9";
+
+        // when / then
+        assertThat(Numbers.parseFloat(text, 2, 7)).isEqualTo(12.75f);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "-", "abc", "1.2.3", "1e", "1|2"})
+    void parseFloatShouldThrowOnInvalidInput(String text) {
+        assertThatThrownBy(() -> Numbers.parseFloat(text, 0, text.length()))
+            .isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void appendFloatShouldMatchFloatToString() throws Exception {
+        // given
+        SplittableRandom random = new SplittableRandom(11);
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < 100_000; i++) {
+            float value = i % 2 == 0 ? Float.intBitsToFloat(random.nextInt()) : (float) random.nextDouble(-10_000, 10_000);
+            builder.setLength(0);
+
+            // when
+            Numbers.appendFloat(builder, value);
+
+            // then
+            assertThat(builder.toString()).isEqualTo(Float.toString(value));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.0", "-0.0", "1.0", "100.0", "9999999.0", "1.0E7", "0.001", "9.99E-4", "-2479.6562",
+        "1.17549435E-38", "1.4E-45", "3.4028235E38", "NaN", "Infinity"})
+    void putFloatShouldWriteSameTextAsFloatToString(String text) {
+        // given
+        float value = Float.parseFloat(text);
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+
+        // when
+        Numbers.putFloat(buffer, value);
+
+        // then
+        assertThat(new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII)).isEqualTo(Float.toString(value));
+    }
+
+    @Test
+    void appendIntShouldMatchIntegerToString() throws Exception {
+        for (int value : new int[]{0, 7, -7, 10, 1_000_000, Integer.MIN_VALUE, Integer.MAX_VALUE}) {
+            // given
+            StringBuilder builder = new StringBuilder();
+            ByteBuffer buffer = ByteBuffer.allocate(16);
+
+            // when
+            Numbers.appendInt(builder, value);
+            Numbers.putInt(buffer, value);
+
+            // then
+            assertThat(builder.toString()).isEqualTo(Integer.toString(value));
+            assertThat(new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII)).isEqualTo(Integer.toString(value));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package it.battlejar.api.serialization;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StringTableTest {
+
+    @Test
+    void shouldReturnSharedInstanceForSameCharacters() {
+        // given
+        StringTable table = new StringTable(16);
+        String first = table.canonicalize("xxRED-1xx", 2, 7);
+
+        // when
+        String second = table.canonicalize(new StringBuilder("RED-1|F"), 0, 5);
+
+        // then
+        assertThat(first).isEqualTo("RED-1");
+        assertThat(second).isSameAs(first);
+        assertThat(table.stats()).isEqualTo(new StringTable.Stats(1, 1, 0));
+    }
+
+    @Test
+    void shouldDistinguishDifferentStrings() {
+        // given
+        StringTable table = new StringTable(16);
+
+        // when
+        String red = table.canonicalize("RED");
+        String blue = table.canonicalize("BLUE");
+        String empty = table.canonicalize("x", 0, 0);
+
+        // then
+        assertThat(red).isEqualTo("RED");
+        assertThat(blue).isEqualTo("BLUE");
+        assertThat(empty).isEmpty();
+        assertThat(table.canonicalize((String) null)).isNull();
+        assertThat(table.stats().misses()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldStayBoundedWhenFull() {
+        // given
+        StringTable table = new StringTable(4);
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            assertThat(table.canonicalize("id-" + i)).isEqualTo("id-" + i);
+        }
+
+        // then
+        assertThat(table.stats().misses()).isEqualTo(100);
+        assertThat(table.stats().evictions()).isEqualTo(96);
+    }
+
+    @Test
+    void clearShouldForgetStringsButKeepStats() {
+        // given
+        StringTable table = new StringTable(16);
+        String first = table.canonicalize(new String("RED"));
+
+        // when
+        table.clear();
+        String second = table.canonicalize(new String("RED"));
+
+        // then
+        assertThat(second).isNotSameAs(first);
+        assertThat(table.stats()).isEqualTo(new StringTable.Stats(0, 2, 0));
+    }
+
+    @Test
+    void shouldRejectNonPositiveCapacity() {
+        // when / then
+        assertThatThrownBy(() -> new StringTable(0))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Capacity must be positive");
+    }
+}
@@ -0,0 +1,126 @@
+package it.battlejar.client.webscoket;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link RingBuffer} with the {@link LinkedBlockingDeque} the message loops used before:
+ * a producer and a consumer thread exchanging messages, and a burst of messages queued and drained by one thread.
+ * Run with {@code ./gradlew :client:jmh}; add {@code -prof gc} to the JMH arguments to see the allocation per message.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageQueueBenchmark {
+
+    private static final int CAPACITY = 256;
+    private static final int BURST = 64;
+    private static final String MESSAGE = "{\"type\":\"pong\",\"id\":\"1\",\"timestamp\":1}";
+
+    @State(Scope.Group)
+    public static class RingState {
+        @Param({"BUSY_SPIN", "YIELD", "PARK"})
+        WaitStrategy strategy;
+        RingBuffer<String> ring;
+
+        @Setup
+        public void setUp() {
+            ring = new RingBuffer<>(CAPACITY, strategy);
+        }
+    }
+
+    @State(Scope.Group)
+    public static class DequeState {
+        LinkedBlockingDeque<String> deque;
+
+        @Setup
+        public void setUp() {
+            deque = new LinkedBlockingDeque<>(CAPACITY);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BurstState {
+        RingBuffer<String> ring;
+        LinkedBlockingDeque<String> deque;
+        List<String> drained;
+
+        @Setup
+        public void setUp() {
+            ring = new RingBuffer<>(CAPACITY, WaitStrategy.PARK);
+            deque = new LinkedBlockingDeque<>();
+            drained = new ArrayList<>(BURST);
+        }
+    }
+
+    @Benchmark
+    @Group("ring")
+    @GroupThreads(1)
+    public boolean ringOffer(RingState state) {
+        return state.ring.offer(MESSAGE);
+    }
+
+    @Benchmark
+    @Group("ring")
+    @GroupThreads(1)
+    public String ringPoll(RingState state) throws InterruptedException {
+        String message = state.ring.poll();
+        if (message == null && state.ring.await(10, TimeUnit.MILLISECONDS)) {
+            message = state.ring.poll();
+        }
+        return message;
+    }
+
+    @Benchmark
+    @Group("deque")
+    @GroupThreads(1)
+    public boolean dequeOffer(DequeState state) {
+        return state.deque.offer(MESSAGE);
+    }
+
+    @Benchmark
+    @Group("deque")
+    @GroupThreads(1)
+    public String dequePoll(DequeState state) throws InterruptedException {
+        return state.deque.poll(10, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public int ringBurst(BurstState state) {
+        for (int i = 0; i < BURST; i++) {
+            state.ring.offer(MESSAGE);
+        }
+        state.drained.clear();
+        return state.ring.drainTo(state.drained, BURST);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public int dequeBurst(BurstState state) {
+        for (int i = 0; i < BURST; i++) {
+            state.deque.add(MESSAGE);
+        }
+        state.drained.clear();
+        return state.deque.drainTo(state.drained, BURST);
+    }
+}
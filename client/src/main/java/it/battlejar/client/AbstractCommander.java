@@ -1,6 +1,7 @@
 package it.battlejar.client;
 
 import it.battlejar.api.*;
+import it.battlejar.client.frame.PooledFrame;
 
 import java.util.Collection;
 import java.util.function.Consumer;
@@ -11,6 +12,9 @@ import static java.util.Objects.requireNonNull;
  * Abstract implementation of the {@link Commander} interface.
  * Provides basic functionality for storing game settings and assigned color,
  * and handles the boilerplate code for sending orders.
+ * Pooled entity frames are released once {@link #process(Collection)} returns; use {@link #retain(Collection)}
+ * to keep them longer. Orders issued during {@link #process(Collection)} are flushed when it returns,
+ * see {@link OrderSender}.
  */
 public abstract class AbstractCommander implements Commander {
 
@@ -57,9 +61,51 @@ public abstract class AbstractCommander implements Commander {
             throw new IllegalStateException("Order sender not set. Register and connect websocket first.");
         }
         if (entities == null || !"RUNNING".equals(entities.state())) {
+            if (entities != null) {
+                PooledFrame.release(entities.entities());
+            }
             return true; // wait for the game to start
         }
-        return process(entities.entities());
+        try {
+            return process(entities.entities());
+        } finally {
+            PooledFrame.release(entities.entities());
+            if (orderSender instanceof OrderSender sender) {
+                sender.flush(); // orders of this update go out together
+            }
+        }
+    }
+
+    /**
+     * Keeps the entities valid after {@link #process(Collection)} returns, e.g. to compare with the next frame.
+     * Pooled frames are otherwise recycled for later frames; each retain must be matched by {@link #release(Collection)}.
+     *
+     * @param entities the entities passed to {@link #process(Collection)}
+     * @return the same entities
+     */
+    protected Collection<Entity> retain(Collection<Entity> entities) {
+        PooledFrame.retain(entities);
+        return entities;
+    }
+
+    /**
+     * Releases entities kept with {@link #retain(Collection)}.
+     *
+     * @param entities the retained entities
+     */
+    protected void release(Collection<Entity> entities) {
+        PooledFrame.release(entities);
+    }
+
+    /**
+     * Returns the entities as a struct-of-arrays frame, for allocation-free numeric loops.
+     * For pooled frames this is the frame the entities were decoded into, valid as long as the entities are.
+     *
+     * @param entities the entities passed to {@link #process(Collection)}
+     * @return the frame
+     */
+    protected EntityFrame frame(Collection<Entity> entities) {
+        return PooledFrame.frameOf(entities);
     }
 
     /**
@@ -2,18 +2,28 @@ package it.battlejar.client;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import it.battlejar.api.*;
+import it.battlejar.api.serialization.StringTable;
 import it.battlejar.client.http.HttpGameClient;
-import it.battlejar.client.webscoket.EntityJacksonModule;
+import it.battlejar.client.webscoket.LatestValueMailbox;
+import it.battlejar.client.webscoket.OrderStore;
+import it.battlejar.client.webscoket.ReceiveStats;
+import it.battlejar.client.webscoket.SendStats;
 import it.battlejar.client.webscoket.WebSocketGameClient;
+import it.battlejar.client.webscoket.WebSocketMessageDecoder;
 import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import static java.lang.Thread.currentThread;
+import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor;
 
 /**
@@ -31,11 +41,13 @@ import static java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor;
 @Slf4j
 public class BattleJarClient implements AutoCloseable {
 
-    private final ObjectMapper objectMapper = new ObjectMapper()
-        .registerModule(new JavaTimeModule())
-        .registerModule(new EntityJacksonModule());
+    private final ClientContext context;
+    private final boolean ownContext;
+    private final StringTable strings;
+    private final ObjectMapper objectMapper;
     private final ExecutorService executorService;
     private final boolean externalExecutor;
+    private final ClientOptions options;
 
     private final String baseUrl;
     private final HttpGameClient httpGameClient;
@@ -56,7 +68,19 @@ public class BattleJarClient implements AutoCloseable {
      */
     @SuppressWarnings("unused")
     public BattleJarClient(String serverUrl, Commander commander) {
-        this(serverUrl, commander, newVirtualThreadPerTaskExecutor(), false);
+        this(serverUrl, commander, ClientOptions.DEFAULT);
+    }
+
+    /**
+     * Creates a new BattleJar client with a virtual thread executor and custom options.
+     * The executor will be automatically managed and closed by the client.
+     *
+     * @param serverUrl the base URL of the BattleJar Universe server
+     * @param commander the commander implementation that will process game state and send orders
+     * @param options   the client options
+     */
+    public BattleJarClient(String serverUrl, Commander commander, ClientOptions options) {
+        this(serverUrl, commander, newVirtualThreadPerTaskExecutor(), false, options, null);
     }
 
     /**
@@ -69,74 +93,203 @@ public class BattleJarClient implements AutoCloseable {
      * @param executorService the executor service to use for asynchronous operations
      */
     public BattleJarClient(String serverUrl, Commander commander, ExecutorService executorService) {
-        this(serverUrl, commander, executorService, true);
+        this(serverUrl, commander, executorService, ClientOptions.DEFAULT);
+    }
+
+    /**
+     * Creates a new BattleJar client with a custom executor service and custom options.
+     * The provided executor will not be shut down when the client is closed.
+     *
+     * @param serverUrl       the base URL of the BattleJar Universe server
+     * @param commander       the commander implementation that will process game state and send orders
+     * @param executorService the executor service to use for asynchronous operations
+     * @param options         the client options
+     */
+    public BattleJarClient(String serverUrl, Commander commander, ExecutorService executorService, ClientOptions options) {
+        this(serverUrl, commander, executorService, true, options, null);
+    }
+
+    /**
+     * Creates a new BattleJar client sharing the HTTP client, object mapper and pools of a {@link ClientContext}.
+     * Neither the executor nor the context are closed when the client is closed; only the game's WebSocket is.
+     *
+     * @param serverUrl       the base URL of the BattleJar Universe server
+     * @param commander       the commander implementation that will process game state and send orders
+     * @param executorService the executor service to use for asynchronous operations
+     * @param options         the client options
+     * @param context         the shared resources
+     */
+    public BattleJarClient(String serverUrl, Commander commander, ExecutorService executorService, ClientOptions options,
+                           ClientContext context) {
+        this(serverUrl, commander, executorService, true, options, requireNonNull(context, "Context cannot be null"));
     }
 
-    private BattleJarClient(String serverUrl, Commander commander, ExecutorService executorService, boolean externalExecutor) {
+    // without a context, the mapper and pools are the client's own and HTTP goes through the shared default client
+    private BattleJarClient(String serverUrl, Commander commander, ExecutorService executorService, boolean externalExecutor,
+                            ClientOptions options, ClientContext context) {
         this.baseUrl = serverUrl.endsWith("/") ? serverUrl.substring(0, serverUrl.length() - 1) : serverUrl;
         this.commander = commander;
-        this.httpGameClient = new HttpGameClient(baseUrl);
+        this.ownContext = context == null;
+        this.context = context != null ? context
+            : new ClientContext(HttpGameClient.defaultHttpClient(), HttpGameClient.DEFAULT_REQUEST_TIMEOUT);
+        this.strings = this.context.strings();
+        this.objectMapper = this.context.objectMapper();
+        this.httpGameClient = this.context.newHttpGameClient(baseUrl);
         this.executorService = executorService;
         this.externalExecutor = externalExecutor;
+        this.options = options == null ? ClientOptions.DEFAULT : options;
     }
 
     /**
-     * Registers a player with the server.
+     * Registers a player with the server, waiting for the game to start.
+     * Polls and retries failures as {@link ClientOptions#registration()} says.
      *
      * @param player the player to register
+     * @return the registered player, with the colour assigned by the server
      */
     public Player register(Player player) {
+        Registration registration = new Registration(requirePlayer(player));
+        while (true) {
+            Duration delay;
+            try {
+                delay = registration.onResponse(httpGameClient.post("/register", registration.body()));
+            } catch (HttpGameClient.HttpError e) {
+                delay = registration.onFailure(e);
+            }
+            if (delay == null) {
+                return this.player;
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                currentThread().interrupt();
+                throw new RuntimeException("Registration interrupted", e);
+            }
+        }
+    }
+
+    /**
+     * Registers a player with the server without blocking: polls and retries are scheduled on the executor
+     * instead of sleeping, see {@link #register(Player)}.
+     *
+     * @param player the player to register
+     * @return the future registered player; completes exceptionally where {@link #register(Player)} would throw
+     */
+    public CompletableFuture<Player> registerAsync(Player player) {
+        return attemptAsync(new Registration(requirePlayer(player)));
+    }
+
+    private CompletableFuture<Player> attemptAsync(Registration registration) {
+        return httpGameClient.postAsync("/register", registration.body())
+            .handle((response, failure) -> failure == null ? registration.onResponse(response)
+                : registration.onFailure(failure instanceof CompletionException ? failure.getCause() : failure))
+            .thenCompose(delay -> delay == null ? CompletableFuture.completedFuture(this.player)
+                : CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS, executorService))
+                    .thenCompose(ignored -> attemptAsync(registration)));
+    }
+
+    private Player requirePlayer(Player player) {
         if (player == null) {
             throw new IllegalArgumentException("Player cannot be null");
         }
-        boolean registered = false;
-
         log.debug("[{}] Registering player {} with color: {}", gameId, player.id(), player.color() == null ? "AUTO" : player.color());
-        do {
+        return player;
+    }
+
+    // one registration in progress: each response or failure yields the delay before the next attempt, null once registered
+    private class Registration {
+
+        private final Player player;
+        private final RegistrationPolicy policy = options.registration();
+        private int failures;
+        private long expectedStart; // System.nanoTime() at which the server expects the game to start
+        private boolean startKnown;
+
+        Registration(Player player) {
+            this.player = player;
+        }
+
+        String body() {
             try {
-                RegistrationResponse response;
-                String jsonBody = objectMapper.writeValueAsString(this.player != null ? this.player : player);
+                String jsonBody = objectMapper.writeValueAsString(BattleJarClient.this.player != null ? BattleJarClient.this.player : player);
                 log.debug("[{}] Registration request payload: {}", gameId, jsonBody);
-                HttpGameClient.HttpResponse httpResponse = httpGameClient.post("/register", jsonBody);
-                int code = httpResponse.code();
-                String jsonBodyResponse = httpResponse.body();
-                log.debug("[{}] Registration response payload: code={}, body={}", gameId, code, jsonBodyResponse);
-
-                if (code == 200 || code == 202) {
-                    response = objectMapper.readValue(jsonBodyResponse, RegistrationResponse.class);
-                    log.debug("[{}] Registration response parsed: id={}, color={}", gameId, response.playerId(), response.color());
-
-                    UUID playerId = response.playerId() != null ? response.playerId() : this.player.id();
-                    this.player = new Player(playerId, response.color(), player.username());
-
-                    if (code == 202) {
-                        log.debug("[{}] Updated player: {}", gameId, this.player);
-                        Thread.sleep(1000);
-                    } else {
-                        gameId = response.gameId();
-                        httpGameClient.setGameId(gameId);
-                        if (response.color() == null) {
-                            throw new IllegalStateException("Server did not return a color in registration response");
-                        }
-                        log.info("[{}] Registration successful - assigned color: {}", gameId, response.color());
-
-                        // Notify commander of registration and provide order sender
-                        commander.process(response);
-                        commander.setOrdersSender(this::order);
-                        registered = true;
-                    }
-                } else {
-                    log.error("[{}] Registration failed with code {}: {}", gameId, code, jsonBodyResponse);
-                    throw new RuntimeException("Registration failed: " + (jsonBodyResponse != null ? jsonBodyResponse : "Unknown error"));
+                return jsonBody;
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to register player", e);
+            }
+        }
+
+        Duration onResponse(HttpGameClient.HttpResponse httpResponse) {
+            int code = httpResponse.code();
+            String jsonBodyResponse = httpResponse.body();
+            log.debug("[{}] Registration response payload: code={}, body={}", gameId, code, jsonBodyResponse);
+            if (code != 200 && code != 202) {
+                if (isTransient(code)) {
+                    return retry(new HttpGameClient.HttpError("Registration failed: " + jsonBodyResponse, code, httpResponse.retryAfter()));
                 }
-            } catch (InterruptedException e) {
-                currentThread().interrupt();
-                throw new RuntimeException("Registration interrupted", e);
+                log.error("[{}] Registration failed with code {}: {}", gameId, code, jsonBodyResponse);
+                throw new RuntimeException("Registration failed: " + (jsonBodyResponse != null ? jsonBodyResponse : "Unknown error"));
+            }
+            failures = 0;
+            RegistrationResponse response;
+            try {
+                response = objectMapper.readValue(jsonBodyResponse, RegistrationResponse.class);
             } catch (JsonProcessingException e) {
                 throw new RuntimeException("Failed to register player", e);
             }
-        } while (!registered);
-        return this.player;
+            log.debug("[{}] Registration response parsed: id={}, color={}", gameId, response.playerId(), response.color());
+
+            UUID playerId = response.playerId() != null ? response.playerId() : BattleJarClient.this.player.id();
+            BattleJarClient.this.player = new Player(playerId, response.color(), player.username());
+
+            if (code == 202) {
+                log.debug("[{}] Updated player: {}", gameId, BattleJarClient.this.player);
+                long now = System.nanoTime();
+                if (httpResponse.retryAfter() != null && !startKnown) {
+                    expectedStart = now + httpResponse.retryAfter().toNanos(); // later hints would keep pushing it back
+                    startKnown = true;
+                }
+                Duration delay = policy.pollDelay(httpResponse.retryAfter(), startKnown ? Duration.ofNanos(now - expectedStart) : null);
+                log.debug("[{}] Game not started yet, polling again in {}", gameId, delay);
+                return delay;
+            }
+            gameId = response.gameId();
+            httpGameClient.setGameId(gameId);
+            if (response.color() == null) {
+                throw new IllegalStateException("Server did not return a color in registration response");
+            }
+            log.info("[{}] Registration successful - assigned color: {}", gameId, response.color());
+
+            // Notify commander of registration and provide order sender
+            commander.process(response);
+            commander.setOrdersSender(new ClientOrderSender());
+            return null;
+        }
+
+        Duration onFailure(Throwable failure) {
+            if (failure instanceof HttpGameClient.HttpError error && (error.getCode() == 0 || isTransient(error.getCode()))) {
+                return retry(error);
+            }
+            throw failure instanceof RuntimeException e ? e : new CompletionException(failure);
+        }
+
+        private Duration retry(HttpGameClient.HttpError error) {
+            if (currentThread().isInterrupted()) {
+                throw new RuntimeException("Registration interrupted", error);
+            }
+            if (++failures >= policy.maxFailures()) {
+                log.error("[{}] Registration failed {} times in a row, giving up", gameId, failures);
+                throw new RuntimeException("Registration failed after " + failures + " attempts: " + error.getMessage(), error);
+            }
+            Duration delay = policy.backoff(failures, error.getRetryAfter(), ThreadLocalRandom.current().nextDouble());
+            log.warn("[{}] Registration attempt {} failed: {}. Retrying in {}", gameId, failures, error.getMessage(), delay);
+            return delay;
+        }
+
+        // rate limiting and server errors may clear up, unlike a rejected player
+        private static boolean isTransient(int code) {
+            return code == 429 || code >= 500;
+        }
     }
 
     /**
@@ -154,17 +307,37 @@ public class BattleJarClient implements AutoCloseable {
 
         String wsUrl = baseUrl.replace("http", "ws") + "/ws?playerId=" + player.id();
 
-        try (WebSocketGameClient webSocketGameClient = new WebSocketGameClient(gameId, objectMapper, executorService)) {
+        OrderStore orderStore = options.orders().newOrderStore();
+        try (WebSocketGameClient webSocketGameClient = new WebSocketGameClient(gameId, objectMapper,
+            new WebSocketMessageDecoder(objectMapper, strings, context.framePool()), orderStore, context.httpClient(),
+            options.webSocket(), executorService)) {
             webSocketGameClient.connect(wsUrl);
             this.webSocketGameClient = webSocketGameClient;
             log.info("[{}] Connected to WebSocket: {}", gameId, wsUrl);
-            executorService.submit(webSocketGameClient::processMessages);
-            log.info("[{}] Started processing WebSocket messages", gameId);
-            executorService.submit(() -> webSocketGameClient.processEntities(this::entitiesProcessor));
-            log.info("[{}] Started processing entities. Starting sending orders", gameId);
-            webSocketGameClient.processOrders();
-            log.info("[{}] Stopped sending orders. Stopping processing entities", gameId);
+            if (options.eventLoop()) {
+                log.info("[{}] Starting event loop", gameId);
+                webSocketGameClient.runEventLoop(this::frameProcessor);
+                log.info("[{}] Stopped event loop", gameId);
+            } else {
+                executorService.submit(webSocketGameClient::processMessages);
+                log.info("[{}] Started processing WebSocket messages", gameId);
+                executorService.submit(() -> webSocketGameClient.processFrames(this::frameProcessor));
+                log.info("[{}] Started processing entities. Starting sending orders", gameId);
+                webSocketGameClient.processOrders();
+                log.info("[{}] Stopped sending orders. Stopping processing entities", gameId);
+            }
+            log.info("[{}] Send statistics: {}", gameId, webSocketGameClient.sendStats());
+            log.info("[{}] Receive statistics: {}", gameId, webSocketGameClient.receiveStats());
+        } finally {
+            log.debug("[{}] {} stale orders replaced, {} dropped before sending", gameId, orderStore.replaced(), orderStore.dropped());
+        }
+    }
+
+    private boolean frameProcessor(LatestValueMailbox.Delivery<Entities> delivery) {
+        if (delivery.superseded() > 0) {
+            log.debug("[{}] Frame {} superseded {} frames the commander did not get to", gameId, delivery.sequence(), delivery.superseded());
         }
+        return entitiesProcessor(delivery.value());
     }
 
     private boolean entitiesProcessor(Entities entities) {
@@ -177,11 +350,19 @@ public class BattleJarClient implements AutoCloseable {
             }
         }
         log.debug("[{}] Processing {} entities for commander", gameId, entities.entities().size());
-        return commander.process(entities);
+        try {
+            return commander.process(entities);
+        } finally {
+            flush(); // commanders not flushing themselves still send once per update
+        }
     }
 
     /**
      * Sends an order to the game server.
+     * The order is queued and serialized when sent; a pending order of a coalesced type
+     * for the same entity is replaced (see {@link OrderOptions#coalescedOrders()}).
+     * When {@link OrderOptions#maxPendingOrders()} orders are already waiting, the {@link OrderOptions#backpressure()}
+     * policy decides whether this order or the oldest one is dropped, or whether this call waits for the sender.
      *
      * @param order the order to send
      */
@@ -204,15 +385,52 @@ public class BattleJarClient implements AutoCloseable {
             throw new IllegalStateException("WebSocket not connected - call process() first");
         }
 
-        try {
-            String json = objectMapper.writeValueAsString(order);
-            webSocketGameClient.sendText(json);
-        } catch (Exception e) {
-            log.error("[{}] Failed to send order via WebSocket", gameId, e);
-            throw new RuntimeException("Failed to send order via WebSocket", e);
+        webSocketGameClient.sendOrder(order);
+    }
+
+    /**
+     * Sends the orders batched since the last flush as a single {@link Orders} message
+     * (a lone order is sent as is). Does nothing unless order batching is enabled in the {@link ClientOptions}.
+     * Called automatically after each update processed by the commander.
+     */
+    public void flush() {
+        if (webSocketGameClient != null) {
+            webSocketGameClient.flushOrders();
         }
     }
 
+    /**
+     * Returns the statistics of the table canonicalizing entity strings (IDs, colours, shots and statuses).
+     * With a shared {@link ClientContext}, the table and its statistics are those of every game using the context.
+     *
+     * @return a snapshot of hits, misses and evictions
+     */
+    public StringTable.Stats getStringTableStats() {
+        return strings.stats();
+    }
+
+    /**
+     * Returns the statistics of the outbound side of the current game: messages sent and in flight,
+     * send latency, pending orders and orders replaced or dropped.
+     *
+     * @return a snapshot of the statistics, or null if not connected
+     */
+    public SendStats getSendStats() {
+        WebSocketGameClient current = webSocketGameClient;
+        return current == null ? null : current.sendStats();
+    }
+
+    /**
+     * Returns the statistics of the inbound side of the current game: messages received and pending,
+     * and entities frames dropped before parsing or superseded before reaching the commander.
+     *
+     * @return a snapshot of the statistics, or null if not connected
+     */
+    public ReceiveStats getReceiveStats() {
+        WebSocketGameClient current = webSocketGameClient;
+        return current == null ? null : current.receiveStats();
+    }
+
     /**
      * Signals that the player is leaving the game.
      *
@@ -222,7 +440,9 @@ public class BattleJarClient implements AutoCloseable {
         String path = "/leave?color=" + color.name() + "&gameId=" + gameId;
         log.info("[{}] {} is leaving game", gameId, color.name());
         try {
-            HttpGameClient.HttpResponse httpResponse = httpGameClient.get(path);
+            // joined rather than sent blocking: HttpClient gives up at once on an interrupted thread, and interrupting
+            // is how continuous loops and pools stop their clients; the request timeout still bounds the wait
+            HttpGameClient.HttpResponse httpResponse = httpGameClient.getAsync(path).join();
             log.debug("[{}] Leave response: code={}, body={}", gameId, httpResponse.code(), httpResponse.body());
         } catch (Exception e) {
             log.warn("[{}] Failed to call leave endpoint", gameId, e);
@@ -248,6 +468,23 @@ public class BattleJarClient implements AutoCloseable {
             if (webSocketGameClient != null) {
                 webSocketGameClient.close();
             }
+            // IDs are not reused across games; a shared table is left to the context's owner, other games still use it
+            if (ownContext) {
+                log.debug("[{}] Clearing string table: {}", gameId, strings);
+                strings.clear();
+            }
+        }
+    }
+
+    private class ClientOrderSender implements OrderSender {
+        @Override
+        public void accept(Order order) {
+            order(order);
+        }
+
+        @Override
+        public void flush() {
+            BattleJarClient.this.flush();
         }
     }
 }
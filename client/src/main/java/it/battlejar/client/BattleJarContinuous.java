@@ -1,9 +1,17 @@
 package it.battlejar.client;
 
 import it.battlejar.api.Player;
+import it.battlejar.client.webscoket.ReceiveStats;
+import it.battlejar.client.webscoket.SendStats;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import static java.lang.Thread.currentThread;
@@ -27,27 +35,68 @@ public class BattleJarContinuous {
     private final String serverUrl;
     private final ExecutorService executorService;
     private final Supplier<Commander> commanderFactory;
-    private Player player;
+    private final ClientOptions options;
+    private final ClientContext context;
+    private final AtomicLong gamesPlayed = new AtomicLong();
+    private final AtomicLong failedSessions = new AtomicLong();
+    private volatile BattleJarClient current;
+    private volatile Player player;
 
     /**
      * Creates a new continuous client with a callback for when a new game starts.
      *
      * @param serverUrl        the base URL of the server
      * @param player           the initial player configuration
-     * @param executorService  the executor service for running background tasks (currently unused, reserved for future use)
+     * @param executorService  the executor service for running background tasks
      * @param commanderFactory supplier that creates a new commander instance for each game
      */
     public BattleJarContinuous(String serverUrl, Player player, Supplier<Commander> commanderFactory, ExecutorService executorService) {
+        this(serverUrl, player, commanderFactory, executorService, ClientOptions.DEFAULT);
+    }
+
+    /**
+     * Creates a new continuous client with custom options for each game's client.
+     *
+     * @param serverUrl        the base URL of the server
+     * @param player           the initial player configuration
+     * @param commanderFactory supplier that creates a new commander instance for each game
+     * @param executorService  the executor service for running background tasks
+     * @param options          the options of each game's {@link BattleJarClient}
+     */
+    public BattleJarContinuous(String serverUrl, Player player, Supplier<Commander> commanderFactory, ExecutorService executorService,
+                               ClientOptions options) {
+        this(serverUrl, player, commanderFactory, executorService, options, null);
+    }
+
+    /**
+     * Creates a new continuous client sharing the resources of a {@link ClientContext} across games.
+     * Without a context, one is created for each {@link #run()} and closed when it returns.
+     * With {@link ClientOptions#pipelined()}, the commander for the next game is created and warmed up on the executor
+     * while the current game is played, and a finished game is closed on the executor while the next registration
+     * is already under way.
+     *
+     * @param serverUrl        the base URL of the server
+     * @param player           the initial player configuration
+     * @param commanderFactory supplier that creates a new commander instance for each game
+     * @param executorService  the executor service for running background tasks
+     * @param options          the options of each game's {@link BattleJarClient}
+     * @param context          the shared resources, not closed by this client; or null
+     */
+    public BattleJarContinuous(String serverUrl, Player player, Supplier<Commander> commanderFactory, ExecutorService executorService,
+                               ClientOptions options, ClientContext context) {
+        this.context = context;
         this.serverUrl = serverUrl;
         this.player = requireNonNull(player, "Initial player cannot be null");
         this.executorService = executorService;
         this.commanderFactory = requireNonNull(commanderFactory, "Commander supplier cannot be null");
+        this.options = requireNonNull(options, "Options cannot be null");
     }
 
     /**
      * Runs the continuous game loop.
      * This method blocks until the thread is interrupted.
-     * When a game ends or registration fails, it retries after a short delay.
+     * When a game ends, it registers again right away; when a session fails, it retries after a delay growing
+     * with each failure in a row, see {@link RegistrationPolicy#backoff}.
      */
     public void run() {
         log.info("Starting continuous game loop");
@@ -55,33 +104,138 @@ public class BattleJarContinuous {
         log.info("Player Color: {}", player.color());
 
         boolean running = true;
+        int failures = 0;
+        ClientContext context = this.context != null ? this.context : new ClientContext();
+        CompletableFuture<Commander> nextCommander = null;
+        CompletableFuture<Void> teardowns = CompletableFuture.completedFuture(null);
 
-        while (running) {
-            log.info("Starting new game session...");
-            try {
-                Commander commander = commanderFactory.get();
-                try (BattleJarClient client = new BattleJarClient(serverUrl, commander, executorService)) {
+        try {
+            while (running) {
+                log.info("Starting new game session...");
+                BattleJarClient client = null;
+                try {
+                    CompletableFuture<Commander> prepared = nextCommander;
+                    nextCommander = null; // a failed preparation is not joined again
+                    Commander commander = prepared != null ? prepared(prepared) : warmUp(commanderFactory.get());
+                    client = new BattleJarClient(serverUrl, commander, executorService, options, context);
                     log.debug("Registering player with data: {}", player);
                     player = client.register(player);
                     log.debug("Registration completed with player data: {}", player);
+                    failures = 0;
+                    current = client;
+                    if (options.pipelined()) {
+                        nextCommander = CompletableFuture.supplyAsync(() -> warmUp(commanderFactory.get()), executorService);
+                    }
                     client.process();
-                    log.info("Game session ended. Re-registering...");
-                }
-            } catch (Throwable e) {
-                log.error("Error in game session: {}. Retrying in 5 seconds...", e.getMessage());
-                try {
-                    Thread.sleep(5000);
-                } catch (InterruptedException ie) {
-                    currentThread().interrupt();
-                    log.info("Thread interrupted during retry delay - stopping");
+                    // an interrupt stops the game before its end
+                    if (!currentThread().isInterrupted()) {
+                        gamesPlayed.incrementAndGet();
+                        log.info("Game session ended. Re-registering...");
+                    }
+                } catch (Throwable e) {
+                    failedSessions.incrementAndGet();
+                    Duration delay = options.registration().backoff(++failures, null, ThreadLocalRandom.current().nextDouble());
+                    log.error("Error in game session: {}. Retrying in {}...", e.getMessage(), delay);
+                    try {
+                        Thread.sleep(delay);
+                    } catch (InterruptedException ie) {
+                        currentThread().interrupt();
+                        log.info("Thread interrupted during retry delay - stopping");
+                    }
+                } finally {
+                    if (client != null) {
+                        current = null;
+                        teardowns = close(client, teardowns);
+                    }
+                    if (currentThread().isInterrupted()) {
+                        running = false;
+                        log.info("Thread interrupted - stopping continuous game loop");
+                    }
                 }
+            }
+        } finally {
+            if (nextCommander != null) {
+                nextCommander.cancel(false); // prepared for a game that will not be played
+            }
+            try {
+                teardowns.join(); // leaving the last game needs the context
             } finally {
-                if (currentThread().isInterrupted()) {
-                    running = false;
-                    log.info("Thread interrupted - stopping continuous game loop");
+                if (this.context == null) {
+                    context.close();
                 }
             }
         }
         log.info("Continuous game loop stopped");
     }
+
+    /**
+     * @return the player as last registered, or as initially configured
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * @return the number of games played to the end
+     */
+    public long getGamesPlayed() {
+        return gamesPlayed.get();
+    }
+
+    /**
+     * @return the number of sessions that failed, in registration or during the game
+     */
+    public long getFailedSessions() {
+        return failedSessions.get();
+    }
+
+    /**
+     * Returns the statistics of the outbound side of the game being played, see {@link BattleJarClient#getSendStats()}.
+     *
+     * @return a snapshot of the statistics, or null if no game is being played
+     */
+    public SendStats getSendStats() {
+        BattleJarClient client = current;
+        return client == null ? null : client.getSendStats();
+    }
+
+    /**
+     * Returns the statistics of the inbound side of the game being played, see {@link BattleJarClient#getReceiveStats()}.
+     *
+     * @return a snapshot of the statistics, or null if no game is being played
+     */
+    public ReceiveStats getReceiveStats() {
+        BattleJarClient client = current;
+        return client == null ? null : client.getReceiveStats();
+    }
+
+    // a commander that failed to build or warm up in the background is built again here, so the failure surfaces
+    private Commander prepared(CompletableFuture<Commander> prepared) {
+        try {
+            return prepared.join();
+        } catch (CompletionException | CancellationException e) {
+            log.warn("Failed to prepare the next commander: {}. Creating a new one", e.getMessage());
+            return warmUp(commanderFactory.get());
+        }
+    }
+
+    private Commander warmUp(Commander commander) {
+        commander.warmUp();
+        return commander;
+    }
+
+    // when pipelined, leaving the game and closing its WebSocket overlap with the next registration
+    private CompletableFuture<Void> close(BattleJarClient client, CompletableFuture<Void> teardowns) {
+        if (!options.pipelined()) {
+            client.close();
+            return teardowns;
+        }
+        CompletableFuture<Void> teardown = CompletableFuture.runAsync(client::close, executorService)
+            .exceptionally(e -> {
+                log.warn("Failed to close game session: {}", e.getMessage());
+                return null;
+            });
+        // finished teardowns are dropped, so a long run does not hold on to every past game
+        return teardowns.isDone() ? teardown : CompletableFuture.allOf(teardowns, teardown);
+    }
 }
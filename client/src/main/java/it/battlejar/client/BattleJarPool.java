@@ -0,0 +1,245 @@
+package it.battlejar.client;
+
+import it.battlejar.api.Player;
+import it.battlejar.client.http.HttpGameClient;
+import it.battlejar.client.webscoket.EntityJacksonModule;
+import it.battlejar.client.webscoket.ReceiveStats;
+import it.battlejar.client.webscoket.SendStats;
+import it.battlejar.client.webscoket.WaitStrategy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static java.lang.Thread.currentThread;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs many {@link BattleJarContinuous} sessions, each with its own player and commanders, on shared resources:
+ * one {@link ClientContext} (object mapper, string table, frame pool and a single {@link HttpClient} for HTTP
+ * and WebSockets) and one executor of virtual threads for the loops of every game.
+ * The receiving, commander and sending loops block on virtual threads, so they take no platform thread while idle;
+ * the platform threads of the pool are the {@code maxPlatformThreads} handling HTTP responses and WebSocket messages,
+ * the {@link HttpClient}'s own selector thread, and the JVM's carrier threads (one per core unless
+ * {@code jdk.virtualThreadScheduler.parallelism} says otherwise).
+ * Entities frames split into several fragments are decoded as their fragments arrive, on the threads handling
+ * WebSocket messages, so at most {@code maxPlatformThreads} of them are decoded at once across all sessions;
+ * raise it if the bots' receiving loops keep waiting for frames while those threads are busy.
+ * The string table is shared by every session and sized for {@code expectedSessions} of them;
+ * more sessions may be added, at the cost of entity strings evicting each other.
+ * Usage:
+ * <pre>
+ * try (BattleJarPool pool = new BattleJarPool(serverUrl, ClientOptions.DEFAULT, 4)) {
+ *   for (Player player : players) {
+ *     pool.add(player, MyCommander::new);
+ *   }
+ *   ...
+ *   log.info("{}", pool.stats());
+ * }
+ * </pre>
+ */
+@Slf4j
+public class BattleJarPool implements AutoCloseable {
+
+    /**
+     * Default number of sessions the shared string table is sized for.
+     */
+    public static final int DEFAULT_EXPECTED_SESSIONS = 32;
+
+    private final String serverUrl;
+    private final ClientOptions options;
+    private final ExecutorService httpExecutor;
+    private final HttpClient httpClient;
+    private final ClientContext context;
+    private final ExecutorService executorService;
+    private final List<Session> sessions = new CopyOnWriteArrayList<>();
+    private final int maxPlatformThreads;
+
+    /**
+     * Creates a new pool with no session, its string table sized for {@link #DEFAULT_EXPECTED_SESSIONS} sessions.
+     *
+     * @param serverUrl          the base URL of the server
+     * @param options            the options of each game's {@link BattleJarClient}; idle threads must park,
+     *                           a spinning virtual thread would hold on to its carrier
+     * @param maxPlatformThreads the number of platform threads handling HTTP responses and WebSocket messages
+     * @throws IllegalArgumentException if the options do not park idle threads or the number of threads is not positive
+     */
+    public BattleJarPool(String serverUrl, ClientOptions options, int maxPlatformThreads) {
+        this(serverUrl, options, maxPlatformThreads, DEFAULT_EXPECTED_SESSIONS);
+    }
+
+    /**
+     * Creates a new pool with no session.
+     *
+     * @param serverUrl          the base URL of the server
+     * @param options            the options of each game's {@link BattleJarClient}; idle threads must park,
+     *                           a spinning virtual thread would hold on to its carrier
+     * @param maxPlatformThreads the number of platform threads handling HTTP responses and WebSocket messages
+     * @param expectedSessions   the number of sessions the shared string table is sized for
+     * @throws IllegalArgumentException if the options do not park idle threads, or the number of threads or sessions
+     *                                  is not positive
+     */
+    public BattleJarPool(String serverUrl, ClientOptions options, int maxPlatformThreads, int expectedSessions) {
+        requireNonNull(options, "Options cannot be null");
+        if (options.webSocket().waitStrategy() != WaitStrategy.PARK) {
+            throw new IllegalArgumentException("Pooled sessions must park idle threads: " + options.webSocket().waitStrategy());
+        }
+        if (maxPlatformThreads <= 0) {
+            throw new IllegalArgumentException("Max platform threads must be positive: " + maxPlatformThreads);
+        }
+        if (expectedSessions <= 0) {
+            throw new IllegalArgumentException("Expected sessions must be positive: " + expectedSessions);
+        }
+        this.serverUrl = requireNonNull(serverUrl, "Server URL cannot be null");
+        this.options = options;
+        this.maxPlatformThreads = maxPlatformThreads;
+        this.httpExecutor = Executors.newFixedThreadPool(maxPlatformThreads,
+            Thread.ofPlatform().name("battlejar-http-", 0).daemon(true).factory());
+        this.httpClient = HttpGameClient.newHttpClient(HttpGameClient.DEFAULT_CONNECT_TIMEOUT, httpExecutor);
+        this.context = new ClientContext(httpClient, HttpGameClient.DEFAULT_REQUEST_TIMEOUT,
+            Math.multiplyExact(EntityJacksonModule.DEFAULT_STRING_TABLE_CAPACITY, expectedSessions));
+        this.executorService = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("battlejar-", 0).factory());
+    }
+
+    /**
+     * Starts a continuous session, playing games one after the other until the pool is closed or the session stopped.
+     *
+     * @param player           the initial player configuration
+     * @param commanderFactory supplier that creates a new commander instance for each game
+     * @return the session
+     */
+    public Session add(Player player, Supplier<Commander> commanderFactory) {
+        BattleJarContinuous continuous = new BattleJarContinuous(serverUrl, player, commanderFactory, executorService,
+            options, context);
+        Session session = new Session(continuous);
+        session.future = executorService.submit(continuous::run);
+        sessions.add(session);
+        log.info("Started session {} of {}", sessions.size(), player.username());
+        return session;
+    }
+
+    /**
+     * @return the sessions started and not stopped
+     */
+    public List<Session> sessions() {
+        return List.copyOf(sessions);
+    }
+
+    /**
+     * Returns the statistics of every session, added up.
+     *
+     * @return a snapshot of the statistics
+     */
+    public Stats stats() {
+        int playing = 0;
+        long games = 0, failed = 0, sent = 0, received = 0, droppedOrders = 0, supersededFrames = 0;
+        for (Session session : sessions) {
+            SessionStats stats = session.stats();
+            games += stats.gamesPlayed();
+            failed += stats.failedSessions();
+            if (stats.send() != null) {
+                playing++;
+                sent += stats.send().sent();
+                droppedOrders += stats.send().droppedOrders();
+            }
+            if (stats.receive() != null) {
+                received += stats.receive().received();
+                supersededFrames += stats.receive().supersededFrames();
+            }
+        }
+        return new Stats(sessions.size(), playing, games, failed, sent, received, droppedOrders, supersededFrames,
+            maxPlatformThreads);
+    }
+
+    /**
+     * Stops every session, waiting for them to leave their games, then releases the shared resources.
+     */
+    @Override
+    public void close() {
+        for (Session session : sessions) {
+            session.stop();
+        }
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Sessions did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            currentThread().interrupt();
+        } finally {
+            log.info("Closing HTTP client");
+            httpClient.close();
+            httpExecutor.shutdown();
+        }
+    }
+
+    /**
+     * A continuous session of the pool.
+     */
+    public final class Session {
+
+        private final BattleJarContinuous continuous;
+        private volatile Future<?> future;
+
+        private Session(BattleJarContinuous continuous) {
+            this.continuous = continuous;
+        }
+
+        /**
+         * Returns the statistics of this session: games played and, for the game being played,
+         * the traffic in each direction.
+         *
+         * @return a snapshot of the statistics
+         */
+        public SessionStats stats() {
+            return new SessionStats(continuous.getPlayer(), continuous.getGamesPlayed(), continuous.getFailedSessions(),
+                continuous.getSendStats(), continuous.getReceiveStats());
+        }
+
+        /**
+         * Stops the session, leaving the game being played; the other sessions carry on.
+         */
+        public void stop() {
+            Future<?> running = future;
+            if (running != null) {
+                running.cancel(true); // the continuous loop stops when interrupted
+            }
+            sessions.remove(this);
+        }
+    }
+
+    /**
+     * Snapshot of a session.
+     *
+     * @param player         the player as last registered
+     * @param gamesPlayed    the number of games played to the end
+     * @param failedSessions the number of sessions that failed, in registration or during the game
+     * @param send           the outbound side of the game being played, or null if none
+     * @param receive        the inbound side of the game being played, or null if none
+     */
+    public record SessionStats(Player player, long gamesPlayed, long failedSessions, SendStats send, ReceiveStats receive) {
+    }
+
+    /**
+     * Snapshot of the whole pool, the sum of its sessions.
+     *
+     * @param sessions           the number of sessions
+     * @param playing            the number of sessions in a game
+     * @param gamesPlayed        the number of games played to the end
+     * @param failedSessions     the number of sessions that failed
+     * @param sent               messages sent over the WebSockets of the games being played
+     * @param received           messages received over the WebSockets of the games being played
+     * @param droppedOrders      orders dropped in the games being played
+     * @param supersededFrames   entities frames the commanders of the games being played did not get to
+     * @param maxPlatformThreads the number of platform threads handling HTTP responses and WebSocket messages
+     */
+    public record Stats(int sessions, int playing, long gamesPlayed, long failedSessions, long sent, long received,
+                        long droppedOrders, long supersededFrames, int maxPlatformThreads) {
+    }
+}
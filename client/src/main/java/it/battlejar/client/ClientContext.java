@@ -0,0 +1,137 @@
+package it.battlejar.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import it.battlejar.api.serialization.StringTable;
+import it.battlejar.client.codec.CodecModule;
+import it.battlejar.client.frame.FramePool;
+import it.battlejar.client.http.HttpGameClient;
+import it.battlejar.client.webscoket.EntityJacksonModule;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Resources shared by game sessions: one {@link HttpClient} (with its connection pool and selector thread)
+ * for both HTTP requests and WebSockets, the {@link ObjectMapper}, the table canonicalizing entity strings
+ * and the pool of entities frames.
+ * Pass one context to every {@link BattleJarClient} so that starting and closing a game only opens and closes
+ * its WebSocket:
+ * <pre>
+ * try (ClientContext context = new ClientContext()) {
+ *   while (...) {
+ *     try (BattleJarClient client = new BattleJarClient(serverUrl, commander, executorService, ClientOptions.DEFAULT, context)) {
+ *       ...
+ *     }
+ *   }
+ * }
+ * </pre>
+ * Safe for concurrent use by several sessions.
+ */
+@Slf4j
+public class ClientContext implements AutoCloseable {
+
+    private final HttpClient httpClient;
+    private final boolean ownHttpClient;
+    private final Duration requestTimeout;
+    private final StringTable strings;
+    private final FramePool framePool = new FramePool();
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Creates a context with a new {@link HttpClient}, closed with the context.
+     */
+    public ClientContext() {
+        this(HttpGameClient.newHttpClient(HttpGameClient.DEFAULT_CONNECT_TIMEOUT), true, HttpGameClient.DEFAULT_REQUEST_TIMEOUT,
+            EntityJacksonModule.DEFAULT_STRING_TABLE_CAPACITY);
+    }
+
+    /**
+     * Creates a context using the given {@link HttpClient}, which is not closed with the context.
+     *
+     * @param httpClient     the client for HTTP requests and WebSockets
+     * @param requestTimeout the timeout of each HTTP request
+     */
+    public ClientContext(HttpClient httpClient, Duration requestTimeout) {
+        this(httpClient, requestTimeout, EntityJacksonModule.DEFAULT_STRING_TABLE_CAPACITY);
+    }
+
+    /**
+     * Creates a context using the given {@link HttpClient}, which is not closed with the context, and a string table
+     * of the given capacity; size it for the games decoding at the same time, about
+     * {@link EntityJacksonModule#DEFAULT_STRING_TABLE_CAPACITY} strings each.
+     *
+     * @param httpClient          the client for HTTP requests and WebSockets
+     * @param requestTimeout      the timeout of each HTTP request
+     * @param stringTableCapacity the maximum number of entity strings kept
+     */
+    public ClientContext(HttpClient httpClient, Duration requestTimeout, int stringTableCapacity) {
+        this(httpClient, false, requestTimeout, stringTableCapacity);
+    }
+
+    private ClientContext(HttpClient httpClient, boolean ownHttpClient, Duration requestTimeout, int stringTableCapacity) {
+        this.httpClient = httpClient;
+        this.ownHttpClient = ownHttpClient;
+        this.requestTimeout = requestTimeout;
+        this.strings = new StringTable(stringTableCapacity);
+        this.objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new CodecModule())
+            .registerModule(new EntityJacksonModule(strings));
+    }
+
+    /**
+     * Creates an HTTP client for the given server using this context's {@link HttpClient}.
+     *
+     * @param baseUrl the base URL of the server
+     * @return a new HTTP game client
+     */
+    public HttpGameClient newHttpGameClient(String baseUrl) {
+        return new HttpGameClient(baseUrl, httpClient, requestTimeout);
+    }
+
+    /**
+     * @return the client for HTTP requests and WebSockets
+     */
+    public HttpClient httpClient() {
+        return httpClient;
+    }
+
+    /**
+     * @return the object mapper for messages and HTTP bodies
+     */
+    public ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Returns the table canonicalizing entity strings, shared by every game using this context.
+     * Games do not clear it, as other games may be decoding with it; being bounded, it evicts the IDs of past games
+     * as new ones come, and too small a table for the games running together keeps evicting the IDs of live ones.
+     * Clear it when no game is running if needed.
+     *
+     * @return the table canonicalizing entity strings
+     */
+    public StringTable strings() {
+        return strings;
+    }
+
+    /**
+     * @return the pool entities frames are decoded into
+     */
+    public FramePool framePool() {
+        return framePool;
+    }
+
+    /**
+     * Closes the {@link HttpClient} if it was created by this context, waiting for its connections to close.
+     */
+    @Override
+    public void close() {
+        if (ownHttpClient) {
+            log.info("Closing HTTP client");
+            httpClient.close();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package it.battlejar.client;
+
+import it.battlejar.api.OrderType;
+import it.battlejar.client.webscoket.Backpressure;
+import it.battlejar.client.webscoket.WaitStrategy;
+import it.battlejar.client.webscoket.WebSocketGameClient;
+import it.battlejar.client.webscoket.WebSocketOptions;
+
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Options for a {@link BattleJarClient}.
+ * Related options are grouped in records of their own; the {@code withX} methods here are shortcuts for the common ones.
+ *
+ * @param orders       how orders are held until they are sent
+ * @param webSocket    how messages are sent and how idle threads wait for work
+ * @param eventLoop    whether a single thread receives messages, runs the commander and sends orders,
+ *                     see {@link WebSocketGameClient#runEventLoop}
+ * @param pipelined    whether {@link BattleJarContinuous} prepares the next game and tears down the previous one
+ *                     in the background
+ * @param registration how registration polls the server and retries failures
+ */
+public record ClientOptions(OrderOptions orders, WebSocketOptions webSocket, boolean eventLoop, boolean pipelined,
+                            RegistrationPolicy registration) {
+
+    /**
+     * Default options: orders are held as {@link OrderOptions#DEFAULT} says and messages sent as
+     * {@link WebSocketOptions#DEFAULT} says; messages, the commander and orders each have their own thread;
+     * games follow each other without overlapping; registration follows {@link RegistrationPolicy#DEFAULT}.
+     */
+    public static final ClientOptions DEFAULT = new ClientOptions(OrderOptions.DEFAULT, WebSocketOptions.DEFAULT, false,
+        false, RegistrationPolicy.DEFAULT);
+
+    public ClientOptions {
+        requireNonNull(orders, "Order options cannot be null");
+        requireNonNull(webSocket, "WebSocket options cannot be null");
+        requireNonNull(registration, "Registration policy cannot be null");
+        if (eventLoop && orders.backpressure() == Backpressure.BLOCK) {
+            throw new IllegalArgumentException("Event loop cannot block on a full order store: the commander runs on the sender thread");
+        }
+    }
+
+    /**
+     * Returns a copy holding orders as the given options say.
+     *
+     * @param orders how orders are held until they are sent
+     * @return the new options
+     */
+    public ClientOptions withOrders(OrderOptions orders) {
+        return new ClientOptions(orders, webSocket, eventLoop, pipelined, registration);
+    }
+
+    /**
+     * Returns a copy sending messages as the given options say.
+     *
+     * @param webSocket how messages are sent and how idle threads wait for work
+     * @return the new options
+     */
+    public ClientOptions withWebSocket(WebSocketOptions webSocket) {
+        return new ClientOptions(orders, webSocket, eventLoop, pipelined, registration);
+    }
+
+    /**
+     * Returns a copy running the whole session on one thread, or on one thread each for messages, the commander
+     * and orders; a single thread saves the hand-offs between them, at the cost of the commander delaying
+     * the messages and orders behind it.
+     *
+     * @param eventLoop whether a single thread receives messages, runs the commander and sends orders
+     * @return the new options
+     */
+    public ClientOptions withEventLoop(boolean eventLoop) {
+        return new ClientOptions(orders, webSocket, eventLoop, pipelined, registration);
+    }
+
+    /**
+     * Returns a copy overlapping the transitions between the games of a {@link BattleJarContinuous}, or not:
+     * when pipelined, the commander for the next game is created and warmed up in the background while the current
+     * game is played, and a finished game is closed in the background while the next registration is under way.
+     *
+     * @param pipelined whether to prepare the next game and tear down the previous one in the background
+     * @return the new options
+     */
+    public ClientOptions withPipelined(boolean pipelined) {
+        return new ClientOptions(orders, webSocket, eventLoop, pipelined, registration);
+    }
+
+    /**
+     * Returns a copy polling for registration and retrying its failures as the given policy says.
+     *
+     * @param registration how registration polls the server and retries failures
+     * @return the new options
+     */
+    public ClientOptions withRegistration(RegistrationPolicy registration) {
+        return new ClientOptions(orders, webSocket, eventLoop, pipelined, registration);
+    }
+
+    /**
+     * Returns a copy with order batching enabled or disabled, see {@link OrderOptions#batchOrders()}.
+     *
+     * @param batchOrders whether to batch orders
+     * @return the new options
+     */
+    public ClientOptions withBatchOrders(boolean batchOrders) {
+        return withOrders(orders.withBatchOrders(batchOrders));
+    }
+
+    /**
+     * Returns a copy coalescing the given order types; pass an empty set to send every order.
+     *
+     * @param coalescedOrders the order types to coalesce
+     * @return the new options
+     */
+    public ClientOptions withCoalescedOrders(Set<OrderType> coalescedOrders) {
+        return withOrders(orders.withCoalescedOrders(coalescedOrders));
+    }
+
+    /**
+     * Returns a copy bounding the orders waiting to be sent.
+     *
+     * @param maxPendingOrders the maximum number of orders waiting to be sent
+     * @param backpressure     what happens to a new order when that many orders are waiting
+     * @return the new options
+     */
+    public ClientOptions withBackpressure(int maxPendingOrders, Backpressure backpressure) {
+        return withOrders(orders.withBackpressure(maxPendingOrders, backpressure));
+    }
+
+    /**
+     * Returns a copy sending the given order types in the urgent lane; pass an empty set to send all orders in order.
+     *
+     * @param urgentOrders the order types sent ahead of the others
+     * @return the new options
+     */
+    public ClientOptions withUrgentOrders(Set<OrderType> urgentOrders) {
+        return withOrders(orders.withUrgentOrders(urgentOrders));
+    }
+
+    /**
+     * Returns a copy with the given number of messages in flight on the WebSocket.
+     *
+     * @param sendWindow the maximum number of messages handed to the WebSocket and not yet sent
+     * @return the new options
+     */
+    public ClientOptions withSendWindow(int sendWindow) {
+        return withWebSocket(webSocket.withSendWindow(sendWindow));
+    }
+
+    /**
+     * Returns a copy where idle threads wait for messages and orders with the given strategy;
+     * spinning reacts faster to a new frame at the cost of a busy core per thread.
+     *
+     * @param waitStrategy how the threads receiving messages and sending orders wait for work
+     * @return the new options
+     */
+    public ClientOptions withWaitStrategy(WaitStrategy waitStrategy) {
+        return withWebSocket(webSocket.withWaitStrategy(waitStrategy));
+    }
+
+    /**
+     * Returns a copy with the given share of each order lane in a turn of the sender.
+     *
+     * @param urgentWeight the maximum number of messages taken from the urgent lane per turn
+     * @param bulkWeight   the maximum number of messages taken from the bulk lane per turn
+     * @return the new options
+     */
+    public ClientOptions withLaneWeights(int urgentWeight, int bulkWeight) {
+        return withWebSocket(webSocket.withLaneWeights(urgentWeight, bulkWeight));
+    }
+}
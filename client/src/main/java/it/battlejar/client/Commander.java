@@ -34,4 +34,12 @@ public interface Commander {
      * @param orderSender consumer for sending orders to the server
      */
     void setOrdersSender(Consumer<Order> orderSender);
+
+    /**
+     * Called once before registration, to load data and exercise code paths ahead of the first update.
+     * {@link BattleJarContinuous} in pipelined mode calls it in the background while the previous game is still
+     * running, so the cost of a cold commander is not paid during the game.
+     */
+    default void warmUp() {
+    }
 }
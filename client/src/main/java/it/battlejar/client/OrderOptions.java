@@ -0,0 +1,93 @@
+package it.battlejar.client;
+
+import it.battlejar.api.OrderType;
+import it.battlejar.api.Orders;
+import it.battlejar.client.webscoket.Backpressure;
+import it.battlejar.client.webscoket.OrderStore;
+import it.battlejar.client.webscoket.OutboundLane;
+
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * How a {@link BattleJarClient} holds the orders of its commander until they are sent.
+ *
+ * @param batchOrders      whether orders issued during one update are sent as a single {@link Orders} message
+ *                         instead of one message per order; requires a server supporting {@link Orders}
+ * @param coalescedOrders  the order types for which a pending order is replaced by a newer one for the same entity,
+ *                         see {@link OrderStore}
+ * @param urgentOrders     the order types sent in the {@link OutboundLane#URGENT} lane, ahead of the other orders
+ * @param maxPendingOrders the maximum number of orders waiting to be sent
+ * @param backpressure     what happens to a new order when {@code maxPendingOrders} orders are waiting
+ */
+public record OrderOptions(boolean batchOrders, Set<OrderType> coalescedOrders, Set<OrderType> urgentOrders,
+                           int maxPendingOrders, Backpressure backpressure) {
+
+    /**
+     * Default options: orders are sent one by one, coalescing {@link OrderStore#DEFAULT_COALESCED} order types;
+     * {@link OrderStore#DEFAULT_URGENT} order types go ahead of the others; up to {@link OrderStore#DEFAULT_CAPACITY}
+     * orders wait to be sent, the oldest being dropped beyond that.
+     */
+    public static final OrderOptions DEFAULT = new OrderOptions(false, OrderStore.DEFAULT_COALESCED,
+        OrderStore.DEFAULT_URGENT, OrderStore.DEFAULT_CAPACITY, Backpressure.COALESCE);
+
+    public OrderOptions {
+        coalescedOrders = Set.copyOf(requireNonNull(coalescedOrders, "Coalesced order types cannot be null"));
+        urgentOrders = Set.copyOf(requireNonNull(urgentOrders, "Urgent order types cannot be null"));
+        requireNonNull(backpressure, "Backpressure cannot be null");
+        if (maxPendingOrders <= 0) {
+            throw new IllegalArgumentException("Max pending orders must be positive: " + maxPendingOrders);
+        }
+    }
+
+    /**
+     * Returns a copy with order batching enabled or disabled.
+     *
+     * @param batchOrders whether to batch orders
+     * @return the new options
+     */
+    public OrderOptions withBatchOrders(boolean batchOrders) {
+        return new OrderOptions(batchOrders, coalescedOrders, urgentOrders, maxPendingOrders, backpressure);
+    }
+
+    /**
+     * Returns a copy coalescing the given order types; pass an empty set to send every order.
+     *
+     * @param coalescedOrders the order types to coalesce
+     * @return the new options
+     */
+    public OrderOptions withCoalescedOrders(Set<OrderType> coalescedOrders) {
+        return new OrderOptions(batchOrders, coalescedOrders, urgentOrders, maxPendingOrders, backpressure);
+    }
+
+    /**
+     * Returns a copy sending the given order types in the urgent lane; pass an empty set to send all orders in order.
+     *
+     * @param urgentOrders the order types sent ahead of the others
+     * @return the new options
+     */
+    public OrderOptions withUrgentOrders(Set<OrderType> urgentOrders) {
+        return new OrderOptions(batchOrders, coalescedOrders, urgentOrders, maxPendingOrders, backpressure);
+    }
+
+    /**
+     * Returns a copy bounding the orders waiting to be sent.
+     *
+     * @param maxPendingOrders the maximum number of orders waiting to be sent
+     * @param backpressure     what happens to a new order when that many orders are waiting
+     * @return the new options
+     */
+    public OrderOptions withBackpressure(int maxPendingOrders, Backpressure backpressure) {
+        return new OrderOptions(batchOrders, coalescedOrders, urgentOrders, maxPendingOrders, backpressure);
+    }
+
+    /**
+     * Creates a store holding orders as these options say.
+     *
+     * @return a new, empty store
+     */
+    OrderStore newOrderStore() {
+        return new OrderStore(coalescedOrders, urgentOrders, batchOrders, maxPendingOrders, backpressure);
+    }
+}
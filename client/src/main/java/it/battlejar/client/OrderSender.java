@@ -0,0 +1,18 @@
+package it.battlejar.client;
+
+import it.battlejar.api.Order;
+
+import java.util.function.Consumer;
+
+/**
+ * Order consumer that may hold orders back until {@link #flush()}, so that all orders
+ * issued during one update can be sent together.
+ * {@link AbstractCommander} flushes automatically at the end of each update.
+ */
+public interface OrderSender extends Consumer<Order> {
+
+    /**
+     * Sends the orders accepted since the last flush.
+     */
+    void flush();
+}
@@ -0,0 +1,94 @@
+package it.battlejar.client;
+
+import java.time.Duration;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * How a {@link BattleJarClient} polls for registration and retries failed attempts.
+ * While the server answers 202 (registered, game not started yet), the client polls again after the server's
+ * {@code Retry-After}, the first one being taken as the expected start of the game; once that time has come, it polls
+ * every {@code fastPollInterval} for {@code fastPollWindow}, even if the server keeps sending {@code Retry-After},
+ * then after the server's {@code Retry-After} again or, without one, every {@code pollInterval}.
+ * Polls are never closer than {@code fastPollInterval}, whatever the server says.
+ * Failures the server may recover from (I/O errors, 429 and 5xx) are retried with exponential backoff and jitter,
+ * or after the server's {@code Retry-After} when given, never waiting longer than {@code maxBackoff}.
+ *
+ * @param pollInterval     the delay between polls without a hint from the server
+ * @param fastPollInterval the delay between polls near the expected start of the game, and the shortest delay between polls
+ * @param fastPollWindow   how long after the expected start polls are fast
+ * @param initialBackoff   the delay after the first failure, doubled on each failure in a row
+ * @param maxBackoff       the maximum delay after a failure
+ * @param jitter           the fraction of each backoff drawn at random, between 0 and 1, so that clients failing
+ *                         together do not retry together
+ * @param maxFailures      the number of failures in a row after which registration gives up
+ */
+public record RegistrationPolicy(Duration pollInterval, Duration fastPollInterval, Duration fastPollWindow,
+                                 Duration initialBackoff, Duration maxBackoff, double jitter, int maxFailures) {
+
+    /**
+     * Default policy: polls every second, every 100ms for 3 seconds from the expected start;
+     * backs off from 500ms up to 30 seconds with 20% jitter, giving up after 5 failures in a row.
+     */
+    public static final RegistrationPolicy DEFAULT = new RegistrationPolicy(Duration.ofSeconds(1), Duration.ofMillis(100),
+        Duration.ofSeconds(3), Duration.ofMillis(500), Duration.ofSeconds(30), 0.2, 5);
+
+    public RegistrationPolicy {
+        requireNonNull(pollInterval, "Poll interval cannot be null");
+        requireNonNull(fastPollInterval, "Fast poll interval cannot be null");
+        requireNonNull(fastPollWindow, "Fast poll window cannot be null");
+        requireNonNull(initialBackoff, "Initial backoff cannot be null");
+        requireNonNull(maxBackoff, "Max backoff cannot be null");
+        if (!pollInterval.isPositive() || !fastPollInterval.isPositive() || fastPollWindow.isNegative()
+            || initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException("Invalid registration delays: " + pollInterval + ", " + fastPollInterval
+                + ", " + fastPollWindow + ", " + initialBackoff + ", " + maxBackoff);
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Jitter must be between 0 and 1: " + jitter);
+        }
+        if (maxFailures <= 0) {
+            throw new IllegalArgumentException("Max failures must be positive: " + maxFailures);
+        }
+    }
+
+    /**
+     * Returns the delay before polling again after a 202 response.
+     *
+     * @param retryAfter         the server's {@code Retry-After}; or null
+     * @param sinceExpectedStart how long ago the game was expected to start, negative if not yet; or null if unknown
+     * @return the delay, at least {@code fastPollInterval}
+     */
+    public Duration pollDelay(Duration retryAfter, Duration sinceExpectedStart) {
+        boolean nearStart = sinceExpectedStart != null && sinceExpectedStart.compareTo(fastPollWindow) < 0;
+        Duration delay;
+        if (retryAfter != null && !(nearStart && !sinceExpectedStart.isNegative())) {
+            delay = retryAfter;
+        } else {
+            delay = nearStart ? fastPollInterval : pollInterval;
+        }
+        // a Retry-After of 0 or in the past must not turn polling into a busy loop
+        return delay.compareTo(fastPollInterval) < 0 ? fastPollInterval : delay;
+    }
+
+    /**
+     * Returns the delay before retrying after a failure.
+     *
+     * @param failures   the number of failures in a row, including this one
+     * @param retryAfter the server's {@code Retry-After}; or null
+     * @param random     a random number between 0 and 1 drawing the jitter
+     * @return the delay, at most {@code maxBackoff}
+     */
+    public Duration backoff(int failures, Duration retryAfter, double random) {
+        if (retryAfter != null) {
+            // a server asking for hours must not stall registration past the policy's own limit
+            return retryAfter.compareTo(maxBackoff) > 0 ? maxBackoff : retryAfter;
+        }
+        long initial = initialBackoff.toNanos();
+        long max = maxBackoff.toNanos();
+        // doubling past the maximum is capped by the shift limit, then by the maximum
+        long exponential = initial << Math.min(Math.max(failures - 1, 0), Long.numberOfLeadingZeros(Math.max(initial, 1)) - 1);
+        long delay = Math.min(exponential, max);
+        return Duration.ofNanos(Math.round(delay * (1 - jitter * random)));
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * Streaming codecs generated at compile time for the api records, registered with {@link it.battlejar.client.codec.CodecModule}.
+ * {@link it.battlejar.api.Entity} and {@link it.battlejar.api.Entities} are not listed:
+ * they have hand-written codecs in {@link it.battlejar.client.webscoket.EntityJacksonModule}.
+ */
+@GenerateCodecs({
+    Player.class,
+    RegistrationResponse.class,
+    GameSettings.class,
+    Order.class,
+    Orders.class,
+    Ping.class,
+    Pong.class,
+    Resync.class,
+    EntitiesDelta.class
+})
+package it.battlejar.client.codec;
+
+import it.battlejar.api.EntitiesDelta;
+import it.battlejar.api.GameSettings;
+import it.battlejar.api.Order;
+import it.battlejar.api.Orders;
+import it.battlejar.api.Ping;
+import it.battlejar.api.Player;
+import it.battlejar.api.Pong;
+import it.battlejar.api.RegistrationResponse;
+import it.battlejar.api.Resync;
+import it.battlejar.codegen.GenerateCodecs;
@@ -0,0 +1,80 @@
+package it.battlejar.client.frame;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of recyclable {@link PooledFrame}s, so decoding a frame does not allocate once the pool is warm.
+ * Frames that are never released are simply garbage collected; the pool only keeps up to
+ * {@code maxIdle} released frames. Safe for concurrent use: frames are usually acquired by the
+ * receiving thread and released by the commander thread.
+ */
+public class FramePool {
+
+    /**
+     * Default number of idle frames kept.
+     */
+    public static final int DEFAULT_MAX_IDLE = 8;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final BlockingQueue<PooledFrame> idle;
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+
+    /**
+     * Creates a new pool keeping up to {@link #DEFAULT_MAX_IDLE} idle frames.
+     */
+    public FramePool() {
+        this(DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * Creates a new pool.
+     *
+     * @param maxIdle the maximum number of released frames kept for reuse
+     */
+    public FramePool(int maxIdle) {
+        this.idle = new ArrayBlockingQueue<>(maxIdle);
+    }
+
+    /**
+     * Returns an empty frame owned by the caller, who must {@link PooledFrame#release() release} it
+     * or let it be garbage collected.
+     *
+     * @return an empty frame with a reference count of one
+     */
+    public PooledFrame acquire() {
+        PooledFrame frame = idle.poll();
+        if (frame == null) {
+            created.incrementAndGet();
+            frame = new PooledFrame(this, INITIAL_CAPACITY);
+        } else {
+            reused.incrementAndGet();
+        }
+        frame.open();
+        return frame;
+    }
+
+    /**
+     * Returns the number of frames created because no idle frame was available.
+     *
+     * @return the number of created frames
+     */
+    public long created() {
+        return created.get();
+    }
+
+    /**
+     * Returns the number of acquisitions served with a recycled frame.
+     *
+     * @return the number of reused frames
+     */
+    public long reused() {
+        return reused.get();
+    }
+
+    void recycle(PooledFrame frame) {
+        idle.offer(frame); // dropped when the pool is full
+    }
+}
@@ -0,0 +1,136 @@
+package it.battlejar.client.frame;
+
+import it.battlejar.api.Entity;
+import it.battlejar.api.EntityFrame;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reference-counted {@link EntityFrame} from a {@link FramePool}, seen as a read-only list of entities
+ * so it can be carried by {@link it.battlejar.api.Entities} to existing commanders.
+ * Entity objects are only created when the list is accessed, once per index.
+ * After the last {@link #release()} the frame goes back to the pool and its content becomes invalid;
+ * holders that keep it longer must {@link #retain()} it first.
+ */
+public final class PooledFrame extends AbstractList<Entity> implements RandomAccess {
+
+    private final FramePool pool;
+    private final EntityFrame frame;
+    private final AtomicInteger references = new AtomicInteger();
+    private Entity[] entities;
+
+    PooledFrame(FramePool pool, int capacity) {
+        this.pool = pool;
+        this.frame = new EntityFrame(capacity);
+        this.entities = new Entity[capacity];
+    }
+
+    /**
+     * Retains the collection if it is a pooled frame.
+     *
+     * @param entities the collection, may be null
+     * @return true if the collection is a pooled frame and was retained
+     */
+    public static boolean retain(Collection<Entity> entities) {
+        if (entities instanceof PooledFrame pooled) {
+            pooled.retain();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Releases the collection if it is a pooled frame; other collections are left alone.
+     *
+     * @param entities the collection, may be null
+     */
+    public static void release(Collection<Entity> entities) {
+        if (entities instanceof PooledFrame pooled) {
+            pooled.release();
+        }
+    }
+
+    /**
+     * Returns the struct-of-arrays frame behind the collection, or builds one for other collections.
+     *
+     * @param entities the collection
+     * @return the frame
+     */
+    public static EntityFrame frameOf(Collection<Entity> entities) {
+        if (entities instanceof PooledFrame pooled) {
+            return pooled.frame();
+        }
+        EntityFrame frame = new EntityFrame(entities.size());
+        for (Entity entity : entities) {
+            if (entity != null) {
+                frame.add(entity);
+            } else {
+                frame.skip();
+            }
+        }
+        return frame;
+    }
+
+    /**
+     * Returns the frame to fill or read.
+     *
+     * @return the frame
+     */
+    public EntityFrame frame() {
+        return frame;
+    }
+
+    /**
+     * Adds a reference, keeping the frame valid until the matching {@link #release()}.
+     *
+     * @throws IllegalStateException if the frame has already gone back to the pool
+     */
+    public void retain() {
+        if (references.getAndUpdate(count -> count > 0 ? count + 1 : count) <= 0) {
+            throw new IllegalStateException("Frame already released");
+        }
+    }
+
+    /**
+     * Drops a reference; the last one returns the frame to the pool.
+     *
+     * @throws IllegalStateException if the frame has already gone back to the pool
+     */
+    public void release() {
+        int remaining = references.decrementAndGet();
+        if (remaining == 0) {
+            Arrays.fill(entities, 0, Math.min(frame.size(), entities.length), null);
+            frame.clear();
+            pool.recycle(this);
+        } else if (remaining < 0) {
+            references.incrementAndGet();
+            throw new IllegalStateException("Frame released more times than retained");
+        }
+    }
+
+    @Override
+    public Entity get(int index) {
+        Entity entity = index < entities.length ? entities[index] : null;
+        if (entity == null) {
+            entity = frame.entity(index);
+            if (index >= entities.length) {
+                entities = Arrays.copyOf(entities, Math.max(frame.size(), entities.length * 2));
+            }
+            entities[index] = entity;
+        }
+        return entity;
+    }
+
+    @Override
+    public int size() {
+        return frame.size();
+    }
+
+    void open() {
+        references.set(1);
+    }
+}
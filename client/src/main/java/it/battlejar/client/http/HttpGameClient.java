@@ -4,40 +4,126 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
 import java.net.URI;
-import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static java.lang.Thread.currentThread;
 
 /**
  * HTTP client for communicating with the BattleJar Universe server.
  * Works with JSON strings only - no knowledge of domain models.
+ * Requests go through a {@link HttpClient} that keeps connections alive and prefers HTTP/2;
+ * unless one is given, all instances share a default client.
  */
 @Slf4j
 public class HttpGameClient {
 
+    /**
+     * Default timeout for establishing a connection.
+     */
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    /**
+     * Default timeout for a request, until the response headers are received.
+     */
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
     private final String baseUrl;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
     private UUID gameId;
 
     /**
-     * Creates a new HttpGameClient.
+     * Creates a new HttpGameClient using the shared default {@link HttpClient}.
      *
      * @param baseUrl the base URL of the BattleJar Universe server
      */
     public HttpGameClient(String baseUrl) {
+        this(baseUrl, DefaultClient.INSTANCE, DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    /**
+     * Creates a new HttpGameClient.
+     *
+     * @param baseUrl        the base URL of the BattleJar Universe server
+     * @param httpClient     the client to send requests with; it is not closed by this class
+     * @param requestTimeout the timeout of each request
+     */
+    public HttpGameClient(String baseUrl, HttpClient httpClient, Duration requestTimeout) {
         this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.httpClient = httpClient;
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Creates an {@link HttpClient} configured for the game server: HTTP/2 when available and redirects followed.
+     *
+     * @param connectTimeout the timeout for establishing a connection
+     * @return a new client
+     */
+    public static HttpClient newHttpClient(Duration connectTimeout) {
+        return builder(connectTimeout).build();
+    }
+
+    /**
+     * Creates an {@link HttpClient} configured for the game server, handling responses and WebSocket messages
+     * on the given executor instead of threads of its own.
+     *
+     * @param connectTimeout the timeout for establishing a connection
+     * @param executor       the executor for asynchronous tasks
+     * @return a new client
+     */
+    public static HttpClient newHttpClient(Duration connectTimeout, Executor executor) {
+        return builder(connectTimeout).executor(executor).build();
+    }
+
+    private static HttpClient.Builder builder(Duration connectTimeout) {
+        return HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .followRedirects(HttpClient.Redirect.NORMAL);
+    }
+
+    /**
+     * Returns the client shared by instances created without one, created on first use.
+     *
+     * @return the shared default client
+     */
+    public static HttpClient defaultHttpClient() {
+        return DefaultClient.INSTANCE;
     }
 
     /**
      * HTTP response containing status code and body.
      *
-     * @param code the HTTP status code
-     * @param body the response body as a string
+     * @param code       the HTTP status code
+     * @param body       the response body as a string
+     * @param retryAfter how long the server asked to wait before trying again, from the {@code Retry-After} header;
+     *                   null if absent
      */
-    public record HttpResponse(int code, String body) {
+    public record HttpResponse(int code, String body, Duration retryAfter) {
+
+        /**
+         * Creates a response without a {@code Retry-After} header.
+         *
+         * @param code the HTTP status code
+         * @param body the response body as a string
+         */
+        public HttpResponse(int code, String body) {
+            this(code, body, null);
+        }
     }
 
     /**
@@ -62,25 +148,7 @@ public class HttpGameClient {
      * @throws HttpError on I/O failure or on HTTP error status (4xx/5xx); response body is in HttpResponse when available
      */
     public HttpResponse post(String path, String jsonBody) {
-        try {
-            URL url = URI.create(baseUrl + path).toURL();
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setRequestProperty("Accept", "application/json");
-            connection.setDoOutput(true);
-
-            // Write request body
-            try (OutputStream os = connection.getOutputStream()) {
-                byte[] input = jsonBody.getBytes(StandardCharsets.UTF_8);
-                os.write(input, 0, input.length);
-            }
-
-            return readResponse(path, connection);
-        } catch (IOException e) {
-            log.error("[{}] Failed to send POST request to {}", gameId, path, e);
-            throw new HttpError("Failed to communicate with server: " + e.getMessage(), 0);
-        }
+        return send("POST", path, postRequest(path, jsonBody));
     }
 
     /**
@@ -91,49 +159,108 @@ public class HttpGameClient {
      * @throws HttpError on I/O failure or on HTTP error status (4xx/5xx); response body is in HttpResponse when available
      */
     public HttpResponse get(String path) {
-        try {
-            URL url = URI.create(baseUrl + path).toURL();
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("Accept", "application/json");
+        return send("GET", path, getRequest(path));
+    }
+
+    /**
+     * Sends a POST request with JSON body without blocking.
+     *
+     * @param path the path to send the request to
+     * @param jsonBody the JSON body as a string
+     * @return the future HTTP response; completes exceptionally with {@link HttpError} where {@link #post} would throw it
+     */
+    public CompletableFuture<HttpResponse> postAsync(String path, String jsonBody) {
+        return sendAsync("POST", path, postRequest(path, jsonBody));
+    }
+
+    /**
+     * Sends a GET request without blocking.
+     *
+     * @param path the path to send the request to
+     * @return the future HTTP response; completes exceptionally with {@link HttpError} where {@link #get} would throw it
+     */
+    public CompletableFuture<HttpResponse> getAsync(String path) {
+        return sendAsync("GET", path, getRequest(path));
+    }
+
+    private HttpRequest postRequest(String path, String jsonBody) {
+        return request(path)
+            .header("Content-Type", "application/json")
+            .POST(BodyPublishers.ofString(jsonBody, StandardCharsets.UTF_8))
+            .build();
+    }
+
+    private HttpRequest getRequest(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(requestTimeout)
+            .header("Accept", "application/json");
+    }
 
-            return readResponse(path, connection);
+    private HttpResponse send(String method, String path, HttpRequest request) {
+        try {
+            return readResponse(path, httpClient.send(request, BodyHandlers.ofString(StandardCharsets.UTF_8)));
         } catch (IOException e) {
-            log.error("[{}] Failed to send GET request to {}", gameId, path, e);
-            throw new HttpError("Failed to communicate with server: " + e.getMessage(), 0);
+            throw failed(method, path, e);
+        } catch (InterruptedException e) {
+            currentThread().interrupt();
+            throw new HttpError("Interrupted while sending request to " + path, 0);
         }
     }
 
-    private HttpResponse readResponse(String path, HttpURLConnection connection) throws IOException {
-        int responseCode = connection.getResponseCode();
+    private CompletableFuture<HttpResponse> sendAsync(String method, String path, HttpRequest request) {
+        return httpClient.sendAsync(request, BodyHandlers.ofString(StandardCharsets.UTF_8))
+            .handle((response, failure) -> {
+                if (failure != null) {
+                    throw failed(method, path, failure instanceof CompletionException ? failure.getCause() : failure);
+                }
+                return readResponse(path, response);
+            });
+    }
+
+    private HttpError failed(String method, String path, Throwable e) {
+        log.error("[{}] Failed to send {} request to {}", gameId, method, path, e);
+        return new HttpError("Failed to communicate with server: " + e.getMessage(), 0);
+    }
+
+    // error responses are returned when they have a body, as HttpURLConnection's error stream was
+    private HttpResponse readResponse(String path, java.net.http.HttpResponse<String> response) {
+        int responseCode = response.statusCode();
+        String body = response.body();
+        Duration retryAfter = response.headers().firstValue("Retry-After").map(HttpGameClient::parseRetryAfter).orElse(null);
         if (responseCode >= 200 && responseCode < 300) {
-            try (InputStream is = connection.getInputStream()) {
-                String response = new String(is.readAllBytes(), StandardCharsets.UTF_8);
-                log.debug("[{}] Response from {}: {}", gameId, path, response);
-                return new HttpResponse(responseCode, response.isEmpty() ? null : response);
-            }
-        } else {
-            try {
-                return readErrorResponse(connection);
-            } catch (RuntimeException e) {
-                throw new HttpError("Failed to send request to " + path + ": " + e.getMessage(), responseCode);
-            }
+            log.debug("[{}] Response from {}: {}", gameId, path, body);
+            return new HttpResponse(responseCode, body == null || body.isEmpty() ? null : body, retryAfter);
         }
+        if (body == null || body.isEmpty()) {
+            throw new HttpError("Failed to send request to " + path + ": Unknown error", responseCode, retryAfter);
+        }
+        return new HttpResponse(responseCode, body, retryAfter);
     }
 
     /**
-     * Reads error response from the connection.
+     * Parses a {@code Retry-After} header value: either a number of seconds or an HTTP date.
+     *
+     * @param value the header value
+     * @return how long to wait from now, never negative; or null if the value is malformed
      */
-    private HttpResponse readErrorResponse(HttpURLConnection connection) {
-        try (InputStream is = connection.getErrorStream()) {
-            if (is != null) {
-                return new HttpResponse(connection.getResponseCode(), new String(is.readAllBytes(), StandardCharsets.UTF_8));
+    static Duration parseRetryAfter(String value) {
+        String trimmed = value.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed)));
+        } catch (NumberFormatException e) {
+            try {
+                Duration untilDate = Duration.between(Instant.now(),
+                    ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+                return untilDate.isNegative() ? Duration.ZERO : untilDate;
+            } catch (DateTimeParseException ignored) {
+                log.warn("Ignoring malformed Retry-After header: {}", value);
+                return null;
             }
-        } catch (IOException e) {
-            log.error("[{}] Failed to read error response", gameId, e);
-            throw new RuntimeException(e.getMessage());
         }
-        throw new RuntimeException("Unknown error");
     }
 
     /**
@@ -142,6 +269,7 @@ public class HttpGameClient {
     @Getter
     public static class HttpError extends RuntimeException {
         private final int code;
+        private final Duration retryAfter;
 
         /**
          * Creates a new HttpError.
@@ -150,8 +278,25 @@ public class HttpGameClient {
          * @param code    the HTTP status code (0 if unknown or I/O error)
          */
         public HttpError(String message, int code) {
+            this(message, code, null);
+        }
+
+        /**
+         * Creates a new HttpError for a response asking to retry later.
+         *
+         * @param message    the error message
+         * @param code       the HTTP status code
+         * @param retryAfter how long the server asked to wait before trying again; or null
+         */
+        public HttpError(String message, int code, Duration retryAfter) {
             super(message);
             this.code = code;
+            this.retryAfter = retryAfter;
         }
     }
+
+    // created on first use; its threads are daemons, so it never needs closing
+    private static final class DefaultClient {
+        private static final HttpClient INSTANCE = newHttpClient(DEFAULT_CONNECT_TIMEOUT);
+    }
 }
@@ -0,0 +1,20 @@
+package it.battlejar.client.webscoket;
+
+/**
+ * What an {@link OrderStore} does with a new order when it already holds its maximum number of pending orders.
+ * Replacing a pending order of a coalesced type never counts against the limit.
+ */
+public enum Backpressure {
+    /**
+     * The new order is dropped.
+     */
+    DROP,
+    /**
+     * The caller waits until the sender has made room.
+     */
+    BLOCK,
+    /**
+     * The oldest pending order is dropped to make room, so the queue keeps the freshest intent.
+     */
+    COALESCE
+}
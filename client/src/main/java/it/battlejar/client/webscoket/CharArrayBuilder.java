@@ -0,0 +1,97 @@
+package it.battlejar.client.webscoket;
+
+import java.util.Arrays;
+
+/**
+ * Growable, reusable character buffer exposing its backing array.
+ * Lets serializers hand their output to APIs accepting {@code char[]} ranges without creating a string.
+ * Not thread-safe.
+ */
+class CharArrayBuilder implements Appendable, CharSequence {
+
+    private char[] chars;
+    private int length;
+
+    CharArrayBuilder() {
+        this(128);
+    }
+
+    CharArrayBuilder(int capacity) {
+        this.chars = new char[capacity];
+    }
+
+    /**
+     * Clears the content, keeping the allocated capacity.
+     */
+    void reset() {
+        length = 0;
+    }
+
+    /**
+     * Returns the backing array; only the first {@link #length()} characters are valid.
+     *
+     * @return the backing array
+     */
+    char[] array() {
+        return chars;
+    }
+
+    @Override
+    public CharArrayBuilder append(CharSequence text) {
+        CharSequence value = text == null ? "null" : text;
+        return append(value, 0, value.length());
+    }
+
+    @Override
+    public CharArrayBuilder append(CharSequence text, int start, int end) {
+        if (text == null) {
+            return append("null");
+        }
+        ensureCapacity(length + end - start);
+        if (text instanceof String string) {
+            string.getChars(start, end, chars, length);
+            length += end - start;
+        } else {
+            for (int i = start; i < end; i++) {
+                chars[length++] = text.charAt(i);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public CharArrayBuilder append(char c) {
+        ensureCapacity(length + 1);
+        chars[length++] = c;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(capacity, chars.length * 2));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package it.battlejar.client.webscoket;
+
+/**
+ * Reusable, read-only {@link CharSequence} over a range of a char array owned by someone else,
+ * typically the text buffer of a Jackson parser. Only valid until the owner reuses the array.
+ * Not thread-safe.
+ */
+class CharArrayView implements CharSequence {
+
+    private char[] chars = new char[0];
+    private int offset;
+    private int length;
+
+    /**
+     * Points the view to a new range.
+     *
+     * @param chars  the backing array
+     * @param offset index of the first character
+     * @param length number of characters
+     * @return this view
+     */
+    CharArrayView wrap(char[] chars, int offset, int length) {
+        this.chars = chars;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return chars[offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new String(chars, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, offset, length);
+    }
+}
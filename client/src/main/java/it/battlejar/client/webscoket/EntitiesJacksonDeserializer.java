@@ -0,0 +1,203 @@
+package it.battlejar.client.webscoket;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import it.battlejar.api.Entities;
+import it.battlejar.api.Entity;
+import it.battlejar.api.EntityFrame;
+import it.battlejar.api.serialization.EntitySerializer;
+import it.battlejar.api.serialization.EntitySink;
+import it.battlejar.api.serialization.StringTable;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming deserializer for {@link Entities} frames.
+ * Each element of the {@code entities} array is decoded straight from the parser's text buffer,
+ * so no intermediate string is created per entity. The list is pre-sized from the previous frame.
+ * Frames can also be read into a recycled {@link EntityFrame}, without creating entity objects at all.
+ */
+@Slf4j
+class EntitiesJacksonDeserializer extends JsonDeserializer<Entities> {
+
+    private static final String TYPE = "type";
+    private static final String TIME_STAMP = "timeStamp";
+    private static final String ENTITIES = "entities";
+    private static final String STATE = "state";
+    static final List<Object> PROPERTIES = List.of(TYPE, TIME_STAMP, ENTITIES, STATE);
+
+    private final StringTable strings;
+    private final EntitySink<Entity> factory;
+    private final boolean failOnUnknownProperties;
+    private volatile int lastSize = 16;
+
+    EntitiesJacksonDeserializer(StringTable strings) {
+        this(strings, true);
+    }
+
+    // the context decides about unknown properties when there is one, the flag when read without it
+    EntitiesJacksonDeserializer(StringTable strings, boolean failOnUnknownProperties) {
+        this.strings = strings;
+        this.factory = EntitySerializer.entityFactory(strings);
+        this.failOnUnknownProperties = failOnUnknownProperties;
+    }
+
+    @Override
+    public Entities deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return read(p, ctxt);
+    }
+
+    /**
+     * Reads an entities object without a deserialization context, e.g. from a parser created directly from the factory.
+     * Unknown properties are rejected, like the object mapper does by default, unless this deserializer skips them.
+     *
+     * @param p the parser, positioned at the start of the object or at one of its properties
+     * @return the decoded frame
+     * @throws IOException if the input is malformed or has an unknown property
+     */
+    Entities read(JsonParser p) throws IOException {
+        return read(p, null);
+    }
+
+    /**
+     * Reads an entities object into a frame, like {@link #read(JsonParser)}.
+     * The frame is cleared first; malformed and null entities, which {@link #read(JsonParser)} keeps as nulls,
+     * are counted in {@link EntityFrame#skipped()}.
+     *
+     * @param p     the parser, positioned at the start of the object or at one of its properties
+     * @param frame the frame to fill
+     * @throws IOException if the input is malformed
+     */
+    void readInto(JsonParser p, EntityFrame frame) throws IOException {
+        frame.clear();
+        read(p, null, frame);
+    }
+
+    private Entities read(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return read(p, ctxt, null);
+    }
+
+    // Returns the frame as Entities, or fills the given frame and returns null.
+    private Entities read(JsonParser p, DeserializationContext ctxt, EntityFrame frame) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = p.nextToken();
+        }
+        Instant timeStamp = null;
+        List<Entity> entities = null;
+        String state = null;
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String name = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (name) {
+                case TIME_STAMP -> timeStamp = readInstant(p, value);
+                case ENTITIES -> {
+                    if (frame != null) {
+                        readEntities(p, value, frame);
+                    } else {
+                        entities = readEntities(p, value);
+                    }
+                }
+                case STATE -> state = value == JsonToken.VALUE_NULL ? null : p.getText();
+                case TYPE -> p.skipChildren();
+                default -> {
+                    if (ctxt != null) {
+                        ctxt.handleUnknownProperty(p, this, Entities.class, name);
+                    } else if (failOnUnknownProperties) {
+                        throw UnrecognizedPropertyException.from(p, Entities.class, name, PROPERTIES);
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw MismatchedInputException.from(p, Entities.class, "Expected end of entities object, got " + token);
+        }
+        if (frame != null) {
+            frame.header(timeStamp, state);
+            return null;
+        }
+        return new Entities(timeStamp, entities, state);
+    }
+
+    private List<Entity> readEntities(JsonParser p, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw MismatchedInputException.from(p, Entities.class, "Expected entities array, got " + token);
+        }
+        List<Entity> entities = new ArrayList<>(lastSize);
+        CharArrayView view = new CharArrayView();
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.VALUE_NULL) {
+                entities.add(null);
+                continue;
+            }
+            if (token != JsonToken.VALUE_STRING) {
+                throw MismatchedInputException.from(p, Entity.class, "Expected serialized entity string, got " + token);
+            }
+            view.wrap(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            try {
+                entities.add(EntitySerializer.deserializeInto(view, 0, view.length(), factory));
+            } catch (Throwable e) {
+                log.error("Error deserializing entity: {}", view, e);
+                entities.add(null);
+            }
+        }
+        lastSize = entities.size();
+        return entities;
+    }
+
+    private void readEntities(JsonParser p, JsonToken token, EntityFrame frame) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw MismatchedInputException.from(p, Entities.class, "Expected entities array, got " + token);
+        }
+        CharArrayView view = new CharArrayView();
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.VALUE_NULL) {
+                frame.skip();
+                continue;
+            }
+            if (token != JsonToken.VALUE_STRING) {
+                throw MismatchedInputException.from(p, Entity.class, "Expected serialized entity string, got " + token);
+            }
+            view.wrap(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            try {
+                EntitySerializer.deserializeInto(view, 0, view.length(), frame, strings);
+            } catch (Throwable e) {
+                log.error("Error deserializing entity: {}", view, e);
+                frame.skip();
+            }
+        }
+    }
+
+    // Accepts what the Java time module writes and reads: decimal seconds, integer seconds or an ISO-8601 string.
+    static Instant readInstant(JsonParser p, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_NULL -> null;
+            case VALUE_NUMBER_INT -> Instant.ofEpochSecond(p.getLongValue());
+            case VALUE_NUMBER_FLOAT -> {
+                BigDecimal value = p.getDecimalValue();
+                long seconds = value.longValue();
+                int nanos = value.subtract(BigDecimal.valueOf(seconds)).movePointRight(9).intValue();
+                yield Instant.ofEpochSecond(seconds, nanos);
+            }
+            case VALUE_STRING -> Instant.parse(p.getText().trim());
+            default -> throw MismatchedInputException.from(p, Instant.class, "Unexpected timestamp token " + token);
+        };
+    }
+}
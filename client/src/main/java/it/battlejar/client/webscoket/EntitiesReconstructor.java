@@ -0,0 +1,117 @@
+package it.battlejar.client.webscoket;
+
+import it.battlejar.api.Entities;
+import it.battlejar.api.EntitiesDelta;
+import it.battlejar.api.Entity;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rebuilds full entity snapshots from {@link EntitiesDelta} frames.
+ * Deltas are applied on top of the last applied frame; when a frame is missing, deltas are rejected
+ * until the next keyframe arrives. Not thread-safe - meant to be used by the message processing loop only.
+ */
+public class EntitiesReconstructor {
+
+    private final Map<String, Entity> entities = new LinkedHashMap<>();
+    private long sequence = EntitiesDelta.KEYFRAME;
+    private boolean synced = false;
+    private Instant timeStamp;
+    private String state;
+
+    /**
+     * Applies a delta to the current snapshot.
+     *
+     * @param delta the delta to apply
+     * @return true if the delta was applied, false if it does not follow the last applied frame and a keyframe is needed
+     */
+    public boolean apply(EntitiesDelta delta) {
+        if (delta.isKeyframe()) {
+            entities.clear();
+        } else if (!synced || delta.baseSequence() != sequence) {
+            synced = false;
+            return false;
+        }
+        if (delta.removed() != null) {
+            for (String id : delta.removed()) {
+                entities.remove(id);
+            }
+        }
+        putAll(delta.spawned());
+        putAll(delta.changed());
+        sequence = delta.sequence();
+        synced = true;
+        timeStamp = delta.timeStamp();
+        state = delta.state();
+        return true;
+    }
+
+    /**
+     * Replaces the current snapshot with a full frame.
+     * Full frames carry no sequence number, so deltas are rejected until the next keyframe.
+     *
+     * @param full the full frame
+     */
+    public void reset(Entities full) {
+        entities.clear();
+        putAll(full.entities());
+        synced = false;
+        timeStamp = full.timeStamp();
+        state = full.state();
+    }
+
+    /**
+     * Drops the current snapshot after a full frame that is not part of the delta chain.
+     * Unlike {@link #reset(Entities)} the entities are not copied: the snapshot is rebuilt by the next keyframe,
+     * as deltas are rejected until then.
+     *
+     * @param full the full frame
+     */
+    public void invalidate(Entities full) {
+        entities.clear();
+        synced = false;
+        timeStamp = full.timeStamp();
+        state = full.state();
+    }
+
+    /**
+     * Builds a full frame from the current snapshot.
+     *
+     * @return a new Entities instance holding a copy of the current entity set
+     */
+    public Entities snapshot() {
+        return new Entities(timeStamp, new ArrayList<>(entities.values()), state);
+    }
+
+    /**
+     * Returns the sequence number of the last applied frame.
+     *
+     * @return the sequence number, or {@link EntitiesDelta#KEYFRAME} if no delta has been applied yet
+     */
+    public long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Checks whether deltas can currently be applied.
+     *
+     * @return true if the last applied frame is known
+     */
+    public boolean isSynced() {
+        return synced;
+    }
+
+    private void putAll(Iterable<Entity> source) {
+        if (source == null) {
+            return;
+        }
+        for (Entity entity : source) {
+            if (entity != null) {
+                entities.put(entity.id(), entity);
+            }
+        }
+    }
+}
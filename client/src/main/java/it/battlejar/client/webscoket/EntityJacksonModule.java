@@ -7,45 +7,76 @@ import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import it.battlejar.api.Entities;
 import it.battlejar.api.Entity;
+import it.battlejar.api.serialization.EntitySink;
 import it.battlejar.api.serialization.EntitySerializer;
+import it.battlejar.api.serialization.StringTable;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 
 /**
  * Jackson module for Entity serialization and deserialization.
+ * Entities frames are read with a streaming deserializer decoding each entity from the parser's buffer.
  */
 @Slf4j
 public class EntityJacksonModule extends SimpleModule {
     /**
-     * Creates a new EntityJacksonModule and registers custom serializer and deserializer for {@link Entity}.
+     * Default capacity of the string table; comfortably above the number of distinct IDs and values in a game.
+     */
+    public static final int DEFAULT_STRING_TABLE_CAPACITY = 1024;
+
+    /**
+     * Creates a new EntityJacksonModule with its own string table.
      */
     public EntityJacksonModule() {
+        this(new StringTable(DEFAULT_STRING_TABLE_CAPACITY));
+    }
+
+    /**
+     * Creates a new EntityJacksonModule and registers custom serializer and deserializer for {@link Entity}
+     * and a streaming deserializer for {@link Entities}.
+     * Deserialized string fields are canonicalized through the given table; the owner is responsible for clearing it.
+     *
+     * @param strings the table canonicalizing entity IDs, colours, shots and statuses
+     */
+    public EntityJacksonModule(StringTable strings) {
         addSerializer(Entity.class, new EntitySerializerJackson());
-        addDeserializer(Entity.class, new EntityDeserializerJackson());
+        EntitySink<Entity> factory = EntitySerializer.entityFactory(strings);
+        addDeserializer(Entity.class, new EntityDeserializerJackson(factory));
+        addDeserializer(Entities.class, new EntitiesJacksonDeserializer(strings));
     }
 
     private static class EntitySerializerJackson extends JsonSerializer<Entity> {
+        private static final ThreadLocal<CharArrayBuilder> BUFFERS = ThreadLocal.withInitial(CharArrayBuilder::new);
+
         @Override
         public void serialize(Entity value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-            String serialized;
+            CharArrayBuilder buffer = BUFFERS.get();
+            buffer.reset();
             try {
-                serialized = EntitySerializer.serialize(value);
+                EntitySerializer.serializeTo(value, buffer);
             } catch (Exception e) {
                 log.error("Error serializing entity", e);
-                serialized = "";
+                buffer.reset();
             }
-            gen.writeString(serialized);
+            gen.writeString(buffer.array(), 0, buffer.length());
         }
     }
 
     private static class EntityDeserializerJackson extends JsonDeserializer<Entity> {
+        private final EntitySink<Entity> factory;
+
+        private EntityDeserializerJackson(EntitySink<Entity> factory) {
+            this.factory = factory;
+        }
+
         @Override
         public Entity deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
             String text = p.getValueAsString();
             try {
-                return EntitySerializer.deserialize(text);
+                return EntitySerializer.deserializeInto(text, 0, text.length(), factory);
             } catch (Throwable e) {
                 log.error("Error deserializing entity: {}", text, e);
                 return null;
@@ -1,42 +1,204 @@
 package it.battlejar.client.webscoket;
 
+import it.battlejar.api.Entities;
+import it.battlejar.api.serialization.EntitiesBinaryCodec;
 import lombok.extern.slf4j.Slf4j;
 
 import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.CompletionStage;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
- * Simplified WebSocket listener that only works with JSON strings.
- * Puts received messages into a blocking deque for processing by a separate job.
+ * Simplified WebSocket listener working with JSON strings and binary entities frames.
+ * Puts received text messages into a blocking deque or a {@link MessageMailbox} for processing by a separate job.
+ * Messages are requested from the WebSocket one at a time; with a mailbox, the next message of any kind, pings
+ * included, is only requested once the mailbox has room for it, and entities frames split into several fragments
+ * are decoded fragment by fragment by an {@link IncrementalEntitiesDecoder}, instead of being assembled into a string
+ * once the last one arrived.
+ * Binary frames are decoded straight from the received buffer, by default with {@link EntitiesBinaryCodec},
+ * and handed to the binary entities consumer.
  */
 @Slf4j
 public class GameListener implements WebSocket.Listener {
 
-    private final BlockingDeque<String> entitiesDeque;
+    private final Predicate<String> textSink;
+    private final Predicate<Entities> decodedSink;
+    private final IncrementalEntitiesDecoder incremental;
+    private final Consumer<Entities> binaryEntitiesConsumer;
+    private final Function<ByteBuffer, Entities> binaryDecoder;
+    private final BooleanSupplier paused;
     private final StringBuilder messageAccumulator = new StringBuilder();
+    private ByteBuffer binaryAccumulator = ByteBuffer.allocate(0);
+    private volatile WebSocket webSocket;
 
     /**
-     * Creates a new GameListener.
+     * Creates a new GameListener that ignores binary frames.
      *
      * @param entitiesDeque the deque where received messages will be added
      */
     public GameListener(BlockingDeque<String> entitiesDeque) {
-        this.entitiesDeque = entitiesDeque;
+        this(entitiesDeque, entities -> log.warn("Binary entities frame received but not supported - dropping"));
+    }
+
+    /**
+     * Creates a new GameListener.
+     *
+     * @param entitiesDeque          the deque where received text messages will be added
+     * @param binaryEntitiesConsumer the consumer of entities decoded from binary frames
+     */
+    public GameListener(BlockingDeque<String> entitiesDeque, Consumer<Entities> binaryEntitiesConsumer) {
+        this(entitiesDeque, binaryEntitiesConsumer, EntitiesBinaryCodec::decode);
+    }
+
+    /**
+     * Creates a new GameListener with a custom binary decoder.
+     *
+     * @param entitiesDeque          the deque where received text messages will be added
+     * @param binaryEntitiesConsumer the consumer of entities decoded from binary frames
+     * @param binaryDecoder          the decoder of binary entities frames
+     */
+    public GameListener(BlockingDeque<String> entitiesDeque, Consumer<Entities> binaryEntitiesConsumer,
+                        Function<ByteBuffer, Entities> binaryDecoder) {
+        this(entitiesDeque::add, null, null, binaryEntitiesConsumer, binaryDecoder, () -> false);
+    }
+
+    /**
+     * Creates a new GameListener pausing the reception of messages while the mailbox is full
+     * and decoding fragmented entities frames as their fragments arrive.
+     *
+     * @param mailbox                the mailbox where received text messages and decoded entities frames will be added
+     * @param decoder                the decoder of binary and fragmented entities frames
+     * @param binaryEntitiesConsumer the consumer of entities decoded from binary frames
+     */
+    public GameListener(MessageMailbox mailbox, WebSocketMessageDecoder decoder, Consumer<Entities> binaryEntitiesConsumer) {
+        this(mailbox::offer, mailbox::offer, decoder.newIncrementalDecoder(), binaryEntitiesConsumer, decoder::decodeBinary,
+            mailbox::isSuspended);
+        mailbox.onRoom(this::resume);
+    }
+
+    private GameListener(Predicate<String> textSink, Predicate<Entities> decodedSink, IncrementalEntitiesDecoder incremental,
+                         Consumer<Entities> binaryEntitiesConsumer, Function<ByteBuffer, Entities> binaryDecoder,
+                         BooleanSupplier paused) {
+        this.textSink = textSink;
+        this.decodedSink = decodedSink;
+        this.incremental = incremental;
+        this.binaryEntitiesConsumer = binaryEntitiesConsumer;
+        this.binaryDecoder = binaryDecoder;
+        this.paused = paused;
+    }
+
+    @Override
+    public void onOpen(WebSocket webSocket) {
+        this.webSocket = webSocket;
+        webSocket.request(1);
     }
 
     @Override
     public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
-        if (data != null) {
-            messageAccumulator.append(data);
+        this.webSocket = webSocket;
+        if (incremental != null && !last && !incremental.isActive() && messageAccumulator.isEmpty()
+            && IncrementalEntitiesDecoder.accepts(data)) {
+            incremental.start(); // a single-fragment frame is left to the mailbox, which may drop it unparsed
         }
-        if (last) {
+        boolean room;
+        if (incremental != null && incremental.isActive()) {
+            incremental.feed(data);
+            if (!last) {
+                webSocket.request(1); // the rest of the message
+                return null;
+            }
+            Entities entities = incremental.finish();
+            log.debug("Received fragmented entities: {}", entities);
+            room = entities == null || decodedSink.test(entities);
+        } else {
+            if (data != null) {
+                messageAccumulator.append(data);
+            }
+            if (!last) {
+                webSocket.request(1); // the rest of the message
+                return null;
+            }
             String fullMessage = messageAccumulator.toString();
             log.debug("Received message: {}", fullMessage);
             messageAccumulator.setLength(0);
-            entitiesDeque.add(fullMessage);
+            room = textSink.test(fullMessage);
+        }
+        if (room) {
+            webSocket.request(1);
+        } else {
+            log.debug("Inbound mailbox full - pausing reception");
+        }
+        return null;
+    }
+
+    // requests the next message once the mailbox has room again
+    private void resume() {
+        WebSocket current = webSocket;
+        if (current != null) {
+            log.debug("Inbound mailbox has room - resuming reception");
+            current.request(1);
+        }
+    }
+
+    @Override
+    public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+        if (last && binaryAccumulator.position() == 0) {
+            decodeBinary(data); // whole message in a single fragment - decode in place
+        } else {
+            accumulateBinary(data);
+            if (last) {
+                decodeBinary(binaryAccumulator.flip());
+                binaryAccumulator.clear();
+            }
+        }
+        requestNext(webSocket);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onPing(WebSocket webSocket, ByteBuffer message) {
+        requestNext(webSocket); // the WebSocket answers with a pong by itself
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onPong(WebSocket webSocket, ByteBuffer message) {
+        requestNext(webSocket);
+        return null;
+    }
+
+    // while reception is paused, the mailbox requests the next message once it has room
+    private void requestNext(WebSocket webSocket) {
+        if (!paused.getAsBoolean()) {
+            webSocket.request(1);
+        }
+    }
+
+    private void decodeBinary(ByteBuffer data) {
+        try {
+            if (!EntitiesBinaryCodec.isEntitiesFrame(data)) {
+                log.warn("Unsupported binary message of {} bytes - dropping", data.remaining());
+                return;
+            }
+            Entities entities = binaryDecoder.apply(data);
+            log.debug("Received binary entities: {}", entities);
+            binaryEntitiesConsumer.accept(entities);
+        } catch (RuntimeException e) {
+            log.error("Failed to decode binary WebSocket message", e);
+        }
+    }
+
+    private void accumulateBinary(ByteBuffer data) {
+        if (binaryAccumulator.remaining() < data.remaining()) {
+            int capacity = Math.max(binaryAccumulator.capacity() * 2, binaryAccumulator.position() + data.remaining());
+            binaryAccumulator = ByteBuffer.allocate(capacity).put(binaryAccumulator.flip());
         }
-        return WebSocket.Listener.super.onText(webSocket, data, last);
+        binaryAccumulator.put(data);
     }
 
     @Override
@@ -0,0 +1,316 @@
+package it.battlejar.client.webscoket;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import it.battlejar.api.Entities;
+import it.battlejar.api.EntityFrame;
+import it.battlejar.api.serialization.EntitySerializer;
+import it.battlejar.api.serialization.StringTable;
+import it.battlejar.client.frame.FramePool;
+import it.battlejar.client.frame.PooledFrame;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Resumable decoder of entities frames arriving in several text fragments.
+ * Each fragment is fed to a non-blocking Jackson parser as it arrives and the entities completed so far are decoded
+ * into a recycled {@link PooledFrame}, so when the last fragment lands only its own tokens remain to be read;
+ * the message is never assembled into a string.
+ * Accepts the layout written by the server, starting with the {@code "type"} discriminator, see {@link #accepts(CharSequence)}.
+ * Not thread-safe: meant for the listener thread, one message at a time.
+ */
+@Slf4j
+class IncrementalEntitiesDecoder {
+
+    private static final String PREFIX = WebSocketMessageDecoder.TYPE_PREFIX + "entities\"";
+    private static final String TYPE = "type";
+    private static final String TIME_STAMP = "timeStamp";
+    private static final String ENTITIES = "entities";
+    private static final String STATE = "state";
+
+    private final JsonFactory jsonFactory;
+    private final StringTable strings;
+    private final FramePool framePool;
+    private final boolean failOnUnknownProperties;
+    private final CharArrayView view = new CharArrayView();
+    private byte[] bytes = new byte[1024];
+    private char highSurrogate;
+
+    private JsonParser parser;
+    private ByteArrayFeeder feeder;
+    private PooledFrame pooled;
+    private State state;
+    private String field;
+    private int depth;
+    private Instant timeStamp;
+    private String gameState;
+    private boolean failed;
+
+    IncrementalEntitiesDecoder(JsonFactory jsonFactory, StringTable strings, FramePool framePool) {
+        this(jsonFactory, strings, framePool, true);
+    }
+
+    // when failing on unknown properties, a frame holding one is dropped rather than decoded without it
+    IncrementalEntitiesDecoder(JsonFactory jsonFactory, StringTable strings, FramePool framePool, boolean failOnUnknownProperties) {
+        this.jsonFactory = jsonFactory;
+        this.strings = strings;
+        this.framePool = framePool;
+        this.failOnUnknownProperties = failOnUnknownProperties;
+    }
+
+    /**
+     * Checks whether a message starting with the given fragment can be decoded by this decoder.
+     *
+     * @param firstFragment the first fragment of a message
+     * @return true if the fragment starts an entities frame
+     */
+    static boolean accepts(CharSequence firstFragment) {
+        if (firstFragment == null || firstFragment.length() < PREFIX.length()) {
+            return false;
+        }
+        for (int i = 0; i < PREFIX.length(); i++) {
+            if (firstFragment.charAt(i) != PREFIX.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Starts decoding a new message, discarding any unfinished one.
+     */
+    void start() {
+        reset();
+        try {
+            parser = jsonFactory.createNonBlockingByteArrayParser();
+            feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        } catch (IOException e) {
+            throw new IllegalStateException("Non-blocking parsing not supported", e);
+        }
+        pooled = framePool.acquire();
+        pooled.frame().clear();
+        state = State.START;
+    }
+
+    /**
+     * Checks whether a message is being decoded.
+     *
+     * @return true between {@link #start()} and {@link #finish()}
+     */
+    boolean isActive() {
+        return parser != null;
+    }
+
+    /**
+     * Decodes a fragment of the current message. A malformed message is logged once and the rest of it ignored.
+     *
+     * @param fragment the fragment
+     */
+    void feed(CharSequence fragment) {
+        if (failed || fragment == null || fragment.isEmpty()) {
+            return;
+        }
+        try {
+            int length = encode(fragment);
+            feeder.feedInput(bytes, 0, length);
+            drain();
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Completes the current message.
+     *
+     * @return the decoded frame, or null if the message was malformed or incomplete
+     */
+    Entities finish() {
+        try {
+            if (!failed) {
+                if (highSurrogate != 0) {
+                    throw new JsonParseException(parser, "Unpaired surrogate at end of message");
+                }
+                feeder.endOfInput();
+                drain();
+                if (state != State.DONE) {
+                    throw new JsonParseException(parser, "Unexpected end of entities frame");
+                }
+                pooled.frame().header(timeStamp, gameState);
+                Entities entities = new Entities(timeStamp, pooled, gameState);
+                pooled = null;
+                return entities;
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+        } finally {
+            reset();
+        }
+        return null;
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+            handle(token);
+        }
+    }
+
+    private void handle(JsonToken token) throws IOException {
+        switch (state) {
+            case START -> {
+                expect(token == JsonToken.START_OBJECT, token);
+                state = State.FIELDS;
+            }
+            case FIELDS -> {
+                if (token == JsonToken.END_OBJECT) {
+                    state = State.DONE;
+                } else {
+                    expect(token == JsonToken.FIELD_NAME, token);
+                    field = parser.currentName();
+                    state = State.VALUE;
+                }
+            }
+            case VALUE -> value(token);
+            case SKIP -> {
+                if (token.isStructStart()) {
+                    depth++;
+                } else if (token.isStructEnd() && --depth == 0) {
+                    state = State.FIELDS;
+                }
+            }
+            case ENTITIES -> entity(token);
+            case DONE -> expect(false, token);
+        }
+    }
+
+    private void value(JsonToken token) throws IOException {
+        state = State.FIELDS;
+        switch (field) {
+            case TIME_STAMP -> timeStamp = EntitiesJacksonDeserializer.readInstant(parser, token);
+            case STATE -> gameState = token == JsonToken.VALUE_NULL ? null : parser.getText();
+            case ENTITIES -> {
+                if (token == JsonToken.START_ARRAY) {
+                    state = State.ENTITIES;
+                } else {
+                    expect(token == JsonToken.VALUE_NULL, token);
+                }
+            }
+            case TYPE -> {
+            }
+            default -> {
+                if (failOnUnknownProperties) {
+                    throw UnrecognizedPropertyException.from(parser, Entities.class, field, EntitiesJacksonDeserializer.PROPERTIES);
+                }
+                if (token.isStructStart()) { // unknown properties are skipped
+                    depth = 1;
+                    state = State.SKIP;
+                }
+            }
+        }
+    }
+
+    private void entity(JsonToken token) throws IOException {
+        if (token == JsonToken.END_ARRAY) {
+            state = State.FIELDS;
+        } else if (token == JsonToken.VALUE_STRING) {
+            view.wrap(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            try {
+                EntitySerializer.deserializeInto(view, 0, view.length(), pooled.frame(), strings);
+            } catch (Throwable e) {
+                log.error("Error deserializing entity: {}", view, e);
+                pooled.frame().skip();
+            }
+        } else {
+            expect(token == JsonToken.VALUE_NULL, token);
+            pooled.frame().skip();
+        }
+    }
+
+    private void expect(boolean valid, JsonToken token) throws JsonParseException {
+        if (!valid) {
+            throw new JsonParseException(parser, "Unexpected token in entities frame: " + token);
+        }
+    }
+
+    // UTF-8, keeping a high surrogate ending a fragment for the next one
+    private int encode(CharSequence fragment) {
+        int length = 0;
+        int count = fragment.length();
+        ensureCapacity(count * 3 + 4);
+        for (int i = 0; i < count; i++) {
+            char c = fragment.charAt(i);
+            if (highSurrogate != 0) {
+                char high = highSurrogate;
+                highSurrogate = 0;
+                if (!Character.isLowSurrogate(c)) {
+                    throw new IllegalArgumentException("Unpaired surrogate in entities frame");
+                }
+                int codePoint = Character.toCodePoint(high, c);
+                bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (c < 0x80) {
+                bytes[length++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[length++] = (byte) (0xC0 | (c >> 6));
+                bytes[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c)) {
+                highSurrogate = c;
+            } else if (Character.isLowSurrogate(c)) {
+                throw new IllegalArgumentException("Unpaired surrogate in entities frame");
+            } else {
+                bytes[length++] = (byte) (0xE0 | (c >> 12));
+                bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return length;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+        }
+    }
+
+    private void fail(Exception e) {
+        if (!failed) {
+            log.error("Failed to decode entities frame", e);
+        }
+        failed = true;
+    }
+
+    private void reset() {
+        if (parser != null) {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                log.debug("Failed to close parser", e);
+            }
+        }
+        if (pooled != null) {
+            pooled.release();
+        }
+        parser = null;
+        feeder = null;
+        pooled = null;
+        field = null;
+        depth = 0;
+        timeStamp = null;
+        gameState = null;
+        highSurrogate = 0;
+        failed = false;
+    }
+
+    private enum State {
+        START, FIELDS, VALUE, SKIP, ENTITIES, DONE
+    }
+}
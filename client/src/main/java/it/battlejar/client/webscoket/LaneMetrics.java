@@ -0,0 +1,41 @@
+package it.battlejar.client.webscoket;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what the sender takes from one {@link OutboundLane} and how long it waited there.
+ * Recorded by the sender; snapshots can be taken from any thread.
+ */
+class LaneMetrics {
+
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * Records one message or order taken by the sender.
+     *
+     * @param queuedAt the {@link System#nanoTime()} at which it was queued
+     * @param now      the current {@link System#nanoTime()}
+     */
+    void record(long queuedAt, long now) {
+        long wait = now - queuedAt;
+        dispatched.increment();
+        totalWaitNanos.add(wait);
+        if (wait > maxWaitNanos.get()) {
+            maxWaitNanos.accumulateAndGet(wait, Math::max);
+        }
+    }
+
+    /**
+     * @param queued the number of messages or orders waiting in the lane
+     * @return a snapshot of the lane
+     */
+    LaneStats snapshot(int queued) {
+        long count = dispatched.sum();
+        Duration average = count == 0 ? Duration.ZERO : Duration.ofNanos(totalWaitNanos.sum() / count);
+        return new LaneStats(count, queued, average, Duration.ofNanos(maxWaitNanos.get()));
+    }
+}
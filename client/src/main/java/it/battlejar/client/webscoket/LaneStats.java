@@ -0,0 +1,14 @@
+package it.battlejar.client.webscoket;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of one {@link OutboundLane}.
+ *
+ * @param dispatched  messages or orders taken from the lane by the sender
+ * @param queued      messages or orders waiting in the lane
+ * @param averageWait average time from queuing to being taken by the sender
+ * @param maxWait     longest time from queuing to being taken by the sender
+ */
+public record LaneStats(long dispatched, int queued, Duration averageWait, Duration maxWait) {
+}
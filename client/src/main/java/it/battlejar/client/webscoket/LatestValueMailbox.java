@@ -0,0 +1,183 @@
+package it.battlejar.client.webscoket;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lock-free single-slot mailbox handing the latest value from producers to one consumer.
+ * Publishing replaces a value not yet taken, which is returned to the producer so it can be released.
+ * The consumer spins briefly before parking, so a value published while it is about to wait is picked up
+ * without a context switch; a producer only unparks the consumer when it is parked.
+ * Each delivery carries the sequence number of the value and the number of values it superseded.
+ * Sequence numbers are given in the order values land in the slot, so with any number of producers a delivery
+ * never carries a lower sequence number than the one before it.
+ * Safe for any number of producers and a single consumer.
+ *
+ * @param <T> the type of the values
+ */
+public class LatestValueMailbox<T> {
+
+    /**
+     * Default number of spins before the consumer parks.
+     */
+    public static final int DEFAULT_SPINS = 512;
+
+    private final int spins;
+    // holds the value not yet taken, or once taken an empty slot keeping its sequence number; null before any value
+    private final AtomicReference<Slot<T>> slot = new AtomicReference<>();
+    private final LongAdder superseded = new LongAdder();
+    private volatile Thread waiter;
+
+    /**
+     * Creates a mailbox spinning {@link #DEFAULT_SPINS} times before parking.
+     */
+    public LatestValueMailbox() {
+        this(DEFAULT_SPINS);
+    }
+
+    /**
+     * Creates a new mailbox.
+     *
+     * @param spins the number of spins before the consumer parks; 0 to park right away
+     */
+    public LatestValueMailbox(int spins) {
+        this.spins = spins;
+    }
+
+    /**
+     * A value taken from the mailbox.
+     *
+     * @param value      the value
+     * @param sequence   the sequence number of the value, starting at 1
+     * @param superseded the number of values published since the previous delivery and replaced before being taken
+     * @param <T>        the type of the value
+     */
+    public record Delivery<T>(T value, long sequence, long superseded) {
+    }
+
+    /**
+     * Publishes a value, replacing the one not yet taken, and wakes up the consumer.
+     *
+     * @param value the value, not null
+     * @return the replaced value, or null if the previous one was taken
+     */
+    public T publish(T value) {
+        requireNonNull(value, "Value cannot be null");
+        Slot<T> previous;
+        Slot<T> next;
+        do {
+            // numbered after the slot it replaces, so a producer losing the race is numbered after the winner
+            previous = slot.get();
+            next = previous == null ? new Slot<>(value, 1, 0)
+                : new Slot<>(value, previous.sequence + 1, previous.value == null ? 0 : previous.superseded + 1);
+        } while (!slot.compareAndSet(previous, next));
+        Thread parked = waiter;
+        if (parked != null) {
+            LockSupport.unpark(parked);
+        }
+        if (previous == null || previous.value == null) {
+            return null;
+        }
+        superseded.increment();
+        return previous.value;
+    }
+
+    /**
+     * Takes the latest value, waiting up to the timeout for one to be published.
+     *
+     * @param timeout how long to wait
+     * @param unit    the unit of the timeout
+     * @return the delivery, or null if no value was published in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Delivery<T> take(long timeout, TimeUnit unit) throws InterruptedException {
+        Slot<T> taken = takeSlot();
+        for (int i = 0; taken == null && i < spins; i++) {
+            Thread.onSpinWait();
+            taken = takeSlot();
+        }
+        if (taken == null) {
+            taken = park(unit.toNanos(timeout));
+            if (taken == null) {
+                return null;
+            }
+        }
+        return new Delivery<>(taken.value, taken.sequence, taken.superseded);
+    }
+
+    // the waiter is published before checking the slot, so a producer either sees it or the consumer sees the value
+    private Slot<T> park(long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        waiter = Thread.currentThread();
+        try {
+            Slot<T> taken;
+            while ((taken = takeSlot()) == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            return taken;
+        } finally {
+            waiter = null;
+        }
+    }
+
+    /**
+     * Takes the latest value without waiting.
+     *
+     * @return the delivery, or null if no value is pending
+     */
+    public Delivery<T> tryTake() {
+        Slot<T> taken = takeSlot();
+        return taken == null ? null : new Delivery<>(taken.value, taken.sequence, taken.superseded);
+    }
+
+    /**
+     * Takes the value not yet taken without waiting.
+     *
+     * @return the value, or null if none is pending
+     */
+    public T poll() {
+        Slot<T> taken = takeSlot();
+        return taken == null ? null : taken.value;
+    }
+
+    // leaves an empty slot with the taken sequence number behind, for the next value to be numbered after it
+    private Slot<T> takeSlot() {
+        Slot<T> current;
+        do {
+            current = slot.get();
+            if (current == null || current.value == null) {
+                return null;
+            }
+        } while (!slot.compareAndSet(current, new Slot<>(null, current.sequence, 0)));
+        return current;
+    }
+
+    /**
+     * @return the number of values published
+     */
+    public long published() {
+        Slot<T> current = slot.get();
+        return current == null ? 0 : current.sequence;
+    }
+
+    /**
+     * @return the number of values replaced before being taken
+     */
+    public long superseded() {
+        return superseded.sum();
+    }
+
+    private record Slot<T>(T value, long sequence, long superseded) {
+    }
+}
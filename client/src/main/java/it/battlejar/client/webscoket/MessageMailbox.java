@@ -0,0 +1,241 @@
+package it.battlejar.client.webscoket;
+
+import it.battlejar.api.Entities;
+import it.battlejar.client.frame.PooledFrame;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded queue of received text messages between the {@link GameListener} and the thread parsing them.
+ * Entities frames are recognised by their {@code "type"} discriminator without being parsed: a new entities frame
+ * supersedes the pending one and the deltas queued before it, so no frame is parsed only to be thrown away.
+ * Other messages are kept in order.
+ * Entities frames already decoded by the listener, see {@link IncrementalEntitiesDecoder}, are queued the same way,
+ * so they still reach the parsing thread in order with the deltas based on them.
+ * <p>
+ * Messages are handed over through a preallocated {@link RingBuffer}, so receiving a message neither allocates
+ * nor locks; superseded frames are dropped by the parsing thread as it drains the buffer, and the parsing thread
+ * waits for messages according to a {@link WaitStrategy}.
+ * When {@code capacity} messages are pending, {@link #offer(String)} reports that no more should be requested
+ * from the WebSocket; the {@link #onRoom(Runnable) room action} is run once the parsing thread has made room again,
+ * so a reader falling behind slows down the server instead of growing the queue.
+ * The buffer has room for as many messages again above {@code capacity}, so a message arriving while reception
+ * is paused is still queued without waiting for the consumer.
+ * Safe for concurrent use by one producer and one consumer.
+ */
+@Slf4j
+public class MessageMailbox {
+
+    /**
+     * Default maximum number of pending messages before the listener stops requesting more.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final String ENTITIES_PREFIX = WebSocketMessageDecoder.TYPE_PREFIX + "entities\"";
+    private static final String DELTA_PREFIX = WebSocketMessageDecoder.TYPE_PREFIX + "delta\"";
+
+    private final int capacity;
+    private final RingBuffer<Object> ring;
+    private final ArrayDeque<Object> staged = new ArrayDeque<>(); // drained from the ring, owned by the consumer
+    private final AtomicBoolean suspended = new AtomicBoolean();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder droppedEntities = new LongAdder();
+    private final LongAdder droppedDeltas = new LongAdder();
+    private volatile int stagedCount;
+    private volatile Runnable onRoom;
+    private volatile Runnable onMessage;
+
+    /**
+     * Creates a mailbox holding up to {@link #DEFAULT_CAPACITY} messages.
+     */
+    public MessageMailbox() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a mailbox whose consumer parks while waiting for messages.
+     *
+     * @param capacity the number of pending messages above which no more are requested
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public MessageMailbox(int capacity) {
+        this(capacity, WaitStrategy.PARK);
+    }
+
+    /**
+     * Creates a new mailbox.
+     *
+     * @param capacity the number of pending messages above which no more are requested
+     * @param strategy how the consumer waits for messages
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public MessageMailbox(int capacity, WaitStrategy strategy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.ring = new RingBuffer<>(2 * capacity, strategy);
+    }
+
+    /**
+     * Sets the action run when room is made after {@link #offer(String)} returned false, typically requesting
+     * the next message from the WebSocket. It is run on the consumer thread.
+     *
+     * @param onRoom the action, or null for none
+     */
+    public void onRoom(Runnable onRoom) {
+        this.onRoom = onRoom;
+    }
+
+    /**
+     * Sets the action run on the producer thread after each message is added, typically waking up a consumer
+     * that waits for more than this mailbox.
+     *
+     * @param onMessage the action, or null for none
+     */
+    public void onMessage(Runnable onMessage) {
+        this.onMessage = onMessage;
+    }
+
+    /**
+     * Adds a complete message. An entities frame replaces the pending one, dropping the deltas queued before it.
+     *
+     * @param message the message text
+     * @return true if more messages may be requested, false if the mailbox is full
+     */
+    public boolean offer(String message) {
+        return add(message);
+    }
+
+    /**
+     * Adds a decoded entities frame, replacing the pending one and dropping the deltas queued before it.
+     *
+     * @param entities the decoded frame, handed over to the consumer or released if superseded
+     * @return true if more messages may be requested, false if the mailbox is full
+     */
+    public boolean offer(Entities entities) {
+        return add(entities);
+    }
+
+    private boolean add(Object message) {
+        received.increment();
+        if (ring.offer(message)) {
+            Runnable added = onMessage;
+            if (added != null) {
+                added.run();
+            }
+        } else {
+            // only if offered to far past a false return; the listener's thread must not wait for the consumer
+            log.error("Inbound mailbox overflow - dropping message");
+            if (message instanceof Entities decoded) {
+                PooledFrame.release(decoded.entities());
+            }
+        }
+        if (size() < capacity) {
+            return true;
+        }
+        suspended.set(true);
+        // the consumer may have made room before seeing the flag; then whoever clears it carries on
+        return size() < capacity && suspended.compareAndSet(true, false);
+    }
+
+    private void stage(Object message) {
+        if (isEntities(message)) {
+            dropSuperseded();
+        }
+        staged.add(message);
+    }
+
+    private void dropSuperseded() {
+        Iterator<Object> pending = staged.iterator();
+        while (pending.hasNext()) {
+            Object message = pending.next();
+            if (isEntities(message)) {
+                pending.remove();
+                droppedEntities.increment();
+                if (message instanceof Entities decoded) {
+                    PooledFrame.release(decoded.entities());
+                }
+            } else if (message instanceof String text && text.startsWith(DELTA_PREFIX)) {
+                pending.remove();
+                droppedDeltas.increment();
+            }
+        }
+    }
+
+    /**
+     * Moves pending messages to the target collection, oldest first, waiting up to the timeout for one if none is pending.
+     * Messages are either texts or decoded {@link Entities}.
+     *
+     * @param target  the collection to add to
+     * @param max     the maximum number of messages to move
+     * @param timeout how long to wait for a message
+     * @param unit    the unit of the timeout
+     * @return the number of messages moved
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public int drainTo(Collection<Object> target, int max, long timeout, TimeUnit unit) throws InterruptedException {
+        if (staged.isEmpty()) {
+            ring.await(timeout, unit);
+        }
+        ring.drain(this::stage, Integer.MAX_VALUE);
+        int drained = 0;
+        while (drained < max && !staged.isEmpty()) {
+            target.add(staged.poll());
+            drained++;
+        }
+        stagedCount = staged.size();
+        if (suspended.get() && size() < capacity && suspended.compareAndSet(true, false)) {
+            Runnable resume = onRoom;
+            if (resume != null) {
+                resume.run();
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * @return true if more messages should not be requested until the {@link #onRoom(Runnable) room action} runs
+     */
+    public boolean isSuspended() {
+        return suspended.get();
+    }
+
+    /**
+     * @return the number of messages pending
+     */
+    public int size() {
+        return ring.size() + stagedCount;
+    }
+
+    /**
+     * @return the number of messages received
+     */
+    public long received() {
+        return received.sum();
+    }
+
+    /**
+     * @return the number of entities frames dropped because a newer one arrived, unparsed unless decoded by the listener
+     */
+    public long droppedEntities() {
+        return droppedEntities.sum();
+    }
+
+    /**
+     * @return the number of deltas dropped unparsed because a newer entities frame arrived
+     */
+    public long droppedDeltas() {
+        return droppedDeltas.sum();
+    }
+
+    private static boolean isEntities(Object message) {
+        return message instanceof Entities || message instanceof String text && text.startsWith(ENTITIES_PREFIX);
+    }
+}
@@ -0,0 +1,453 @@
+package it.battlejar.client.webscoket;
+
+import it.battlejar.api.Order;
+import it.battlejar.api.OrderType;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.Thread.currentThread;
+
+/**
+ * Outbound store of orders waiting to be sent.
+ * Orders of coalesced types are keyed by entity ID and order type: a newer order replaces a pending one
+ * with the same key, so the sender only sends the freshest intent and memory stays bounded by the number
+ * of entities. The replacement is queued behind the orders added in the meantime, keeping the sequence of
+ * different orders for an entity intact; a lane drops the slots left behind by replaced orders once they outnumber
+ * its pending orders. Orders of other types (e.g. {@link OrderType#FIRE_MISSILE}) are always kept.
+ * <p>
+ * Orders of urgent types wait in the {@link OutboundLane#URGENT} lane and the others in the {@link OutboundLane#BULK}
+ * lane, so the sender can take urgent orders ahead of a backlog of bulk ones. An urgent order for an entity takes that
+ * entity's pending bulk orders along into the urgent lane, ahead of it, and while the entity has orders in the urgent
+ * lane its later orders, replacements included, join them there, so the orders of one entity are never reordered.
+ * <p>
+ * A gated store only releases orders up to the last {@link #flush()}, so all orders of one update
+ * can be sent together.
+ * <p>
+ * The store holds at most {@code capacity} pending orders; when it is full, a new order is handled according to
+ * its {@link Backpressure} policy, so a commander issuing orders faster than they can be sent either loses them,
+ * waits for the sender or keeps only the newest ones.
+ * Safe for concurrent use.
+ */
+public class OrderStore {
+
+    /**
+     * Order types coalesced by default: those describing a target state rather than a one-off action.
+     */
+    public static final Set<OrderType> DEFAULT_COALESCED =
+        Collections.unmodifiableSet(EnumSet.of(OrderType.MOVE, OrderType.TURN_XY, OrderType.TARGET, OrderType.PATROL));
+
+    /**
+     * Order types sent in the {@link OutboundLane#URGENT} lane by default: actions whose value decays within a frame.
+     */
+    public static final Set<OrderType> DEFAULT_URGENT =
+        Collections.unmodifiableSet(EnumSet.of(OrderType.FIRE_MISSILE, OrderType.ATTACK));
+
+    /**
+     * Default maximum number of pending orders.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final Set<OrderType> coalesced;
+    private final Set<OrderType> urgent;
+    private final boolean gated;
+    private final int capacity;
+    private final Backpressure backpressure;
+    private final Lane urgentLane = new Lane();
+    private final Lane bulkLane = new Lane();
+    private final Map<Key, Slot> pending = new HashMap<>();
+    private final Map<String, Integer> bulkPerEntity = new HashMap<>();
+    private final Map<String, Integer> urgentPerEntity = new HashMap<>();
+    private int size;
+    private long replaced;
+    private long dropped;
+    private boolean closed;
+    private Runnable onBlocked;
+
+    /**
+     * Creates a store coalescing {@link #DEFAULT_COALESCED} order types and releasing orders immediately,
+     * holding up to {@link #DEFAULT_CAPACITY} orders and dropping the oldest when full.
+     */
+    public OrderStore() {
+        this(DEFAULT_COALESCED, false);
+    }
+
+    /**
+     * Creates a new store holding up to {@link #DEFAULT_CAPACITY} orders and dropping the oldest when full.
+     *
+     * @param coalesced the order types for which only the latest pending order per entity is kept
+     * @param gated     whether orders are only released by {@link #flush()}
+     */
+    public OrderStore(Set<OrderType> coalesced, boolean gated) {
+        this(coalesced, gated, DEFAULT_CAPACITY, Backpressure.COALESCE);
+    }
+
+    /**
+     * Creates a new store sending {@link #DEFAULT_URGENT} order types in the urgent lane.
+     *
+     * @param coalesced    the order types for which only the latest pending order per entity is kept
+     * @param gated        whether orders are only released by {@link #flush()}
+     * @param capacity     the maximum number of pending orders
+     * @param backpressure what to do with a new order when the store is full
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public OrderStore(Set<OrderType> coalesced, boolean gated, int capacity, Backpressure backpressure) {
+        this(coalesced, DEFAULT_URGENT, gated, capacity, backpressure);
+    }
+
+    /**
+     * Creates a new store.
+     *
+     * @param coalesced    the order types for which only the latest pending order per entity is kept
+     * @param urgent       the order types waiting in the {@link OutboundLane#URGENT} lane
+     * @param gated        whether orders are only released by {@link #flush()}
+     * @param capacity     the maximum number of pending orders
+     * @param backpressure what to do with a new order when the store is full
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public OrderStore(Set<OrderType> coalesced, Set<OrderType> urgent, boolean gated, int capacity, Backpressure backpressure) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.coalesced = coalesced.isEmpty() ? EnumSet.noneOf(OrderType.class) : EnumSet.copyOf(coalesced);
+        this.urgent = urgent.isEmpty() ? EnumSet.noneOf(OrderType.class) : EnumSet.copyOf(urgent);
+        this.gated = gated;
+        this.capacity = capacity;
+        this.backpressure = backpressure;
+    }
+
+    /**
+     * Sets the action run before an offer waits for room under {@link Backpressure#BLOCK},
+     * typically waking up the sender.
+     *
+     * @param onBlocked the action, or null for none
+     */
+    public synchronized void onBlocked(Runnable onBlocked) {
+        this.onBlocked = onBlocked;
+    }
+
+    /**
+     * Adds an order, replacing a pending order with the same entity ID and type if that type is coalesced.
+     * When the store is full the {@link Backpressure} policy applies; a blocked offer gives up, dropping the order,
+     * if the store is closed or the thread is interrupted (the interrupt status is kept).
+     *
+     * @param order the order
+     * @return true if the order can be sent right away, false if it waits for {@link #flush()} or was dropped
+     */
+    public synchronized boolean offer(Order order) {
+        Key key = coalesced.contains(order.type()) ? new Key(order.id(), order.type()) : null;
+        if (closed || (size >= capacity && (key == null || !pending.containsKey(key)) && !makeRoom())) {
+            dropped++;
+            return false;
+        }
+        // behind the entity's urgent orders, a bulk order would be sent ahead of them
+        boolean urgentLaneOrder = urgent.contains(order.type()) || urgentPerEntity.containsKey(order.id());
+        if (key != null) {
+            Slot previous = pending.get(key);
+            if (previous != null) {
+                remove(previous); // skipped when drained
+                replaced++;
+                (previous.urgent ? urgentLane : bulkLane).compact();
+            }
+        }
+        Slot slot = new Slot(order, key, System.nanoTime());
+        if (key != null) {
+            pending.put(key, slot);
+        }
+        if (urgentLaneOrder) {
+            promoteBulk(order.id());
+            addUrgent(slot);
+        } else {
+            bulkLane.add(slot);
+            bulkPerEntity.merge(order.id(), 1, Integer::sum);
+        }
+        size++;
+        return !gated;
+    }
+
+    // moves the entity's pending bulk orders to the urgent lane; they stay released only behind released orders
+    private void promoteBulk(String id) {
+        if (!bulkPerEntity.containsKey(id)) {
+            return;
+        }
+        Iterator<Slot> slots = bulkLane.slots.iterator();
+        int index = 0;
+        int bulkReady = bulkLane.ready;
+        while (slots.hasNext()) {
+            Slot slot = slots.next();
+            boolean released = index++ < bulkReady;
+            if (slot.order == null || !slot.order.id().equals(id)) {
+                continue;
+            }
+            slots.remove();
+            bulkLane.live--;
+            if (released) {
+                bulkLane.ready--;
+            }
+            if (released && urgentLane.ready == urgentLane.slots.size()) {
+                urgentLane.ready++;
+            }
+            addUrgent(slot);
+        }
+        bulkPerEntity.remove(id);
+    }
+
+    private void addUrgent(Slot slot) {
+        slot.urgent = true;
+        urgentLane.add(slot);
+        urgentPerEntity.merge(slot.id, 1, Integer::sum);
+    }
+
+    private void remove(Slot slot) {
+        slot.order = null;
+        size--;
+        if (slot.urgent) {
+            urgentLane.live--;
+            urgentPerEntity.computeIfPresent(slot.id, (id, count) -> count == 1 ? null : count - 1);
+        } else {
+            bulkLane.live--;
+            bulkPerEntity.computeIfPresent(slot.id, (id, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    private boolean makeRoom() {
+        switch (backpressure) {
+            case COALESCE -> {
+                evictOldest();
+                return true;
+            }
+            case BLOCK -> {
+                if (gated) {
+                    release(); // nothing would ever drain a full gated store otherwise
+                }
+                if (onBlocked != null) {
+                    onBlocked.run();
+                }
+                try {
+                    while (size >= capacity && !closed) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    currentThread().interrupt();
+                    return false;
+                }
+                return !closed;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    // bulk orders are evicted first; urgent ones only once no bulk order is left
+    private void evictOldest() {
+        Lane lane = bulkLane.live > 0 ? bulkLane : urgentLane;
+        Slot slot;
+        do {
+            slot = lane.slots.poll();
+            if (lane.ready > 0) {
+                lane.ready--;
+            }
+        } while (slot.order == null);
+        if (slot.key != null) {
+            pending.remove(slot.key, slot);
+        }
+        remove(slot);
+        dropped++;
+    }
+
+    /**
+     * Releases all orders added so far for sending. Has no effect on a store that is not gated.
+     *
+     * @return true if there are orders to send
+     */
+    public synchronized boolean flush() {
+        release();
+        return size > 0;
+    }
+
+    private void release() {
+        urgentLane.ready = urgentLane.slots.size();
+        bulkLane.ready = bulkLane.slots.size();
+    }
+
+    /**
+     * Moves released orders to the target collection, urgent ones first, oldest first within a lane.
+     *
+     * @param target the collection to add to
+     * @param max    the maximum number of orders to move
+     * @return the number of orders moved
+     */
+    public synchronized int drainTo(Collection<Order> target, int max) {
+        int drained = drain(urgentLane, target, max);
+        drained += drain(bulkLane, target, max - drained);
+        notifyDrained(drained);
+        return drained;
+    }
+
+    /**
+     * Moves released orders of one lane to the target collection, oldest first.
+     *
+     * @param lane   the lane, {@link OutboundLane#URGENT} or {@link OutboundLane#BULK}
+     * @param target the collection to add to
+     * @param max    the maximum number of orders to move
+     * @return the number of orders moved
+     * @throws IllegalArgumentException if the lane does not hold orders
+     */
+    public synchronized int drainTo(OutboundLane lane, Collection<Order> target, int max) {
+        int drained = drain(lane(lane), target, max);
+        notifyDrained(drained);
+        return drained;
+    }
+
+    private int drain(Lane lane, Collection<Order> target, int max) {
+        int drained = 0;
+        int available = gated ? lane.ready : lane.slots.size();
+        long now = System.nanoTime();
+        while (drained < max && available > 0) {
+            Slot slot = lane.slots.poll();
+            available--;
+            if (gated) {
+                lane.ready--;
+            }
+            if (slot.order == null) {
+                continue;
+            }
+            if (slot.key != null) {
+                pending.remove(slot.key, slot);
+            }
+            target.add(slot.order);
+            lane.metrics.record(slot.queuedAt, now);
+            remove(slot);
+            drained++;
+        }
+        return drained;
+    }
+
+    private void notifyDrained(int drained) {
+        if (drained > 0 && backpressure == Backpressure.BLOCK) {
+            notifyAll();
+        }
+    }
+
+    private Lane lane(OutboundLane lane) {
+        return switch (lane) {
+            case URGENT -> urgentLane;
+            case BULK -> bulkLane;
+            default -> throw new IllegalArgumentException("Lane does not hold orders: " + lane);
+        };
+    }
+
+    /**
+     * Closes the store: new and blocked offers drop their orders from now on.
+     * Orders already pending can still be drained.
+     */
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    /**
+     * Checks whether orders are only released by {@link #flush()}.
+     *
+     * @return true if the store is gated
+     */
+    public boolean isGated() {
+        return gated;
+    }
+
+    /**
+     * Returns the number of pending orders.
+     *
+     * @return the number of orders not yet drained
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the orders taken from one lane, the orders waiting in it and how long they waited.
+     *
+     * @param lane the lane, {@link OutboundLane#URGENT} or {@link OutboundLane#BULK}
+     * @return a snapshot of the lane
+     * @throws IllegalArgumentException if the lane does not hold orders
+     */
+    public synchronized LaneStats laneStats(OutboundLane lane) {
+        Lane orders = lane(lane);
+        return orders.metrics.snapshot(orders.live);
+    }
+
+    /**
+     * Returns the number of orders dropped because a newer order replaced them.
+     *
+     * @return the number of replaced orders
+     */
+    public synchronized long replaced() {
+        return replaced;
+    }
+
+    /**
+     * Returns the number of orders dropped because the store was full or closed.
+     *
+     * @return the number of dropped orders
+     */
+    public synchronized long dropped() {
+        return dropped;
+    }
+
+    private record Key(String id, OrderType type) {
+    }
+
+    private static final class Slot {
+        private final Key key;
+        private final String id;
+        private final long queuedAt;
+        private Order order;
+        private boolean urgent;
+
+        private Slot(Order order, Key key, long queuedAt) {
+            this.order = order;
+            this.key = key;
+            this.id = order.id();
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    private static final class Lane {
+        private final ArrayDeque<Slot> slots = new ArrayDeque<>();
+        private final LaneMetrics metrics = new LaneMetrics();
+        private int ready;
+        private int live; // slots not replaced, dropped or drained
+
+        private void add(Slot slot) {
+            slots.add(slot);
+            live++;
+        }
+
+        // drops the slots of replaced orders once they outnumber the live ones, keeping released ones released
+        private void compact() {
+            if (slots.size() - live <= live) {
+                return;
+            }
+            Iterator<Slot> iterator = slots.iterator();
+            int index = 0;
+            int released = ready;
+            while (iterator.hasNext()) {
+                Slot slot = iterator.next();
+                boolean wasReleased = index++ < released;
+                if (slot.order == null) {
+                    iterator.remove();
+                    if (wasReleased) {
+                        ready--;
+                    }
+                }
+            }
+        }
+    }
+}
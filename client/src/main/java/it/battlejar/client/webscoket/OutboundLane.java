@@ -0,0 +1,22 @@
+package it.battlejar.client.webscoket;
+
+import it.battlejar.api.OrderType;
+
+/**
+ * Lanes of outbound traffic, drained by the sender in this order with a bounded number of messages per turn,
+ * so a burst in a lower lane never holds back a higher one for long.
+ */
+public enum OutboundLane {
+    /**
+     * Pings, pongs, resync requests and other texts; always drained in full.
+     */
+    CONTROL,
+    /**
+     * Orders whose value decays within a frame, by default {@link OrderType#FIRE_MISSILE} and {@link OrderType#ATTACK}.
+     */
+    URGENT,
+    /**
+     * All other orders, such as {@link OrderType#MOVE} and {@link OrderType#PATROL}.
+     */
+    BULK
+}
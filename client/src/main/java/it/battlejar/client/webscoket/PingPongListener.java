@@ -27,6 +27,11 @@ public class PingPongListener implements WebSocket.Listener {
         this.activityRecorder = requireNonNull(activityRecorder, "activityRecorder");
     }
 
+    @Override
+    public void onOpen(WebSocket webSocket) {
+        delegate.onOpen(webSocket);
+    }
+
     @Override
     public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
         activityRecorder.run();
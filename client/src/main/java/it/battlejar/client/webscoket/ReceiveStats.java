@@ -0,0 +1,13 @@
+package it.battlejar.client.webscoket;
+
+/**
+ * Snapshot of the inbound side of a game session.
+ *
+ * @param received         text messages received
+ * @param pending          text messages waiting to be parsed
+ * @param droppedEntities  entities frames dropped unparsed because a newer one arrived
+ * @param droppedDeltas    deltas dropped unparsed because a newer entities frame arrived
+ * @param supersededFrames entities decoded but replaced by newer ones before the commander processed them
+ */
+public record ReceiveStats(long received, int pending, long droppedEntities, long droppedDeltas, long supersededFrames) {
+}
@@ -0,0 +1,221 @@
+package it.battlejar.client.webscoket;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Bounded multi-producer single-consumer queue over a preallocated array.
+ * Offering and polling never allocate or lock: a producer claims a slot by moving the tail with a compare-and-set,
+ * then publishes its element with an ordered write to the slot; the consumer takes published slots in order and
+ * releases them by moving the head. An element may carry a stamp, such as the time it was queued, kept alongside it.
+ * The consumer waits for messages according to a {@link WaitStrategy}.
+ * Safe for any number of producers and one consumer.
+ *
+ * @param <E> the type of the elements
+ */
+public class RingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots; // null until the producer that claimed the slot publishes its element
+    private final long[] stamps; // written before the slot is published, read after it is seen
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // next slot to read, written by the consumer
+    private final AtomicLong tail = new AtomicLong(); // next slot to claim, moved by the producers
+    private final Signal signal;
+
+    /**
+     * Creates a ring buffer.
+     *
+     * @param capacity the minimum number of elements held, rounded up to a power of two
+     * @param strategy how the consumer waits in {@link #await(long, TimeUnit)}
+     * @throws IllegalArgumentException if the capacity is not positive or above 2^30
+     */
+    public RingBuffer(int capacity, WaitStrategy strategy) {
+        this(capacity, new Signal(strategy));
+    }
+
+    /**
+     * Creates a ring buffer raising a signal shared with other sources of work for the same consumer.
+     *
+     * @param capacity the minimum number of elements held, rounded up to a power of two
+     * @param signal   the signal raised on each offer
+     * @throws IllegalArgumentException if the capacity is not positive or above 2^30
+     */
+    RingBuffer(int capacity, Signal signal) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        size = size == capacity ? size : size << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.stamps = new long[size];
+        this.mask = size - 1;
+        this.signal = requireNonNull(signal, "Signal cannot be null");
+    }
+
+    /**
+     * Adds an element and wakes up the consumer.
+     *
+     * @param element the element
+     * @return true if added, false if the buffer is full
+     */
+    public boolean offer(E element) {
+        return offer(element, 0);
+    }
+
+    /**
+     * Adds an element with a stamp handed back by {@link #drainTo(Object[], long[], int, int)}, and wakes up the consumer.
+     *
+     * @param element the element
+     * @param stamp   the stamp, e.g. the {@link System#nanoTime()} at which the element is queued
+     * @return true if added, false if the buffer is full
+     */
+    public boolean offer(E element, long stamp) {
+        requireNonNull(element, "Element cannot be null");
+        long t;
+        do {
+            t = tail.get();
+            // the head moves only after the slot is cleared, so a claimed slot is always free
+            if (t - head.getAcquire() >= stamps.length) {
+                return false;
+            }
+        } while (!tail.compareAndSet(t, t + 1));
+        int index = (int) t & mask;
+        stamps[index] = stamp;
+        slots.setRelease(index, element);
+        signal.raise();
+        return true;
+    }
+
+    /**
+     * Takes the oldest element without waiting. Called by the consumer only.
+     *
+     * @return the element, or null if the buffer is empty or its oldest slot is claimed but not yet published
+     */
+    public E poll() {
+        long h = head.getPlain();
+        int index = (int) h & mask;
+        E element = slots.getAcquire(index);
+        if (element == null) {
+            return null;
+        }
+        slots.setPlain(index, null);
+        head.setRelease(h + 1);
+        return element;
+    }
+
+    /**
+     * Moves the pending elements to the target collection, oldest first, without waiting. Called by the consumer only.
+     *
+     * @param target the collection to add to
+     * @param max    the maximum number of elements to move
+     * @return the number of elements moved
+     */
+    public int drainTo(Collection<? super E> target, int max) {
+        return drain(target::add, max);
+    }
+
+    /**
+     * Moves the pending elements and their stamps to arrays, oldest first, without waiting. Called by the consumer only.
+     *
+     * @param elements the array receiving the elements
+     * @param stamps   the array receiving the stamps, at the same indexes
+     * @param offset   the index of the first element to write
+     * @param max      the maximum number of elements to move
+     * @return the number of elements moved
+     */
+    public int drainTo(E[] elements, long[] stamps, int offset, int max) {
+        long h = head.getPlain();
+        int count = 0;
+        while (count < max) {
+            int index = (int) (h + count) & mask;
+            E element = slots.getAcquire(index);
+            if (element == null) {
+                break;
+            }
+            elements[offset + count] = element;
+            stamps[offset + count] = this.stamps[index];
+            slots.setPlain(index, null);
+            count++;
+        }
+        if (count > 0) {
+            head.set(h + count); // a full store: a producer checking for room right after sees it
+        }
+        return count;
+    }
+
+    /**
+     * Hands the pending elements to an action, oldest first, without waiting. Called by the consumer only.
+     * The slots are released to the producers once all of them have been handed over.
+     *
+     * @param action the action taking each element
+     * @param max    the maximum number of elements to hand over
+     * @return the number of elements handed over
+     */
+    public int drain(Consumer<? super E> action, int max) {
+        long h = head.getPlain();
+        int count = 0;
+        try {
+            while (count < max) {
+                int index = (int) (h + count) & mask;
+                E element = slots.getAcquire(index);
+                if (element == null) { // claimed but not yet published: the later slots wait for it, keeping the order
+                    break;
+                }
+                slots.setPlain(index, null);
+                count++;
+                action.accept(element);
+            }
+        } finally {
+            if (count > 0) {
+                head.set(h + count); // a full store: a producer checking for room right after sees it
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Waits up to the timeout for an element, according to the {@link WaitStrategy}. Called by the consumer only.
+     *
+     * @param timeout how long to wait
+     * @param unit    the unit of the timeout
+     * @return true if an element is pending, false if the wait timed out
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !signal.await(remaining, TimeUnit.NANOSECONDS)) {
+                return !isEmpty();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if no element is ready to be taken
+     */
+    public boolean isEmpty() {
+        return slots.getAcquire((int) head.getAcquire() & mask) == null;
+    }
+
+    /**
+     * @return the number of elements pending, including those claimed but not yet published
+     */
+    public int size() {
+        long h = head.getAcquire();
+        return (int) Math.max(0, tail.getAcquire() - h);
+    }
+
+    /**
+     * @return the number of elements the buffer holds
+     */
+    public int capacity() {
+        return stamps.length;
+    }
+}
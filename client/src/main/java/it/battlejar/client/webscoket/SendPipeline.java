@@ -0,0 +1,170 @@
+package it.battlejar.client.webscoket;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Sends texts over a WebSocket with up to {@code window} messages in flight.
+ * The WebSocket allows one pending send only, so each send is chained to the completion of the previous one
+ * instead of being waited for: the sender encodes the next messages while earlier ones are being written.
+ * A message encoded into a buffer from {@link #acquire()} is read lazily by the WebSocket; the buffer is only
+ * reused once its send has completed, so encoding never copies.
+ * When the whole window is in flight, {@link #acquire()} and {@link #send(String)} block, and pending orders build up
+ * in the {@link OrderStore} where its {@link Backpressure} policy applies.
+ * Meant for a single sending thread; statistics can be read from any thread.
+ */
+@Slf4j
+class SendPipeline {
+
+    private static final int BUFFER_CAPACITY = 256;
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+
+    private final UUID gameId;
+    private final WebSocket webSocket;
+    private final int windowSize;
+    private final Semaphore window;
+    private final Queue<StringBuilder> buffers = new ConcurrentLinkedQueue<>();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private CompletableFuture<?> tail = completedFuture(null);
+
+    /**
+     * Creates a new pipeline.
+     *
+     * @param gameId     the game the WebSocket belongs to, for logging
+     * @param webSocket  the WebSocket to send with
+     * @param windowSize the maximum number of messages in flight
+     * @throws IllegalArgumentException if the window size is not positive
+     */
+    SendPipeline(UUID gameId, WebSocket webSocket, int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        this.gameId = gameId;
+        this.webSocket = webSocket;
+        this.windowSize = windowSize;
+        this.window = new Semaphore(windowSize);
+    }
+
+    /**
+     * Takes a slot of the window, waiting for an earlier send to complete if all slots are in flight.
+     * The slot is released when the message encoded into the returned buffer has been sent by {@link #send(StringBuilder)}.
+     *
+     * @return an empty buffer to encode one message into
+     * @throws InterruptedException  if interrupted while waiting
+     * @throws IllegalStateException if no send completed within 10 seconds
+     */
+    StringBuilder acquire() throws InterruptedException {
+        acquireSlot();
+        StringBuilder buffer = buffers.poll();
+        if (buffer == null) {
+            return new StringBuilder(BUFFER_CAPACITY);
+        }
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    /**
+     * Sends the message encoded into a buffer from {@link #acquire()}, after the messages sent before it.
+     *
+     * @param buffer the buffer, not to be touched until it is acquired again
+     * @return a future completed when the message has been sent, or completed exceptionally if sending failed
+     */
+    CompletableFuture<?> send(StringBuilder buffer) {
+        return chain(buffer, buffer);
+    }
+
+    /**
+     * Sends a text after the messages sent before it, waiting for a slot of the window.
+     *
+     * @param text the text to send
+     * @return a future completed when the text has been sent, or completed exceptionally if sending failed
+     * @throws InterruptedException  if interrupted while waiting
+     * @throws IllegalStateException if no send completed within 10 seconds
+     */
+    CompletableFuture<?> send(String text) throws InterruptedException {
+        acquireSlot();
+        return chain(text, null);
+    }
+
+    private void acquireSlot() throws InterruptedException {
+        if (!window.tryAcquire(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("No WebSocket send completed within " + SEND_TIMEOUT_SECONDS + "s");
+        }
+    }
+
+    private CompletableFuture<?> chain(CharSequence text, StringBuilder buffer) {
+        long queuedAt = System.nanoTime();
+        tail = tail
+            .handle((ignored, failure) -> null) // a failed send does not hold back the next ones
+            .thenCompose(ignored -> webSocket.sendText(text, true))
+            .whenComplete((ignored, failure) -> completed(queuedAt, buffer, failure));
+        return tail;
+    }
+
+    private void completed(long queuedAt, StringBuilder buffer, Throwable failure) {
+        long latency = System.nanoTime() - queuedAt;
+        if (failure == null) {
+            sent.increment();
+        } else {
+            failed.increment();
+            log.error("[{}] Failed to send text via WebSocket", gameId, failure);
+        }
+        totalLatencyNanos.add(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        if (buffer != null) {
+            buffers.offer(buffer);
+        }
+        window.release();
+    }
+
+    /**
+     * @return the number of messages sent
+     */
+    long sent() {
+        return sent.sum();
+    }
+
+    /**
+     * @return the number of messages whose send failed
+     */
+    long failed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return the number of messages queued or being written by the WebSocket
+     */
+    int inFlight() {
+        return windowSize - window.availablePermits();
+    }
+
+    /**
+     * @return the average time from queuing a message to the completion of its send
+     */
+    Duration averageLatency() {
+        long count = sent.sum() + failed.sum();
+        return count == 0 ? Duration.ZERO : Duration.ofNanos(totalLatencyNanos.sum() / count);
+    }
+
+    /**
+     * @return the longest time from queuing a message to the completion of its send
+     */
+    Duration maxLatency() {
+        return Duration.ofNanos(maxLatencyNanos.get());
+    }
+}
@@ -0,0 +1,22 @@
+package it.battlejar.client.webscoket;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Snapshot of the outbound side of a game session.
+ *
+ * @param sent           messages sent over the WebSocket
+ * @param failed         messages whose send failed
+ * @param inFlight       messages queued on the WebSocket or being written
+ * @param queuedTexts    texts (pings, pongs, resync requests) waiting for the sender
+ * @param pendingOrders  orders waiting in the {@link OrderStore}
+ * @param replacedOrders orders replaced by a newer one before being sent
+ * @param droppedOrders  orders dropped because the {@link OrderStore} was full or closed, or the WebSocket did not take them
+ * @param averageLatency average time from handing a message to the WebSocket to the completion of its send
+ * @param maxLatency     longest time from handing a message to the WebSocket to the completion of its send
+ * @param lanes          the traffic of each {@link OutboundLane}, with the time spent waiting for the sender
+ */
+public record SendStats(long sent, long failed, int inFlight, int queuedTexts, int pendingOrders, long replacedOrders,
+                        long droppedOrders, Duration averageLatency, Duration maxLatency, Map<OutboundLane, LaneStats> lanes) {
+}
@@ -0,0 +1,109 @@
+package it.battlejar.client.webscoket;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Binary wake-up flag raised by producers and awaited by one consumer according to a {@link WaitStrategy}.
+ * Raising an already raised signal costs no unpark, so a burst of messages wakes the consumer once.
+ * Safe for any number of producers and a single consumer.
+ */
+class Signal {
+
+    // spins before a wait may time out or park, so a message about to be published needs no wake-up
+    private static final int MIN_SPINS = 512;
+    private static final int INTERRUPT_CHECK_MASK = 0x3ff;
+
+    private final WaitStrategy strategy;
+    private final AtomicBoolean raised = new AtomicBoolean();
+    private volatile Thread waiter;
+
+    /**
+     * Creates a new signal.
+     *
+     * @param strategy how the consumer waits
+     */
+    Signal(WaitStrategy strategy) {
+        this.strategy = requireNonNull(strategy, "Wait strategy cannot be null");
+    }
+
+    /**
+     * Raises the signal, unparking the consumer if it is parked.
+     */
+    void raise() {
+        // the swap orders the message published before it with the consumer taking the signal
+        if (!raised.getAndSet(true)) {
+            Thread parked = waiter;
+            if (parked != null) {
+                LockSupport.unpark(parked);
+            }
+        }
+    }
+
+    /**
+     * Waits up to the timeout for the signal to be raised and lowers it.
+     *
+     * @param timeout how long to wait
+     * @param unit    the unit of the timeout
+     * @return true if the signal was raised, false if the wait timed out
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        if (take()) {
+            return true;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        return switch (strategy) {
+            case BUSY_SPIN -> spin(deadline, false);
+            case YIELD -> spin(deadline, true);
+            case PARK -> spin(System.nanoTime(), false) || park(deadline);
+        };
+    }
+
+    // spins at least MIN_SPINS times
+    private boolean spin(long deadline, boolean yield) throws InterruptedException {
+        for (int i = 0; ; i++) {
+            if (take()) {
+                return true;
+            }
+            if (i > MIN_SPINS && deadline - System.nanoTime() <= 0) {
+                return false;
+            }
+            if ((i & INTERRUPT_CHECK_MASK) == 0 && Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (yield) {
+                Thread.yield();
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    // the waiter is published before checking the flag, so a producer either sees it or the consumer sees the flag
+    private boolean park(long deadline) throws InterruptedException {
+        waiter = Thread.currentThread();
+        try {
+            while (!take()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            return true;
+        } finally {
+            waiter = null;
+        }
+    }
+
+    private boolean take() {
+        return raised.get() && raised.getAndSet(false);
+    }
+}
@@ -0,0 +1,132 @@
+package it.battlejar.client.webscoket;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timer wheel running tasks on the thread that advances it, so timers need no thread of their own.
+ * Time is split into ticks; a task is kept in the bucket of the tick it is due at, so scheduling and expiring a task
+ * costs the same however many tasks are pending. Tasks run at most one tick late.
+ * Times are {@link System#nanoTime()} values passed in by the caller.
+ * Not thread-safe: meant for a single event loop.
+ */
+class TimerWheel {
+
+    private final long tickNanos;
+    private final ArrayDeque<Timer>[] buckets;
+    private final int mask;
+    private final long start;
+    private final List<Timer> expired = new ArrayList<>(); // reused by each advance
+    private long tick; // the next tick to expire
+    private int size;
+
+    /**
+     * Creates a new wheel.
+     *
+     * @param tickNanos the length of a tick
+     * @param buckets   the number of buckets, rounded up to a power of two; tasks further than that many ticks away
+     *                  share buckets with nearer ones
+     * @param now       the current time
+     * @throws IllegalArgumentException if the tick or the number of buckets is not positive
+     */
+    @SuppressWarnings("unchecked")
+    TimerWheel(long tickNanos, int buckets, long now) {
+        if (tickNanos <= 0 || buckets <= 0 || buckets > 1 << 16) {
+            throw new IllegalArgumentException("Invalid timer wheel: tick " + tickNanos + "ns, " + buckets + " buckets");
+        }
+        int count = Integer.highestOneBit(buckets);
+        count = count == buckets ? count : count << 1;
+        this.tickNanos = tickNanos;
+        this.buckets = new ArrayDeque[count];
+        for (int i = 0; i < count; i++) {
+            this.buckets[i] = new ArrayDeque<>();
+        }
+        this.mask = count - 1;
+        this.start = now;
+    }
+
+    /**
+     * Schedules a task.
+     *
+     * @param now        the current time
+     * @param delayNanos how long from now the task is due
+     * @param task       the task, run by {@link #advance(long)}
+     */
+    void schedule(long now, long delayNanos, Runnable task) {
+        long due = Math.max(tick, ceilDiv(now + delayNanos - start, tickNanos));
+        buckets[(int) (due & mask)].add(new Timer(due, task));
+        size++;
+    }
+
+    /**
+     * Runs the tasks due by now. Tasks scheduled by the tasks being run wait for a later call, even when due right away,
+     * so a task rescheduling itself with no delay cannot keep this call from returning. Not to be called from a task.
+     *
+     * @param now the current time
+     * @return the number of tasks run
+     */
+    int advance(long now) {
+        long current = Math.floorDiv(now - start, tickNanos);
+        if (size == 0) {
+            tick = Math.max(tick, current + 1);
+            return 0;
+        }
+        long last = Math.min(current, tick + mask); // past a full turn, every bucket has been visited
+        for (long t = tick; t <= last; t++) {
+            Iterator<Timer> timers = buckets[(int) (t & mask)].iterator();
+            while (timers.hasNext()) {
+                Timer timer = timers.next();
+                if (timer.due <= current) {
+                    timers.remove();
+                    expired.add(timer);
+                }
+            }
+        }
+        tick = Math.max(tick, current + 1);
+        size -= expired.size();
+        expired.sort((a, b) -> Long.compare(a.due, b.due));
+        int run = expired.size();
+        try {
+            for (Timer timer : expired) {
+                timer.task.run();
+            }
+        } finally {
+            expired.clear(); // the tasks are not kept alive until the next advance
+        }
+        return run;
+    }
+
+    /**
+     * Returns how long the event loop may wait before the wheel has to be advanced.
+     *
+     * @param now the current time
+     * @return the time until the next tick holding a task, or {@link Long#MAX_VALUE} if no task is pending
+     */
+    long nanosUntilNext(long now) {
+        if (size == 0) {
+            return Long.MAX_VALUE;
+        }
+        for (long t = tick; t <= tick + mask; t++) {
+            if (!buckets[(int) (t & mask)].isEmpty()) {
+                return Math.max(0, start + t * tickNanos - now);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the number of pending tasks
+     */
+    int size() {
+        return size;
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    private record Timer(long due, Runnable task) {
+    }
+}
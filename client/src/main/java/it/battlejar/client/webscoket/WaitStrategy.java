@@ -0,0 +1,21 @@
+package it.battlejar.client.webscoket;
+
+/**
+ * How a consumer waits for a {@link RingBuffer} or a {@link MessageMailbox} to receive a message.
+ * Spinning reacts the fastest but keeps a core busy while the game is idle; parking gives the core back
+ * at the cost of a wake-up on the next message.
+ */
+public enum WaitStrategy {
+    /**
+     * The consumer spins on the CPU until a message arrives or the wait times out.
+     */
+    BUSY_SPIN,
+    /**
+     * The consumer yields to other threads between checks.
+     */
+    YIELD,
+    /**
+     * The consumer spins briefly, then parks until a producer unparks it.
+     */
+    PARK
+}
@@ -3,9 +3,14 @@ package it.battlejar.client.webscoket;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import it.battlejar.api.Entities;
+import it.battlejar.api.EntitiesDelta;
+import it.battlejar.api.Order;
+import it.battlejar.api.Orders;
 import it.battlejar.api.Ping;
 import it.battlejar.api.Pong;
+import it.battlejar.api.Resync;
 import it.battlejar.api.WebSocketMessage;
+import it.battlejar.client.frame.PooledFrame;
 import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
 
@@ -15,9 +20,14 @@ import java.net.http.WebSocket;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -31,21 +41,72 @@ import static java.util.concurrent.CompletableFuture.runAsync;
 @Slf4j
 public class WebSocketGameClient implements AutoCloseable {
 
+    /**
+     * Default number of messages handed to the WebSocket and not yet sent.
+     */
+    public static final int DEFAULT_SEND_WINDOW = 8;
+
+    /**
+     * Maximum number of texts (pings, pongs, resync requests) waiting to be sent, per priority; beyond that
+     * texts of normal priority are refused and priority ones wait for the sender to make room.
+     */
+    public static final int TEXT_QUEUE_CAPACITY = 256;
+
+    /**
+     * Default maximum number of messages taken from the {@link OutboundLane#URGENT} lane per turn.
+     */
+    public static final int DEFAULT_URGENT_WEIGHT = 16;
+
+    /**
+     * Default maximum number of messages taken from the {@link OutboundLane#BULK} lane per turn.
+     */
+    public static final int DEFAULT_BULK_WEIGHT = 8;
+
+    private static final int MAX_CONTROL_TEXTS = 60;
+    private static final long PRIORITY_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final int MAX_MESSAGES = 30;
+    private static final long HEARTBEAT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long TIMER_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int TIMER_BUCKETS = 128;
+    // a keyframe not received after this long or this many deltas is requested again, the request or reply being lost
+    private static final long RESYNC_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int RESYNC_MAX_DROPPED_DELTAS = 30;
+
     private final ObjectMapper objectMapper;
-    private final BlockingDeque<String> outQueue = new LinkedBlockingDeque<>();
-    private final BlockingDeque<String> inQueue = new LinkedBlockingDeque<>();
+    private final WebSocketMessageDecoder decoder;
+    private final Signal outboundReady;
+    private final RingBuffer<String> priorityQueue;
+    private final RingBuffer<String> outQueue;
+    // the control texts of one turn and when they were queued, owned by the sender
+    private final String[] controlTexts = new String[MAX_CONTROL_TEXTS];
+    private final long[] controlQueuedAt = new long[MAX_CONTROL_TEXTS];
+    private final LaneMetrics controlMetrics = new LaneMetrics();
+    private final MessageMailbox inbox;
+    private final LongAdder supersededFrames = new LongAdder();
+    private final LongAdder unsentOrders = new LongAdder(); // drained from the store but never handed to the WebSocket
+    private final OrderStore orderStore;
+    private final int sendWindow;
+    private final int urgentWeight;
+    private final int bulkWeight;
 
     private final UUID gameId;
     private final ExecutorService executorService;
     private final PingPong pingPong = new PingPong();
+    private final EntitiesReconstructor reconstructor = new EntitiesReconstructor();
+    private boolean resyncRequested = false;
+    private long resyncRequestedAt;
+    private int droppedSinceResync;
 
+    private final HttpClient sharedHttpClient;
     private WebSocket webSocket;
     private HttpClient httpClient;
+    private volatile SendPipeline pipeline;
 
-    private final Semaphore lastEntitiesUpdated = new Semaphore(1);
-    private Entities lastEntities;
+    private final LatestValueMailbox<Entities> latestEntities = new LatestValueMailbox<>();
     private volatile boolean running = true;
     private volatile boolean closing = false;
+    private volatile boolean eventLoop = false;
+    private volatile Thread sender;
 
     /**
      * Creates a new WebSocketGameClient.
@@ -55,33 +116,154 @@ public class WebSocketGameClient implements AutoCloseable {
      * @param executorService the executor service to use for asynchronous tasks
      */
     public WebSocketGameClient(UUID gameId, ObjectMapper objectMapper, ExecutorService executorService) {
+        this(gameId, objectMapper, new WebSocketMessageDecoder(objectMapper), new OrderStore(), null, WebSocketOptions.DEFAULT,
+            executorService);
+    }
+
+    /**
+     * Creates a new WebSocketGameClient.
+     *
+     * @param gameId          the unique identifier of the game
+     * @param objectMapper    the object mapper for JSON serialization
+     * @param decoder         the decoder for incoming messages
+     * @param orderStore      the store holding orders until they are sent
+     * @param httpClient      the client to open the WebSocket with, left open on close;
+     *                        or null to create one per connection, closed with the WebSocket
+     * @param options         how messages are sent and how idle threads wait for work
+     * @param executorService the executor service to use for asynchronous tasks
+     */
+    public WebSocketGameClient(UUID gameId, ObjectMapper objectMapper, WebSocketMessageDecoder decoder, OrderStore orderStore,
+                               HttpClient httpClient, WebSocketOptions options, ExecutorService executorService) {
+        this.sharedHttpClient = httpClient;
         this.gameId = gameId;
         this.executorService = executorService;
         this.objectMapper = objectMapper;
+        this.decoder = decoder;
+        this.orderStore = orderStore;
+        this.sendWindow = options.sendWindow();
+        this.urgentWeight = options.urgentWeight();
+        this.bulkWeight = options.bulkWeight();
+        this.inbox = new MessageMailbox(MessageMailbox.DEFAULT_CAPACITY, options.waitStrategy());
+        this.outboundReady = new Signal(options.waitStrategy());
+        this.priorityQueue = new RingBuffer<>(TEXT_QUEUE_CAPACITY, outboundReady);
+        this.outQueue = new RingBuffer<>(TEXT_QUEUE_CAPACITY, outboundReady);
+        orderStore.onBlocked(outboundReady::raise); // a blocked commander waits for the sender
     }
 
     /**
      * Queues text to be sent over the WebSocket.
+     * Up to {@link #TEXT_QUEUE_CAPACITY} texts wait to be sent; beyond that the text is refused.
      *
      * @param text the text to send
+     * @return true if queued, false if the queue is full
      */
-    public void sendText(String text) {
-        if (closing) {
-            throw new IllegalStateException("WebSocket is closing - cannot send text");
-        }
-        outQueue.add(text);
+    public boolean sendText(String text) {
+        checkOpen();
+        return outQueue.offer(text, System.nanoTime());
     }
 
     /**
-     * Queues text to be sent with high priority.
+     * Queues text to be sent with high priority, before the texts and orders queued with normal priority.
+     * Priority texts are never dropped: beyond {@link #TEXT_QUEUE_CAPACITY} texts, this call waits for the sender
+     * to make room, or makes room itself when called by the sender.
      *
      * @param text the text to send
+     * @throws IllegalStateException if the client closes or the thread is interrupted while waiting
      */
     public void sendPriorityText(String text) {
+        checkOpen();
+        while (!priorityQueue.offer(text, System.nanoTime())) {
+            if (currentThread() == sender) {
+                makeRoom();
+            } else {
+                outboundReady.raise();
+                LockSupport.parkNanos(this, PRIORITY_WAIT_NANOS);
+                if (currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Interrupted while waiting to queue priority text");
+                }
+                checkOpen();
+            }
+        }
+    }
+
+    private void checkOpen() {
         if (closing) {
             throw new IllegalStateException("WebSocket is closing - cannot send text");
         }
-        outQueue.addFirst(text);
+    }
+
+    // the sender cannot wait for itself: it sends the queued control texts on the spot
+    private void makeRoom() {
+        try {
+            sendControl();
+        } catch (InterruptedException e) {
+            currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending priority texts", e);
+        }
+    }
+
+    /**
+     * Queues an order to be serialized and sent by {@link #processOrders()}.
+     * A pending order for the same entity may be replaced; when the store is full the order may be dropped
+     * or this call may block until the sender makes room, see {@link OrderStore}.
+     *
+     * @param order the order to send
+     */
+    public void sendOrder(Order order) {
+        if (closing) {
+            throw new IllegalStateException("WebSocket is closing - cannot send order");
+        }
+        if (orderStore.offer(order)) {
+            outboundReady.raise();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the outbound statistics: messages sent and in flight, send latency, queue depths
+     * and the traffic of each {@link OutboundLane}.
+     *
+     * @return the statistics, with zero sends before connecting
+     */
+    public SendStats sendStats() {
+        Map<OutboundLane, LaneStats> lanes = new EnumMap<>(OutboundLane.class);
+        lanes.put(OutboundLane.CONTROL, controlMetrics.snapshot(queuedTexts()));
+        lanes.put(OutboundLane.URGENT, orderStore.laneStats(OutboundLane.URGENT));
+        lanes.put(OutboundLane.BULK, orderStore.laneStats(OutboundLane.BULK));
+        SendPipeline current = pipeline;
+        if (current == null) {
+            return new SendStats(0, 0, 0, queuedTexts(), orderStore.size(), orderStore.replaced(), droppedOrders(),
+                Duration.ZERO, Duration.ZERO, lanes);
+        }
+        return new SendStats(current.sent(), current.failed(), current.inFlight(), queuedTexts(), orderStore.size(),
+            orderStore.replaced(), droppedOrders(), current.averageLatency(), current.maxLatency(), lanes);
+    }
+
+    private long droppedOrders() {
+        return orderStore.dropped() + unsentOrders.sum();
+    }
+
+    private int queuedTexts() {
+        return priorityQueue.size() + outQueue.size();
+    }
+
+    /**
+     * Returns a snapshot of the inbound statistics: messages received and pending, and entities frames dropped
+     * unparsed or superseded before the commander got them.
+     *
+     * @return the statistics
+     */
+    public ReceiveStats receiveStats() {
+        return new ReceiveStats(inbox.received(), inbox.size(), inbox.droppedEntities(), inbox.droppedDeltas(),
+            supersededFrames.sum());
+    }
+
+    /**
+     * Releases the orders queued so far when the order store is gated, so they are sent as one {@link Orders} message.
+     */
+    public void flushOrders() {
+        if (orderStore.flush() && orderStore.isGated()) {
+            outboundReady.raise();
+        }
     }
 
     @Override
@@ -92,6 +274,7 @@ public class WebSocketGameClient implements AutoCloseable {
         }
         closing = true;
         running = false;
+        orderStore.close(); // wakes up a commander blocked on a full store
         try {
             if (webSocket != null) {
                 log.info("[{}] Closing WebSocket", gameId);
@@ -99,7 +282,7 @@ public class WebSocketGameClient implements AutoCloseable {
                     .thenRun(webSocket::abort)
                     .orTimeout(10, TimeUnit.SECONDS);
             }
-            if (httpClient != null) {
+            if (httpClient != null && httpClient != sharedHttpClient) {
                 log.info("[{}] Closing HTTP client", gameId);
                 runAsync(httpClient::close, executorService).orTimeout(10, TimeUnit.SECONDS);
                 // AI - HttpClinet.awaitTermination and HttpClient.shutDown has existed since java 21 - do not report it as bug
@@ -118,27 +301,27 @@ public class WebSocketGameClient implements AutoCloseable {
 
     /**
      * Starts the loop for processing and sending queued orders.
+     * Each turn sends every queued text (the {@link OutboundLane#CONTROL} lane, priority messages first), then at most
+     * the urgent weight of {@link OutboundLane#URGENT} orders and the bulk weight of {@link OutboundLane#BULK} orders,
+     * so heartbeats and urgent orders never queue behind more than one turn of bulk orders.
+     * Orders are encoded on this thread just before sending,
+     * so replaced orders are never serialized and the commander never pays for it.
+     * Sends are pipelined: up to the send window of messages are handed to the WebSocket before this loop waits
+     * for the earliest to complete, see {@link SendPipeline}.
+     * While there is nothing to send, the loop waits according to its {@link WaitStrategy}.
      */
     public void processOrders() {
         long lastCheck = System.currentTimeMillis();
-        List<String> orders = new ArrayList<>(60);
+        sender = currentThread();
+        List<Order> orders = new ArrayList<>(Math.max(urgentWeight, bulkWeight));
         while (running) {
             try {
-                orders.clear();
-                outQueue.drainTo(orders, 60);
-                if (orders.isEmpty()) {
-                    if (System.currentTimeMillis() - lastCheck > 1000) {
-                        lastCheck = System.currentTimeMillis();
-                        pingPong.monitorConnection();
-                    }
-                    String text = outQueue.poll(1, TimeUnit.SECONDS);
-                    if (text != null) {
-                        doSendText(text);
-                    }
-                } else {
-                    for (String order : orders) {
-                        doSendText(order);
-                    }
+                if (System.currentTimeMillis() - lastCheck > 1000) {
+                    lastCheck = System.currentTimeMillis();
+                    pingPong.monitorConnection();
+                }
+                if (sendTurn(orders) == 0) {
+                    outboundReady.await(1, TimeUnit.SECONDS);
                 }
             } catch (InterruptedException e) {
                 log.error("[{}] Orders processing interrupted - closing connection", gameId, e);
@@ -156,20 +339,21 @@ public class WebSocketGameClient implements AutoCloseable {
      * @param entitiesProcessor the function to process the received entities
      */
     public void processEntities(Function<Entities, Boolean> entitiesProcessor) {
-        Entities toProcess = null;
+        processFrames(delivery -> entitiesProcessor.apply(delivery.value()));
+    }
+
+    /**
+     * Starts the loop for processing incoming entities, along with their sequence number
+     * and the number of frames superseded since the previous one, see {@link LatestValueMailbox}.
+     *
+     * @param frameProcessor the function to process the received entities, returning false to stop
+     */
+    public void processFrames(Predicate<LatestValueMailbox.Delivery<Entities>> frameProcessor) {
         try {
             while (running) {
-                if (lastEntitiesUpdated.tryAcquire(1, TimeUnit.SECONDS)) { // we use semaphore only to block waiting for an update
-                    synchronized (lastEntitiesUpdated) { // we use synchronisation to enforce atomicity
-                        if (lastEntities != null) {
-                            toProcess = lastEntities;
-                            lastEntities = null;
-                        }
-                    }
-                    if (toProcess != null) {
-                        running = entitiesProcessor.apply(toProcess);
-                        toProcess = null;
-                    }
+                LatestValueMailbox.Delivery<Entities> delivery = latestEntities.take(1, TimeUnit.SECONDS);
+                if (delivery != null) {
+                    running = frameProcessor.test(delivery);
                 }
             }
         } catch (InterruptedException e) {
@@ -181,55 +365,12 @@ public class WebSocketGameClient implements AutoCloseable {
      * Starts the loop for processing incoming WebSocket messages.
      */
     public void processMessages() {
-        List<String> messages = new ArrayList<>(30);
+        List<Object> messages = new ArrayList<>(MAX_MESSAGES);
         while (running) {
             try {
                 messages.clear();
-                inQueue.drainTo(messages, 30);
-                if (messages.isEmpty()) {
-                    String polled = inQueue.poll(1, TimeUnit.SECONDS);
-                    if (polled != null) {
-                        messages.add(polled);
-                    }
-                }
-                if (!messages.isEmpty()) {
-                    Entities toProcess = null;
-                    int size = messages.size();
-                    for (String json : messages) {
-                        try {
-                            log.debug("[{}] Received JSON from WebSocket: {}", gameId, json);
-                            WebSocketMessage wsMessage = objectMapper.readValue(json, WebSocketMessage.class);
-                            if (wsMessage == null) {
-                                log.warn("[{}] Parsed WebSocketMessage is null from JSON: {}", gameId, json);
-                                continue;
-                            }
-                            switch (wsMessage) {
-                                case Entities entities:
-                                    toProcess = entities;
-                                    break;
-                                case Ping ping:
-                                    pingPong.handlePing(ping);
-                                    size--;
-                                    break;
-                                case Pong pong:
-                                    pingPong.handlePong(pong);
-                                    size--;
-                                    break;
-                                default:
-                                    log.warn("[{}] Unhandled WebSocketMessage type: {}", gameId, wsMessage.getClass().getSimpleName());
-                            }
-                        } catch (Exception e) {
-                            log.error("[{}] Failed to parse WebSocket message JSON: {}", gameId, json, e);
-                        }
-                    }
-                    if (toProcess != null) {
-                        log.debug("[{}] Processing entities: {}, {} skipped", gameId, toProcess, size - 1);
-                        synchronized (lastEntitiesUpdated) {
-                            lastEntities = toProcess;
-                        }
-                        lastEntitiesUpdated.release(); // we use semaphore only to block waiting for an update
-                    }
-                }
+                inbox.drainTo(messages, MAX_MESSAGES, 1, TimeUnit.SECONDS);
+                handleMessages(messages);
             } catch (InterruptedException e) {
                 close();
                 currentThread().interrupt();
@@ -239,24 +380,252 @@ public class WebSocketGameClient implements AutoCloseable {
         }
     }
 
-    private void doSendText(String text) {
-        log.debug("[{}] Send text attempt: {}", gameId, text);
-        if (webSocket == null) {
-            log.error("[{}] WebSocket is not connected - connect before sending orders...", gameId);
-        } else if (webSocket.isOutputClosed()) {
-            log.warn("[{}] WebSocket - output is closed", gameId);
-            close();
-        } else {
+    /**
+     * Runs the whole session on the calling thread: decodes incoming messages, hands the latest entities to the
+     * frame processor and sends queued texts and orders, in a loop, instead of {@link #processMessages()},
+     * {@link #processFrames(Predicate)} and {@link #processOrders()} each running on its own thread.
+     * Nothing is handed over between threads, so a frame reaches the commander and its orders reach the WebSocket
+     * without a wake-up in between. Heartbeats are checked by a {@link TimerWheel} on the same thread.
+     * While there is nothing to do, the loop waits according to its {@link WaitStrategy}.
+     * The frame processor must not block on the sender, e.g. through {@link Backpressure#BLOCK}.
+     *
+     * @param frameProcessor the function to process the received entities, returning false to stop
+     */
+    public void runEventLoop(Predicate<LatestValueMailbox.Delivery<Entities>> frameProcessor) {
+        eventLoop = true;
+        inbox.onMessage(outboundReady::raise); // a single signal wakes the loop for messages, frames and orders
+        TimerWheel timers = new TimerWheel(TIMER_TICK_NANOS, TIMER_BUCKETS, System.nanoTime());
+        scheduleHeartbeat(timers, System.nanoTime());
+        List<Object> messages = new ArrayList<>(MAX_MESSAGES);
+        sender = currentThread();
+        List<Order> orders = new ArrayList<>(Math.max(urgentWeight, bulkWeight));
+        try {
+            while (running) {
+                try {
+                    messages.clear();
+                    inbox.drainTo(messages, MAX_MESSAGES, 0, TimeUnit.NANOSECONDS);
+                    handleMessages(messages);
+                    boolean busy = !messages.isEmpty();
+                    LatestValueMailbox.Delivery<Entities> delivery = latestEntities.tryTake();
+                    if (delivery != null) {
+                        running = frameProcessor.test(delivery) && running;
+                        busy = true;
+                    }
+                    busy |= sendTurn(orders) > 0;
+                    long now = System.nanoTime();
+                    busy |= timers.advance(now) > 0;
+                    if (!busy) {
+                        outboundReady.await(Math.min(timers.nanosUntilNext(now), TimeUnit.SECONDS.toNanos(1)), TimeUnit.NANOSECONDS);
+                    }
+                } catch (InterruptedException e) {
+                    log.error("[{}] Event loop interrupted - closing connection", gameId, e);
+                    close();
+                    currentThread().interrupt();
+                } catch (Throwable e) {
+                    log.error("[{}] Failed to run event loop", gameId, e);
+                }
+            }
+        } finally {
+            inbox.onMessage(null);
+        }
+    }
+
+    private void scheduleHeartbeat(TimerWheel timers, long now) {
+        timers.schedule(now, HEARTBEAT_INTERVAL_NANOS, () -> {
+            pingPong.monitorConnection();
+            scheduleHeartbeat(timers, System.nanoTime());
+        });
+    }
+
+    private void handleMessages(List<Object> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        Entities toProcess = null;
+        boolean deltaApplied = false;
+        int size = messages.size();
+        for (Object message : messages) {
             try {
-                log.debug("[{}] Sending: {}", gameId, text);
-                webSocket.sendText(text, true);
+                log.debug("[{}] Received from WebSocket: {}", gameId, message);
+                // fragmented entities frames arrive already decoded by the listener
+                WebSocketMessage wsMessage = message instanceof Entities decoded ? decoded : decoder.decode((String) message);
+                if (wsMessage == null) {
+                    log.warn("[{}] Parsed WebSocketMessage is null from JSON: {}", gameId, message);
+                    continue;
+                }
+                switch (wsMessage) {
+                    case Entities entities:
+                        reconstructor.invalidate(entities);
+                        if (toProcess != null) {
+                            supersede(toProcess);
+                        }
+                        toProcess = entities;
+                        deltaApplied = false;
+                        break;
+                    case EntitiesDelta delta:
+                        if (reconstructor.apply(delta)) {
+                            resyncRequested = false;
+                            deltaApplied = true;
+                        } else {
+                            requestResync(delta);
+                            size--;
+                        }
+                        break;
+                    case Ping ping:
+                        pingPong.handlePing(ping);
+                        size--;
+                        break;
+                    case Pong pong:
+                        pingPong.handlePong(pong);
+                        size--;
+                        break;
+                    default:
+                        log.warn("[{}] Unhandled WebSocketMessage type: {}", gameId, wsMessage.getClass().getSimpleName());
+                }
             } catch (Exception e) {
-                log.error("[{}] Failed to send text via WebSocket", gameId, e);
-                throw new RuntimeException("Failed to send text via WebSocket", e);
+                log.error("[{}] Failed to parse WebSocket message JSON: {}", gameId, message, e);
+            }
+        }
+        if (deltaApplied) {
+            if (toProcess != null) {
+                supersede(toProcess);
             }
+            toProcess = reconstructor.snapshot(); // built once for the latest of the applied deltas
+        }
+        if (toProcess != null) {
+            log.debug("[{}] Processing entities: {}, {} skipped", gameId, toProcess, size - 1);
+            offerEntities(toProcess);
+        }
+    }
+
+    // one turn: every control text, then at most the weight of each order lane
+    private int sendTurn(List<Order> orders) throws InterruptedException {
+        // a gated store's orders go out as one message per lane, so the whole batch fits in one turn
+        boolean gated = orderStore.isGated();
+        int taken = sendControl();
+        taken += sendOrders(OutboundLane.URGENT, orders, gated ? Integer.MAX_VALUE : urgentWeight);
+        taken += sendOrders(OutboundLane.BULK, orders, gated ? Integer.MAX_VALUE : bulkWeight);
+        return taken;
+    }
+
+    private int sendControl() throws InterruptedException {
+        int count = priorityQueue.drainTo(controlTexts, controlQueuedAt, 0, MAX_CONTROL_TEXTS);
+        count += outQueue.drainTo(controlTexts, controlQueuedAt, count, MAX_CONTROL_TEXTS - count);
+        SendPipeline current = count == 0 ? null : connectedPipeline();
+        try {
+            if (current != null) {
+                long now = System.nanoTime();
+                for (int i = 0; i < count; i++) {
+                    controlMetrics.record(controlQueuedAt[i], now);
+                    log.debug("[{}] Sending: {}", gameId, controlTexts[i]);
+                    current.send(controlTexts[i]);
+                }
+            }
+        } finally {
+            Arrays.fill(controlTexts, 0, count, null);
+        }
+        return count;
+    }
+
+    // orders the WebSocket does not take, not connected or no slot freed in time, are counted as dropped
+    private int sendOrders(OutboundLane lane, List<Order> orders, int max) throws InterruptedException {
+        orders.clear();
+        orderStore.drainTo(lane, orders, max);
+        SendPipeline current = orders.isEmpty() ? null : connectedPipeline();
+        if (current == null) {
+            unsentOrders.add(orders.size());
+            return orders.size();
+        }
+        int handed = 0;
+        try {
+            if (orderStore.isGated() && orders.size() > 1) {
+                send(current, WebSocketMessageEncoder.append(current.acquire(), new Orders(orders)));
+                handed = orders.size();
+            } else {
+                for (Order order : orders) {
+                    send(current, WebSocketMessageEncoder.append(current.acquire(), order));
+                    handed++;
+                }
+            }
+        } finally {
+            unsentOrders.add(orders.size() - handed);
+        }
+        return orders.size();
+    }
+
+    private void send(SendPipeline current, StringBuilder encoded) {
+        log.debug("[{}] Sending: {}", gameId, encoded);
+        current.send(encoded);
+    }
+
+    private void requestResync(EntitiesDelta delta) {
+        long now = System.nanoTime();
+        if (resyncRequested && ++droppedSinceResync < RESYNC_MAX_DROPPED_DELTAS && now - resyncRequestedAt < RESYNC_TIMEOUT_NANOS) {
+            log.debug("[{}] Dropping delta {} while waiting for a keyframe", gameId, delta.sequence());
+            return;
+        }
+        if (resyncRequested) {
+            log.warn("[{}] No keyframe after {} dropped deltas - requesting it again", gameId, droppedSinceResync);
+        } else {
+            log.warn("[{}] Missed entities frame: delta {} based on {}, last applied {} - requesting keyframe",
+                gameId, delta.sequence(), delta.baseSequence(), reconstructor.sequence());
+        }
+        resyncRequested = true;
+        resyncRequestedAt = now;
+        droppedSinceResync = 0;
+        sendPriorityMessage(new Resync(reconstructor.sequence()));
+    }
+
+    private void sendPriorityMessage(Object message) {
+        try {
+            if (message instanceof Ping ping) {
+                sendPriorityText(WebSocketMessageEncoder.append(new StringBuilder(64), ping).toString());
+            } else if (message instanceof Pong pong) {
+                sendPriorityText(WebSocketMessageEncoder.append(new StringBuilder(64), pong).toString());
+            } else if (message instanceof WebSocketMessage) {
+                sendPriorityText(objectMapper.writerFor(WebSocketMessage.class).writeValueAsString(message));
+            } else {
+                sendPriorityText(objectMapper.writeValueAsString(message));
+            }
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize WebSocket message", e);
         }
     }
 
+    /**
+     * Hands the latest entities over to {@link #processEntities(Function)}, replacing any not yet processed.
+     *
+     * @param entities the entities to process
+     */
+    private void offerEntities(Entities entities) {
+        Entities superseded = latestEntities.publish(entities);
+        if (superseded != null) {
+            supersede(superseded);
+        }
+        if (eventLoop) {
+            outboundReady.raise(); // binary frames come straight from the listener
+        }
+    }
+
+    private void supersede(Entities entities) {
+        supersededFrames.increment();
+        PooledFrame.release(entities.entities());
+    }
+
+    private SendPipeline connectedPipeline() {
+        WebSocket current = webSocket;
+        if (current == null) {
+            log.error("[{}] WebSocket is not connected - connect before sending orders...", gameId);
+            return null;
+        }
+        if (current.isOutputClosed()) {
+            log.warn("[{}] WebSocket - output is closed", gameId);
+            close();
+            return null;
+        }
+        return pipeline;
+    }
+
     /**
      * Connects to the game server's WebSocket.
      *
@@ -265,12 +634,13 @@ public class WebSocketGameClient implements AutoCloseable {
     @Synchronized
     public void connect(String wsUrl) {
         log.info("[{}] Connecting to WebSocket: {}", gameId, wsUrl);
-        httpClient = newHttpClient();
-        WebSocket.Listener listener = new GameListener(inQueue);
+        httpClient = sharedHttpClient != null ? sharedHttpClient : newHttpClient();
+        WebSocket.Listener listener = new GameListener(inbox, decoder, this::offerEntities);
         listener = new PingPongListener(listener, pingPong::recordActivity);
         webSocket = httpClient.newWebSocketBuilder()
             .buildAsync(URI.create(wsUrl), listener)
             .join();
+        pipeline = new SendPipeline(gameId, webSocket, sendWindow);
     }
 
     private class PingPong {
@@ -370,15 +740,7 @@ public class WebSocketGameClient implements AutoCloseable {
         }
 
         private void send(Object message) {
-            try {
-                if (message instanceof WebSocketMessage) {
-                    sendPriorityText(objectMapper.writerFor(WebSocketMessage.class).writeValueAsString(message));
-                } else {
-                    sendPriorityText(objectMapper.writeValueAsString(message));
-                }
-            } catch (JsonProcessingException e) {
-                log.error("Failed to serialize WebSocket message", e);
-            }
+            sendPriorityMessage(message);
         }
     }
 }
@@ -0,0 +1,252 @@
+package it.battlejar.client.webscoket;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.battlejar.api.Entities;
+import it.battlejar.api.Order;
+import it.battlejar.api.OrderType;
+import it.battlejar.api.Ping;
+import it.battlejar.api.Pong;
+import it.battlejar.api.WebSocketMessage;
+import it.battlejar.api.serialization.EntitiesBinaryCodec;
+import it.battlejar.api.serialization.StringTable;
+import it.battlejar.client.frame.FramePool;
+import it.battlejar.client.frame.PooledFrame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes incoming WebSocket messages without the polymorphic machinery where possible.
+ * When a message starts with its {@code "type"} discriminator, as the server writes it,
+ * it is routed to a streaming reader for that subtype; pings and pongs are read without data binding at all.
+ * Messages of other types, in another layout or with unexpected content fall back to
+ * {@code objectMapper.readValue(json, WebSocketMessage.class)}.
+ * With a {@link FramePool}, entities frames are decoded into recycled {@link PooledFrame}s.
+ */
+public class WebSocketMessageDecoder {
+
+    static final String TYPE_PREFIX = "{\"type\":\"";
+
+    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
+    private final StringTable strings;
+    private final EntitiesJacksonDeserializer entitiesDeserializer;
+    private final FramePool framePool;
+    private final boolean failOnUnknownProperties;
+
+    /**
+     * Creates a decoder reading entities frames through the object mapper, so their strings are canonicalized by the
+     * table of the mapper's {@link EntityJacksonModule}; pings, pongs and orders are still read without data binding.
+     *
+     * @param objectMapper the object mapper used for entities frames and the generic path
+     */
+    public WebSocketMessageDecoder(ObjectMapper objectMapper) {
+        this(objectMapper, null, null);
+    }
+
+    /**
+     * Creates a new decoder allocating a new collection for every entities frame.
+     *
+     * @param objectMapper the object mapper used for the generic path
+     * @param strings      the table canonicalizing entity strings, usually the one of the mapper's {@link EntityJacksonModule}
+     */
+    public WebSocketMessageDecoder(ObjectMapper objectMapper, StringTable strings) {
+        this(objectMapper, strings, null);
+    }
+
+    /**
+     * Creates a new decoder.
+     *
+     * @param objectMapper the object mapper used for the generic path
+     * @param strings      the table canonicalizing entity strings, usually the one of the mapper's {@link EntityJacksonModule};
+     *                     or null to read entities frames through the mapper
+     * @param framePool    the pool entities frames are decoded into, or null to allocate new collections
+     */
+    public WebSocketMessageDecoder(ObjectMapper objectMapper, StringTable strings, FramePool framePool) {
+        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+        this.strings = strings;
+        // unknown properties are handled the same way whichever path a message takes
+        this.failOnUnknownProperties = objectMapper.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.entitiesDeserializer = strings == null ? null : new EntitiesJacksonDeserializer(strings, failOnUnknownProperties);
+        this.framePool = framePool;
+    }
+
+    /**
+     * Decodes a message.
+     *
+     * @param json the message text
+     * @return the decoded message
+     * @throws IOException if the message is not valid
+     */
+    public WebSocketMessage decode(String json) throws IOException {
+        Kind kind = sniff(json);
+        if (kind != null) {
+            try (JsonParser p = jsonFactory.createParser(json)) {
+                p.nextToken(); // {
+                p.nextToken(); // "type"
+                p.nextToken(); // discriminator
+                p.nextToken(); // next property or }
+                WebSocketMessage message = switch (kind) {
+                    case ENTITIES -> readEntities(p);
+                    case PING, PONG -> readPing(p, kind == Kind.PONG);
+                    case ORDER -> readOrder(p);
+                };
+                if (message != null) {
+                    return message;
+                }
+            }
+        }
+        return objectMapper.readValue(json, WebSocketMessage.class);
+    }
+
+    /**
+     * Decodes a binary entities frame, see {@link EntitiesBinaryCodec}.
+     *
+     * @param data the frame, consumed by the call
+     * @return the decoded frame
+     * @throws IllegalArgumentException if the buffer does not hold a supported frame
+     */
+    public Entities decodeBinary(ByteBuffer data) {
+        if (framePool == null) {
+            return EntitiesBinaryCodec.decode(data);
+        }
+        PooledFrame pooled = framePool.acquire();
+        try {
+            EntitiesBinaryCodec.decodeInto(data, pooled.frame());
+        } catch (RuntimeException e) {
+            pooled.release();
+            throw e;
+        }
+        return new Entities(pooled.frame().timeStamp(), pooled, pooled.frame().state());
+    }
+
+    /**
+     * Creates a decoder of entities frames fed fragment by fragment, sharing this decoder's string table and pool.
+     *
+     * @return a new incremental decoder, for use by a single thread; or null without a string table,
+     *     fragmented frames then being assembled and read through the mapper
+     */
+    IncrementalEntitiesDecoder newIncrementalDecoder() {
+        if (strings == null) {
+            return null;
+        }
+        return new IncrementalEntitiesDecoder(jsonFactory, strings, framePool != null ? framePool : new FramePool(),
+            failOnUnknownProperties);
+    }
+
+    // Returns null without a string table, leaving the frame to the generic path.
+    private Entities readEntities(JsonParser p) throws IOException {
+        if (entitiesDeserializer == null) {
+            return null;
+        }
+        if (framePool == null) {
+            return entitiesDeserializer.read(p);
+        }
+        PooledFrame pooled = framePool.acquire();
+        try {
+            entitiesDeserializer.readInto(p, pooled.frame());
+        } catch (IOException | RuntimeException e) {
+            pooled.release();
+            throw e;
+        }
+        return new Entities(pooled.frame().timeStamp(), pooled, pooled.frame().state());
+    }
+
+    static Kind sniff(String json) {
+        if (!json.startsWith(TYPE_PREFIX)) {
+            return null;
+        }
+        for (Kind kind : Kind.VALUES) {
+            if (json.startsWith(kind.token, TYPE_PREFIX.length())) {
+                return kind;
+            }
+        }
+        return null;
+    }
+
+    // Returns null when the content is not the plain layout, leaving validation to the generic path.
+    private static WebSocketMessage readPing(JsonParser p, boolean pong) throws IOException {
+        String id = null;
+        long timestamp = 0;
+        JsonToken token = p.currentToken();
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String name = p.currentName();
+            JsonToken value = p.nextToken();
+            if ("id".equals(name) && (value == JsonToken.VALUE_STRING || value == JsonToken.VALUE_NULL)) {
+                id = value == JsonToken.VALUE_NULL ? null : p.getText();
+            } else if ("timestamp".equals(name) && value == JsonToken.VALUE_NUMBER_INT) {
+                timestamp = p.getLongValue();
+            } else {
+                return null;
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            return null;
+        }
+        return pong ? new Pong(id, timestamp) : new Ping(id, timestamp);
+    }
+
+    // The discriminator has been consumed, so the next "type" property is the order type.
+    private static WebSocketMessage readOrder(JsonParser p) throws IOException {
+        String id = null;
+        OrderType type = null;
+        String details = null;
+        JsonToken token = p.currentToken();
+        for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+            String name = p.currentName();
+            JsonToken value = p.nextToken();
+            if (value != JsonToken.VALUE_STRING && value != JsonToken.VALUE_NULL) {
+                return null;
+            }
+            String text = value == JsonToken.VALUE_NULL ? null : p.getText();
+            switch (name) {
+                case "id" -> id = text;
+                case "details" -> details = text;
+                case "type" -> {
+                    type = orderType(text);
+                    if (type == null && text != null) {
+                        return null;
+                    }
+                }
+                default -> {
+                    return null;
+                }
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            return null;
+        }
+        return new Order(id, type, details);
+    }
+
+    private static OrderType orderType(String text) {
+        if (text == null) {
+            return null;
+        }
+        try {
+            return OrderType.valueOf(text);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    enum Kind {
+        ENTITIES("entities"),
+        PING("ping"),
+        PONG("pong"),
+        ORDER("order");
+
+        private static final Kind[] VALUES = values();
+
+        private final String token;
+
+        Kind(String name) {
+            this.token = name + '"';
+        }
+    }
+}
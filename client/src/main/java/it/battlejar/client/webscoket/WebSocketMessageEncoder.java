@@ -0,0 +1,195 @@
+package it.battlejar.client.webscoket;
+
+import it.battlejar.api.Order;
+import it.battlejar.api.OrderType;
+import it.battlejar.api.Orders;
+import it.battlejar.api.Ping;
+import it.battlejar.api.Pong;
+
+/**
+ * Encodes outgoing orders, pings and pongs without data binding.
+ * Field names and discriminators are written from pre-encoded prefixes into a reusable buffer,
+ * producing exactly the text {@code objectMapper.writeValueAsString(message)} produces, including the
+ * two {@code "type"} properties of an {@link Order}.
+ * <p>
+ * The sequence returned by {@code encode} is the encoder's buffer: it is only valid until the next call.
+ * Not thread-safe; the static {@code append} methods can be used from any thread with a builder of its own.
+ */
+public class WebSocketMessageEncoder {
+
+    private static final String ORDER_PREFIX = "{\"type\":\"order\",\"id\":";
+    private static final String ORDERS_PREFIX = "{\"type\":\"orders\",\"orders\":[";
+    private static final String PING_PREFIX = "{\"type\":\"ping\",\"id\":";
+    private static final String PONG_PREFIX = "{\"type\":\"pong\",\"id\":";
+    private static final String TIMESTAMP = ",\"timestamp\":";
+    private static final String DETAILS = ",\"details\":";
+    private static final String NULL_TYPE = ",\"type\":null";
+    private static final String[] ORDER_TYPES = new String[OrderType.values().length];
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    static {
+        for (OrderType type : OrderType.values()) {
+            ORDER_TYPES[type.ordinal()] = ",\"type\":\"" + type.name() + "\"";
+        }
+    }
+
+    private final StringBuilder buffer;
+
+    /**
+     * Creates a new encoder.
+     */
+    public WebSocketMessageEncoder() {
+        this(256);
+    }
+
+    /**
+     * Creates a new encoder.
+     *
+     * @param capacity the initial capacity of the buffer, in characters
+     */
+    public WebSocketMessageEncoder(int capacity) {
+        this.buffer = new StringBuilder(capacity);
+    }
+
+    /**
+     * Encodes an order.
+     *
+     * @param order the order
+     * @return the JSON text, valid until the next call
+     */
+    public CharSequence encode(Order order) {
+        buffer.setLength(0);
+        return append(buffer, order);
+    }
+
+    /**
+     * Encodes a batch of orders.
+     *
+     * @param orders the orders
+     * @return the JSON text, valid until the next call
+     */
+    public CharSequence encode(Orders orders) {
+        buffer.setLength(0);
+        return append(buffer, orders);
+    }
+
+    /**
+     * Encodes a ping.
+     *
+     * @param ping the ping
+     * @return the JSON text, valid until the next call
+     */
+    public CharSequence encode(Ping ping) {
+        buffer.setLength(0);
+        return append(buffer, ping);
+    }
+
+    /**
+     * Encodes a pong.
+     *
+     * @param pong the pong
+     * @return the JSON text, valid until the next call
+     */
+    public CharSequence encode(Pong pong) {
+        buffer.setLength(0);
+        return append(buffer, pong);
+    }
+
+    /**
+     * Appends an order as JSON.
+     *
+     * @param out   the builder to append to
+     * @param order the order
+     * @return the builder
+     */
+    public static StringBuilder append(StringBuilder out, Order order) {
+        out.append(ORDER_PREFIX);
+        appendString(out, order.id());
+        out.append(order.type() == null ? NULL_TYPE : ORDER_TYPES[order.type().ordinal()]);
+        out.append(DETAILS);
+        appendString(out, order.details());
+        return out.append('}');
+    }
+
+    /**
+     * Appends a batch of orders as JSON.
+     *
+     * @param out    the builder to append to
+     * @param orders the orders
+     * @return the builder
+     */
+    public static StringBuilder append(StringBuilder out, Orders orders) {
+        if (orders.orders() == null) {
+            return out.append("{\"type\":\"orders\",\"orders\":null}");
+        }
+        out.append(ORDERS_PREFIX);
+        boolean first = true;
+        for (Order order : orders.orders()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            if (order == null) {
+                out.append("null");
+            } else {
+                append(out, order);
+            }
+        }
+        return out.append("]}");
+    }
+
+    /**
+     * Appends a ping as JSON.
+     *
+     * @param out  the builder to append to
+     * @param ping the ping
+     * @return the builder
+     */
+    public static StringBuilder append(StringBuilder out, Ping ping) {
+        out.append(PING_PREFIX);
+        appendString(out, ping.id());
+        return out.append(TIMESTAMP).append(ping.timestamp()).append('}');
+    }
+
+    /**
+     * Appends a pong as JSON.
+     *
+     * @param out  the builder to append to
+     * @param pong the pong
+     * @return the builder
+     */
+    public static StringBuilder append(StringBuilder out, Pong pong) {
+        out.append(PONG_PREFIX);
+        appendString(out, pong.id());
+        return out.append(TIMESTAMP).append(pong.timestamp()).append('}');
+    }
+
+    // the escapes Jackson writes by default: short forms where JSON has them, upper-case \\u00XX otherwise
+    private static void appendString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        int start = 0;
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.append(value, start, i);
+            start = i + 1;
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\b' -> out.append("\\b");
+                case '\t' -> out.append("\\t");
+                case '\n' -> out.append("\\n");
+                case '\f' -> out.append("\\f");
+                case '\r' -> out.append("\\r");
+                default -> out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            }
+        }
+        out.append(value, start, value.length()).append('"');
+    }
+}
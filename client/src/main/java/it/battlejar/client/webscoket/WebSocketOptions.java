@@ -0,0 +1,63 @@
+package it.battlejar.client.webscoket;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * How a {@link WebSocketGameClient} sends messages and waits for work.
+ *
+ * @param sendWindow   the maximum number of messages handed to the WebSocket and not yet sent
+ * @param waitStrategy how the threads receiving messages and sending orders wait for work
+ * @param urgentWeight the maximum number of messages taken from the {@link OutboundLane#URGENT} lane per turn of the sender
+ * @param bulkWeight   the maximum number of messages taken from the {@link OutboundLane#BULK} lane per turn of the sender
+ */
+public record WebSocketOptions(int sendWindow, WaitStrategy waitStrategy, int urgentWeight, int bulkWeight) {
+
+    /**
+     * Default options: {@link WebSocketGameClient#DEFAULT_SEND_WINDOW} messages in flight, idle threads park,
+     * {@link WebSocketGameClient#DEFAULT_URGENT_WEIGHT} urgent messages for {@link WebSocketGameClient#DEFAULT_BULK_WEIGHT}
+     * bulk ones per turn.
+     */
+    public static final WebSocketOptions DEFAULT = new WebSocketOptions(WebSocketGameClient.DEFAULT_SEND_WINDOW,
+        WaitStrategy.PARK, WebSocketGameClient.DEFAULT_URGENT_WEIGHT, WebSocketGameClient.DEFAULT_BULK_WEIGHT);
+
+    public WebSocketOptions {
+        requireNonNull(waitStrategy, "Wait strategy cannot be null");
+        if (sendWindow <= 0) {
+            throw new IllegalArgumentException("Send window must be positive: " + sendWindow);
+        }
+        if (urgentWeight <= 0 || bulkWeight <= 0) {
+            throw new IllegalArgumentException("Lane weights must be positive: " + urgentWeight + ", " + bulkWeight);
+        }
+    }
+
+    /**
+     * Returns a copy with the given number of messages in flight on the WebSocket.
+     *
+     * @param sendWindow the maximum number of messages handed to the WebSocket and not yet sent
+     * @return the new options
+     */
+    public WebSocketOptions withSendWindow(int sendWindow) {
+        return new WebSocketOptions(sendWindow, waitStrategy, urgentWeight, bulkWeight);
+    }
+
+    /**
+     * Returns a copy where idle threads wait for work with the given strategy.
+     *
+     * @param waitStrategy how the threads receiving messages and sending orders wait for work
+     * @return the new options
+     */
+    public WebSocketOptions withWaitStrategy(WaitStrategy waitStrategy) {
+        return new WebSocketOptions(sendWindow, waitStrategy, urgentWeight, bulkWeight);
+    }
+
+    /**
+     * Returns a copy with the given share of each lane in a turn of the sender.
+     *
+     * @param urgentWeight the maximum number of messages taken from the urgent lane per turn
+     * @param bulkWeight   the maximum number of messages taken from the bulk lane per turn
+     * @return the new options
+     */
+    public WebSocketOptions withLaneWeights(int urgentWeight, int bulkWeight) {
+        return new WebSocketOptions(sendWindow, waitStrategy, urgentWeight, bulkWeight);
+    }
+}
@@ -1,6 +1,8 @@
 package it.battlejar.client;
 
 import it.battlejar.api.*;
+import it.battlejar.client.frame.FramePool;
+import it.battlejar.client.frame.PooledFrame;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -147,6 +149,68 @@ class AbstractCommanderTest {
             .hasMessageContaining("Order sender not set");
     }
 
+    @Test
+    void processShouldReleasePooledFrameAfterProcessing() {
+        // given
+        FramePool pool = new FramePool();
+        PooledFrame frame = pool.acquire();
+        frame.frame().add(new Entity("e1", Entity.Type.FIGHTER, "RED", 0, 0, 0, 0, null, 0, 0, 0, "OK"));
+
+        // when
+        commander.process(Entities.running(frame));
+
+        // then
+        assertThat(commander.processCallCount).isEqualTo(1);
+        assertThat(frame).isEmpty();
+        assertThat(pool.acquire()).isSameAs(frame);
+    }
+
+    @Test
+    void retainShouldKeepPooledFrameUntilReleased() {
+        // given
+        FramePool pool = new FramePool();
+        PooledFrame frame = pool.acquire();
+        frame.frame().add(new Entity("e1", Entity.Type.FIGHTER, "RED", 0, 0, 0, 0, null, 0, 0, 0, "OK"));
+        TestCommander retaining = new TestCommander() {
+            @Override
+            protected boolean process(Collection<Entity> entities) {
+                super.process(retain(entities));
+                return true;
+            }
+        };
+        retaining.setOrdersSender(orderSender);
+
+        // when
+        retaining.process(Entities.running(frame));
+
+        // then
+        assertThat(retaining.lastProcessedEntities).hasSize(1);
+        assertThat(retaining.frame(retaining.lastProcessedEntities)).isSameAs(frame.frame());
+        retaining.release(retaining.lastProcessedEntities);
+        assertThat(frame).isEmpty();
+    }
+
+    @Test
+    void processShouldFlushOrderSenderAfterProcessing() {
+        // given
+        OrderSender sender = mock(OrderSender.class);
+        TestCommander ordering = new TestCommander() {
+            @Override
+            protected boolean process(Collection<Entity> entities) {
+                order(new Order("RED-01", OrderType.MOVE, "1|2"));
+                return true;
+            }
+        };
+        ordering.setOrdersSender(sender);
+
+        // when
+        ordering.process(Entities.running(List.of()));
+
+        // then
+        verify(sender).accept(new Order("RED-01", OrderType.MOVE, "1|2"));
+        verify(sender).flush();
+    }
+
     private static class TestCommander extends AbstractCommander {
         int processCallCount = 0;
         Collection<Entity> lastProcessedEntities;
@@ -1,15 +1,72 @@
 package it.battlejar.client;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import it.battlejar.api.Color;
 import it.battlejar.api.Order;
 import it.battlejar.api.OrderType;
+import it.battlejar.api.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 
 class BattleJarClientTest {
 
+    // polls and retries right away, giving up after 3 failures in a row
+    private static final ClientOptions OPTIONS = ClientOptions.DEFAULT.withRegistration(new RegistrationPolicy(
+        Duration.ofMillis(10), Duration.ofMillis(10), Duration.ZERO, Duration.ofMillis(1), Duration.ofMillis(1), 0, 3));
+    private static final Player PLAYER = new Player(null, null, "bot");
+
     private final Commander commander = mock(Commander.class);
+    // the status codes of the successive registration responses, the last one repeating
+    private final List<Integer> registrationCodes = new CopyOnWriteArrayList<>();
+    private final List<Integer> answered = new CopyOnWriteArrayList<>();
+    private final List<String> left = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private String serverUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/register", exchange -> {
+            int code = registrationCodes.get(Math.min(answered.size(), registrationCodes.size() - 1));
+            answered.add(code);
+            switch (code) {
+                case 200 -> respond(exchange, 200, null, "{\"gameId\":\"" + UUID.randomUUID() + "\",\"playerId\":\""
+                    + UUID.randomUUID() + "\",\"color\":\"RED\"}");
+                case 202 -> respond(exchange, 202, "0", "{\"playerId\":\"" + UUID.randomUUID() + "\",\"color\":\"RED\"}");
+                case 429 -> respond(exchange, 429, "0", "{\"error\":\"slow down\"}");
+                default -> respond(exchange, code, null, "{\"error\":\"failed\"}");
+            }
+        });
+        server.createContext("/leave", exchange -> {
+            left.add(exchange.getRequestURI().getQuery());
+            respond(exchange, 200, null, "{}");
+        });
+        server.start();
+        serverUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
 
     @Test
     void registerShouldThrowWhenPlayerIsNull() {
@@ -23,6 +80,18 @@ class BattleJarClientTest {
         }
     }
 
+    @Test
+    void registerAsyncShouldThrowWhenPlayerIsNull() {
+        // given
+        try(BattleJarClient client = new BattleJarClient("http://localhost:8080", commander)) {
+
+            // when / then
+            assertThatThrownBy(() -> client.registerAsync(null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cannot be null");
+        }
+    }
+
     @Test
     void orderShouldThrowWhenOrderIsNull() {
         // given
@@ -70,4 +139,142 @@ class BattleJarClientTest {
                 .hasMessageContaining("Must register");
         }
     }
+
+    @Test
+    void orderShouldRequireRegistrationWhenBatching() {
+        // given
+        try (BattleJarClient client = new BattleJarClient("http://localhost:8080", commander, ClientOptions.DEFAULT.withBatchOrders(true))) {
+
+            // when / then - validation and registration checks still apply when batching; holding orders until
+            // flush is covered by WebSocketGameClientTest
+            assertThatThrownBy(() -> client.order(new Order("entity-1", OrderType.MOVE, null)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Must register");
+            client.flush(); // nothing pending
+        }
+    }
+
+    @Test
+    void registerShouldPollUntilGameStarts() {
+        // given
+        registrationCodes.addAll(List.of(202, 202, 200));
+        try (BattleJarClient client = new BattleJarClient(serverUrl, commander, OPTIONS)) {
+
+            // when
+            Player player = client.register(PLAYER);
+
+            // then
+            assertThat(player.color()).isEqualTo(Color.RED);
+            assertThat(player.username()).isEqualTo("bot");
+            assertThat(answered).containsExactly(202, 202, 200);
+        }
+    }
+
+    @Test
+    void registerShouldRetryServerErrorsAndRateLimiting() {
+        // given
+        registrationCodes.addAll(List.of(503, 429, 500, 200));
+        try (BattleJarClient client = new BattleJarClient(serverUrl, commander, OPTIONS)) {
+
+            // when - no more than 2 failures in a row
+            Player player = client.register(PLAYER);
+
+            // then
+            assertThat(player.color()).isEqualTo(Color.RED);
+            assertThat(answered).containsExactly(503, 429, 500, 200);
+        }
+    }
+
+    @Test
+    void registerShouldGiveUpAfterMaxFailuresInARow() {
+        // given
+        registrationCodes.add(503);
+        try (BattleJarClient client = new BattleJarClient(serverUrl, commander, OPTIONS)) {
+
+            // when / then
+            assertThatThrownBy(() -> client.register(PLAYER))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("after 3 attempts");
+            assertThat(answered).containsExactly(503, 503, 503);
+        }
+    }
+
+    @Test
+    void registerShouldNotRetryRejectedPlayer() {
+        // given
+        registrationCodes.add(400);
+        try (BattleJarClient client = new BattleJarClient(serverUrl, commander, OPTIONS)) {
+
+            // when / then
+            assertThatThrownBy(() -> client.register(PLAYER))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Registration failed");
+            assertThat(answered).containsExactly(400);
+        }
+    }
+
+    @Test
+    void registerAsyncShouldCompleteOnceGameStarts() throws Exception {
+        // given
+        registrationCodes.addAll(List.of(202, 503, 200));
+        try (BattleJarClient client = new BattleJarClient(serverUrl, commander, OPTIONS)) {
+
+            // when
+            CompletableFuture<Player> registration = client.registerAsync(PLAYER);
+
+            // then
+            assertThat(registration.get(5, TimeUnit.SECONDS).color()).isEqualTo(Color.RED);
+            assertThat(answered).containsExactly(202, 503, 200);
+        }
+    }
+
+    @Test
+    void registerAsyncShouldFailAfterMaxFailuresInARow() {
+        // given
+        registrationCodes.add(500);
+        try (BattleJarClient client = new BattleJarClient(serverUrl, commander, OPTIONS)) {
+
+            // when
+            CompletableFuture<Player> registration = client.registerAsync(PLAYER);
+
+            // then
+            assertThatThrownBy(() -> registration.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasMessageContaining("after 3 attempts");
+            assertThat(answered).containsExactly(500, 500, 500);
+        }
+    }
+
+    @Test
+    void closeShouldLeaveGameFromInterruptedThread() throws Exception {
+        // given
+        registrationCodes.add(200);
+        BattleJarClient client = new BattleJarClient(serverUrl, commander, OPTIONS);
+        client.register(PLAYER);
+        boolean[] stillInterrupted = new boolean[1];
+
+        // when - as a continuous loop or a pool stops its client
+        Thread closer = Thread.ofVirtual().start(() -> {
+            Thread.currentThread().interrupt();
+            client.close();
+            stillInterrupted[0] = Thread.currentThread().isInterrupted();
+        });
+        closer.join(5000);
+
+        // then
+        assertThat(left).hasSize(1);
+        assertThat(left.getFirst()).startsWith("color=RED");
+        assertThat(stillInterrupted[0]).isTrue();
+    }
+
+    private static void respond(HttpExchange exchange, int code, String retryAfter, String body) throws IOException {
+        if (retryAfter != null) {
+            exchange.getResponseHeaders().add("Retry-After", retryAfter);
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
 }
@@ -0,0 +1,169 @@
+package it.battlejar.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import it.battlejar.api.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class BattleJarContinuousTest {
+
+    // retries right away, so that games fail and follow each other quickly
+    private static final ClientOptions OPTIONS = ClientOptions.DEFAULT.withRegistration(new RegistrationPolicy(
+        Duration.ofMillis(10), Duration.ofMillis(10), Duration.ZERO, Duration.ofMillis(1), Duration.ofMillis(1), 0, 5));
+
+    private final AtomicInteger registrations = new AtomicInteger();
+    private final CountDownLatch secondRegistration = new CountDownLatch(2);
+    private final List<Integer> registrationsWhenLeaving = new CopyOnWriteArrayList<>();
+    private final List<Boolean> leftAfterNextRegistration = new CopyOnWriteArrayList<>();
+    private final List<String> commanderThreads = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private ExecutorService executorService;
+    private volatile boolean waitForNextRegistration;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // games end right after registration: the WebSocket handshake is refused
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool()); // a waiting leave must not hold up registration
+        server.createContext("/register", exchange -> {
+            registrations.incrementAndGet();
+            secondRegistration.countDown();
+            respond(exchange, 200, "{\"gameId\":\"" + UUID.randomUUID() + "\",\"playerId\":\"" + UUID.randomUUID()
+                + "\",\"color\":\"RED\"}");
+        });
+        server.createContext("/leave", exchange -> {
+            registrationsWhenLeaving.add(registrations.get());
+            if (waitForNextRegistration) {
+                try {
+                    leftAfterNextRegistration.add(secondRegistration.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            respond(exchange, 200, "{}");
+        });
+        server.createContext("/", exchange -> respond(exchange, 404, "no WebSocket"));
+        server.start();
+        executorService = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        executorService.close();
+    }
+
+    @Test
+    void sequentialModeShouldLeaveBeforeRegisteringAgain() throws InterruptedException {
+        // when
+        run(false, this::newCommander, 3);
+
+        // then - each game has left before the next registration
+        assertThat(registrationsWhenLeaving).hasSizeGreaterThanOrEqualTo(2);
+        assertThat(registrationsWhenLeaving.subList(0, 2)).containsExactly(1, 2);
+        assertThat(commanderThreads).allMatch("runner"::equals);
+    }
+
+    @Test
+    void pipelinedModeShouldRegisterAgainWhileLeaving() throws InterruptedException {
+        // given - leaving the first game waits for the next registration
+        waitForNextRegistration = true;
+
+        // when
+        run(true, this::newCommander, 3);
+
+        // then - the next registration did not wait for the first game to be left
+        assertThat(leftAfterNextRegistration).isNotEmpty().first().isEqualTo(true);
+        // the first commander is built by the loop, the next ones in the background during the previous game
+        assertThat(commanderThreads.getFirst()).isEqualTo("runner");
+        assertThat(commanderThreads.subList(1, commanderThreads.size())).isNotEmpty().noneMatch("runner"::equals);
+    }
+
+    @Test
+    void pipelinedModeShouldWarmUpNextCommander() throws InterruptedException {
+        // given
+        List<Commander> commanders = new CopyOnWriteArrayList<>();
+        Supplier<Commander> factory = () -> {
+            Commander commander = newCommander();
+            commanders.add(commander);
+            return commander;
+        };
+
+        // when
+        run(true, factory, 3);
+
+        // then
+        assertThat(commanders).hasSizeGreaterThanOrEqualTo(3);
+        for (Commander commander : commanders.subList(0, 3)) {
+            verify(commander).warmUp();
+        }
+    }
+
+    @Test
+    void pipelinedModeShouldRecoverWhenNextCommanderFails() throws InterruptedException {
+        // given - the commander prepared during the first game cannot be built
+        AtomicInteger created = new AtomicInteger();
+        Supplier<Commander> factory = () -> {
+            if (created.incrementAndGet() == 2) {
+                throw new IllegalStateException("Commander failed");
+            }
+            return newCommander();
+        };
+
+        // when
+        run(true, factory, 4);
+
+        // then - the loop built another commander instead of failing on the same one forever
+        assertThat(registrations.get()).isGreaterThanOrEqualTo(4);
+    }
+
+    private Commander newCommander() {
+        commanderThreads.add(Thread.currentThread().getName());
+        return mock(Commander.class);
+    }
+
+    // runs the loop until it has registered the given number of times, then stops it
+    private void run(boolean pipelined, Supplier<Commander> factory, int games) throws InterruptedException {
+        String serverUrl = "http://localhost:" + server.getAddress().getPort();
+        BattleJarContinuous continuous = new BattleJarContinuous(serverUrl, new Player(null, null, "bot"), factory,
+            executorService, OPTIONS.withPipelined(pipelined), null);
+        Thread runner = Thread.ofPlatform().name("runner").start(continuous::run);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (registrations.get() < games && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        runner.interrupt();
+        runner.join(10_000);
+        assertThat(runner.isAlive()).isFalse();
+        assertThat(registrations.get()).isGreaterThanOrEqualTo(games);
+    }
+
+    private static void respond(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(code, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package it.battlejar.client;
+
+import it.battlejar.api.Player;
+import it.battlejar.client.webscoket.WaitStrategy;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class BattleJarPoolTest {
+
+    // nothing listens there, so sessions keep failing to register until stopped
+    private static final String SERVER_URL = "http://localhost:1";
+
+    @Test
+    void shouldRejectSpinningThreads() {
+        // when / then
+        assertThatThrownBy(() -> new BattleJarPool(SERVER_URL, ClientOptions.DEFAULT.withWaitStrategy(WaitStrategy.BUSY_SPIN), 2))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("park");
+    }
+
+    @Test
+    void shouldRejectNonPositiveThreads() {
+        // when / then
+        assertThatThrownBy(() -> new BattleJarPool(SERVER_URL, ClientOptions.DEFAULT, 0))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("threads");
+    }
+
+    @Test
+    void shouldRejectNonPositiveExpectedSessions() {
+        // when / then
+        assertThatThrownBy(() -> new BattleJarPool(SERVER_URL, ClientOptions.DEFAULT, 2, 0))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("sessions");
+    }
+
+    @Test
+    void shouldReportEverySessionUntilStopped() {
+        // given
+        try (BattleJarPool pool = new BattleJarPool(SERVER_URL, ClientOptions.DEFAULT, 2)) {
+            BattleJarPool.Session first = pool.add(new Player(null, null, "first"), () -> mock(Commander.class));
+            pool.add(new Player(null, null, "second"), () -> mock(Commander.class));
+
+            // when
+            BattleJarPool.Stats running = pool.stats();
+            BattleJarPool.SessionStats firstStats = first.stats();
+            first.stop();
+            BattleJarPool.Stats afterStop = pool.stats();
+
+            // then
+            assertThat(running.sessions()).isEqualTo(2);
+            assertThat(running.playing()).isZero();
+            assertThat(running.gamesPlayed()).isZero();
+            assertThat(running.maxPlatformThreads()).isEqualTo(2);
+            assertThat(firstStats.player().username()).isEqualTo("first");
+            assertThat(firstStats.send()).isNull();
+            assertThat(afterStop.sessions()).isEqualTo(1);
+            assertThat(pool.sessions()).hasSize(1);
+        }
+    }
+}
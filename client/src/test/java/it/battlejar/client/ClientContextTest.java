@@ -0,0 +1,77 @@
+package it.battlejar.client;
+
+import it.battlejar.api.Color;
+import it.battlejar.api.Player;
+import it.battlejar.client.http.HttpGameClient;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ClientContextTest {
+
+    @Test
+    void closeShouldCloseOwnHttpClient() {
+        // given
+        ClientContext context = new ClientContext();
+
+        // when
+        context.close();
+
+        // then
+        assertThat(context.httpClient().isTerminated()).isTrue();
+    }
+
+    @Test
+    void closeShouldLeaveGivenHttpClientOpen() {
+        // given
+        HttpClient httpClient = HttpGameClient.newHttpClient(HttpGameClient.DEFAULT_CONNECT_TIMEOUT);
+        ClientContext context = new ClientContext(httpClient, HttpGameClient.DEFAULT_REQUEST_TIMEOUT);
+
+        // when
+        context.close();
+
+        // then
+        assertThat(httpClient.isTerminated()).isFalse();
+        httpClient.close();
+    }
+
+    @Test
+    void stringTableShouldHaveGivenCapacity() {
+        // given
+        HttpClient httpClient = HttpGameClient.newHttpClient(HttpGameClient.DEFAULT_CONNECT_TIMEOUT);
+
+        // when
+        ClientContext context = new ClientContext(httpClient, HttpGameClient.DEFAULT_REQUEST_TIMEOUT, 4096);
+
+        // then
+        assertThat(context.strings().capacity()).isEqualTo(4096);
+        httpClient.close();
+    }
+
+    @Test
+    void objectMapperShouldUseGeneratedCodecs() throws Exception {
+        // given
+        try (ClientContext context = new ClientContext()) {
+            Player player = new Player(UUID.randomUUID(), Color.GREEN, "player");
+
+            // when
+            String json = context.objectMapper().writeValueAsString(player);
+
+            // then
+            assertThat(context.objectMapper().readValue(json, Player.class)).isEqualTo(player);
+        }
+    }
+
+    @Test
+    void clientShouldRequireContext() {
+        // when / then
+        assertThatThrownBy(() -> new BattleJarClient("http://localhost:8080", mock(Commander.class), null, ClientOptions.DEFAULT, null))
+            .isInstanceOf(NullPointerException.class)
+            .hasMessageContaining("Context");
+    }
+}
@@ -0,0 +1,48 @@
+package it.battlejar.client;
+
+import it.battlejar.client.webscoket.Backpressure;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClientOptionsTest {
+
+    @Test
+    void eventLoopShouldRejectBlockingBackpressure() {
+        // given
+        ClientOptions blocking = ClientOptions.DEFAULT.withBackpressure(16, Backpressure.BLOCK);
+        ClientOptions eventLoop = ClientOptions.DEFAULT.withEventLoop(true);
+
+        // when / then - either way round, the commander would wait for a sender running on its own thread
+        assertThatThrownBy(() -> blocking.withEventLoop(true))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Event loop");
+        assertThatThrownBy(() -> eventLoop.withBackpressure(16, Backpressure.BLOCK))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Event loop");
+    }
+
+    @Test
+    void eventLoopShouldAcceptNonBlockingBackpressure() {
+        // when
+        ClientOptions coalescing = ClientOptions.DEFAULT.withEventLoop(true).withBackpressure(16, Backpressure.COALESCE);
+        ClientOptions dropping = ClientOptions.DEFAULT.withEventLoop(true).withBackpressure(16, Backpressure.DROP);
+
+        // then
+        assertThat(coalescing.eventLoop()).isTrue();
+        assertThat(dropping.orders().backpressure()).isEqualTo(Backpressure.DROP);
+    }
+
+    @Test
+    void pipelinedShouldKeepOtherOptions() {
+        // when
+        ClientOptions pipelined = ClientOptions.DEFAULT.withEventLoop(true).withPipelined(true);
+
+        // then
+        assertThat(ClientOptions.DEFAULT.pipelined()).isFalse();
+        assertThat(pipelined.pipelined()).isTrue();
+        assertThat(pipelined.eventLoop()).isTrue();
+        assertThat(pipelined.registration()).isEqualTo(RegistrationPolicy.DEFAULT);
+    }
+}
@@ -0,0 +1,105 @@
+package it.battlejar.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RegistrationPolicyTest {
+
+    private final RegistrationPolicy policy = new RegistrationPolicy(Duration.ofSeconds(1), Duration.ofMillis(100),
+        Duration.ofSeconds(3), Duration.ofMillis(500), Duration.ofSeconds(4), 0.5, 5);
+
+    @Test
+    void pollDelayShouldHonorRetryAfter() {
+        // when
+        Duration beforeStart = policy.pollDelay(Duration.ofSeconds(7), Duration.ofSeconds(-7));
+        Duration longAfterStart = policy.pollDelay(Duration.ofSeconds(7), Duration.ofSeconds(5));
+
+        // then
+        assertThat(beforeStart).isEqualTo(Duration.ofSeconds(7));
+        assertThat(longAfterStart).isEqualTo(Duration.ofSeconds(7));
+    }
+
+    @Test
+    void pollDelayShouldBeShortOnceExpectedStartHasComeDespiteRetryAfter() {
+        // when
+        Duration atStart = policy.pollDelay(Duration.ofSeconds(7), Duration.ZERO);
+        Duration justStarted = policy.pollDelay(Duration.ofSeconds(7), Duration.ofSeconds(1));
+
+        // then
+        assertThat(atStart).isEqualTo(Duration.ofMillis(100));
+        assertThat(justStarted).isEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    void pollDelayShouldNeverBeShorterThanFastPollInterval() {
+        // when - Retry-After of 0 or a date in the past
+        Duration zero = policy.pollDelay(Duration.ZERO, Duration.ofSeconds(-1));
+        Duration past = policy.pollDelay(Duration.ofSeconds(-3), null);
+
+        // then
+        assertThat(zero).isEqualTo(Duration.ofMillis(100));
+        assertThat(past).isEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    void pollDelayShouldBeShortNearExpectedStart() {
+        // when
+        Duration unknown = policy.pollDelay(null, null);
+        Duration justStarted = policy.pollDelay(null, Duration.ofSeconds(1));
+        Duration longAgo = policy.pollDelay(null, Duration.ofSeconds(5));
+
+        // then
+        assertThat(unknown).isEqualTo(Duration.ofSeconds(1));
+        assertThat(justStarted).isEqualTo(Duration.ofMillis(100));
+        assertThat(longAgo).isEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void backoffShouldDoubleUpToMaximum() {
+        // when
+        Duration first = policy.backoff(1, null, 0);
+        Duration second = policy.backoff(2, null, 0);
+        Duration third = policy.backoff(3, null, 0);
+        Duration capped = policy.backoff(100, null, 0);
+
+        // then
+        assertThat(first).isEqualTo(Duration.ofMillis(500));
+        assertThat(second).isEqualTo(Duration.ofSeconds(1));
+        assertThat(third).isEqualTo(Duration.ofSeconds(2));
+        assertThat(capped).isEqualTo(Duration.ofSeconds(4));
+    }
+
+    @Test
+    void backoffShouldApplyJitterUnlessServerSaysWhen() {
+        // when
+        Duration jittered = policy.backoff(3, null, 1);
+        Duration retryAfter = policy.backoff(3, Duration.ofSeconds(3), 1);
+
+        // then
+        assertThat(jittered).isEqualTo(Duration.ofSeconds(1));
+        assertThat(retryAfter).isEqualTo(Duration.ofSeconds(3));
+    }
+
+    @Test
+    void backoffShouldCapRetryAfterAtMaximum() {
+        // when
+        Duration retryAfter = policy.backoff(1, Duration.ofHours(1), 0);
+
+        // then
+        assertThat(retryAfter).isEqualTo(Duration.ofSeconds(4));
+    }
+
+    @Test
+    void shouldRejectInvalidPolicy() {
+        assertThatThrownBy(() -> new RegistrationPolicy(Duration.ofSeconds(1), Duration.ofMillis(100), Duration.ofSeconds(3),
+            Duration.ofSeconds(5), Duration.ofSeconds(1), 0.2, 5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RegistrationPolicy(Duration.ofSeconds(1), Duration.ofMillis(100), Duration.ofSeconds(3),
+            Duration.ofMillis(500), Duration.ofSeconds(1), 1.5, 5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RegistrationPolicy(Duration.ofSeconds(1), Duration.ZERO, Duration.ofSeconds(3),
+            Duration.ofMillis(500), Duration.ofSeconds(1), 0.2, 5)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
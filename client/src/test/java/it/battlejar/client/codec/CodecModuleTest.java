@@ -0,0 +1,147 @@
+package it.battlejar.client.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import it.battlejar.api.Color;
+import it.battlejar.api.EntitiesDelta;
+import it.battlejar.api.Entity;
+import it.battlejar.api.GameSettings;
+import it.battlejar.api.Order;
+import it.battlejar.api.OrderType;
+import it.battlejar.api.Orders;
+import it.battlejar.api.Ping;
+import it.battlejar.api.Player;
+import it.battlejar.api.Pong;
+import it.battlejar.api.RegistrationResponse;
+import it.battlejar.api.Resync;
+import it.battlejar.api.WebSocketMessage;
+import it.battlejar.client.webscoket.EntityJacksonModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CodecModuleTest {
+
+    private static final UUID ID = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+    private static final GameSettings SETTINGS = new GameSettings(1920f, 1080f, 1, 8.5f, 2, 40f, 3, 2.25f);
+    private static final Entity RED = new Entity("RED-1", Entity.Type.FIGHTER, "RED", 1.5f, 2f, 3f, 4f, "false", 0f, 0f, 2, "OK");
+
+    private final ObjectMapper reflective = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .registerModule(new EntityJacksonModule());
+    private final ObjectMapper generated = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .registerModule(new CodecModule())
+        .registerModule(new EntityJacksonModule());
+
+    static Stream<Object> values() {
+        return Stream.of(
+            new Player(ID, Color.RED, "player"),
+            new Player(null, null, null),
+            SETTINGS,
+            new RegistrationResponse(ID, ID, Color.BLUE, SETTINGS),
+            new RegistrationResponse(null, ID, null, null),
+            new Order("RED-1", OrderType.MOVE, "1,2"),
+            new Order("RED-1", OrderType.FIRE_MISSILE, null),
+            new Orders(List.of(new Order("RED-1", OrderType.MOVE, "1,2"), new Order("RED-2", OrderType.ATTACK, null))),
+            new Ping("p-1", 5L),
+            new Pong("p-1", 5L),
+            new Resync(42L),
+            new EntitiesDelta(3, 2, Instant.ofEpochSecond(7, 500), "RUNNING", List.of(RED), List.of(), List.of("RED-2"))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("values")
+    void shouldWriteWhatReflectionWrites(Object value) throws Exception {
+        // given
+        String expected = reflective.writeValueAsString(value);
+
+        // when
+        String json = generated.writeValueAsString(value);
+
+        // then
+        assertThat(json).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @MethodSource("values")
+    void shouldReadWhatReflectionWrites(Object value) throws Exception {
+        // given
+        String json = reflective.writeValueAsString(value);
+
+        // when
+        Object read = generated.readValue(json, value.getClass());
+
+        // then
+        assertThat(read).isEqualTo(value);
+    }
+
+    @Test
+    void shouldUseGeneratedSerializers() throws Exception {
+        // when / then
+        assertThat(generated.getSerializerProviderInstance().findValueSerializer(Player.class))
+            .isInstanceOf(PlayerCodec.Serializer.class);
+        assertThat(generated.getSerializerProviderInstance().findValueSerializer(Order.class))
+            .isInstanceOf(OrderCodec.Serializer.class);
+    }
+
+    @Test
+    void shouldReadPolymorphicMessages() throws Exception {
+        // given
+        Order order = new Order("RED-1", OrderType.TURN_XY, "3,4");
+        String json = reflective.writerFor(WebSocketMessage.class).writeValueAsString(order);
+
+        // when
+        WebSocketMessage read = generated.readValue(json, WebSocketMessage.class);
+
+        // then
+        assertThat(read).isEqualTo(order);
+    }
+
+    @Test
+    void shouldDefaultMissingProperties() throws Exception {
+        // when
+        GameSettings settings = generated.readValue("{\"worldWidth\":10}", GameSettings.class);
+        Player player = generated.readValue("{}", Player.class);
+
+        // then
+        assertThat(settings).isEqualTo(new GameSettings(10f, 0f, 0, 0f, 0, 0f, 0, 0f));
+        assertThat(player).isEqualTo(new Player(null, null, null));
+    }
+
+    @Test
+    void shouldCoerceLikeReflection() throws Exception {
+        // given
+        String json = "{\"worldWidth\":\"10.5\",\"worldHeight\":null,\"fighterBody\":2.0}";
+
+        // when
+        GameSettings settings = generated.readValue(json, GameSettings.class);
+
+        // then
+        assertThat(settings).isEqualTo(reflective.readValue(json, GameSettings.class));
+    }
+
+    @Test
+    void shouldRejectUnknownProperties() {
+        // when / then
+        assertThatThrownBy(() -> generated.readValue("{\"id\":null,\"unknown\":1}", Player.class))
+            .isInstanceOf(UnrecognizedPropertyException.class);
+    }
+
+    @Test
+    void shouldRejectUnknownColour() {
+        // when / then
+        assertThatThrownBy(() -> generated.readValue("{\"color\":\"PINK\"}", Player.class))
+            .hasMessageContaining("PINK");
+    }
+}
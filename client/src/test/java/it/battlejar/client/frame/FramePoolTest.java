@@ -0,0 +1,106 @@
+package it.battlejar.client.frame;
+
+import it.battlejar.api.Entity;
+import it.battlejar.api.EntityFrame;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FramePoolTest {
+
+    private static final Entity RED = new Entity("RED-1", Entity.Type.FIGHTER, "RED", 1.5f, 2f, 3f, 4f, "false", 5f, 6f, 2, "OK");
+
+    @Test
+    void shouldReuseReleasedFrames() {
+        // given
+        FramePool pool = new FramePool(2);
+        PooledFrame first = pool.acquire();
+        first.frame().add(RED);
+
+        // when
+        first.release();
+        PooledFrame second = pool.acquire();
+
+        // then
+        assertThat(second).isSameAs(first).isEmpty();
+        assertThat(pool.created()).isEqualTo(1);
+        assertThat(pool.reused()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCreateFramesWhenNoneIsIdle() {
+        // given
+        FramePool pool = new FramePool(1);
+
+        // when
+        PooledFrame first = pool.acquire();
+        PooledFrame second = pool.acquire();
+
+        // then
+        assertThat(second).isNotSameAs(first);
+        assertThat(pool.created()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepRetainedFrameUntilLastRelease() {
+        // given
+        FramePool pool = new FramePool();
+        PooledFrame frame = pool.acquire();
+        frame.frame().add(RED);
+        frame.retain();
+
+        // when
+        frame.release();
+
+        // then
+        assertThat(frame).containsExactly(RED);
+        frame.release();
+        assertThat(frame).isEmpty();
+        assertThatThrownBy(frame::release)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("released more times");
+        assertThatThrownBy(frame::retain)
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("already released");
+    }
+
+    @Test
+    void shouldCreateEachEntityOnceAndDropThemOnRelease() {
+        // given
+        FramePool pool = new FramePool();
+        PooledFrame frame = pool.acquire();
+        for (int i = 0; i < 100; i++) {
+            frame.frame().add(RED);
+        }
+
+        // when
+        Entity first = frame.get(99);
+
+        // then
+        assertThat(frame.get(99)).isSameAs(first).isEqualTo(RED);
+        frame.release();
+        PooledFrame reused = pool.acquire();
+        reused.frame().add(BLUE_ONE);
+        assertThat(reused.get(0)).isEqualTo(BLUE_ONE);
+    }
+
+    @Test
+    void staticHelpersShouldIgnoreOtherCollections() {
+        // given
+        List<Entity> entities = List.of(RED);
+
+        // when
+        boolean retained = PooledFrame.retain(entities);
+        PooledFrame.release(entities);
+        EntityFrame frame = PooledFrame.frameOf(entities);
+
+        // then
+        assertThat(retained).isFalse();
+        assertThat(frame.entities()).containsExactly(RED);
+    }
+
+    private static final Entity BLUE_ONE = new Entity("BLUE-1", Entity.Type.CARRIER, "BLUE", 0f, 0f, 0f, 0f, "true", 0f, 0f, 0, "OK");
+}
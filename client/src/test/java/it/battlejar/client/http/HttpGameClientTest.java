@@ -1,13 +1,34 @@
 package it.battlejar.client.http;
 
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletionException;
+
 import static java.util.UUID.randomUUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class HttpGameClientTest {
 
+    private HttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
     @Test
     void setGameIdShouldThrowWhenAlreadySet() {
         // given
@@ -33,4 +54,146 @@ class HttpGameClientTest {
         assertThat(response.code()).isEqualTo(200);
         assertThat(response.body()).isEqualTo("{\"ok\":true}");
     }
+
+    @Test
+    void postShouldSendJsonAndReturnBody() throws IOException {
+        // given
+        String[] received = new String[2];
+        HttpGameClient client = clientFor(exchange -> {
+            received[0] = exchange.getRequestHeaders().getFirst("Content-Type");
+            received[1] = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            respond(exchange, 200, "{\"ok\":true}");
+        });
+
+        // when
+        HttpGameClient.HttpResponse response = client.post("/register", "{\"name\":\"player\"}");
+
+        // then
+        assertThat(response).isEqualTo(new HttpGameClient.HttpResponse(200, "{\"ok\":true}"));
+        assertThat(received[0]).isEqualTo("application/json");
+        assertThat(received[1]).isEqualTo("{\"name\":\"player\"}");
+    }
+
+    @Test
+    void getShouldReturnNullBodyWhenEmpty() throws IOException {
+        // given
+        HttpGameClient client = clientFor(exchange -> respond(exchange, 202, ""));
+
+        // when
+        HttpGameClient.HttpResponse response = client.get("/leave");
+
+        // then
+        assertThat(response).isEqualTo(new HttpGameClient.HttpResponse(202, null));
+    }
+
+    @Test
+    void errorStatusWithBodyShouldBeReturned() throws IOException {
+        // given
+        HttpGameClient client = clientFor(exchange -> respond(exchange, 409, "taken"));
+
+        // when
+        HttpGameClient.HttpResponse response = client.post("/register", "{}");
+
+        // then
+        assertThat(response).isEqualTo(new HttpGameClient.HttpResponse(409, "taken"));
+    }
+
+    @Test
+    void errorStatusWithoutBodyShouldThrow() throws IOException {
+        // given
+        HttpGameClient client = clientFor(exchange -> respond(exchange, 500, ""));
+
+        // when / then
+        assertThatThrownBy(() -> client.get("/leave"))
+            .isInstanceOf(HttpGameClient.HttpError.class)
+            .hasMessageContaining("/leave");
+    }
+
+    @Test
+    void timeoutShouldThrowHttpErrorWithoutCode() throws IOException {
+        // given
+        HttpGameClient client = clientFor(exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "late");
+        }, Duration.ofMillis(100));
+
+        // when / then
+        assertThatThrownBy(() -> client.get("/slow"))
+            .isInstanceOf(HttpGameClient.HttpError.class)
+            .hasMessageContaining("Failed to communicate");
+    }
+
+    @Test
+    void asyncRequestsShouldCompleteLikeBlockingOnes() throws IOException {
+        // given
+        HttpGameClient client = clientFor(exchange -> respond(exchange, exchange.getRequestMethod().equals("POST") ? 200 : 500, ""));
+
+        // when
+        HttpGameClient.HttpResponse posted = client.postAsync("/register", "{}").join();
+
+        // then
+        assertThat(posted).isEqualTo(new HttpGameClient.HttpResponse(200, null));
+        assertThatThrownBy(() -> client.getAsync("/leave").join())
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(HttpGameClient.HttpError.class);
+    }
+
+    @Test
+    void retryAfterShouldBeReadFromResponseAndError() throws IOException {
+        // given
+        HttpGameClient client = clientFor(exchange -> {
+            exchange.getResponseHeaders().add("Retry-After", "3");
+            respond(exchange, exchange.getRequestMethod().equals("POST") ? 202 : 503, "");
+        });
+
+        // when
+        HttpGameClient.HttpResponse response = client.post("/register", "{}");
+
+        // then
+        assertThat(response).isEqualTo(new HttpGameClient.HttpResponse(202, null, Duration.ofSeconds(3)));
+        assertThatThrownBy(() -> client.get("/leave"))
+            .isInstanceOfSatisfying(HttpGameClient.HttpError.class,
+                error -> assertThat(error.getRetryAfter()).isEqualTo(Duration.ofSeconds(3)));
+    }
+
+    @Test
+    void retryAfterShouldAcceptSecondsAndDates() {
+        // given
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(30));
+        String past = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).minusSeconds(30));
+
+        // when / then
+        assertThat(HttpGameClient.parseRetryAfter(" 5 ")).isEqualTo(Duration.ofSeconds(5));
+        assertThat(HttpGameClient.parseRetryAfter(date)).isBetween(Duration.ofSeconds(25), Duration.ofSeconds(30));
+        assertThat(HttpGameClient.parseRetryAfter(past)).isEqualTo(Duration.ZERO);
+        assertThat(HttpGameClient.parseRetryAfter("soon")).isNull();
+    }
+
+    private HttpGameClient clientFor(Handler handler) throws IOException {
+        return clientFor(handler, HttpGameClient.DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    private HttpGameClient clientFor(Handler handler, Duration requestTimeout) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> handler.handle(exchange));
+        server.start();
+        return new HttpGameClient("http://localhost:" + server.getAddress().getPort() + "/",
+            HttpGameClient.newHttpClient(HttpGameClient.DEFAULT_CONNECT_TIMEOUT), requestTimeout);
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(code, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private interface Handler {
+        void handle(com.sun.net.httpserver.HttpExchange exchange) throws IOException;
+    }
 }
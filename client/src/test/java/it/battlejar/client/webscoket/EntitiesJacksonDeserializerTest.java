@@ -0,0 +1,142 @@
+package it.battlejar.client.webscoket;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import it.battlejar.api.Entities;
+import it.battlejar.api.Entity;
+import it.battlejar.api.EntityFrame;
+import it.battlejar.api.WebSocketMessage;
+import it.battlejar.api.serialization.EntitySerializer;
+import it.battlejar.api.serialization.StringTable;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EntitiesJacksonDeserializerTest {
+
+    private static final Entity RED = new Entity("RED-1", Entity.Type.FIGHTER, "RED", 1.5f, 2f, 3f, 4f, "false", 0f, 0f, 2, "OK");
+    private static final Entity BLUE = new Entity("BLUE-1", Entity.Type.CARRIER, "BLUE", -1f, 0.25f, 0f, 0f, "true", 5f, 6f, 0, "OK");
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .registerModule(new EntityJacksonModule());
+
+    @Test
+    void shouldRoundTripEntitiesAsWebSocketMessage() throws Exception {
+        // given
+        Entities entities = new Entities(Instant.ofEpochSecond(1792182499L, 50568699), List.of(RED, BLUE), "RUNNING");
+        String json = objectMapper.writeValueAsString(entities);
+
+        // when
+        WebSocketMessage message = objectMapper.readValue(json, WebSocketMessage.class);
+
+        // then
+        assertThat(message).isEqualTo(entities);
+    }
+
+    @Test
+    void shouldReadEntitiesWhenTypeIsNotFirst() throws Exception {
+        // given
+        String json = "{\"state\":\"RUNNING\",\"entities\":[\"" + EntitySerializer.serialize(RED) + "\"],"
+            + "\"timeStamp\":1792182499,\"type\":\"entities\"}";
+
+        // when
+        WebSocketMessage message = objectMapper.readValue(json, WebSocketMessage.class);
+
+        // then
+        assertThat(message).isEqualTo(new Entities(Instant.ofEpochSecond(1792182499L), List.of(RED), "RUNNING"));
+    }
+
+    @Test
+    void shouldReadIsoTimestampAndNullEntities() throws Exception {
+        // given
+        String json = "{\"type\":\"entities\",\"timeStamp\":\"2026-10-16T10:15:30.5Z\",\"entities\":null,\"state\":null}";
+
+        // when
+        Entities entities = objectMapper.readValue(json, Entities.class);
+
+        // then
+        assertThat(entities).isEqualTo(new Entities(Instant.parse("2026-10-16T10:15:30.5Z"), null, null));
+    }
+
+    @Test
+    void shouldReplaceMalformedEntityWithNull() throws Exception {
+        // given
+        String json = "{\"type\":\"entities\",\"timeStamp\":1.5,\"entities\":[\"broken\",\""
+            + EntitySerializer.serialize(BLUE) + "\"],\"state\":\"RUNNING\"}";
+
+        // when
+        Entities entities = objectMapper.readValue(json, Entities.class);
+
+        // then
+        assertThat(entities.timeStamp()).isEqualTo(Instant.ofEpochSecond(1, 500_000_000));
+        assertThat(entities.entities()).containsExactly(null, BLUE);
+    }
+
+    @Test
+    void readIntoShouldCountMalformedAndNullEntities() throws Exception {
+        // given
+        EntitiesJacksonDeserializer deserializer = new EntitiesJacksonDeserializer(new StringTable(16));
+        String json = "{\"type\":\"entities\",\"entities\":[\"broken\",null,\""
+            + EntitySerializer.serialize(BLUE) + "\"],\"state\":\"RUNNING\"}";
+        EntityFrame frame = new EntityFrame(4);
+
+        // when
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            parser.nextToken();
+            deserializer.readInto(parser, frame);
+        }
+
+        // then
+        assertThat(frame.entities()).containsExactly(BLUE);
+        assertThat(frame.skipped()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRejectUnknownPropertiesThroughObjectMapper() {
+        // given
+        String json = "{\"type\":\"entities\",\"extra\":1,\"entities\":[],\"state\":\"RUNNING\"}";
+
+        // when / then
+        assertThatThrownBy(() -> objectMapper.readValue(json, Entities.class))
+            .isInstanceOf(UnrecognizedPropertyException.class);
+    }
+
+    @Test
+    void readShouldRejectUnknownPropertiesWithoutContext() throws Exception {
+        // given
+        EntitiesJacksonDeserializer deserializer = new EntitiesJacksonDeserializer(new StringTable(16));
+        String json = "{\"type\":\"entities\",\"extra\":1,\"entities\":[],\"state\":\"RUNNING\"}";
+
+        // when / then - as the object mapper does
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            parser.nextToken();
+            assertThatThrownBy(() -> deserializer.read(parser))
+                .isInstanceOf(UnrecognizedPropertyException.class)
+                .hasMessageContaining("extra");
+        }
+    }
+
+    @Test
+    void readShouldSkipUnknownPropertiesWithoutContextWhenLenient() throws Exception {
+        // given
+        EntitiesJacksonDeserializer deserializer = new EntitiesJacksonDeserializer(new StringTable(16), false);
+        String json = "{\"type\":\"entities\",\"extra\":{\"a\":[1]},\"entities\":[\"" + EntitySerializer.serialize(RED) + "\"],\"state\":\"RUNNING\"}";
+
+        // when
+        Entities entities;
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            parser.nextToken();
+            entities = deserializer.read(parser);
+        }
+
+        // then
+        assertThat(entities).isEqualTo(new Entities(null, List.of(RED), "RUNNING"));
+    }
+}
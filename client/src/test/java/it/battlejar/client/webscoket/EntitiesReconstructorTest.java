@@ -0,0 +1,105 @@
+package it.battlejar.client.webscoket;
+
+import it.battlejar.api.Entities;
+import it.battlejar.api.EntitiesDelta;
+import it.battlejar.api.Entity;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntitiesReconstructorTest {
+
+    private static final Instant TIME_STAMP = Instant.ofEpochSecond(1_700_000_000L);
+
+    private final EntitiesReconstructor reconstructor = new EntitiesReconstructor();
+
+    @Test
+    void shouldRebuildSnapshotFromKeyframeAndDeltas() {
+        // given
+        Entity fighter = fighter("RED-01", 1f);
+        Entity carrier = new Entity("RED-C", Entity.Type.CARRIER, "RED", 0f, 0f, 0f, 0f, null, 0f, 0f, 0, "ALIVE");
+        Entity movedFighter = fighter("RED-01", 2f);
+        Entity spawnedFighter = fighter("RED-02", 3f);
+
+        // when
+        boolean keyframeApplied = reconstructor.apply(EntitiesDelta.keyframe(10, TIME_STAMP, List.of(fighter, carrier), "RUNNING"));
+        boolean deltaApplied = reconstructor.apply(new EntitiesDelta(11, 10, TIME_STAMP.plusMillis(50), "RUNNING",
+            List.of(spawnedFighter), List.of(movedFighter), List.of("RED-C")));
+        Entities snapshot = reconstructor.snapshot();
+
+        // then
+        assertThat(keyframeApplied).isTrue();
+        assertThat(deltaApplied).isTrue();
+        assertThat(reconstructor.sequence()).isEqualTo(11L);
+        assertThat(snapshot.entities()).containsExactly(movedFighter, spawnedFighter);
+        assertThat(snapshot.timeStamp()).isEqualTo(TIME_STAMP.plusMillis(50));
+        assertThat(snapshot.state()).isEqualTo("RUNNING");
+    }
+
+    @Test
+    void shouldRejectDeltasAfterGapUntilNextKeyframe() {
+        // given
+        reconstructor.apply(EntitiesDelta.keyframe(1, TIME_STAMP, List.of(fighter("RED-01", 1f)), "RUNNING"));
+
+        // when
+        boolean gap = reconstructor.apply(delta(3, 2, fighter("RED-01", 3f)));
+        boolean afterGap = reconstructor.apply(delta(4, 3, fighter("RED-01", 4f)));
+        boolean keyframe = reconstructor.apply(EntitiesDelta.keyframe(5, TIME_STAMP, List.of(fighter("RED-01", 5f)), "RUNNING"));
+        boolean next = reconstructor.apply(delta(6, 5, fighter("RED-01", 6f)));
+
+        // then
+        assertThat(gap).isFalse();
+        assertThat(afterGap).isFalse();
+        assertThat(keyframe).isTrue();
+        assertThat(next).isTrue();
+        assertThat(reconstructor.snapshot().entities()).containsExactly(fighter("RED-01", 6f));
+    }
+
+    @Test
+    void shouldRejectDeltaBeforeAnyKeyframe() {
+        // when
+        boolean applied = reconstructor.apply(delta(2, 1, fighter("RED-01", 1f)));
+
+        // then
+        assertThat(applied).isFalse();
+        assertThat(reconstructor.isSynced()).isFalse();
+    }
+
+    @Test
+    void fullFrameShouldReplaceSnapshotAndRequireKeyframe() {
+        // given
+        reconstructor.apply(EntitiesDelta.keyframe(1, TIME_STAMP, List.of(fighter("RED-01", 1f)), "RUNNING"));
+
+        // when
+        reconstructor.reset(Entities.running(List.of(fighter("RED-09", 9f))));
+
+        // then
+        assertThat(reconstructor.snapshot().entities()).containsExactly(fighter("RED-09", 9f));
+        assertThat(reconstructor.apply(delta(2, 1, fighter("RED-01", 2f)))).isFalse();
+    }
+
+    @Test
+    void invalidateShouldDropSnapshotUntilNextKeyframe() {
+        // given
+        reconstructor.apply(EntitiesDelta.keyframe(1, TIME_STAMP, List.of(fighter("RED-01", 1f)), "RUNNING"));
+
+        // when
+        reconstructor.invalidate(Entities.running(List.of(fighter("RED-09", 9f))));
+
+        // then
+        assertThat(reconstructor.snapshot().entities()).isEmpty();
+        assertThat(reconstructor.apply(delta(2, 1, fighter("RED-01", 2f)))).isFalse();
+        assertThat(reconstructor.apply(EntitiesDelta.keyframe(3, TIME_STAMP, List.of(fighter("RED-02", 1f)), "RUNNING"))).isTrue();
+    }
+
+    private static EntitiesDelta delta(long sequence, long base, Entity changed) {
+        return new EntitiesDelta(sequence, base, TIME_STAMP, "RUNNING", List.of(), List.of(changed), List.of());
+    }
+
+    private static Entity fighter(String id, float x) {
+        return new Entity(id, Entity.Type.FIGHTER, "RED", x, 0f, 0f, 0f, null, 0f, 0f, 2, "ALIVE");
+    }
+}
@@ -0,0 +1,38 @@
+package it.battlejar.client.webscoket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.battlejar.api.Entity;
+import it.battlejar.api.serialization.EntitySerializer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityJacksonModuleTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new EntityJacksonModule());
+
+    @Test
+    void shouldWriteEntityAsSerializedString() throws Exception {
+        // given
+        Entity entity = new Entity("RED-01", Entity.Type.FIGHTER, "RED", 1.5f, -2.25f, 0f, 3.0E-4f, "false", 0f, 0f, 4, "ALIVE");
+
+        // when
+        String json = objectMapper.writeValueAsString(entity);
+
+        // then
+        assertThat(json).isEqualTo("\"" + EntitySerializer.serialize(entity) + "\"");
+        assertThat(objectMapper.readValue(json, Entity.class)).isEqualTo(entity);
+    }
+
+    @Test
+    void shouldEscapeSpecialCharactersInEntityFields() throws Exception {
+        // given
+        Entity entity = new Entity("id-\"quoted\"", Entity.Type.CARRIER, "BLUE", 0f, 0f, 0f, 0f, "true", 0f, 0f, 0, "A\\B");
+
+        // when
+        String json = objectMapper.writeValueAsString(entity);
+
+        // then
+        assertThat(objectMapper.readValue(json, Entity.class)).isEqualTo(entity);
+    }
+}
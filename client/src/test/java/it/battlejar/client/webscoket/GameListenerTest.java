@@ -1,17 +1,38 @@
 package it.battlejar.client.webscoket;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import it.battlejar.api.Entities;
+import it.battlejar.api.Entity;
+import it.battlejar.api.WebSocketMessage;
+import it.battlejar.api.serialization.EntitiesBinaryCodec;
+import it.battlejar.api.serialization.StringTable;
 import org.junit.jupiter.api.Test;
 
 import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 class GameListenerTest {
 
+    private static final Entities ENTITIES = Entities.running(List.of(
+        new Entity("RED-01", Entity.Type.FIGHTER, "RED", 1f, 2f, 3f, 4f, "false", 0f, 0f, 2, "ALIVE"),
+        new Entity("RED-C", Entity.Type.CARRIER, "RED", 5f, 6f, 0f, 0f, null, 0f, 0f, 0, "ALIVE")));
+
+    private static final StringTable STRINGS = new StringTable(64);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .registerModule(new EntityJacksonModule(STRINGS));
+
     @Test
     void onTextWithNullDataShouldNotThrow() throws InterruptedException {
         // given
@@ -27,4 +48,127 @@ class GameListenerTest {
         assertThat(message).isNotNull();
         assertThat(message).isEmpty();
     }
+
+    @Test
+    void onBinaryShouldDecodeSingleFragmentFrame() {
+        // given
+        List<Entities> received = new ArrayList<>();
+        GameListener listener = new GameListener(new LinkedBlockingDeque<>(), received::add);
+        WebSocket webSocket = mock(WebSocket.class);
+
+        // when
+        listener.onBinary(webSocket, EntitiesBinaryCodec.encode(ENTITIES), true);
+
+        // then
+        assertThat(received).containsExactly(ENTITIES);
+    }
+
+    @Test
+    void onBinaryShouldDecodeFragmentedFrame() {
+        // given
+        List<Entities> received = new ArrayList<>();
+        GameListener listener = new GameListener(new LinkedBlockingDeque<>(), received::add);
+        WebSocket webSocket = mock(WebSocket.class);
+        ByteBuffer encoded = EntitiesBinaryCodec.encode(ENTITIES);
+        int split = encoded.remaining() / 3;
+
+        // when
+        listener.onBinary(webSocket, encoded.slice(0, split), false);
+        listener.onBinary(webSocket, encoded.slice(split, split), false);
+        listener.onBinary(webSocket, encoded.slice(2 * split, encoded.remaining() - 2 * split), true);
+        listener.onBinary(webSocket, EntitiesBinaryCodec.encode(ENTITIES), true);
+
+        // then
+        assertThat(received).containsExactly(ENTITIES, ENTITIES);
+    }
+
+    @Test
+    void onBinaryShouldDropUnknownFrames() {
+        // given
+        List<Entities> received = new ArrayList<>();
+        GameListener listener = new GameListener(new LinkedBlockingDeque<>(), received::add);
+        WebSocket webSocket = mock(WebSocket.class);
+
+        // when
+        listener.onBinary(webSocket, ByteBuffer.wrap(new byte[]{1, 2, 3}), true);
+
+        // then
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    void onTextShouldPauseWhileMailboxIsFull() throws InterruptedException {
+        // given
+        MessageMailbox mailbox = new MessageMailbox(1);
+        GameListener listener = new GameListener(mailbox, decoder(), entities -> { });
+        WebSocket webSocket = mock(WebSocket.class);
+
+        // when
+        listener.onText(webSocket, "{\"type\":\"ping\",", false);
+        listener.onText(webSocket, "\"id\":\"1\",\"timestamp\":1}", true);
+
+        // then - the rest of the message was requested but not the next one
+        verify(webSocket, times(1)).request(1);
+        mailbox.drainTo(new ArrayList<Object>(), 10, 0, TimeUnit.SECONDS);
+        verify(webSocket, times(2)).request(1);
+    }
+
+    @Test
+    void pingsAndPongsShouldNotRequestMoreWhileMailboxIsFull() throws InterruptedException {
+        // given
+        MessageMailbox mailbox = new MessageMailbox(1);
+        GameListener listener = new GameListener(mailbox, decoder(), entities -> { });
+        WebSocket webSocket = mock(WebSocket.class);
+        listener.onText(webSocket, "{\"type\":\"ping\",\"id\":\"1\",\"timestamp\":1}", true);
+
+        // when
+        listener.onPing(webSocket, ByteBuffer.allocate(0));
+        listener.onPong(webSocket, ByteBuffer.allocate(0));
+
+        // then - only the drain asks for the next message
+        verify(webSocket, times(0)).request(1);
+        mailbox.drainTo(new ArrayList<Object>(), 10, 0, TimeUnit.SECONDS);
+        verify(webSocket, times(1)).request(1);
+        listener.onPing(webSocket, ByteBuffer.allocate(0));
+        verify(webSocket, times(2)).request(1);
+    }
+
+    @Test
+    void onTextShouldKeepRequestingWhileMailboxHasRoom() {
+        // given
+        MessageMailbox mailbox = new MessageMailbox(2);
+        GameListener listener = new GameListener(mailbox, decoder(), entities -> { });
+        WebSocket webSocket = mock(WebSocket.class);
+
+        // when
+        listener.onText(webSocket, "{\"type\":\"entities\",\"entities\":[]}", true);
+
+        // then
+        verify(webSocket, times(1)).request(1);
+        assertThat(mailbox.size()).isEqualTo(1);
+    }
+
+    @Test
+    void onTextShouldDecodeFragmentedEntitiesIntoMailbox() throws Exception {
+        // given
+        MessageMailbox mailbox = new MessageMailbox();
+        GameListener listener = new GameListener(mailbox, decoder(), entities -> { });
+        WebSocket webSocket = mock(WebSocket.class);
+        String json = OBJECT_MAPPER.writerFor(WebSocketMessage.class).writeValueAsString(ENTITIES);
+        int split = json.length() / 2;
+        List<Object> drained = new ArrayList<>();
+
+        // when
+        listener.onText(webSocket, json.substring(0, split), false);
+        listener.onText(webSocket, json.substring(split), true);
+        mailbox.drainTo(drained, 10, 0, TimeUnit.SECONDS);
+
+        // then
+        assertThat(drained).containsExactly(ENTITIES);
+        verify(webSocket, times(2)).request(1);
+    }
+
+    private static WebSocketMessageDecoder decoder() {
+        return new WebSocketMessageDecoder(OBJECT_MAPPER, STRINGS);
+    }
 }
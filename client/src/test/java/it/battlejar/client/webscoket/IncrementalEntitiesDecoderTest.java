@@ -0,0 +1,114 @@
+package it.battlejar.client.webscoket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import it.battlejar.api.Entities;
+import it.battlejar.api.Entity;
+import it.battlejar.api.WebSocketMessage;
+import it.battlejar.api.serialization.StringTable;
+import it.battlejar.client.frame.FramePool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncrementalEntitiesDecoderTest {
+
+    private static final Entities ENTITIES = new Entities(Instant.ofEpochSecond(1792182499L, 50568699), List.of(
+        new Entity("RED-1", Entity.Type.FIGHTER, "RED", 1.5f, 2f, 3f, 4f, "false", 0f, 0f, 2, "OK"),
+        new Entity("RED-C", Entity.Type.CARRIER, "RED", 5f, 6f, 0f, 0f, null, 0f, 0f, 0, "ALIVE")), "RUNNING");
+
+    private final StringTable strings = new StringTable(64);
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .registerModule(new EntityJacksonModule(strings));
+    private final IncrementalEntitiesDecoder decoder = new IncrementalEntitiesDecoder(objectMapper.getFactory(), strings, new FramePool());
+
+    static IntStream fragmentSizes() {
+        return IntStream.of(1, 3, 7, 64);
+    }
+
+    @ParameterizedTest
+    @MethodSource("fragmentSizes")
+    void shouldDecodeFrameSplitAnywhere(int fragmentSize) throws Exception {
+        // given
+        String json = objectMapper.writerFor(WebSocketMessage.class).writeValueAsString(ENTITIES);
+
+        // when
+        Entities decoded = decode(json, fragmentSize);
+
+        // then
+        assertThat(decoded).isEqualTo(ENTITIES);
+    }
+
+    @Test
+    void frameWithUnknownPropertyShouldBeDropped() throws Exception {
+        // given
+        String json = objectMapper.writerFor(WebSocketMessage.class).writeValueAsString(ENTITIES);
+
+        // when
+        Entities rejected = decode("{\"type\":\"entities\",\"extra\":1,\"entities\":[],\"state\":\"RUNNING\"}", 8);
+        Entities decoded = decode(json, 8);
+
+        // then - rejected as the object mapper would, the decoder staying reusable
+        assertThat(rejected).isNull();
+        assertThat(decoded).isEqualTo(ENTITIES);
+    }
+
+    @Test
+    void shouldSkipUnknownPropertiesAndSurrogatesSplitAcrossFragmentsWhenLenient() {
+        // given
+        IncrementalEntitiesDecoder lenient = new IncrementalEntitiesDecoder(objectMapper.getFactory(), strings, new FramePool(), false);
+        String json = "{\"type\":\"entities\",\"note\":{\"text\":[\"🚀\"]},\"entities\":[],\"state\":\"ENDING\"}";
+        int split = json.indexOf('\uDE80');
+
+        // when
+        lenient.start();
+        lenient.feed(json.substring(0, split));
+        lenient.feed(json.substring(split));
+        Entities decoded = lenient.finish();
+
+        // then
+        assertThat(decoded.entities()).isEmpty();
+        assertThat(decoded.state()).isEqualTo("ENDING");
+    }
+
+    @Test
+    void malformedFrameShouldBeDroppedAndDecoderReusable() throws Exception {
+        // given
+        String json = objectMapper.writerFor(WebSocketMessage.class).writeValueAsString(ENTITIES);
+
+        // when
+        decoder.start();
+        decoder.feed("{\"type\":\"entities\",\"entities\":{}");
+        Entities malformed = decoder.finish();
+        Entities decoded = decode(json, 16);
+
+        // then
+        assertThat(malformed).isNull();
+        assertThat(decoder.isActive()).isFalse();
+        assertThat(decoded).isEqualTo(ENTITIES);
+    }
+
+    @Test
+    void shouldAcceptOnlyLeadingEntitiesDiscriminator() {
+        // when / then
+        assertThat(IncrementalEntitiesDecoder.accepts("{\"type\":\"entities\",\"entities\":[")).isTrue();
+        assertThat(IncrementalEntitiesDecoder.accepts("{\"type\":\"ent")).isFalse();
+        assertThat(IncrementalEntitiesDecoder.accepts("{\"type\":\"delta\",\"sequence\":1")).isFalse();
+        assertThat(IncrementalEntitiesDecoder.accepts(null)).isFalse();
+    }
+
+    private Entities decode(String json, int fragmentSize) {
+        decoder.start();
+        for (int i = 0; i < json.length(); i += fragmentSize) {
+            decoder.feed(json.substring(i, Math.min(json.length(), i + fragmentSize)));
+        }
+        return decoder.finish();
+    }
+}
@@ -0,0 +1,139 @@
+package it.battlejar.client.webscoket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatestValueMailboxTest {
+
+    @Test
+    void shouldDeliverLatestValueWithSupersededCount() throws InterruptedException {
+        // given
+        LatestValueMailbox<String> mailbox = new LatestValueMailbox<>();
+
+        // when
+        String firstReplaced = mailbox.publish("first");
+        String secondReplaced = mailbox.publish("second");
+        String thirdReplaced = mailbox.publish("third");
+        LatestValueMailbox.Delivery<String> delivery = mailbox.take(0, TimeUnit.SECONDS);
+
+        // then
+        assertThat(firstReplaced).isNull();
+        assertThat(secondReplaced).isEqualTo("first");
+        assertThat(thirdReplaced).isEqualTo("second");
+        assertThat(delivery).isEqualTo(new LatestValueMailbox.Delivery<>("third", 3, 2));
+        assertThat(mailbox.superseded()).isEqualTo(2);
+    }
+
+    @Test
+    void supersededCountShouldRestartAfterDelivery() throws InterruptedException {
+        // given
+        LatestValueMailbox<String> mailbox = new LatestValueMailbox<>();
+        mailbox.publish("first");
+        mailbox.publish("second");
+        mailbox.take(0, TimeUnit.SECONDS);
+
+        // when
+        String replaced = mailbox.publish("third");
+        LatestValueMailbox.Delivery<String> delivery = mailbox.take(0, TimeUnit.SECONDS);
+
+        // then
+        assertThat(replaced).isNull();
+        assertThat(delivery).isEqualTo(new LatestValueMailbox.Delivery<>("third", 3, 0));
+    }
+
+    @Test
+    void tryTakeShouldNotWait() {
+        // given
+        LatestValueMailbox<String> mailbox = new LatestValueMailbox<>();
+
+        // when
+        LatestValueMailbox.Delivery<String> empty = mailbox.tryTake();
+        mailbox.publish("first");
+        mailbox.publish("second");
+        LatestValueMailbox.Delivery<String> delivery = mailbox.tryTake();
+
+        // then
+        assertThat(empty).isNull();
+        assertThat(delivery).isEqualTo(new LatestValueMailbox.Delivery<>("second", 2, 1));
+        assertThat(mailbox.tryTake()).isNull();
+    }
+
+    @Test
+    void takeShouldTimeOutWhenNothingIsPublished() throws InterruptedException {
+        // given
+        LatestValueMailbox<String> mailbox = new LatestValueMailbox<>(0);
+
+        // when
+        LatestValueMailbox.Delivery<String> delivery = mailbox.take(10, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(delivery).isNull();
+    }
+
+    @Test
+    void parkedConsumerShouldBeWokenByPublish() throws InterruptedException {
+        // given
+        LatestValueMailbox<String> mailbox = new LatestValueMailbox<>(0);
+        LatestValueMailbox.Delivery<?>[] delivered = new LatestValueMailbox.Delivery<?>[1];
+        Thread consumer = Thread.ofVirtual().start(() -> {
+            try {
+                delivered[0] = mailbox.take(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // when
+        Thread.sleep(50);
+        mailbox.publish("frame");
+        consumer.join(5000);
+
+        // then
+        assertThat(consumer.isAlive()).isFalse();
+        assertThat(delivered[0]).isEqualTo(new LatestValueMailbox.Delivery<>("frame", 1, 0));
+    }
+
+    @Test
+    void sequenceNumbersShouldFollowTheSlotWithSeveralProducers() throws InterruptedException {
+        // given
+        int perProducer = 100_000;
+        LatestValueMailbox<Integer> mailbox = new LatestValueMailbox<>(0);
+        List<LatestValueMailbox.Delivery<Integer>> deliveries = new ArrayList<>();
+        Runnable producer = () -> {
+            for (int i = 0; i < perProducer; i++) {
+                mailbox.publish(i);
+            }
+        };
+
+        // when
+        Thread first = Thread.ofPlatform().start(producer);
+        Thread second = Thread.ofPlatform().start(producer);
+        while (first.isAlive() || second.isAlive()) {
+            LatestValueMailbox.Delivery<Integer> delivery = mailbox.tryTake();
+            if (delivery != null) {
+                deliveries.add(delivery);
+            }
+        }
+        first.join();
+        second.join();
+        LatestValueMailbox.Delivery<Integer> last = mailbox.tryTake();
+        if (last != null) {
+            deliveries.add(last);
+        }
+
+        // then - each delivery follows the previous one, the gap being the values it superseded
+        long previous = 0;
+        for (LatestValueMailbox.Delivery<Integer> delivery : deliveries) {
+            assertThat(delivery.sequence() - previous - 1).isEqualTo(delivery.superseded());
+            previous = delivery.sequence();
+        }
+        assertThat(previous).isEqualTo(2L * perProducer);
+        assertThat(mailbox.published()).isEqualTo(2L * perProducer);
+        assertThat(mailbox.superseded()).isEqualTo(2L * perProducer - deliveries.size());
+    }
+}
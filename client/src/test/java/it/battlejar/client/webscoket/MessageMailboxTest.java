@@ -0,0 +1,119 @@
+package it.battlejar.client.webscoket;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageMailboxTest {
+
+    private static final String PING = "{\"type\":\"ping\",\"id\":\"1\",\"timestamp\":1}";
+
+    @Test
+    void newEntitiesFrameShouldSupersedePendingFrameAndDeltas() throws InterruptedException {
+        // given
+        MessageMailbox mailbox = new MessageMailbox();
+        String latest = entities(3);
+        List<Object> drained = new ArrayList<>();
+
+        // when
+        mailbox.offer(entities(1));
+        mailbox.offer(delta(2));
+        mailbox.offer(PING);
+        mailbox.offer(latest);
+        String laterDelta = delta(4);
+        mailbox.offer(laterDelta);
+        mailbox.drainTo(drained, 10, 0, TimeUnit.SECONDS);
+
+        // then
+        assertThat(drained).containsExactly(PING, latest, laterDelta);
+        assertThat(mailbox.received()).isEqualTo(5);
+        assertThat(mailbox.droppedEntities()).isEqualTo(1);
+        assertThat(mailbox.droppedDeltas()).isEqualTo(1);
+    }
+
+    @Test
+    void entitiesFrameShouldNotCountAsDroppedOnceDrained() throws InterruptedException {
+        // given
+        MessageMailbox mailbox = new MessageMailbox();
+        List<Object> drained = new ArrayList<>();
+
+        // when
+        mailbox.offer(entities(1));
+        mailbox.drainTo(drained, 10, 0, TimeUnit.SECONDS);
+        mailbox.offer(entities(2));
+        mailbox.drainTo(drained, 10, 0, TimeUnit.SECONDS);
+
+        // then
+        assertThat(drained).containsExactly(entities(1), entities(2));
+        assertThat(mailbox.droppedEntities()).isZero();
+    }
+
+    @Test
+    void fullMailboxShouldResumeOnceDrained() throws InterruptedException {
+        // given
+        MessageMailbox mailbox = new MessageMailbox(2);
+        AtomicInteger resumed = new AtomicInteger();
+        mailbox.onRoom(resumed::incrementAndGet);
+        List<Object> drained = new ArrayList<>();
+
+        // when
+        boolean roomAfterFirst = mailbox.offer(PING);
+        boolean roomAfterSecond = mailbox.offer(PING);
+        mailbox.drainTo(drained, 1, 0, TimeUnit.SECONDS);
+        mailbox.drainTo(drained, 1, 0, TimeUnit.SECONDS);
+
+        // then
+        assertThat(roomAfterFirst).isTrue();
+        assertThat(roomAfterSecond).isFalse();
+        assertThat(resumed.get()).isEqualTo(1);
+        assertThat(drained).hasSize(2);
+    }
+
+    @Test
+    void offerPastFullMailboxShouldNotWaitForConsumer() throws InterruptedException {
+        // given
+        MessageMailbox mailbox = new MessageMailbox(2);
+        List<Object> drained = new ArrayList<>();
+
+        // when - twice the capacity fits without the consumer, then messages are dropped
+        List<Boolean> room = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            room.add(mailbox.offer(PING));
+        }
+        mailbox.drainTo(drained, 10, 0, TimeUnit.SECONDS);
+
+        // then
+        assertThat(room).containsExactly(true, false, false, false, false);
+        assertThat(drained).hasSize(4);
+    }
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    void drainShouldWaitForMessage(WaitStrategy strategy) throws InterruptedException {
+        // given
+        MessageMailbox mailbox = new MessageMailbox(MessageMailbox.DEFAULT_CAPACITY, strategy);
+        List<Object> drained = new ArrayList<>();
+        Thread.ofVirtual().start(() -> mailbox.offer(PING));
+
+        // when
+        mailbox.drainTo(drained, 10, 5, TimeUnit.SECONDS);
+
+        // then
+        assertThat(drained).containsExactly(PING);
+    }
+
+    private static String entities(int sequence) {
+        return "{\"type\":\"entities\",\"sequence\":" + sequence + ",\"entities\":[]}";
+    }
+
+    private static String delta(int sequence) {
+        return "{\"type\":\"delta\",\"sequence\":" + sequence + "}";
+    }
+}
@@ -0,0 +1,430 @@
+package it.battlejar.client.webscoket;
+
+import it.battlejar.api.Order;
+import it.battlejar.api.OrderType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderStoreTest {
+
+    @Test
+    void shouldKeepOnlyLatestCoalescedOrderPerEntityAndType() {
+        // given
+        OrderStore store = new OrderStore();
+        Order staleMove = new Order("RED-01", OrderType.MOVE, "1,1");
+        Order otherEntityMove = new Order("RED-02", OrderType.MOVE, "2,2");
+        Order latestMove = new Order("RED-01", OrderType.MOVE, "3,3");
+        List<Order> drained = new ArrayList<>();
+
+        // when
+        store.offer(staleMove);
+        store.offer(otherEntityMove);
+        store.offer(latestMove);
+        int count = store.drainTo(drained, 10);
+
+        // then
+        assertThat(count).isEqualTo(2);
+        assertThat(drained).containsExactly(otherEntityMove, latestMove);
+        assertThat(store.replaced()).isEqualTo(1L);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void shouldKeepReleasedOrdersReleasedWhileReplacingWithoutBound() {
+        // given
+        OrderStore store = new OrderStore(OrderStore.DEFAULT_COALESCED, true);
+        Order dock = new Order("RED-02", OrderType.DOCK, null);
+        Order latestMove = new Order("RED-01", OrderType.MOVE, "999,999");
+        store.offer(dock);
+        store.offer(new Order("RED-01", OrderType.MOVE, "0,0"));
+        store.flush();
+        List<Order> released = new ArrayList<>();
+        List<Order> flushed = new ArrayList<>();
+
+        // when - replacements leave empty slots behind, compacted as they pile up
+        for (int i = 1; i < 999; i++) {
+            store.offer(new Order("RED-01", OrderType.MOVE, i + "," + i));
+        }
+        store.offer(latestMove);
+        store.drainTo(released, 10);
+        store.flush();
+        store.drainTo(flushed, 10);
+
+        // then
+        assertThat(released).containsExactly(dock);
+        assertThat(flushed).containsExactly(latestMove);
+        assertThat(store.replaced()).isEqualTo(999L);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void shouldNeverCoalesceMissiles() {
+        // given
+        OrderStore store = new OrderStore();
+        Order first = new Order("RED-01", OrderType.FIRE_MISSILE, "1,1");
+        Order second = new Order("RED-01", OrderType.FIRE_MISSILE, "1,1");
+        List<Order> drained = new ArrayList<>();
+
+        // when
+        store.offer(first);
+        store.offer(second);
+        store.drainTo(drained, 10);
+
+        // then
+        assertThat(drained).containsExactly(first, second);
+        assertThat(store.replaced()).isZero();
+    }
+
+    @Test
+    void shouldKeepSequenceOfDifferentOrdersForAnEntity() {
+        // given
+        OrderStore store = new OrderStore();
+        Order move = new Order("RED-01", OrderType.MOVE, "1,1");
+        Order dock = new Order("RED-01", OrderType.DOCK, null);
+        Order moveAgain = new Order("RED-01", OrderType.MOVE, "2,2");
+        List<Order> drained = new ArrayList<>();
+
+        // when
+        store.offer(move);
+        store.offer(dock);
+        store.offer(moveAgain);
+        store.drainTo(drained, 10);
+
+        // then - the newest move still comes after the dock
+        assertThat(drained).containsExactly(dock, moveAgain);
+    }
+
+    @Test
+    void shouldCoalesceOnlyConfiguredTypes() {
+        // given
+        OrderStore store = new OrderStore(Set.of(), false);
+        Order first = new Order("RED-01", OrderType.MOVE, "1,1");
+        Order second = new Order("RED-01", OrderType.MOVE, "2,2");
+        List<Order> drained = new ArrayList<>();
+
+        // when
+        store.offer(first);
+        store.offer(second);
+        store.drainTo(drained, 10);
+
+        // then
+        assertThat(drained).containsExactly(first, second);
+    }
+
+    @Test
+    void shouldDrainUpToMax() {
+        // given
+        OrderStore store = new OrderStore();
+        store.offer(new Order("RED-01", OrderType.MOVE, "1,1"));
+        store.offer(new Order("RED-02", OrderType.MOVE, "1,1"));
+        store.offer(new Order("RED-03", OrderType.MOVE, "1,1"));
+        List<Order> drained = new ArrayList<>();
+
+        // when
+        int count = store.drainTo(drained, 2);
+
+        // then
+        assertThat(count).isEqualTo(2);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void gatedStoreShouldReleaseOrdersOnlyOnFlush() {
+        // given
+        OrderStore store = new OrderStore(OrderStore.DEFAULT_COALESCED, true);
+        Order flushed = new Order("RED-01", OrderType.ATTACK, null);
+        Order later = new Order("RED-02", OrderType.ATTACK, null);
+        List<Order> beforeFlush = new ArrayList<>();
+        List<Order> afterFlush = new ArrayList<>();
+
+        // when
+        boolean sendable = store.offer(flushed);
+        store.drainTo(beforeFlush, 10);
+        boolean pending = store.flush();
+        store.offer(later);
+        store.drainTo(afterFlush, 10);
+
+        // then
+        assertThat(sendable).isFalse();
+        assertThat(pending).isTrue();
+        assertThat(beforeFlush).isEmpty();
+        assertThat(afterFlush).containsExactly(flushed);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void coalescedOrderShouldBeSendableAgainAfterDrain() {
+        // given
+        OrderStore store = new OrderStore();
+        Order first = new Order("RED-01", OrderType.TARGET, "RED-02");
+        Order second = new Order("RED-01", OrderType.TARGET, "RED-03");
+        List<Order> drained = new ArrayList<>();
+
+        // when
+        store.offer(first);
+        store.drainTo(drained, 10);
+        store.offer(second);
+        store.drainTo(drained, 10);
+
+        // then
+        assertThat(drained).containsExactly(first, second);
+        assertThat(store.replaced()).isZero();
+    }
+
+    @Test
+    void urgentOrdersShouldBeDrainedAheadOfBulkOrders() {
+        // given
+        OrderStore store = new OrderStore();
+        Order move = new Order("RED-01", OrderType.MOVE, "1,1");
+        Order patrol = new Order("RED-02", OrderType.PATROL, null);
+        Order attack = new Order("RED-03", OrderType.ATTACK, null);
+        List<Order> urgent = new ArrayList<>();
+        List<Order> all = new ArrayList<>();
+
+        // when
+        store.offer(move);
+        store.offer(patrol);
+        store.offer(attack);
+        store.drainTo(OutboundLane.URGENT, urgent, 10);
+        store.offer(attack);
+        store.drainTo(all, 10);
+
+        // then
+        assertThat(urgent).containsExactly(attack);
+        assertThat(all).containsExactly(attack, move, patrol);
+    }
+
+    @Test
+    void urgentOrderShouldTakePendingBulkOrdersOfItsEntityAlong() {
+        // given
+        OrderStore store = new OrderStore();
+        Order move = new Order("RED-01", OrderType.MOVE, "1,1");
+        Order otherMove = new Order("RED-02", OrderType.MOVE, "2,2");
+        Order fire = new Order("RED-01", OrderType.FIRE_MISSILE, null);
+        List<Order> urgent = new ArrayList<>();
+        List<Order> bulk = new ArrayList<>();
+
+        // when
+        store.offer(move);
+        store.offer(otherMove);
+        store.offer(fire);
+        store.drainTo(OutboundLane.URGENT, urgent, 10);
+        store.drainTo(OutboundLane.BULK, bulk, 10);
+
+        // then - the move still comes before the missile
+        assertThat(urgent).containsExactly(move, fire);
+        assertThat(bulk).containsExactly(otherMove);
+    }
+
+    @Test
+    void laterBulkOrdersShouldFollowPendingUrgentOrdersOfTheirEntity() {
+        // given
+        OrderStore store = new OrderStore();
+        Order fire = new Order("RED-01", OrderType.FIRE_MISSILE, null);
+        Order move = new Order("RED-01", OrderType.MOVE, "1,1");
+        Order otherMove = new Order("RED-02", OrderType.MOVE, "2,2");
+        List<Order> bulk = new ArrayList<>();
+        List<Order> urgent = new ArrayList<>();
+
+        // when - the sender takes bulk orders first
+        store.offer(fire);
+        store.offer(move);
+        store.offer(otherMove);
+        store.drainTo(OutboundLane.BULK, bulk, 10);
+        store.drainTo(OutboundLane.URGENT, urgent, 10);
+
+        // then - the move was not sent ahead of the missile
+        assertThat(bulk).containsExactly(otherMove);
+        assertThat(urgent).containsExactly(fire, move);
+    }
+
+    @Test
+    void replacingPromotedOrderShouldKeepItInTheUrgentLane() {
+        // given
+        OrderStore store = new OrderStore();
+        Order fire = new Order("RED-01", OrderType.FIRE_MISSILE, null);
+        Order latestMove = new Order("RED-01", OrderType.MOVE, "2,2");
+        List<Order> bulk = new ArrayList<>();
+        List<Order> urgent = new ArrayList<>();
+        store.offer(new Order("RED-01", OrderType.MOVE, "1,1"));
+        store.offer(fire);
+
+        // when - the move promoted by the missile is replaced
+        store.offer(latestMove);
+        store.drainTo(OutboundLane.BULK, bulk, 10);
+        store.drainTo(OutboundLane.URGENT, urgent, 10);
+
+        // then
+        assertThat(store.replaced()).isEqualTo(1L);
+        assertThat(bulk).isEmpty();
+        assertThat(urgent).containsExactly(fire, latestMove);
+    }
+
+    @Test
+    void bulkOrdersShouldGoBackToTheBulkLaneOnceUrgentOnesAreDrained() {
+        // given
+        OrderStore store = new OrderStore();
+        Order move = new Order("RED-01", OrderType.MOVE, "1,1");
+        List<Order> urgent = new ArrayList<>();
+        List<Order> bulk = new ArrayList<>();
+        store.offer(new Order("RED-01", OrderType.FIRE_MISSILE, null));
+        store.drainTo(OutboundLane.URGENT, urgent, 10);
+
+        // when
+        store.offer(move);
+        store.drainTo(OutboundLane.BULK, bulk, 10);
+
+        // then
+        assertThat(bulk).containsExactly(move);
+        assertThat(store.laneStats(OutboundLane.URGENT).queued()).isZero();
+    }
+
+    @Test
+    void coalescePolicyShouldDropBulkOrdersBeforeUrgentOnes() {
+        // given
+        OrderStore store = new OrderStore(OrderStore.DEFAULT_COALESCED, false, 2, Backpressure.COALESCE);
+        Order first = new Order("RED-01", OrderType.ATTACK, null);
+        Order third = new Order("RED-03", OrderType.FIRE_MISSILE, null);
+        List<Order> drained = new ArrayList<>();
+
+        // when
+        store.offer(first);
+        store.offer(new Order("RED-02", OrderType.MOVE, "1,1"));
+        store.offer(third);
+        store.drainTo(drained, 10);
+
+        // then
+        assertThat(drained).containsExactly(first, third);
+        assertThat(store.dropped()).isEqualTo(1L);
+    }
+
+    @Test
+    void laneStatsShouldReportDispatchedAndQueuedOrders() {
+        // given
+        OrderStore store = new OrderStore(Set.of(), Set.of(OrderType.FIRE_MISSILE), false, 10, Backpressure.DROP);
+        store.offer(new Order("RED-01", OrderType.ATTACK, null));
+        store.offer(new Order("RED-02", OrderType.FIRE_MISSILE, null));
+        store.offer(new Order("RED-03", OrderType.MOVE, "1,1"));
+
+        // when
+        store.drainTo(OutboundLane.URGENT, new ArrayList<>(), 10);
+        LaneStats urgent = store.laneStats(OutboundLane.URGENT);
+        LaneStats bulk = store.laneStats(OutboundLane.BULK);
+
+        // then
+        assertThat(urgent.dispatched()).isEqualTo(1L);
+        assertThat(urgent.queued()).isZero();
+        assertThat(bulk.dispatched()).isZero();
+        assertThat(bulk.queued()).isEqualTo(2);
+    }
+
+    @Test
+    void dropPolicyShouldRejectNewOrdersWhenFull() {
+        // given
+        OrderStore store = new OrderStore(OrderStore.DEFAULT_COALESCED, false, 2, Backpressure.DROP);
+        Order first = new Order("RED-01", OrderType.ATTACK, null);
+        Order second = new Order("RED-02", OrderType.ATTACK, null);
+        List<Order> drained = new ArrayList<>();
+
+        // when
+        store.offer(first);
+        store.offer(second);
+        boolean accepted = store.offer(new Order("RED-03", OrderType.ATTACK, null));
+        store.drainTo(drained, 10);
+
+        // then
+        assertThat(accepted).isFalse();
+        assertThat(drained).containsExactly(first, second);
+        assertThat(store.dropped()).isEqualTo(1L);
+    }
+
+    @Test
+    void coalescePolicyShouldDropOldestWhenFull() {
+        // given
+        OrderStore store = new OrderStore(OrderStore.DEFAULT_COALESCED, false, 2, Backpressure.COALESCE);
+        Order second = new Order("RED-02", OrderType.ATTACK, null);
+        Order third = new Order("RED-03", OrderType.ATTACK, null);
+        List<Order> drained = new ArrayList<>();
+
+        // when
+        store.offer(new Order("RED-01", OrderType.ATTACK, null));
+        store.offer(second);
+        store.offer(third);
+        store.drainTo(drained, 10);
+
+        // then
+        assertThat(drained).containsExactly(second, third);
+        assertThat(store.dropped()).isEqualTo(1L);
+    }
+
+    @Test
+    void replacingShouldNotCountAgainstCapacity() {
+        // given
+        OrderStore store = new OrderStore(OrderStore.DEFAULT_COALESCED, false, 1, Backpressure.DROP);
+        Order latest = new Order("RED-01", OrderType.MOVE, "2,2");
+        List<Order> drained = new ArrayList<>();
+
+        // when
+        store.offer(new Order("RED-01", OrderType.MOVE, "1,1"));
+        boolean accepted = store.offer(latest);
+        store.drainTo(drained, 10);
+
+        // then
+        assertThat(accepted).isTrue();
+        assertThat(drained).containsExactly(latest);
+        assertThat(store.dropped()).isZero();
+    }
+
+    @Test
+    void blockPolicyShouldWaitUntilSenderMakesRoom() throws InterruptedException {
+        // given
+        OrderStore store = new OrderStore(OrderStore.DEFAULT_COALESCED, true, 1, Backpressure.BLOCK);
+        AtomicBoolean blocked = new AtomicBoolean();
+        store.onBlocked(() -> blocked.set(true));
+        Order first = new Order("RED-01", OrderType.ATTACK, null);
+        Order second = new Order("RED-02", OrderType.ATTACK, null);
+        store.offer(first);
+        List<Order> drained = new ArrayList<>();
+
+        // when
+        Thread commander = Thread.ofVirtual().start(() -> store.offer(second));
+        while (!blocked.get()) {
+            Thread.onSpinWait();
+        }
+        store.drainTo(drained, 10); // the full gated store is released without a flush
+        commander.join(5000);
+
+        // then
+        assertThat(commander.isAlive()).isFalse();
+        assertThat(drained).containsExactly(first);
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.dropped()).isZero();
+    }
+
+    @Test
+    void closeShouldReleaseBlockedOffer() throws InterruptedException {
+        // given
+        OrderStore store = new OrderStore(OrderStore.DEFAULT_COALESCED, false, 1, Backpressure.BLOCK);
+        AtomicBoolean blocked = new AtomicBoolean();
+        store.onBlocked(() -> blocked.set(true));
+        store.offer(new Order("RED-01", OrderType.ATTACK, null));
+
+        // when
+        Thread commander = Thread.ofVirtual().start(() -> store.offer(new Order("RED-02", OrderType.ATTACK, null)));
+        while (!blocked.get()) {
+            Thread.onSpinWait();
+        }
+        store.close();
+        commander.join(5000);
+
+        // then
+        assertThat(commander.isAlive()).isFalse();
+        assertThat(store.dropped()).isEqualTo(1L);
+    }
+}
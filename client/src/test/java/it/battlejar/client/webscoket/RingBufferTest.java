@@ -0,0 +1,183 @@
+package it.battlejar.client.webscoket;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RingBufferTest {
+
+    @Test
+    void shouldRoundCapacityUpToPowerOfTwo() {
+        // when
+        RingBuffer<String> buffer = new RingBuffer<>(5, WaitStrategy.PARK);
+
+        // then
+        assertThat(buffer.capacity()).isEqualTo(8);
+        assertThatThrownBy(() -> new RingBuffer<>(0, WaitStrategy.PARK)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRejectOffersWhenFullAndAcceptThemOnceDrained() {
+        // given
+        RingBuffer<String> buffer = new RingBuffer<>(2, WaitStrategy.PARK);
+        List<String> drained = new ArrayList<>();
+
+        // when
+        boolean first = buffer.offer("first");
+        boolean second = buffer.offer("second");
+        boolean whenFull = buffer.offer("third");
+        String polled = buffer.poll();
+        boolean afterPoll = buffer.offer("fourth");
+        buffer.drainTo(drained, 10);
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(whenFull).isFalse();
+        assertThat(polled).isEqualTo("first");
+        assertThat(afterPoll).isTrue();
+        assertThat(drained).containsExactly("second", "fourth");
+        assertThat(buffer.isEmpty()).isTrue();
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    void drainShouldStopAtMax() {
+        // given
+        RingBuffer<Integer> buffer = new RingBuffer<>(4, WaitStrategy.PARK);
+        List<Integer> drained = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            buffer.offer(i);
+        }
+
+        // when
+        int count = buffer.drainTo(drained, 3);
+
+        // then
+        assertThat(count).isEqualTo(3);
+        assertThat(drained).containsExactly(0, 1, 2);
+        assertThat(buffer.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepOrderAcrossWrapAround() {
+        // given
+        RingBuffer<Integer> buffer = new RingBuffer<>(4, WaitStrategy.PARK);
+        List<Integer> drained = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            buffer.offer(i);
+            buffer.offer(i + 100);
+            drained.add(buffer.poll());
+            drained.add(buffer.poll());
+        }
+        buffer.drainTo(drained, 10);
+
+        // then
+        assertThat(drained).hasSize(20).startsWith(0, 100, 1, 101);
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    void awaitShouldTimeOutWhenNothingIsOffered() throws InterruptedException {
+        // given
+        RingBuffer<String> buffer = new RingBuffer<>(4, WaitStrategy.PARK);
+
+        // when
+        boolean available = buffer.await(10, TimeUnit.MILLISECONDS);
+
+        // then
+        assertThat(available).isFalse();
+    }
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    void consumerShouldReceiveEveryElementInOrder(WaitStrategy strategy) throws InterruptedException {
+        // given
+        int count = 1_000;
+        RingBuffer<Integer> buffer = new RingBuffer<>(256, strategy);
+        List<Integer> received = new ArrayList<>(count);
+        Thread consumer = Thread.ofPlatform().start(() -> {
+            try {
+                while (received.size() < count && buffer.await(5, TimeUnit.SECONDS)) {
+                    buffer.drainTo(received, 256);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // when
+        for (int i = 0; i < count; i++) {
+            while (!buffer.offer(i)) {
+                Thread.yield(); // a spinning consumer may share the core
+            }
+        }
+        consumer.join(10_000);
+
+        // then
+        assertThat(consumer.isAlive()).isFalse();
+        assertThat(received).hasSize(count);
+        for (int i = 0; i < count; i++) {
+            assertThat(received.get(i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void drainShouldHandBackStamps() {
+        // given
+        RingBuffer<String> buffer = new RingBuffer<>(4, WaitStrategy.PARK);
+        buffer.offer("first", 10);
+        buffer.offer("second", 20);
+        String[] elements = new String[3];
+        long[] stamps = new long[3];
+
+        // when
+        int count = buffer.drainTo(elements, stamps, 1, 2);
+
+        // then
+        assertThat(count).isEqualTo(2);
+        assertThat(elements).containsExactly(null, "first", "second");
+        assertThat(stamps).containsExactly(0, 10, 20);
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    void consumerShouldReceiveEveryElementFromSeveralProducers() throws InterruptedException {
+        // given
+        int perProducer = 10_000;
+        RingBuffer<Integer> buffer = new RingBuffer<>(64, WaitStrategy.PARK);
+        List<Integer> received = new ArrayList<>(2 * perProducer);
+
+        // when - the first producer offers 0..n-1, the second n..2n-1
+        Thread first = Thread.ofPlatform().start(() -> produce(buffer, 0, perProducer));
+        Thread second = Thread.ofPlatform().start(() -> produce(buffer, perProducer, 2 * perProducer));
+        while (received.size() < 2 * perProducer && buffer.await(5, TimeUnit.SECONDS)) {
+            buffer.drainTo(received, 64);
+        }
+        first.join();
+        second.join();
+
+        // then - every element once, each producer's in the order it offered them
+        assertThat(received).hasSize(2 * perProducer);
+        assertThat(received.stream().filter(value -> value < perProducer).toList()).isSorted().hasSize(perProducer);
+        assertThat(received.stream().filter(value -> value >= perProducer).toList()).isSorted().hasSize(perProducer);
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    private static void produce(RingBuffer<Integer> buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            while (!buffer.offer(i)) {
+                Thread.yield();
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package it.battlejar.client.webscoket;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SendPipelineTest {
+
+    @Test
+    void shouldChainSendsSoThatOnlyOneIsPending() throws InterruptedException {
+        // given
+        FakeWebSocket webSocket = new FakeWebSocket();
+        SendPipeline pipeline = new SendPipeline(UUID.randomUUID(), webSocket, 4);
+
+        // when
+        pipeline.send("first");
+        pipeline.send("second");
+        pipeline.send("third");
+
+        // then
+        assertThat(webSocket.texts).containsExactly("first");
+        assertThat(pipeline.inFlight()).isEqualTo(3);
+
+        webSocket.completeNext();
+        assertThat(webSocket.texts).containsExactly("first", "second");
+        webSocket.completeNext();
+        webSocket.completeNext();
+        assertThat(webSocket.texts).containsExactly("first", "second", "third");
+        assertThat(pipeline.inFlight()).isZero();
+        assertThat(pipeline.sent()).isEqualTo(3);
+    }
+
+    @Test
+    void bufferShouldOnlyBeReusedAfterItsSendCompleted() throws InterruptedException {
+        // given
+        FakeWebSocket webSocket = new FakeWebSocket();
+        SendPipeline pipeline = new SendPipeline(UUID.randomUUID(), webSocket, 2);
+        StringBuilder first = pipeline.acquire().append("first");
+        pipeline.send(first);
+
+        // when
+        StringBuilder whileSending = pipeline.acquire();
+        pipeline.send(whileSending.append("second"));
+        webSocket.completeNext();
+        StringBuilder afterSent = pipeline.acquire();
+
+        // then
+        assertThat(whileSending).isNotSameAs(first);
+        assertThat(afterSent).isSameAs(first);
+        assertThat(afterSent.length()).isZero();
+    }
+
+    @Test
+    void failedSendShouldNotHoldBackLaterSends() throws InterruptedException {
+        // given
+        FakeWebSocket webSocket = new FakeWebSocket();
+        SendPipeline pipeline = new SendPipeline(UUID.randomUUID(), webSocket, 4);
+        pipeline.send("lost");
+        pipeline.send("next");
+
+        // when
+        webSocket.failNext();
+        webSocket.completeNext();
+
+        // then
+        assertThat(webSocket.texts).containsExactly("lost", "next");
+        assertThat(pipeline.failed()).isEqualTo(1);
+        assertThat(pipeline.sent()).isEqualTo(1);
+        assertThat(pipeline.inFlight()).isZero();
+    }
+
+    // completes sends on demand and fails like the JDK WebSocket when sending while a send is pending
+    private static class FakeWebSocket implements WebSocket {
+        private final List<String> texts = new ArrayList<>();
+        private final List<CompletableFuture<WebSocket>> pending = new ArrayList<>();
+
+        @Override
+        public CompletableFuture<WebSocket> sendText(CharSequence data, boolean last) {
+            if (!pending.isEmpty()) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Send pending"));
+            }
+            texts.add(data.toString());
+            CompletableFuture<WebSocket> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        }
+
+        void completeNext() {
+            pending.removeFirst().complete(this);
+        }
+
+        void failNext() {
+            pending.removeFirst().completeExceptionally(new IllegalStateException("Output closed"));
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> sendBinary(ByteBuffer data, boolean last) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> sendPing(ByteBuffer message) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> sendPong(ByteBuffer message) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> sendClose(int statusCode, String reason) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public String getSubprotocol() {
+            return "";
+        }
+
+        @Override
+        public boolean isOutputClosed() {
+            return false;
+        }
+
+        @Override
+        public boolean isInputClosed() {
+            return false;
+        }
+
+        @Override
+        public void abort() {
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package it.battlejar.client.webscoket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimerWheelTest {
+
+    private static final long TICK = 10;
+
+    @Test
+    void shouldRunDueTasksInOrder() {
+        // given
+        TimerWheel wheel = new TimerWheel(TICK, 8, 0);
+        List<String> run = new ArrayList<>();
+        wheel.schedule(0, 50, () -> run.add("third"));
+        wheel.schedule(0, 10, () -> run.add("first"));
+        wheel.schedule(0, 20, () -> run.add("second"));
+        wheel.schedule(0, 500, () -> run.add("later"));
+
+        // when
+        int early = wheel.advance(5);
+        int due = wheel.advance(55);
+
+        // then
+        assertThat(early).isZero();
+        assertThat(due).isEqualTo(3);
+        assertThat(run).containsExactly("first", "second", "third");
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepTasksFurtherThanOneTurnUntilDue() {
+        // given
+        TimerWheel wheel = new TimerWheel(TICK, 4, 0);
+        List<Long> run = new ArrayList<>();
+        wheel.schedule(0, 90, () -> run.add(90L)); // shares a bucket with tick 1
+        wheel.schedule(0, 10, () -> run.add(10L));
+
+        // when
+        wheel.advance(15);
+        List<Long> afterFirstTurn = List.copyOf(run);
+        wheel.advance(95);
+
+        // then
+        assertThat(afterFirstTurn).containsExactly(10L);
+        assertThat(run).containsExactly(10L, 90L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void nanosUntilNextShouldPointAtNearestTask() {
+        // given
+        TimerWheel wheel = new TimerWheel(TICK, 8, 0);
+
+        // when
+        long empty = wheel.nanosUntilNext(0);
+        wheel.schedule(0, 30, () -> { });
+        long pending = wheel.nanosUntilNext(5);
+
+        // then
+        assertThat(empty).isEqualTo(Long.MAX_VALUE);
+        assertThat(pending).isEqualTo(25);
+    }
+
+    @Test
+    void taskShouldRescheduleItself() {
+        // given
+        TimerWheel wheel = new TimerWheel(TICK, 8, 0);
+        List<Long> run = new ArrayList<>();
+        long[] now = {0};
+        Runnable[] heartbeat = new Runnable[1];
+        heartbeat[0] = () -> {
+            run.add(now[0]);
+            wheel.schedule(now[0], 20, heartbeat[0]);
+        };
+        wheel.schedule(0, 20, heartbeat[0]);
+
+        // when
+        for (now[0] = 0; now[0] <= 100; now[0] += 10) {
+            wheel.advance(now[0]);
+        }
+
+        // then
+        assertThat(run).containsExactly(20L, 40L, 60L, 80L, 100L);
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void taskScheduledWhileAdvancingShouldWaitForNextAdvance() {
+        // given
+        TimerWheel wheel = new TimerWheel(TICK, 8, 0);
+        List<String> run = new ArrayList<>();
+        wheel.schedule(0, 10, () -> {
+            run.add("first");
+            wheel.schedule(10, 0, () -> run.add("second"));
+        });
+
+        // when
+        int firstAdvance = wheel.advance(10);
+        List<String> afterFirst = List.copyOf(run);
+        int secondAdvance = wheel.advance(10);
+
+        // then
+        assertThat(firstAdvance).isEqualTo(1);
+        assertThat(afterFirst).containsExactly("first");
+        assertThat(secondAdvance).isZero();
+        assertThat(wheel.advance(20)).isEqualTo(1);
+        assertThat(run).containsExactly("first", "second");
+    }
+
+    @Test
+    void shouldRejectInvalidWheel() {
+        assertThatThrownBy(() -> new TimerWheel(0, 8, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TimerWheel(TICK, 0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,212 @@
+package it.battlejar.client.webscoket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import it.battlejar.api.Entities;
+import it.battlejar.api.Entity;
+import it.battlejar.api.Order;
+import it.battlejar.api.OrderType;
+import it.battlejar.api.Orders;
+import it.battlejar.api.Ping;
+import it.battlejar.api.Pong;
+import it.battlejar.api.WebSocketMessage;
+import it.battlejar.api.serialization.StringTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WebSocketGameClientTest {
+
+    private static final Entity RED = new Entity("RED-1", Entity.Type.FIGHTER, "RED", 1.5f, 2f, 3f, 4f, "false", 0f, 0f, 2, "OK");
+
+    private final StringTable strings = new StringTable(64);
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .registerModule(new EntityJacksonModule(strings));
+    private final WebSocketMessageDecoder decoder = new WebSocketMessageDecoder(objectMapper, strings);
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final WebSocket webSocket = mock(WebSocket.class);
+    private WebSocket.Listener listener;
+    private ExecutorService executorService;
+
+    @BeforeEach
+    void setUp() {
+        // the WebSocket completes every send at once and records its text; the listener is fed by the tests
+        when(webSocket.sendText(any(), anyBoolean())).thenAnswer(invocation -> {
+            sent.add(invocation.getArgument(0).toString());
+            return CompletableFuture.completedFuture(webSocket);
+        });
+        when(webSocket.sendClose(anyInt(), anyString())).thenReturn(CompletableFuture.completedFuture(webSocket));
+        executorService = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.close();
+    }
+
+    @Test
+    void eventLoopShouldHandFramesToProcessorAndSendItsOrders() throws Exception {
+        // given
+        Order fire = new Order("RED-1", OrderType.FIRE_MISSILE, null);
+        List<Entities> frames = new CopyOnWriteArrayList<>();
+        try (WebSocketGameClient client = connect(new OrderStore())) {
+            Thread loop = Thread.ofVirtual().start(() -> client.runEventLoop(delivery -> {
+                frames.add(delivery.value());
+                client.sendOrder(fire);
+                return true;
+            }));
+
+            // when
+            Entities entities = new Entities(Instant.ofEpochSecond(1), List.of(RED), "RUNNING");
+            listener.onText(webSocket, objectMapper.writerFor(WebSocketMessage.class).writeValueAsString(entities), true);
+
+            // then - the frame reached the commander and its order the WebSocket, all on the loop's thread
+            assertThat(awaitSent(fire::equals)).isTrue();
+            assertThat(frames).containsExactly(entities);
+            client.close();
+            loop.join(5000);
+            assertThat(loop.isAlive()).isFalse();
+        }
+    }
+
+    @Test
+    void eventLoopShouldAnswerPings() throws Exception {
+        // given
+        Ping ping = new Ping("p-1", System.currentTimeMillis());
+        try (WebSocketGameClient client = connect(new OrderStore())) {
+            Thread loop = Thread.ofVirtual().start(() -> client.runEventLoop(delivery -> true));
+
+            // when
+            listener.onText(webSocket, objectMapper.writerFor(WebSocketMessage.class).writeValueAsString(ping), true);
+
+            // then
+            assertThat(awaitSent(new Pong(ping.id(), ping.timestamp())::equals)).isTrue();
+            client.close();
+            loop.join(5000);
+            assertThat(loop.isAlive()).isFalse();
+        }
+    }
+
+    @Test
+    void priorityTextsShouldWaitForRoomWhenTheirQueueIsFull() throws Exception {
+        // given
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < WebSocketGameClient.TEXT_QUEUE_CAPACITY + 50; i++) {
+            texts.add("text-" + i);
+        }
+        try (WebSocketGameClient client = connect(new OrderStore())) {
+            Thread producer = Thread.ofVirtual().start(() -> texts.forEach(client::sendPriorityText));
+            producer.join(100);
+
+            // when - the producer waits for the sender rather than dropping texts
+            assertThat(producer.isAlive()).isTrue();
+            Thread loop = Thread.ofVirtual().start(() -> client.runEventLoop(delivery -> true));
+            producer.join(5000);
+
+            // then - all of them, in order
+            assertThat(producer.isAlive()).isFalse();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sent.size() < texts.size() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(sent).startsWith(texts.toArray(String[]::new));
+            client.close();
+            loop.join(5000);
+        }
+    }
+
+    @Test
+    void sendTextShouldReportAFullQueue() {
+        // given
+        try (WebSocketGameClient client = connect(new OrderStore())) {
+            for (int i = 0; i < WebSocketGameClient.TEXT_QUEUE_CAPACITY; i++) {
+                assertThat(client.sendText("text-" + i)).isTrue();
+            }
+
+            // when
+            boolean queued = client.sendText("one too many");
+
+            // then
+            assertThat(queued).isFalse();
+            assertThat(client.sendStats().queuedTexts()).isEqualTo(WebSocketGameClient.TEXT_QUEUE_CAPACITY);
+        }
+    }
+
+    @Test
+    void batchedOrdersShouldBeHeldUntilFlush() throws Exception {
+        // given
+        Order first = new Order("RED-1", OrderType.MOVE, "1,2");
+        Order second = new Order("RED-2", OrderType.MOVE, "3,4");
+        OrderStore orderStore = new OrderStore(OrderStore.DEFAULT_COALESCED, true);
+        try (WebSocketGameClient client = connect(orderStore)) {
+            Thread sender = Thread.ofVirtual().start(client::processOrders);
+
+            // when
+            client.sendOrder(first);
+            client.sendOrder(second);
+            Thread.sleep(100); // a sender not waiting for the flush would have sent them by now
+
+            // then - nothing goes out before the flush, then both orders in one message
+            assertThat(sent).isEmpty();
+            assertThat(orderStore.size()).isEqualTo(2);
+            client.flushOrders();
+            assertThat(awaitSent(message -> message instanceof Orders orders
+                && List.copyOf(orders.orders()).equals(List.of(first, second)))).isTrue();
+            assertThat(sent).hasSize(1);
+            assertThat(orderStore.size()).isZero();
+            client.close();
+            sender.join(5000);
+        }
+    }
+
+    // connects through an HTTP client handing out the fake WebSocket
+    private WebSocketGameClient connect(OrderStore orderStore) {
+        HttpClient httpClient = mock(HttpClient.class);
+        WebSocket.Builder builder = mock(WebSocket.Builder.class);
+        when(httpClient.newWebSocketBuilder()).thenReturn(builder);
+        when(builder.buildAsync(any(), any())).thenAnswer(invocation -> {
+            listener = invocation.getArgument(1);
+            listener.onOpen(webSocket);
+            return CompletableFuture.completedFuture(webSocket);
+        });
+        WebSocketGameClient client = new WebSocketGameClient(UUID.randomUUID(), objectMapper, decoder, orderStore,
+            httpClient, WebSocketOptions.DEFAULT, executorService);
+        client.connect("ws://localhost/ws");
+        return client;
+    }
+
+    private boolean awaitSent(Predicate<WebSocketMessage> expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            for (String text : sent) {
+                if (expected.test(decoder.decode(text))) {
+                    return true;
+                }
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,159 @@
+package it.battlejar.client.webscoket;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import it.battlejar.api.Entities;
+import it.battlejar.api.EntitiesDelta;
+import it.battlejar.api.Entity;
+import it.battlejar.api.Order;
+import it.battlejar.api.OrderType;
+import it.battlejar.api.Orders;
+import it.battlejar.api.Ping;
+import it.battlejar.api.Pong;
+import it.battlejar.api.WebSocketMessage;
+import it.battlejar.api.serialization.EntitiesBinaryCodec;
+import it.battlejar.api.serialization.StringTable;
+import it.battlejar.client.frame.FramePool;
+import it.battlejar.client.frame.PooledFrame;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebSocketMessageDecoderTest {
+
+    private static final Entity RED = new Entity("RED-1", Entity.Type.FIGHTER, "RED", 1.5f, 2f, 3f, 4f, "false", 0f, 0f, 2, "OK");
+
+    private final StringTable strings = new StringTable(64);
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .registerModule(new EntityJacksonModule(strings));
+    private final WebSocketMessageDecoder decoder = new WebSocketMessageDecoder(objectMapper, strings);
+
+    static Stream<WebSocketMessage> messages() {
+        return Stream.of(
+            new Ping("p-1", 5L),
+            new Pong("p-1", 5L),
+            new Pong(null, 0L),
+            new Order("RED-1", OrderType.MOVE, "1,2"),
+            new Order("RED-1", OrderType.FIRE_MISSILE, null),
+            new Orders(List.of(new Order("RED-1", OrderType.MOVE, "1,2"), new Order("RED-2", OrderType.ATTACK, null))),
+            new Entities(Instant.ofEpochSecond(1792182499L, 50568699), List.of(RED), "RUNNING"),
+            EntitiesDelta.keyframe(3, Instant.ofEpochSecond(7), List.of(RED), "RUNNING")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("messages")
+    void shouldDecodeWhatTheMapperWrites(WebSocketMessage message) throws Exception {
+        // given
+        String json = objectMapper.writerFor(WebSocketMessage.class).writeValueAsString(message);
+
+        // when
+        WebSocketMessage decoded = decoder.decode(json);
+
+        // then
+        assertThat(decoded).isEqualTo(message);
+    }
+
+    @Test
+    void shouldSniffOnlyLeadingDiscriminator() {
+        // when / then
+        assertThat(WebSocketMessageDecoder.sniff("{\"type\":\"ping\",\"id\":\"a\"}")).isEqualTo(WebSocketMessageDecoder.Kind.PING);
+        assertThat(WebSocketMessageDecoder.sniff("{\"type\":\"entities\",\"entities\":[]}")).isEqualTo(WebSocketMessageDecoder.Kind.ENTITIES);
+        assertThat(WebSocketMessageDecoder.sniff("{\"type\":\"pingx\"}")).isNull();
+        assertThat(WebSocketMessageDecoder.sniff("{\"type\":\"delta\"}")).isNull();
+        assertThat(WebSocketMessageDecoder.sniff("{\"id\":\"a\",\"type\":\"ping\"}")).isNull();
+    }
+
+    @Test
+    void shouldFallBackWhenTypeIsNotFirst() throws Exception {
+        // given
+        String json = "{\"id\":\"p-1\",\"timestamp\":5,\"type\":\"pong\"}";
+
+        // when
+        WebSocketMessage decoded = decoder.decode(json);
+
+        // then
+        assertThat(decoded).isEqualTo(new Pong("p-1", 5L));
+    }
+
+    @Test
+    void shouldFallBackToGenericValidationForUnexpectedContent() {
+        // given
+        String json = "{\"type\":\"ping\",\"id\":\"p-1\",\"timestamp\":5,\"extra\":true}";
+
+        // when / then
+        assertThatThrownBy(() -> decoder.decode(json))
+            .isInstanceOf(UnrecognizedPropertyException.class);
+    }
+
+    @Test
+    void shouldCanonicalizeEntityStringsThroughSharedTable() throws Exception {
+        // given
+        String json = objectMapper.writerFor(WebSocketMessage.class)
+            .writeValueAsString(new Entities(Instant.ofEpochSecond(1), List.of(RED), "RUNNING"));
+
+        // when
+        Entities first = (Entities) decoder.decode(json);
+        Entities second = (Entities) decoder.decode(json);
+
+        // then
+        assertThat(second.entities().iterator().next().id()).isSameAs(first.entities().iterator().next().id());
+    }
+
+    @Test
+    void shouldHandleUnknownEntitiesPropertiesAsTheMapperDoes() throws Exception {
+        // given
+        String json = "{\"type\":\"entities\",\"extra\":1,\"entities\":[],\"state\":\"RUNNING\"}";
+        ObjectMapper lenientMapper = objectMapper.copy().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        WebSocketMessageDecoder lenient = new WebSocketMessageDecoder(lenientMapper, strings);
+
+        // when / then
+        assertThatThrownBy(() -> decoder.decode(json))
+            .isInstanceOf(UnrecognizedPropertyException.class);
+        assertThat(lenient.decode(json)).isEqualTo(new Entities(null, List.of(), "RUNNING"));
+    }
+
+    @Test
+    void shouldReadEntitiesThroughTheMapperWithoutStringTable() throws Exception {
+        // given
+        WebSocketMessageDecoder mapperOnly = new WebSocketMessageDecoder(objectMapper);
+        String json = objectMapper.writerFor(WebSocketMessage.class)
+            .writeValueAsString(new Entities(Instant.ofEpochSecond(1), List.of(RED), "RUNNING"));
+
+        // when
+        Entities decoded = (Entities) mapperOnly.decode(json);
+
+        // then - canonicalized by the table of the mapper's module
+        assertThat(decoded.entities().iterator().next().id()).isSameAs(strings.canonicalize("RED-1"));
+        assertThat(mapperOnly.newIncrementalDecoder()).isNull();
+    }
+
+    @Test
+    void shouldDecodeEntitiesIntoPooledFrames() throws Exception {
+        // given
+        FramePool pool = new FramePool();
+        WebSocketMessageDecoder pooling = new WebSocketMessageDecoder(objectMapper, strings, pool);
+        Entities entities = new Entities(Instant.ofEpochSecond(1), List.of(RED), "RUNNING");
+        String json = objectMapper.writerFor(WebSocketMessage.class).writeValueAsString(entities);
+
+        // when
+        Entities first = (Entities) pooling.decode(json);
+        PooledFrame.release(first.entities());
+        Entities second = pooling.decodeBinary(EntitiesBinaryCodec.encode(entities));
+
+        // then
+        assertThat(second).isEqualTo(entities);
+        assertThat(second.entities()).isInstanceOf(PooledFrame.class).isSameAs(first.entities());
+        assertThat(pool.created()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,90 @@
+package it.battlejar.client.webscoket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import it.battlejar.api.Order;
+import it.battlejar.api.OrderType;
+import it.battlejar.api.Orders;
+import it.battlejar.api.Ping;
+import it.battlejar.api.Pong;
+import it.battlejar.api.WebSocketMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebSocketMessageEncoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .registerModule(new EntityJacksonModule());
+    private final WebSocketMessageEncoder encoder = new WebSocketMessageEncoder(8);
+
+    static Stream<WebSocketMessage> messages() {
+        return Stream.of(
+            new Ping("p-1", 5L),
+            new Ping("p-2", -1L),
+            new Pong("p-1", 1_700_000_000_000L),
+            new Pong(null, 0L),
+            new Order("RED-1", OrderType.MOVE, "1,2"),
+            new Order("RED-1", OrderType.FIRE_MISSILE, null),
+            new Order("RED-1", null, "x"),
+            new Order("quote\"back\\slash/", OrderType.TARGET, "tab\tnew\nline\r\b\f\u0001\u001fé€"),
+            new Orders(List.of(new Order("RED-1", OrderType.MOVE, "1,2"), new Order("RED-2", OrderType.ATTACK, null))),
+            new Orders(List.of()),
+            new Orders(Arrays.asList(new Order("RED-1", OrderType.DOCK, null), null)),
+            new Orders(null)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("messages")
+    void shouldWriteWhatTheMapperWrites(WebSocketMessage message) throws Exception {
+        // given
+        String expected = objectMapper.writeValueAsString(message);
+
+        // when
+        CharSequence encoded = switch (message) {
+            case Order order -> encoder.encode(order);
+            case Orders orders -> encoder.encode(orders);
+            case Ping ping -> encoder.encode(ping);
+            case Pong pong -> encoder.encode(pong);
+            default -> throw new IllegalArgumentException("Unsupported message: " + message);
+        };
+
+        // then
+        assertThat(encoded.toString()).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldReuseBuffer() {
+        // given
+        Order first = new Order("RED-1", OrderType.MOVE, "1,2");
+        Order second = new Order("RED-2", OrderType.TURN_XY, "3,4");
+
+        // when
+        CharSequence firstEncoded = encoder.encode(first);
+        CharSequence secondEncoded = encoder.encode(second);
+
+        // then
+        assertThat(secondEncoded).isSameAs(firstEncoded);
+        assertThat(secondEncoded.toString()).isEqualTo("{\"type\":\"order\",\"id\":\"RED-2\",\"type\":\"TURN_XY\",\"details\":\"3,4\"}");
+    }
+
+    @Test
+    void appendShouldWriteIntoGivenBuilder() {
+        // given
+        StringBuilder out = new StringBuilder("prefix:");
+
+        // when
+        WebSocketMessageEncoder.append(out, new Ping("p-1", 5L));
+
+        // then
+        assertThat(out.toString()).isEqualTo("prefix:{\"type\":\"ping\",\"id\":\"p-1\",\"timestamp\":5}");
+    }
+}
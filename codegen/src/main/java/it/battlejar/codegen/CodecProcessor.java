@@ -0,0 +1,95 @@
+package it.battlejar.codegen;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates streaming Jackson codecs for the records listed in {@link GenerateCodecs}.
+ * The generated code depends on jackson-databind only; this processor is needed at compile time only.
+ */
+@SupportedAnnotationTypes("it.battlejar.codegen.GenerateCodecs")
+public class CodecProcessor extends AbstractProcessor {
+
+    static final String MODULE_NAME = "CodecModule";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateCodecs.class)) {
+            PackageElement target = (PackageElement) element;
+            List<TypeElement> records = new ArrayList<>();
+            for (TypeElement type : listedTypes(target)) {
+                if (type.getKind() != ElementKind.RECORD) {
+                    error(target, "Codecs can only be generated for records: " + type.getQualifiedName());
+                    continue;
+                }
+                try {
+                    CodecWriter codec = new CodecWriter(target.getQualifiedName().toString(), type);
+                    write(codec.className(), codec.source(), target);
+                    records.add(type);
+                } catch (IllegalArgumentException e) {
+                    error(target, e.getMessage());
+                }
+            }
+            write(MODULE_NAME, CodecWriter.moduleSource(target.getQualifiedName().toString(), records), target);
+        }
+        return true;
+    }
+
+    // Class values are only reachable through mirrors while compiling
+    private List<TypeElement> listedTypes(PackageElement target) {
+        List<TypeElement> types = new ArrayList<>();
+        for (AnnotationMirror annotation : target.getAnnotationMirrors()) {
+            if (!((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(GenerateCodecs.class.getName())) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("value")) {
+                    for (Object value : (List<?>) entry.getValue().getValue()) {
+                        DeclaredType type = (DeclaredType) ((AnnotationValue) value).getValue();
+                        types.add((TypeElement) type.asElement());
+                    }
+                }
+            }
+        }
+        return types;
+    }
+
+    private void write(String className, String source, PackageElement target) {
+        String name = target.isUnnamed() ? className : target.getQualifiedName() + "." + className;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(name, target);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source);
+            }
+        } catch (IOException e) {
+            error(target, "Failed to write " + name + ": " + e.getMessage());
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,317 @@
+package it.battlejar.codegen;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes the source of the codec for one record.
+ * Strings, primitives and enums are read and written directly on the parser and generator;
+ * values of other types are handed to the serializer or deserializer Jackson resolves once for the component's declared type,
+ * so their configuration (e.g. modules and type information) applies unchanged.
+ */
+class CodecWriter {
+
+    private static final String JACKSON_ANNOTATIONS = "com.fasterxml.jackson.annotation.";
+    private static final String JSON_PROPERTY = JACKSON_ANNOTATIONS + "JsonProperty";
+
+    private final String packageName;
+    private final String recordName;
+    private final String simpleName;
+    private final List<Component> components = new ArrayList<>();
+    private final Set<String> enums = new LinkedHashSet<>();
+
+    CodecWriter(String packageName, TypeElement record) {
+        this.packageName = packageName;
+        this.recordName = record.getQualifiedName().toString();
+        this.simpleName = record.getSimpleName().toString();
+        for (RecordComponentElement element : record.getRecordComponents()) {
+            Component component = new Component(element.getSimpleName().toString(), propertyName(element),
+                element.asType().toString(), kind(element.asType()));
+            components.add(component);
+            if (component.kind == Kind.ENUM) {
+                enums.add(component.type);
+            }
+        }
+    }
+
+    String className() {
+        return simpleName + "Codec";
+    }
+
+    static String moduleSource(String packageName, List<TypeElement> records) {
+        StringBuilder out = new StringBuilder();
+        header(out, packageName);
+        out.append("import com.fasterxml.jackson.databind.module.SimpleModule;\n");
+        out.append("import javax.annotation.processing.Generated;\n\n");
+        out.append("/**\n * Registers the generated codecs.\n */\n");
+        out.append("@Generated(\"").append(CodecProcessor.class.getName()).append("\")\n");
+        out.append("public class ").append(CodecProcessor.MODULE_NAME).append(" extends SimpleModule {\n\n");
+        out.append("    public ").append(CodecProcessor.MODULE_NAME).append("() {\n");
+        out.append("        super(\"").append(packageName).append('.').append(CodecProcessor.MODULE_NAME).append("\");\n");
+        for (TypeElement record : records) {
+            String type = record.getQualifiedName().toString();
+            String codec = record.getSimpleName() + "Codec";
+            out.append("        addSerializer(").append(type).append(".class, new ").append(codec).append(".Serializer());\n");
+            out.append("        addDeserializer(").append(type).append(".class, new ").append(codec).append(".Deserializer());\n");
+        }
+        out.append("    }\n}\n");
+        return out.toString();
+    }
+
+    String source() {
+        StringBuilder out = new StringBuilder();
+        header(out, packageName);
+        out.append("""
+            import com.fasterxml.jackson.core.JsonGenerator;
+            import com.fasterxml.jackson.core.JsonParser;
+            import com.fasterxml.jackson.core.JsonToken;
+            import com.fasterxml.jackson.core.SerializableString;
+            import com.fasterxml.jackson.core.io.SerializedString;
+            import com.fasterxml.jackson.core.type.TypeReference;
+            import com.fasterxml.jackson.core.type.WritableTypeId;
+            import com.fasterxml.jackson.databind.DeserializationContext;
+            import com.fasterxml.jackson.databind.JsonDeserializer;
+            import com.fasterxml.jackson.databind.JsonMappingException;
+            import com.fasterxml.jackson.databind.JsonSerializer;
+            import com.fasterxml.jackson.databind.SerializerProvider;
+            import com.fasterxml.jackson.databind.deser.ResolvableDeserializer;
+            import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+            import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+            import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+            import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+            import javax.annotation.processing.Generated;
+            import java.io.IOException;
+            import java.util.HashMap;
+            import java.util.Map;
+            import java.util.Objects;
+
+            """);
+        out.append("/**\n * Streaming codec for {@link ").append(recordName).append("}.\n */\n");
+        out.append("@Generated(\"").append(CodecProcessor.class.getName()).append("\")\n");
+        out.append("public final class ").append(className()).append(" {\n\n");
+        for (Component component : components) {
+            out.append("    private static final SerializableString ").append(component.constant())
+                .append(" = new SerializedString(\"").append(component.property).append("\");\n");
+        }
+        for (Component component : components) {
+            if (component.kind == Kind.OTHER) {
+                out.append("    private static final TypeReference<").append(component.type).append("> ")
+                    .append(component.constant()).append("_TYPE = new TypeReference<>() {\n    };\n");
+            }
+        }
+        int index = 0;
+        for (String type : enums) {
+            out.append("    private static final Map<String, ").append(type).append("> ").append(enumConstant(index++))
+                .append(" = new HashMap<>();\n");
+        }
+        if (!enums.isEmpty()) {
+            out.append("\n    static {\n");
+            index = 0;
+            for (String type : enums) {
+                out.append("        for (").append(type).append(" value : ").append(type).append(".values()) {\n");
+                out.append("            ").append(enumConstant(index++)).append(".put(value.name(), value);\n");
+                out.append("        }\n");
+            }
+            out.append("    }\n");
+        }
+        out.append("\n    private ").append(className()).append("() {\n    }\n");
+        serializer(out);
+        deserializer(out);
+        index = 0;
+        for (String type : enums) {
+            out.append("\n    private static ").append(type).append(" readEnum").append(index).append("(JsonParser p, DeserializationContext ctxt) throws IOException {\n");
+            out.append("        if (p.currentToken() == JsonToken.VALUE_STRING) {\n");
+            out.append("            ").append(type).append(" value = ").append(enumConstant(index++)).append(".get(p.getText());\n");
+            out.append("            if (value != null) {\n                return value;\n            }\n        }\n");
+            out.append("        return ctxt.readValue(p, ").append(type).append(".class);\n    }\n");
+        }
+        return out.append("}\n").toString();
+    }
+
+    private void serializer(StringBuilder out) {
+        out.append("\n    /**\n     * Writes {@link ").append(recordName).append("} components in declaration order.\n     */\n");
+        out.append("    public static final class Serializer extends StdSerializer<").append(recordName).append("> implements ResolvableSerializer {\n\n");
+        for (Component component : components) {
+            if (component.kind == Kind.OTHER) {
+                out.append("        private JsonSerializer<Object> ").append(component.name).append("Serializer;\n");
+            }
+        }
+        out.append("\n        public Serializer() {\n            super(").append(recordName).append(".class);\n        }\n");
+        out.append("\n        @Override\n        public void resolve(SerializerProvider provider) throws JsonMappingException {\n");
+        for (Component component : components) {
+            if (component.kind == Kind.OTHER) {
+                out.append("            ").append(component.name).append("Serializer = provider.findTypedValueSerializer(provider.constructType(")
+                    .append(component.constant()).append("_TYPE.getType()), true, null);\n");
+            }
+        }
+        out.append("        }\n");
+        out.append("\n        @Override\n        public void serialize(").append(recordName)
+            .append(" value, JsonGenerator g, SerializerProvider provider) throws IOException {\n");
+        out.append("            g.writeStartObject(value);\n            writeFields(value, g, provider);\n            g.writeEndObject();\n        }\n");
+        out.append("\n        @Override\n        public void serializeWithType(").append(recordName)
+            .append(" value, JsonGenerator g, SerializerProvider provider, TypeSerializer typeSer) throws IOException {\n");
+        out.append("            WritableTypeId typeId = typeSer.writeTypePrefix(g, typeSer.typeId(value, JsonToken.START_OBJECT));\n");
+        out.append("            writeFields(value, g, provider);\n            typeSer.writeTypeSuffix(g, typeId);\n        }\n");
+        out.append("\n        private void writeFields(").append(recordName)
+            .append(" value, JsonGenerator g, SerializerProvider provider) throws IOException {\n");
+        for (Component component : components) {
+            out.append("            g.writeFieldName(").append(component.constant()).append(");\n");
+            String accessor = "value." + component.name + "()";
+            switch (component.kind) {
+                case STRING -> out.append("            g.writeString(").append(accessor).append(");\n");
+                case BOOLEAN -> out.append("            g.writeBoolean(").append(accessor).append(");\n");
+                case INT, LONG, FLOAT, DOUBLE -> out.append("            g.writeNumber(").append(accessor).append(");\n");
+                case ENUM -> out.append("            if (").append(accessor).append(" == null) {\n                g.writeNull();\n")
+                    .append("            } else {\n                g.writeString(").append(accessor).append(".name());\n            }\n");
+                case OTHER -> out.append("            if (").append(accessor).append(" == null) {\n                provider.defaultSerializeNull(g);\n")
+                    .append("            } else {\n                ").append(component.name).append("Serializer.serialize(")
+                    .append(accessor).append(", g, provider);\n            }\n");
+            }
+        }
+        out.append("        }\n    }\n");
+    }
+
+    private void deserializer(StringBuilder out) {
+        out.append("\n    /**\n     * Reads {@link ").append(recordName)
+            .append("} from an object, or from the properties following a type id. Missing properties get Jackson's defaults.\n     */\n");
+        out.append("    public static final class Deserializer extends StdDeserializer<").append(recordName).append("> implements ResolvableDeserializer {\n\n");
+        for (Component component : components) {
+            if (component.kind == Kind.OTHER) {
+                out.append("        private JsonDeserializer<Object> ").append(component.name).append("Deserializer;\n");
+            }
+        }
+        out.append("\n        public Deserializer() {\n            super(").append(recordName).append(".class);\n        }\n");
+        out.append("\n        @Override\n        public void resolve(DeserializationContext ctxt) throws JsonMappingException {\n");
+        for (Component component : components) {
+            if (component.kind == Kind.OTHER) {
+                out.append("            ").append(component.name).append("Deserializer = ctxt.findRootValueDeserializer(ctxt.constructType(")
+                    .append(component.constant()).append("_TYPE.getType()));\n");
+            }
+        }
+        out.append("        }\n");
+        out.append("\n        @Override\n        @SuppressWarnings(\"unchecked\")\n        public ").append(recordName)
+            .append(" deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {\n");
+        out.append("            JsonToken t = p.currentToken();\n");
+        out.append("            if (t == JsonToken.START_OBJECT) {\n                t = p.nextToken();\n            }\n");
+        for (Component component : components) {
+            out.append("            ").append(component.type).append(' ').append(component.local()).append(" = ")
+                .append(component.kind.defaultValue).append(";\n");
+        }
+        out.append("            for (; t == JsonToken.FIELD_NAME; t = p.nextToken()) {\n");
+        out.append("                String name = p.currentName();\n");
+        out.append("                t = p.nextToken();\n");
+        out.append("                switch (name) {\n");
+        for (Component component : components) {
+            out.append("                    case \"").append(component.property).append("\" -> ").append(component.local())
+                .append(" = ").append(read(component)).append(";\n");
+        }
+        out.append("                    default -> ctxt.handleUnknownProperty(p, this, handledType(), name);\n");
+        out.append("                }\n            }\n");
+        out.append("            if (t != JsonToken.END_OBJECT) {\n");
+        out.append("                return (").append(recordName).append(") ctxt.handleUnexpectedToken(handledType(), p);\n            }\n");
+        out.append("            return new ").append(recordName).append('(');
+        for (int i = 0; i < components.size(); i++) {
+            out.append(i == 0 ? "" : ", ").append(components.get(i).local());
+        }
+        out.append(");\n        }\n    }\n");
+    }
+
+    // the slow paths go through Jackson for its coercions and error reporting
+    private String read(Component component) {
+        return switch (component.kind) {
+            case STRING -> "t == JsonToken.VALUE_STRING ? p.getText() : t == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, String.class)";
+            case BOOLEAN -> "t == JsonToken.VALUE_TRUE || t != JsonToken.VALUE_FALSE && t != JsonToken.VALUE_NULL"
+                + " && Objects.requireNonNullElse(ctxt.readValue(p, Boolean.class), false)";
+            case INT -> "t == JsonToken.VALUE_NUMBER_INT ? p.getIntValue() : t == JsonToken.VALUE_NULL ? 0"
+                + " : Objects.requireNonNullElse(ctxt.readValue(p, Integer.class), 0)";
+            case LONG -> "t == JsonToken.VALUE_NUMBER_INT ? p.getLongValue() : t == JsonToken.VALUE_NULL ? 0L"
+                + " : Objects.requireNonNullElse(ctxt.readValue(p, Long.class), 0L)";
+            case FLOAT -> "t == JsonToken.VALUE_NUMBER_FLOAT || t == JsonToken.VALUE_NUMBER_INT ? p.getFloatValue()"
+                + " : t == JsonToken.VALUE_NULL ? 0f : Objects.requireNonNullElse(ctxt.readValue(p, Float.class), 0f)";
+            case DOUBLE -> "t == JsonToken.VALUE_NUMBER_FLOAT || t == JsonToken.VALUE_NUMBER_INT ? p.getDoubleValue()"
+                + " : t == JsonToken.VALUE_NULL ? 0d : Objects.requireNonNullElse(ctxt.readValue(p, Double.class), 0d)";
+            case ENUM -> "t == JsonToken.VALUE_NULL ? null : readEnum" + List.copyOf(enums).indexOf(component.type) + "(p, ctxt)";
+            case OTHER -> "(" + component.type + ") (t == JsonToken.VALUE_NULL ? " + component.name + "Deserializer.getNullValue(ctxt) : "
+                + component.name + "Deserializer.deserialize(p, ctxt))";
+        };
+    }
+
+    private static void header(StringBuilder out, String packageName) {
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+    }
+
+    private static String enumConstant(int index) {
+        return "ENUM_" + index;
+    }
+
+    private static String propertyName(RecordComponentElement element) {
+        String property = element.getSimpleName().toString();
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            String name = ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+            if (name.equals(JSON_PROPERTY)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals("value") && !entry.getValue().getValue().toString().isEmpty()) {
+                        property = entry.getValue().getValue().toString();
+                    }
+                }
+            } else if (name.startsWith(JACKSON_ANNOTATIONS)) {
+                throw new IllegalArgumentException("Unsupported annotation " + name + " on " + element.getEnclosingElement() + "." + element.getSimpleName());
+            }
+        }
+        return property;
+    }
+
+    private static Kind kind(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> Kind.BOOLEAN;
+            case INT -> Kind.INT;
+            case LONG -> Kind.LONG;
+            case FLOAT -> Kind.FLOAT;
+            case DOUBLE -> Kind.DOUBLE;
+            case DECLARED -> {
+                TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+                if (element.getQualifiedName().contentEquals("java.lang.String")) {
+                    yield Kind.STRING;
+                }
+                yield element.getKind() == ElementKind.ENUM ? Kind.ENUM : Kind.OTHER;
+            }
+            case ARRAY -> Kind.OTHER;
+            default -> throw new IllegalArgumentException("Unsupported component type: " + type);
+        };
+    }
+
+    private enum Kind {
+        BOOLEAN("false"), INT("0"), LONG("0L"), FLOAT("0f"), DOUBLE("0d"), STRING("null"), ENUM("null"), OTHER("null");
+
+        private final String defaultValue;
+
+        Kind(String defaultValue) {
+            this.defaultValue = defaultValue;
+        }
+    }
+
+    private record Component(String name, String property, String type, Kind kind) {
+
+        String constant() {
+            return "FIELD_" + name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+        }
+
+        String local() {
+            return name + "Value";
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package it.battlejar.codegen;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Requests streaming Jackson codecs for the given records, generated into the annotated package by {@link CodecProcessor}.
+ * For each record {@code Foo} a {@code FooCodec} class is generated with a {@code Serializer} and a {@code Deserializer};
+ * a {@code CodecModule} registers all of them with an {@code ObjectMapper}:
+ * <pre>
+ * &#64;GenerateCodecs({Player.class, GameSettings.class})
+ * package com.example.codec;
+ * </pre>
+ * The records do not need to be in the same module, so models can stay free of Jackson.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.PACKAGE)
+public @interface GenerateCodecs {
+
+    /**
+     * @return the records to generate codecs for
+     */
+    Class<? extends Record>[] value();
+}
@@ -0,0 +1,100 @@
+package it.battlejar.codegen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CodecProcessorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldGenerateCodecsAndModule() throws IOException {
+        // given
+        source("model/Ship.java", """
+            package model;
+            public record Ship(String id, Kind kind, float x, int missiles, java.util.List<String> tags) {
+                public enum Kind { FIGHTER, CARRIER }
+            }
+            """);
+        source("codec/package-info.java", """
+            @it.battlejar.codegen.GenerateCodecs(model.Ship.class)
+            package codec;
+            """);
+
+        // when
+        List<Diagnostic<? extends JavaFileObject>> errors = compile();
+
+        // then
+        assertThat(errors).isEmpty();
+        String codec = Files.readString(directory.resolve("generated/codec/ShipCodec.java"));
+        assertThat(codec)
+            .contains("public final class ShipCodec")
+            .contains("new SerializedString(\"missiles\")")
+            .contains("case \"kind\" -> kindValue = t == JsonToken.VALUE_NULL ? null : readEnum0(p, ctxt);")
+            .contains("private static final TypeReference<java.util.List<java.lang.String>> FIELD_TAGS_TYPE")
+            .contains("return new model.Ship(idValue, kindValue, xValue, missilesValue, tagsValue);");
+        assertThat(Files.readString(directory.resolve("generated/codec/CodecModule.java")))
+            .contains("addSerializer(model.Ship.class, new ShipCodec.Serializer());")
+            .contains("addDeserializer(model.Ship.class, new ShipCodec.Deserializer());");
+    }
+
+    @Test
+    void shouldRejectClassesThatAreNotRecords() throws IOException {
+        // given
+        source("model/Ship.java", """
+            package model;
+            public class Ship {
+            }
+            """);
+        source("codec/package-info.java", """
+            @it.battlejar.codegen.GenerateCodecs(model.Ship.class)
+            package codec;
+            """);
+
+        // when
+        List<Diagnostic<? extends JavaFileObject>> errors = compile();
+
+        // then - rejected by the annotation's bound already
+        assertThat(errors).isNotEmpty();
+        assertThat(Files.exists(directory.resolve("generated/codec/ShipCodec.java"))).isFalse();
+    }
+
+    private void source(String path, String content) throws IOException {
+        Path file = directory.resolve("src").resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    // processing only: the generated code needs Jackson to compile
+    private List<Diagnostic<? extends JavaFileObject>> compile() throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Path generated = Files.createDirectories(directory.resolve("generated"));
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, null);
+             var sources = Files.walk(directory.resolve("src"))) {
+            List<Path> paths = sources.filter(path -> path.toString().endsWith(".java")).toList();
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics,
+                List.of("-proc:only", "-s", generated.toString(), "-classpath", System.getProperty("java.class.path")),
+                null, files.getJavaFileObjectsFromPaths(paths));
+            task.setProcessors(List.of(new CodecProcessor()));
+            task.call();
+        }
+        return diagnostics.getDiagnostics().stream()
+            .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+            .toList();
+    }
+}